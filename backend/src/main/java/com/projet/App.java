@@ -6,6 +6,7 @@ package com.projet;
  * Modes d'exécution :
  * - Sans args: Lance le serveur API (port 4567 par défaut)
  * - --help: Affiche les options disponibles
+ * - --migrate-abonnements: Importe les fichiers par utilisateur dans la base H2
  * 
  * Usage:
  *   java -jar backend.jar                    # Serveur API
@@ -22,6 +23,9 @@ public class App {
                 printHelp();
                 System.exit(0);
             }
+            if ("--migrate-abonnements".equals(cmd)) {
+                System.exit(migrateAbonnements());
+            }
         }
         
         // Mode par défaut: lancer le serveur API
@@ -34,6 +38,22 @@ public class App {
         }
     }
 
+    private static int migrateAbonnements() {
+        String jdbcUrl = com.projet.config.AppConfig.get("USER_JDBC_URL", "jdbc:h2:./data/abonnements-users");
+        try (com.projet.repository.JdbcConnectionPool pool = new com.projet.repository.JdbcConnectionPool(
+                jdbcUrl, com.projet.config.AppConfig.get("JDBC_USER"), com.projet.config.AppConfig.get("JDBC_PASS"))) {
+            var report = new com.projet.repository.UserAbonnementMigrator(pool)
+                .migrate("data/abonnements/", new com.projet.user.FileUserRepository().findAllEmails());
+            System.out.println("Migration vers " + jdbcUrl + " : " + report.getUsers() + " utilisateurs, "
+                + report.getRows() + " abonnements, " + report.getSkippedLines() + " lignes ignorées, "
+                + report.getFailedUsers().size() + " échecs (" + report.getDurationMs() + " ms)");
+            return report.getFailedUsers().isEmpty() ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("Erreur de migration: " + e.getMessage());
+            return 1;
+        }
+    }
+
     private static void printHelp() {
         System.out.println("════════════════════════════════════════════════════════════");
         System.out.println("  Backend autonome - Gestion d'abonnements");
@@ -44,6 +64,7 @@ public class App {
         System.out.println("OPTIONS:");
         System.out.println("  (aucun)    Démarre le serveur API sur le port 4567");
         System.out.println("  --help     Affiche ce message d'aide");
+        System.out.println("  --migrate-abonnements  Importe data/abonnements/*.txt dans la base H2");
         System.out.println("  -h         Affiche ce message d'aide");
         System.out.println();
         System.out.println("Exemples:");
@@ -0,0 +1,41 @@
+package com.projet.analytics;
+
+import java.util.List;
+import java.util.Map;
+
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Segmentation K-means d'un portefeuille : groupes nommés et statistiques de convergence.
+ */
+public class ClusteringResult {
+    private final Map<String, List<Abonnement>> clusters;
+    private final int k;
+    private final double inertia;
+    private final int iterations;
+    private final boolean converged;
+
+    public ClusteringResult(Map<String, List<Abonnement>> clusters, int k, double inertia,
+                            int iterations, boolean converged) {
+        this.clusters = clusters;
+        this.k = k;
+        this.inertia = inertia;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    /** Abonnements par nom de groupe (tous les groupes présents, éventuellement vides). */
+    public Map<String, List<Abonnement>> getClusters() { return clusters; }
+
+    /** Nombre de groupes demandés. */
+    public int getK() { return k; }
+
+    /** Somme des distances au carré de chaque abonnement à son centroïde (features normalisées). */
+    public double getInertia() { return inertia; }
+
+    /** Itérations de Lloyd effectuées. */
+    public int getIterations() { return iterations; }
+
+    /** Vrai si l'arrêt vient de la stabilité des centroïdes et non de la limite d'itérations. */
+    public boolean isConverged() { return converged; }
+}
@@ -0,0 +1,223 @@
+package com.projet.analytics;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * K-means sur des points stockés à plat ({@code points[i * dims + d]}).
+ *
+ * <p>Initialisation k-means++ (graine fixe, donc résultat reproductible), puis
+ * itérations de Lloyd jusqu'à ce qu'aucun centroïde ne bouge de plus de
+ * {@code tolerance} ou jusqu'à {@code maxIterations}. Aucune allocation par
+ * itération : sommes et effectifs sont réutilisés. Au-delà de
+ * {@link #PARALLEL_THRESHOLD} points, l'affectation est répartie par blocs sur le
+ * pool fork-join commun ; les inerties partielles sont sommées dans l'ordre des
+ * blocs, le résultat ne dépend donc pas du parallélisme.</p>
+ */
+public final class KMeans {
+
+    /** Nombre de points à partir duquel l'affectation est parallélisée. */
+    static final int PARALLEL_THRESHOLD = 32_768;
+
+    private static final int BLOCK = 4_096;
+
+    private KMeans() {
+    }
+
+    /**
+     * Partitionne {@code points} en {@code k} groupes.
+     *
+     * @param points coordonnées à plat, {@code n * dims} valeurs
+     * @param dims nombre de dimensions par point
+     * @param k nombre de groupes (au moins 1) ; des groupes restent vides si k > n
+     * @param maxIterations nombre maximal d'itérations de Lloyd
+     * @param tolerance déplacement maximal d'un centroïde considéré comme convergé
+     * @param seed graine de l'initialisation k-means++
+     * @throws IllegalArgumentException si {@code k < 1}, {@code dims < 1}, si
+     *         {@code k * dims} dépasse la taille d'un tableau ou si la taille de
+     *         {@code points} n'est pas un multiple de {@code dims}
+     */
+    public static Result fit(double[] points, int dims, int k, int maxIterations, double tolerance, long seed) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k doit être >= 1");
+        }
+        if (dims > 0 && k > (Integer.MAX_VALUE - 8) / dims) {
+            throw new IllegalArgumentException("k trop grand: " + k);
+        }
+        if (dims < 1 || points.length % dims != 0) {
+            throw new IllegalArgumentException("Dimensions incohérentes: " + points.length + " valeurs pour " + dims);
+        }
+        int n = points.length / dims;
+        if (n == 0) {
+            return new Result(new int[0], new double[k * dims], k, dims, 0, 0, true);
+        }
+
+        double[] centroids = seed(points, n, dims, k, new Random(seed));
+        int[] assignments = new int[n];
+        double[] sums = new double[k * dims];
+        int[] counts = new int[k];
+        double toleranceSq = tolerance * tolerance;
+
+        int iterations = 0;
+        boolean converged = false;
+        while (iterations < maxIterations) {
+            iterations++;
+            assign(points, n, dims, centroids, k, assignments);
+
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                int c = assignments[i];
+                counts[c]++;
+                int p = i * dims;
+                int q = c * dims;
+                for (int d = 0; d < dims; d++) {
+                    sums[q + d] += points[p + d];
+                }
+            }
+
+            double maxShift = 0;
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0) continue; // groupe vide : centroïde conservé
+                int q = c * dims;
+                double shift = 0;
+                for (int d = 0; d < dims; d++) {
+                    double updated = sums[q + d] / counts[c];
+                    double delta = updated - centroids[q + d];
+                    shift += delta * delta;
+                    centroids[q + d] = updated;
+                }
+                maxShift = Math.max(maxShift, shift);
+            }
+            if (maxShift <= toleranceSq) {
+                converged = true;
+                break;
+            }
+        }
+
+        // Affectation finale cohérente avec les centroïdes rendus
+        double inertia = assign(points, n, dims, centroids, k, assignments);
+        return new Result(assignments, centroids, k, dims, inertia, iterations, converged);
+    }
+
+    /**
+     * Initialisation k-means++ : premier centroïde tiré uniformément, les suivants
+     * avec une probabilité proportionnelle au carré de la distance au plus proche.
+     */
+    private static double[] seed(double[] points, int n, int dims, int k, Random random) {
+        double[] centroids = new double[k * dims];
+        double[] nearest = new double[n];
+        int first = random.nextInt(n);
+        System.arraycopy(points, first * dims, centroids, 0, dims);
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            nearest[i] = distanceSq(points, i * dims, centroids, 0, dims);
+            total += nearest[i];
+        }
+
+        for (int c = 1; c < k; c++) {
+            int chosen;
+            if (total <= 0) {
+                // Tous les points coïncident avec un centroïde : doublon, le groupe restera vide
+                chosen = random.nextInt(n);
+            } else {
+                double target = random.nextDouble() * total;
+                chosen = n - 1;
+                for (int i = 0; i < n; i++) {
+                    target -= nearest[i];
+                    if (target < 0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+            }
+            System.arraycopy(points, chosen * dims, centroids, c * dims, dims);
+            total = 0;
+            for (int i = 0; i < n; i++) {
+                double d = distanceSq(points, i * dims, centroids, c * dims, dims);
+                if (d < nearest[i]) nearest[i] = d;
+                total += nearest[i];
+            }
+        }
+        return centroids;
+    }
+
+    /** Affecte chaque point au centroïde le plus proche et renvoie l'inertie. */
+    private static double assign(double[] points, int n, int dims, double[] centroids, int k, int[] assignments) {
+        if (n < PARALLEL_THRESHOLD) {
+            return assignBlock(points, 0, n, dims, centroids, k, assignments);
+        }
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        double[] partial = new double[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b ->
+            partial[b] = assignBlock(points, b * BLOCK, Math.min(n, (b + 1) * BLOCK), dims, centroids, k, assignments));
+        double inertia = 0;
+        for (double p : partial) inertia += p;
+        return inertia;
+    }
+
+    private static double assignBlock(double[] points, int from, int to, int dims,
+                                      double[] centroids, int k, int[] assignments) {
+        double inertia = 0;
+        for (int i = from; i < to; i++) {
+            int p = i * dims;
+            int best = 0;
+            double bestDist = distanceSq(points, p, centroids, 0, dims);
+            for (int c = 1; c < k; c++) {
+                double dist = distanceSq(points, p, centroids, c * dims, dims);
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = c;
+                }
+            }
+            assignments[i] = best;
+            inertia += bestDist;
+        }
+        return inertia;
+    }
+
+    private static double distanceSq(double[] a, int offsetA, double[] b, int offsetB, int dims) {
+        double sum = 0;
+        for (int d = 0; d < dims; d++) {
+            double delta = a[offsetA + d] - b[offsetB + d];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    /** Partition obtenue, avec l'inertie (somme des distances au carré) et le nombre d'itérations. */
+    public static final class Result {
+        private final int[] assignments;
+        private final double[] centroids;
+        private final int k;
+        private final int dims;
+        private final double inertia;
+        private final int iterations;
+        private final boolean converged;
+
+        private Result(int[] assignments, double[] centroids, int k, int dims,
+                       double inertia, int iterations, boolean converged) {
+            this.assignments = assignments;
+            this.centroids = centroids;
+            this.k = k;
+            this.dims = dims;
+            this.inertia = inertia;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        /** Groupe du point {@code i}. */
+        public int getAssignment(int i) { return assignments[i]; }
+
+        /** Coordonnée {@code d} du centroïde {@code c}. */
+        public double getCentroid(int c, int d) { return centroids[c * dims + d]; }
+
+        public int getK() { return k; }
+        public int getDims() { return dims; }
+        public int size() { return assignments.length; }
+        public double getInertia() { return inertia; }
+        public int getIterations() { return iterations; }
+        public boolean isConverged() { return converged; }
+    }
+}
@@ -0,0 +1,236 @@
+package com.projet.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.AbonnementRepository;
+
+/**
+ * Représentation en colonnes (tableaux primitifs) d'un portefeuille d'abonnements.
+ *
+ * <p>Construite une fois à partir de la liste ou du repository, elle permet aux
+ * noyaux analytiques de parcourir des {@code double[]} / {@code int[]} contigus au
+ * lieu de déréférencer un {@link Abonnement} et ses {@link LocalDate} par ligne.
+ * Les dates sont stockées en jours epoch ({@link LocalDate#toEpochDay()}),
+ * {@link #NONE} représentant une date absente ; les catégories sont internées en
+ * identifiants entiers ({@link #getCategoryName(int)} pour le libellé).</p>
+ *
+ * <p>Les abonnements d'origine restent accessibles par {@link #getRow(int)} pour
+ * construire les résultats. La structure est immuable.</p>
+ */
+public final class PortfolioColumns {
+
+    /** Date absente (jours epoch). */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    public static final byte PRIORITE_AUTRE = 0;
+    public static final byte PRIORITE_OPTIONNEL = 1;
+    public static final byte PRIORITE_LUXE = 2;
+
+    public static final byte FREQUENCE_MENSUELLE = 0;
+    public static final byte FREQUENCE_TRIMESTRIELLE = 1;
+    public static final byte FREQUENCE_SEMESTRIELLE = 2;
+    public static final byte FREQUENCE_ANNUELLE = 3;
+
+    private final int size;
+    private final Abonnement[] rows;
+    private final double[] prix;
+    private final double[] coutTotal;
+    private final int[] debut;
+    private final int[] fin;
+    private final int[] derniereUtilisation;
+    private final int[] categorie;
+    private final byte[] priorite;
+    private final byte[] frequencePaiement;
+    private final boolean[] partage;
+    private final String[] categories;
+
+    private PortfolioColumns(Builder b) {
+        this.size = b.size;
+        this.rows = Arrays.copyOf(b.rows, b.size);
+        this.prix = Arrays.copyOf(b.prix, b.size);
+        this.coutTotal = Arrays.copyOf(b.coutTotal, b.size);
+        this.debut = Arrays.copyOf(b.debut, b.size);
+        this.fin = Arrays.copyOf(b.fin, b.size);
+        this.derniereUtilisation = Arrays.copyOf(b.derniereUtilisation, b.size);
+        this.categorie = Arrays.copyOf(b.categorie, b.size);
+        this.priorite = Arrays.copyOf(b.priorite, b.size);
+        this.frequencePaiement = Arrays.copyOf(b.frequencePaiement, b.size);
+        this.partage = Arrays.copyOf(b.partage, b.size);
+        this.categories = b.categoryNames.toArray(new String[0]);
+    }
+
+    /** Colonnes d'une liste d'abonnements (même ordre). */
+    public static PortfolioColumns of(List<Abonnement> abonnements) {
+        Builder builder = new Builder(abonnements.size());
+        for (Abonnement a : abonnements) {
+            builder.add(a);
+        }
+        return new PortfolioColumns(builder);
+    }
+
+    /** Colonnes lues directement depuis le repository, sans liste intermédiaire. */
+    public static PortfolioColumns load(AbonnementRepository repo) {
+        Builder builder = new Builder(64);
+        repo.forEach(builder::add);
+        return new PortfolioColumns(builder);
+    }
+
+    /** Date du jour en jours epoch. */
+    public static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+
+    public int size() { return size; }
+    public Abonnement getRow(int i) { return rows[i]; }
+    public double getPrix(int i) { return prix[i]; }
+    public double getCoutTotal(int i) { return coutTotal[i]; }
+    public int getDebut(int i) { return debut[i]; }
+    public int getFin(int i) { return fin[i]; }
+    public int getDerniereUtilisation(int i) { return derniereUtilisation[i]; }
+    public int getCategorie(int i) { return categorie[i]; }
+    public byte getPriorite(int i) { return priorite[i]; }
+    public byte getFrequencePaiement(int i) { return frequencePaiement[i]; }
+    public boolean isPartage(int i) { return partage[i]; }
+
+    /** Nombre de catégories distinctes (la catégorie absente compte pour une). */
+    public int getCategoryCount() { return categories.length; }
+
+    /** Libellé d'un identifiant de catégorie ({@code null} possible). */
+    public String getCategoryName(int id) { return categories[id]; }
+
+    /** Même règle que {@link Abonnement#estActif()} ; faux si une des dates manque. */
+    public boolean isActive(int i, int today) {
+        return debut[i] != NONE && fin[i] != NONE && debut[i] <= today && today <= fin[i];
+    }
+
+    /**
+     * Équivalent de {@code ChronoUnit.MONTHS.between} entre deux jours epoch,
+     * sans allocation de {@link LocalDate}.
+     */
+    public static long monthsBetween(int fromEpochDay, int toEpochDay) {
+        long from = civil(fromEpochDay);
+        long to = civil(toEpochDay);
+        // (année * 12 + mois) * 32 + jour, comme LocalDate.monthsUntil
+        long packedFrom = ((from >> 9) * 12 + ((from >> 5) & 0xF) - 1) * 32L + (from & 0x1F);
+        long packedTo = ((to >> 9) * 12 + ((to >> 5) & 0xF) - 1) * 32L + (to & 0x1F);
+        return (packedTo - packedFrom) / 32;
+    }
+
+    /** Jour epoch vers (année << 9 | mois << 5 | jour), algorithme de H. Hinnant. */
+    private static long civil(int epochDay) {
+        long z = epochDay + 719468L;
+        long era = Math.floorDiv(z, 146097L);
+        long doe = z - era * 146097L;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    /**
+     * Indices {@code 0..n-1} triés par clé décroissante ; tri stable (à clé égale,
+     * l'ordre d'origine est conservé, comme {@code List.sort}).
+     */
+    static int[] sortedIndicesDescending(double[] keys, int n) {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        int[] tmp = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    tmp[k++] = Double.compare(keys[idx[j]], keys[idx[i]]) > 0 ? idx[j++] : idx[i++];
+                }
+                while (i < mid) tmp[k++] = idx[i++];
+                while (j < hi) tmp[k++] = idx[j++];
+                System.arraycopy(tmp, lo, idx, lo, hi - lo);
+            }
+        }
+        return idx;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NONE : (int) date.toEpochDay();
+    }
+
+    static byte prioriteCode(String priorite) {
+        if ("Luxe".equals(priorite)) return PRIORITE_LUXE;
+        if ("Optionnel".equals(priorite)) return PRIORITE_OPTIONNEL;
+        return PRIORITE_AUTRE;
+    }
+
+    private static byte frequenceCode(String frequence) {
+        if (frequence == null) return FREQUENCE_MENSUELLE;
+        return switch (frequence) {
+            case "Annuel" -> FREQUENCE_ANNUELLE;
+            case "Semestriel" -> FREQUENCE_SEMESTRIELLE;
+            case "Trimestriel" -> FREQUENCE_TRIMESTRIELLE;
+            default -> FREQUENCE_MENSUELLE;
+        };
+    }
+
+    /** Accumulateur à capacité croissante utilisé par {@link #of} et {@link #load}. */
+    private static final class Builder {
+        private int size;
+        private Abonnement[] rows;
+        private double[] prix;
+        private double[] coutTotal;
+        private int[] debut;
+        private int[] fin;
+        private int[] derniereUtilisation;
+        private int[] categorie;
+        private byte[] priorite;
+        private byte[] frequencePaiement;
+        private boolean[] partage;
+        private final Map<String, Integer> categoryIds = new HashMap<>();
+        private final List<String> categoryNames = new ArrayList<>();
+
+        private Builder(int capacity) {
+            allocate(Math.max(capacity, 1));
+        }
+
+        private void allocate(int capacity) {
+            rows = Arrays.copyOf(rows == null ? new Abonnement[0] : rows, capacity);
+            prix = Arrays.copyOf(prix == null ? new double[0] : prix, capacity);
+            coutTotal = Arrays.copyOf(coutTotal == null ? new double[0] : coutTotal, capacity);
+            debut = Arrays.copyOf(debut == null ? new int[0] : debut, capacity);
+            fin = Arrays.copyOf(fin == null ? new int[0] : fin, capacity);
+            derniereUtilisation = Arrays.copyOf(derniereUtilisation == null ? new int[0] : derniereUtilisation, capacity);
+            categorie = Arrays.copyOf(categorie == null ? new int[0] : categorie, capacity);
+            priorite = Arrays.copyOf(priorite == null ? new byte[0] : priorite, capacity);
+            frequencePaiement = Arrays.copyOf(frequencePaiement == null ? new byte[0] : frequencePaiement, capacity);
+            partage = Arrays.copyOf(partage == null ? new boolean[0] : partage, capacity);
+        }
+
+        private void add(Abonnement a) {
+            if (size == rows.length) {
+                allocate(size * 2);
+            }
+            int i = size++;
+            rows[i] = a;
+            prix[i] = a.getPrixMensuel();
+            coutTotal[i] = a.getCoutTotal();
+            debut[i] = epochDay(a.getDateDebut());
+            fin[i] = epochDay(a.getDateFin());
+            derniereUtilisation[i] = epochDay(a.getDerniereUtilisation());
+            categorie[i] = categoryIds.computeIfAbsent(a.getCategorie(), name -> {
+                categoryNames.add(name);
+                return categoryNames.size() - 1;
+            });
+            priorite[i] = prioriteCode(a.getPriorite());
+            frequencePaiement[i] = frequenceCode(a.getFrequencePaiement());
+            partage[i] = a.isPartage();
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.projet.analytics;
 
-import java.time.LocalDate;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.projet.backend.domain.Abonnement;
 
@@ -60,11 +59,26 @@ public class PortfolioRebalancer {
         double valueWeight,
         double riskWeight,
         double comfortWeight
+    ) {
+        return rebalance(PortfolioColumns.of(subscriptions == null ? List.of() : subscriptions),
+            budgetTarget, valueWeight, riskWeight, comfortWeight);
+    }
+
+    /**
+     * Variante sur la représentation en colonnes : les scores sont calculés dans des
+     * tableaux primitifs et seuls les résultats référencent les abonnements.
+     */
+    public static RebalanceResult rebalance(
+        PortfolioColumns columns,
+        double budgetTarget,
+        double valueWeight,
+        double riskWeight,
+        double comfortWeight
     ) {
         long startTime = System.currentTimeMillis();
         RebalanceResult result = new RebalanceResult();
 
-        if (subscriptions == null || subscriptions.isEmpty()) {
+        if (columns.size() == 0) {
             result.processingTimeMs = System.currentTimeMillis() - startTime;
             result.recommendation = "Aucun abonnement à analyser.";
             return result;
@@ -79,29 +93,43 @@ public class PortfolioRebalancer {
         }
 
         // Filtrer les abonnements actifs
-        LocalDate now = LocalDate.now();
-        List<Abonnement> activeSubscriptions = subscriptions.stream()
-            .filter(a -> isActive(a, now))
-            .collect(Collectors.toList());
+        int today = PortfolioColumns.today();
+        int n = columns.size();
+        int[] active = new int[n];
+        int activeCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (columns.isActive(i, today)) {
+                active[activeCount++] = i;
+            }
+        }
 
-        if (activeSubscriptions.isEmpty()) {
+        if (activeCount == 0) {
             result.processingTimeMs = System.currentTimeMillis() - startTime;
             result.recommendation = "Aucun abonnement actif trouvé.";
             return result;
         }
 
+        // Score de confort par catégorie, calculé une fois par catégorie distincte
+        double[] comfortByCategory = new double[columns.getCategoryCount()];
+        for (int id = 0; id < comfortByCategory.length; id++) {
+            comfortByCategory[id] = calculateComfortScore(columns.getCategoryName(id));
+        }
+
         // Calculer scores pour chaque abonnement
-        List<SubscriptionScore> scores = new ArrayList<>();
-        for (Abonnement sub : activeSubscriptions) {
-            SubscriptionScore score = calculateScore(sub, valueWeight, riskWeight, comfortWeight);
-            scores.add(score);
+        double[] totalScores = new double[activeCount];
+        for (int k = 0; k < activeCount; k++) {
+            int i = active[k];
+            double valueScore = calculateValueScore(columns.getPrix(i));
+            double riskScore = calculateRiskScore(columns.getDerniereUtilisation(i), today);
+            double comfortScore = comfortByCategory[columns.getCategorie(i)];
+            totalScores[k] = (valueScore * valueWeight) + (riskScore * riskWeight) + (comfortScore * comfortWeight);
         }
 
-        // Trier par score décroissant
-        scores.sort((a, b) -> Double.compare(b.totalScore, a.totalScore));
+        // Trier par score décroissant (tri stable)
+        int[] order = PortfolioColumns.sortedIndicesDescending(totalScores, activeCount);
 
         // Appliquer l'algorithme d'optimisation
-        optimizePortfolio(scores, budgetTarget, result);
+        optimizePortfolio(columns, active, order, budgetTarget, result);
 
         // Calculer les économies
         result.savingsPotential = result.totalCostCancelled;
@@ -112,7 +140,7 @@ public class PortfolioRebalancer {
             totalCostKept,
             budgetTarget,
             result.kept.size(),
-            activeSubscriptions.size()
+            activeCount
         );
 
         // Générer recommendation
@@ -122,53 +150,22 @@ public class PortfolioRebalancer {
         return result;
     }
 
-    /**
-     * Calcule le score composite d'un abonnement.
-     */
-    private static SubscriptionScore calculateScore(
-        Abonnement sub,
-        double valueWeight,
-        double riskWeight,
-        double comfortWeight
-    ) {
-        SubscriptionScore score = new SubscriptionScore(sub);
-
-        // Score de valeur: basé sur le ratio utilité/prix
-        double valueScore = calculateValueScore(sub);
-        
-        // Score de risque: basé sur l'utilisation récente
-        double riskScore = calculateRiskScore(sub);
-        
-        // Score de confort: basé sur la diversité et la couverture
-        double comfortScore = calculateComfortScore(sub);
-
-        // Score composite
-        score.valueScore = valueScore;
-        score.riskScore = riskScore;
-        score.comfortScore = comfortScore;
-        score.totalScore = (valueScore * valueWeight) + (riskScore * riskWeight) + (comfortScore * comfortWeight);
-
-        return score;
-    }
-
     /**
      * Score de valeur: inversement proportionnel au prix(moins cher = plus haut score).
      */
-    private static double calculateValueScore(Abonnement sub) {
-        double prix = sub.getPrixMensuel();
+    private static double calculateValueScore(double prix) {
         if (prix <= 0) return 0;
         // Normaliser: max 100 points pour < 5€, décroissant
         return Math.max(0, 100 - (prix * 10));
     }
 
     /**
-     * Score de risque: basé sur la dernière utilisation.
+     * Score de risque: basé sur la dernière utilisation (jours epoch).
      */
-    private static double calculateRiskScore(Abonnement sub) {
-        LocalDate lastUsed = sub.getDerniereUtilisation();
-        if (lastUsed == null) return 50; // Défaut: risque moyen
+    private static double calculateRiskScore(int lastUsed, int today) {
+        if (lastUsed == PortfolioColumns.NONE) return 50; // Défaut: risque moyen
 
-        long daysSinceUsed = java.time.temporal.ChronoUnit.DAYS.between(lastUsed, LocalDate.now());
+        long daysSinceUsed = (long) today - lastUsed;
         
         if (daysSinceUsed < 7) return 100;  // Utilisé récemment: très sûr
         if (daysSinceUsed < 30) return 75;  // Utilisé ce mois
@@ -180,9 +177,8 @@ public class PortfolioRebalancer {
     /**
      * Score de confort: diversité des catégories.
      */
-    private static double calculateComfortScore(Abonnement sub) {
+    private static double calculateComfortScore(String cat) {
         // Chaque catégorie a une importance basique
-        String cat = sub.getCategorie();
         if (cat == null) return 50;
         
         return switch(cat.toLowerCase()) {
@@ -198,15 +194,18 @@ public class PortfolioRebalancer {
      * Applique l'algorithme d'optimisation pour sélectionner les meilleurs abonnements.
      */
     private static void optimizePortfolio(
-        List<SubscriptionScore> scores,
+        PortfolioColumns columns,
+        int[] active,
+        int[] order,
         double budgetTarget,
         RebalanceResult result
     ) {
         double currentCost = 0;
 
-        for (SubscriptionScore score : scores) {
-            Abonnement sub = score.subscription;
-            double cost = sub.getPrixMensuel();
+        for (int k : order) {
+            int i = active[k];
+            Abonnement sub = columns.getRow(i);
+            double cost = columns.getPrix(i);
 
             // Essayer d'ajouter à "kept"
             if (currentCost + cost <= budgetTarget) {
@@ -276,27 +275,4 @@ public class PortfolioRebalancer {
 
         return sb.toString();
     }
-
-    /**
-     * Vérifie si un abonnement est actuellement actif.
-     */
-    private static boolean isActive(Abonnement sub, LocalDate now) {
-        if (sub.getDateDebut() == null || sub.getDateFin() == null) return false;
-        return !now.isBefore(sub.getDateDebut()) && !now.isAfter(sub.getDateFin());
-    }
-
-    /**
-     * Helper class pour stocker les scores intermédiaires.
-     */
-    private static class SubscriptionScore {
-        Abonnement subscription;
-        double valueScore;
-        double riskScore;
-        double comfortScore;
-        double totalScore;
-
-        SubscriptionScore(Abonnement sub) {
-            this.subscription = sub;
-        }
-    }
 }
@@ -0,0 +1,240 @@
+package com.projet.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.projet.analytics.SubscriptionAnalytics.AdvancedMetrics;
+import com.projet.analytics.SubscriptionAnalytics.MonthlyReport;
+import com.projet.analytics.anomaly.AnomalyDetector;
+import com.projet.analytics.anomaly.AnomalyDetectorImpl;
+import com.projet.analytics.anomaly.AnomalyReport;
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.AbonnementRepository;
+
+/**
+ * Vue analytique figée d'un portefeuille d'abonnements.
+ *
+ * <p>Toutes les features par abonnement (fréquence, score de valeur, risque de
+ * résiliation, coût par utilisation) et les agrégats des endpoints
+ * {@code /analytics/*} sont calculés en un seul parcours de la liste, avec les
+ * mêmes formules que {@link SubscriptionAnalytics}. Le clustering et le rapport
+ * d'anomalies sont calculés à la première demande puis conservés.</p>
+ *
+ * <p>{@link #forUser} mémorise le snapshot par utilisateur tant que la version du
+ * repository ({@link AbonnementRepository#version()}) et la date du jour ne changent
+ * pas. Un repository sans version est rechargé et recalculé à chaque appel.</p>
+ */
+public final class PortfolioSnapshot {
+
+    private static final int MAX_CACHED_USERS = 1024;
+    private static final AnomalyDetector ANOMALY_DETECTOR = new AnomalyDetectorImpl();
+
+    private static final UserMemo<PortfolioSnapshot> CACHE = new UserMemo<>(MAX_CACHED_USERS);
+
+    private final List<Abonnement> abonnements;
+    private final LocalDate day;
+
+    private final double[] usageFrequency;
+    private final double[] valueScore;
+    private final double[] churnRisk;
+    private final double[] costPerUse;
+
+    private final AdvancedMetrics metrics;
+    private final List<String> duplicates;
+    private final MonthlyReport monthlyReport;
+    private final Map<String, Double> spendingTrend;
+    private final Map<String, String> seasonalPatterns;
+    private final double healthScore;
+
+    private ClusteringResult clustering;
+    private AnomalyReport anomalies;
+
+    private PortfolioSnapshot(PortfolioColumns columns, LocalDate date) {
+        int n = columns.size();
+        int today = (int) date.toEpochDay();
+        List<Abonnement> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(columns.getRow(i));
+        }
+        this.abonnements = Collections.unmodifiableList(rows);
+        this.day = date;
+        this.usageFrequency = new double[n];
+        this.valueScore = new double[n];
+        this.churnRisk = new double[n];
+        this.costPerUse = new double[n];
+        SubscriptionAnalytics.scoreColumns(columns, today, usageFrequency, valueScore, churnRisk, costPerUse);
+
+        double coutTotalSum = 0;
+        double roiSum = 0;
+        long highRisk = 0;
+        double prixSum = 0;
+        long activeCount = 0;
+        long expireSoon = 0;
+        List<Abonnement> inutilises = new ArrayList<>();
+        double economies = 0;
+        int[] top3 = {-1, -1, -1};
+        Map<String, String> patterns = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            double prix = columns.getPrix(i);
+            double value = valueScore[i];
+            double churn = churnRisk[i];
+            long joursAvantExpiration = (long) columns.getFin(i) - today;
+
+            coutTotalSum += columns.getCoutTotal(i);
+            roiSum += value > 0 ? (value - 1) * 100 : 0;
+            if (churn > 60) highRisk++;
+            if (churn > 70) {
+                inutilises.add(columns.getRow(i));
+                economies += prix;
+            }
+            prixSum += prix;
+            if (joursAvantExpiration < 30 && joursAvantExpiration > 0) expireSoon++;
+            if (columns.getDerniereUtilisation(i) != PortfolioColumns.NONE) {
+                Abonnement abo = columns.getRow(i);
+                patterns.put(abo.getNomService(),
+                    SubscriptionAnalytics.seasonalPattern(abo.getDerniereUtilisation().getMonthValue()));
+            }
+            if (columns.isActive(i, today)) {
+                activeCount++;
+                insertTop3(top3, columns, i);
+            }
+        }
+
+        this.metrics = new AdvancedMetrics(n == 0 ? 0 : coutTotalSum / n, n == 0 ? 0 : roiSum / n, highRisk);
+        this.duplicates = Collections.unmodifiableList(SubscriptionAnalytics.detectDuplicates(columns, today));
+        List<Abonnement> top = new ArrayList<>(3);
+        for (int i : top3) {
+            if (i >= 0) top.add(columns.getRow(i));
+        }
+        this.monthlyReport = SubscriptionAnalytics.monthlyReport(top, inutilises, economies, duplicates, expireSoon);
+        this.spendingTrend = Collections.unmodifiableMap(SubscriptionAnalytics.spendingTrend(prixSum));
+        this.seasonalPatterns = Collections.unmodifiableMap(patterns);
+        this.healthScore = SubscriptionAnalytics.portfolioHealthScore(n, activeCount, columns.getCategoryCount());
+    }
+
+    /** Calcule le snapshot d'une liste d'abonnements à la date du jour. */
+    public static PortfolioSnapshot of(List<Abonnement> abonnements) {
+        return of(PortfolioColumns.of(abonnements));
+    }
+
+    /** Calcule le snapshot à partir de la représentation en colonnes. */
+    public static PortfolioSnapshot of(PortfolioColumns columns) {
+        return new PortfolioSnapshot(columns, LocalDate.now());
+    }
+
+    /**
+     * Snapshot des abonnements d'un utilisateur, réutilisé tant que le repository
+     * n'a pas été modifié depuis le dernier calcul (même version, même jour).
+     */
+    public static PortfolioSnapshot forUser(String userEmail, AbonnementRepository repo) {
+        return CACHE.get(userEmail, repo, today -> new PortfolioSnapshot(PortfolioColumns.load(repo), today));
+    }
+
+    /** Vide le cache des snapshots (tests). */
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    /** Insère dans le top 3 par prix décroissant ; à prix égal, le premier rencontré reste devant. */
+    private static void insertTop3(int[] top3, PortfolioColumns columns, int row) {
+        for (int p = 0; p < top3.length; p++) {
+            if (top3[p] < 0 || columns.getPrix(row) > columns.getPrix(top3[p])) {
+                System.arraycopy(top3, p, top3, p + 1, top3.length - p - 1);
+                top3[p] = row;
+                return;
+            }
+        }
+    }
+
+    public List<Abonnement> getAbonnements() { return abonnements; }
+    public LocalDate getDay() { return day; }
+    public int size() { return abonnements.size(); }
+
+    public double getUsageFrequency(int index) { return usageFrequency[index]; }
+    public double getValueScore(int index) { return valueScore[index]; }
+    public double getChurnRisk(int index) { return churnRisk[index]; }
+    public double getCostPerUse(int index) { return costPerUse[index]; }
+
+    public AdvancedMetrics getMetrics() { return metrics; }
+    public List<String> getDuplicates() { return duplicates; }
+    public MonthlyReport getMonthlyReport() { return monthlyReport; }
+    public Map<String, Double> getSpendingTrend() { return spendingTrend; }
+    public Map<String, String> getSeasonalPatterns() { return seasonalPatterns; }
+    public double getHealthScore() { return healthScore; }
+
+    /** Clustering K-means sur les features déjà calculées (calculé une fois). */
+    public Map<String, List<Abonnement>> getClusters() {
+        return getClustering().getClusters();
+    }
+
+    /** Clustering avec le nombre de groupes par défaut, calculé une fois. */
+    public synchronized ClusteringResult getClustering() {
+        if (clustering == null) {
+            clustering = computeClustering(SubscriptionAnalytics.defaultClusterCount());
+        }
+        return clustering;
+    }
+
+    /**
+     * Clustering en {@code k} groupes, ramené au nombre d'abonnements ; seul le
+     * nombre par défaut est conservé.
+     *
+     * @throws IllegalArgumentException si {@code k < 1} ou {@code k > MAX_CLUSTER_COUNT}
+     */
+    public ClusteringResult getClustering(int k) {
+        if (k < 1 || k > SubscriptionAnalytics.MAX_CLUSTER_COUNT) {
+            throw new IllegalArgumentException("k doit être compris entre 1 et " + SubscriptionAnalytics.MAX_CLUSTER_COUNT);
+        }
+        if (k == SubscriptionAnalytics.defaultClusterCount()) {
+            return getClustering();
+        }
+        return computeClustering(Math.min(k, Math.max(1, abonnements.size())));
+    }
+
+    private ClusteringResult computeClustering(int k) {
+        int dims = SubscriptionAnalytics.CLUSTER_DIMS;
+        double[] features = new double[abonnements.size() * dims];
+        for (int i = 0; i < abonnements.size(); i++) {
+            features[i * dims] = abonnements.get(i).getPrixMensuel() / 100.0;
+            features[i * dims + 1] = usageFrequency[i] / 20.0;
+            features[i * dims + 2] = churnRisk[i] / 100.0;
+        }
+        return SubscriptionAnalytics.clusterSubscriptions(abonnements, features, k);
+    }
+
+    /** Rapport d'anomalies ({@link AnomalyDetectorImpl}), calculé une fois. */
+    public synchronized AnomalyReport getAnomalies() {
+        if (anomalies == null) {
+            anomalies = ANOMALY_DETECTOR.detectAnomalies(abonnements);
+        }
+        return anomalies;
+    }
+
+    /** Toutes les sections des endpoints {@code /analytics/*} en une seule réponse. */
+    public Map<String, Object> toDashboard() {
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("subscriptions", size());
+        dashboard.put("metrics", metrics);
+        dashboard.put("anomalies", getAnomalies());
+        dashboard.put("duplicates", duplicates);
+        dashboard.put("monthlyReport", monthlyReport);
+        ClusteringResult clusteringResult = getClustering();
+        dashboard.put("clusters", clusteringResult.getClusters());
+        Map<String, Object> clusteringStats = new LinkedHashMap<>();
+        clusteringStats.put("k", clusteringResult.getK());
+        clusteringStats.put("inertia", clusteringResult.getInertia());
+        clusteringStats.put("iterations", clusteringResult.getIterations());
+        clusteringStats.put("converged", clusteringResult.isConverged());
+        dashboard.put("clusteringStats", clusteringStats);
+        dashboard.put("predictSpending", spendingTrend);
+        dashboard.put("seasonalPatterns", seasonalPatterns);
+        dashboard.put("healthScore", (int) healthScore);
+        return dashboard;
+    }
+}
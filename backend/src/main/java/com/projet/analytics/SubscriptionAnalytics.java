@@ -3,6 +3,7 @@ package com.projet.analytics;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -10,12 +11,35 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.projet.analytics.anomaly.NearDuplicateIndex;
 import com.projet.backend.domain.Abonnement;
+import com.projet.config.AppConfig;
 
 /**
  * Classe d'analyse avancée des abonnements avec algorithmes prédictifs
  */
 public class SubscriptionAnalytics {
+
+    /** Valeur de {@code joursSansUtilisation} pour un abonnement jamais utilisé. */
+    static final long JAMAIS_UTILISE = Long.MIN_VALUE;
+
+    private static final String[] CLUSTER_NAMES = {"⭐ Essentiels & Rentables", "⚖️ Équilibrés", "⚠️ À Optimiser"};
+
+    /** Profil type (prix, fréquence, risque normalisés) de chaque nom de {@link #CLUSTER_NAMES}. */
+    private static final double[][] CLUSTER_ANCHORS = {
+        {0.2, 0.9, 0.1}, // High value, low risk
+        {0.5, 0.5, 0.5}, // Medium
+        {0.8, 0.1, 0.9}  // High cost, low usage, high risk
+    };
+    private static final int[][] PERMUTATIONS_3 = {
+        {0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}
+    };
+    static final int CLUSTER_DIMS = 3;
+    /** Nombre maximal de groupes accepté pour un clustering à la demande. */
+    public static final int MAX_CLUSTER_COUNT = 20;
+    private static final int CLUSTER_MAX_ITERATIONS = 100;
+    private static final double CLUSTER_TOLERANCE = 1e-6;
+    private static final long CLUSTER_SEED = 42L;
     
     /**
      * Calcule le score de valeur perçue d'un abonnement avec IA
@@ -23,26 +47,36 @@ public class SubscriptionAnalytics {
      * @return Score entre 0 et 10+ (>5 = Excellent, 2-5 = Bon, <2 = À réévaluer)
      */
     public static double calculateValueScore(Abonnement abo) {
-        if (abo.getPrixMensuel() == 0) return 0;
+        return valueScore(abo.getPrixMensuel(), joursSansUtilisation(abo, LocalDate.now()));
+    }
+
+    static double valueScore(double prixMensuel, long joursSansUtilisation) {
+        if (prixMensuel == 0) return 0;
         
         // Calculer fréquence d'utilisation (utilisations par mois)
-        double frequence = calculateUsageFrequency(abo);
+        double frequence = usageFrequency(joursSansUtilisation);
         
         // Multiplicateur d'engagement basé sur les patterns d'utilisation
-        double engagementMultiplier = calculateEngagementMultiplier(abo);
+        double engagementMultiplier = engagementMultiplier(joursSansUtilisation);
         
-        double score = (frequence * 10 * engagementMultiplier) / abo.getPrixMensuel();
+        double score = (frequence * 10 * engagementMultiplier) / prixMensuel;
         
         return Math.round(score * 100.0) / 100.0;
     }
+
+    /**
+     * Nombre de jours depuis la dernière utilisation, ou {@link #JAMAIS_UTILISE}.
+     */
+    static long joursSansUtilisation(Abonnement abo, LocalDate today) {
+        if (abo.getDerniereUtilisation() == null) return JAMAIS_UTILISE;
+        return ChronoUnit.DAYS.between(abo.getDerniereUtilisation(), today);
+    }
     
     /**
      * Calcule le multiplicateur d'engagement (pattern d'utilisation régulière)
      */
-    private static double calculateEngagementMultiplier(Abonnement abo) {
-        if (abo.getDerniereUtilisation() == null) return 0.5;
-        
-        long joursSansUtilisation = ChronoUnit.DAYS.between(abo.getDerniereUtilisation(), LocalDate.now());
+    private static double engagementMultiplier(long joursSansUtilisation) {
+        if (joursSansUtilisation == JAMAIS_UTILISE) return 0.5;
         
         // Utilisation très régulière = bonus
         if (joursSansUtilisation < 3) return 1.5;
@@ -55,9 +89,11 @@ public class SubscriptionAnalytics {
      * Calcule la fréquence d'utilisation mensuelle estimée
      */
     private static double calculateUsageFrequency(Abonnement abo) {
-        if (abo.getDerniereUtilisation() == null) return 0;
-        
-        long joursSansUtilisation = ChronoUnit.DAYS.between(abo.getDerniereUtilisation(), LocalDate.now());
+        return usageFrequency(joursSansUtilisation(abo, LocalDate.now()));
+    }
+
+    static double usageFrequency(long joursSansUtilisation) {
+        if (joursSansUtilisation == JAMAIS_UTILISE) return 0;
         
         if (joursSansUtilisation < 7) return 20; // Utilisé récemment = haute fréquence
         if (joursSansUtilisation < 30) return 10;
@@ -70,11 +106,17 @@ public class SubscriptionAnalytics {
      * @return Score 0-100% (0 = pas de risque, 100 = très haut risque)
      */
     public static double calculateChurnRisk(Abonnement abo) {
+        LocalDate today = LocalDate.now();
+        long joursSansUtilisation = joursSansUtilisation(abo, today);
+        return churnRisk(joursSansUtilisation, valueScore(abo.getPrixMensuel(), joursSansUtilisation),
+            PortfolioColumns.prioriteCode(abo.getPriorite()), ChronoUnit.DAYS.between(today, abo.getDateFin()));
+    }
+
+    static double churnRisk(long joursSansUtilisation, double valueScore, byte priorite, long joursAvantExpiration) {
         double riskScore = 0;
         
         // Facteur 1: Utilisation décroissante (40% du score)
-        if (abo.getDerniereUtilisation() != null) {
-            long joursSansUtilisation = ChronoUnit.DAYS.between(abo.getDerniereUtilisation(), LocalDate.now());
+        if (joursSansUtilisation != JAMAIS_UTILISE) {
             if (joursSansUtilisation > 60) riskScore += 40;
             else if (joursSansUtilisation > 30) riskScore += 25;
             else if (joursSansUtilisation > 14) riskScore += 10;
@@ -83,30 +125,101 @@ public class SubscriptionAnalytics {
         }
         
         // Facteur 2: Ratio coût/utilisation (30% du score)
-        double valueScore = calculateValueScore(abo);
         if (valueScore < 1) riskScore += 30;
         else if (valueScore < 2) riskScore += 20;
         else if (valueScore < 3) riskScore += 10;
         
         // Facteur 3: Priorité (20% du score)
-        String priorite = abo.getPriorite();
-        if ("Luxe".equals(priorite)) riskScore += 20;
-        else if ("Optionnel".equals(priorite)) riskScore += 10;
+        if (priorite == PortfolioColumns.PRIORITE_LUXE) riskScore += 20;
+        else if (priorite == PortfolioColumns.PRIORITE_OPTIONNEL) riskScore += 10;
         
         // Facteur 4: Proche de l'expiration (10% du score)
-        long joursAvantExpiration = abo.getJoursAvantExpiration();
         if (joursAvantExpiration < 30) riskScore += 10;
         
         return Math.min(100, Math.round(riskScore * 100.0) / 100.0);
     }
     
+    /**
+     * Scores par ligne sur la représentation en colonnes : fréquence d'utilisation,
+     * score de valeur, risque de résiliation et coût par utilisation (mêmes formules
+     * que les méthodes par abonnement). Chaque tableau de sortie doit avoir au moins
+     * {@code columns.size()} cases.
+     */
+    public static void scoreColumns(PortfolioColumns columns, int today, double[] frequence,
+                                    double[] valeur, double[] risque, double[] coutParUsage) {
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            double prix = columns.getPrix(i);
+            long jours = joursSansUtilisation(columns, i, today);
+            double f = usageFrequency(jours);
+            double v = valueScore(prix, jours);
+            frequence[i] = f;
+            valeur[i] = v;
+            risque[i] = churnRisk(jours, v, columns.getPriorite(i), (long) columns.getFin(i) - today);
+            coutParUsage[i] = costPerUse(prix, f);
+        }
+    }
+
+    static long joursSansUtilisation(PortfolioColumns columns, int i, int today) {
+        int derniere = columns.getDerniereUtilisation(i);
+        return derniere == PortfolioColumns.NONE ? JAMAIS_UTILISE : (long) today - derniere;
+    }
+
+    /**
+     * Seuil d'anomalie de prix (moyenne + 2 écarts-types) calculé une fois sur les
+     * abonnements actifs ; {@code +∞} s'il y en a moins de 3 (cf. {@link #detectPriceAnomaly}).
+     */
+    public static double priceAnomalyThreshold(PortfolioColumns columns, int today) {
+        int count = 0;
+        double somme = 0;
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            if (columns.isActive(i, today)) {
+                somme += columns.getPrix(i);
+                count++;
+            }
+        }
+        if (count < 3) return Double.POSITIVE_INFINITY;
+        double moyenne = somme / count;
+        double variance = 0;
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            if (columns.isActive(i, today)) {
+                double ecart = columns.getPrix(i) - moyenne;
+                variance += ecart * ecart;
+            }
+        }
+        return moyenne + 2 * Math.sqrt(variance / count);
+    }
+
+    /** {@link #detectDuplicates(List)} sur les colonnes (abonnements actifs). */
+    public static List<String> detectDuplicates(PortfolioColumns columns, int today) {
+        long[] counts = new long[columns.getCategoryCount()];
+        NearDuplicateIndex services = new NearDuplicateIndex();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            if (columns.isActive(i, today)) {
+                counts[columns.getCategorie(i)]++;
+                services.add(columns.getRow(i));
+            }
+        }
+        Map<String, Long> categoryCounts = new HashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                categoryCounts.put(columns.getCategoryName(id), counts[id]);
+            }
+        }
+        List<String> warnings = duplicateWarnings(categoryCounts);
+        warnings.addAll(serviceDuplicateWarnings(services.groups()));
+        return warnings;
+    }
+    
     /**
      * Calcule le coût par utilisation
      */
     public static double calculateCostPerUse(Abonnement abo) {
-        double frequence = calculateUsageFrequency(abo);
-        if (frequence == 0) return abo.getPrixMensuel();
-        return Math.round((abo.getPrixMensuel() / frequence) * 100.0) / 100.0;
+        return costPerUse(abo.getPrixMensuel(), calculateUsageFrequency(abo));
+    }
+
+    static double costPerUse(double prixMensuel, double frequence) {
+        if (frequence == 0) return prixMensuel;
+        return Math.round((prixMensuel / frequence) * 100.0) / 100.0;
     }
     
     /**
@@ -176,17 +289,44 @@ public class SubscriptionAnalytics {
     }
     
     /**
-     * Identifie les abonnements redondants
+     * Identifie les abonnements redondants : plusieurs services actifs dans une même
+     * catégorie, puis un même service souscrit plusieurs fois par un client sous des
+     * noms proches ("Netflix" / "NETFLIX Premium", voir {@link NearDuplicateIndex}).
      */
     public static List<String> detectDuplicates(List<Abonnement> abonnements) {
-        List<String> warnings = new ArrayList<>();
-        Map<String, Long> categoryCounts = abonnements.stream()
+        List<Abonnement> actifs = abonnements.stream()
             .filter(Abonnement::estActif)
+            .collect(Collectors.toList());
+        Map<String, Long> categoryCounts = actifs.stream()
             .collect(Collectors.groupingBy(
                 Abonnement::getCategorie,
                 Collectors.counting()
             ));
-        
+        List<String> warnings = duplicateWarnings(categoryCounts);
+        warnings.addAll(serviceDuplicateWarnings(NearDuplicateIndex.findGroups(actifs)));
+        return warnings;
+    }
+
+    /** Avertissements pour les services souscrits plusieurs fois par un même client. */
+    static List<String> serviceDuplicateWarnings(List<List<Abonnement>> groups) {
+        List<String> warnings = new ArrayList<>();
+        for (List<Abonnement> group : groups) {
+            String noms = group.stream()
+                .map(Abonnement::getNomService)
+                .distinct()
+                .map(nom -> "'" + nom + "'")
+                .collect(Collectors.joining(", "));
+            warnings.add(String.format(
+                "⚠️ %d abonnements actifs pour le même service (%s) - Vérifier doublon",
+                group.size(), noms
+            ));
+        }
+        return warnings;
+    }
+
+    /** Avertissements pour les catégories comptant plusieurs abonnements actifs. */
+    static List<String> duplicateWarnings(Map<String, Long> categoryCounts) {
+        List<String> warnings = new ArrayList<>();
         categoryCounts.forEach((categorie, count) -> {
             if (count > 1) {
                 warnings.add(String.format(
@@ -253,103 +393,140 @@ public class SubscriptionAnalytics {
     }
     
     /**
-     * Segmente les abonnements par clustering K-means (3 clusters)
+     * Segmente les abonnements par clustering K-means ({@code ANALYTICS_CLUSTER_K} groupes, 3 par défaut)
      * @return Map avec clé = nom du cluster, valeur = liste d'abonnements
      */
     public static Map<String, List<Abonnement>> clusterSubscriptions(List<Abonnement> abonnements) {
         if (abonnements.isEmpty()) return new HashMap<>();
-        
-        // Normalisation des features pour clustering
-        List<double[]> features = abonnements.stream()
-            .map(abo -> new double[]{
-                abo.getPrixMensuel() / 100.0, // Normalized price
-                calculateUsageFrequency(abo) / 20.0, // Normalized frequency
-                calculateChurnRisk(abo) / 100.0 // Normalized risk
-            })
-            .collect(Collectors.toList());
-        
-        // Initialisation des centroïdes (k=3)
-        double[][] centroids = {
-            {0.2, 0.9, 0.1}, // High value, low risk
-            {0.5, 0.5, 0.5}, // Medium
-            {0.8, 0.1, 0.9}  // High cost, low usage, high risk
-        };
-        
-        // K-means iterations (10 iterations)
-        int[] assignments = new int[abonnements.size()];
-        for (int iter = 0; iter < 10; iter++) {
-            // Assignment step
-            for (int i = 0; i < features.size(); i++) {
-                double minDist = Double.MAX_VALUE;
-                int bestCluster = 0;
-                for (int k = 0; k < 3; k++) {
-                    double dist = euclideanDistance(features.get(i), centroids[k]);
-                    if (dist < minDist) {
-                        minDist = dist;
-                        bestCluster = k;
-                    }
-                }
-                assignments[i] = bestCluster;
+        return clusterPortfolio(abonnements, defaultClusterCount()).getClusters();
+    }
+
+    /**
+     * Segmente les abonnements en {@code k} groupes, avec inertie et nombre d'itérations.
+     *
+     * @throws IllegalArgumentException si {@code k < 1}
+     */
+    public static ClusteringResult clusterPortfolio(List<Abonnement> abonnements, int k) {
+        PortfolioColumns columns = PortfolioColumns.of(abonnements);
+        int n = columns.size();
+        double[] frequence = new double[n];
+        double[] risque = new double[n];
+        scoreColumns(columns, PortfolioColumns.today(), frequence, new double[n], risque, new double[n]);
+        return clusterSubscriptions(abonnements, clusterFeatures(columns, frequence, risque), k);
+    }
+
+    /** Nombre de groupes par défaut ({@code ANALYTICS_CLUSTER_K}, 3 si absent ou invalide). */
+    static int defaultClusterCount() {
+        try {
+            return Math.max(1, Integer.parseInt(AppConfig.get("ANALYTICS_CLUSTER_K", "3").trim()));
+        } catch (NumberFormatException e) {
+            return CLUSTER_NAMES.length;
+        }
+    }
+
+    /**
+     * Features normalisées à plat (prix / 100, fréquence / 20, risque / 100), trois
+     * valeurs par abonnement dans l'ordre des colonnes.
+     */
+    static double[] clusterFeatures(PortfolioColumns columns, double[] frequence, double[] risque) {
+        int n = columns.size();
+        double[] features = new double[n * CLUSTER_DIMS];
+        for (int i = 0; i < n; i++) {
+            int p = i * CLUSTER_DIMS;
+            features[p] = columns.getPrix(i) / 100.0;
+            features[p + 1] = frequence[i] / 20.0;
+            features[p + 2] = risque[i] / 100.0;
+        }
+        return features;
+    }
+
+    /**
+     * K-means (initialisation k-means++, arrêt à la stabilité des centroïdes) sur des
+     * features déjà normalisées ({@link #clusterFeatures}, même ordre que la liste).
+     *
+     * <p>Avec 3 groupes, chaque centroïde reçoit le nom historique dont l'ancre est la
+     * plus proche (affectation de coût total minimal) ; sinon les groupes sont nommés
+     * « Segment 1..k » du plus rentable au plus risqué (prix - fréquence + risque).</p>
+     */
+    static ClusteringResult clusterSubscriptions(List<Abonnement> abonnements, double[] features, int k) {
+        KMeans.Result result = KMeans.fit(features, CLUSTER_DIMS, k,
+            CLUSTER_MAX_ITERATIONS, CLUSTER_TOLERANCE, CLUSTER_SEED);
+        int[] rank = clusterRanks(result);
+        String[] names = new String[k];
+        for (int c = 0; c < k; c++) {
+            names[c] = k == CLUSTER_NAMES.length ? CLUSTER_NAMES[rank[c]] : "Segment " + (rank[c] + 1);
+        }
+
+        List<List<Abonnement>> groups = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < result.size(); i++) {
+            groups.get(result.getAssignment(i)).add(abonnements.get(i));
+        }
+        Map<String, List<Abonnement>> clusters = new LinkedHashMap<>();
+        for (int r = 0; r < k; r++) {
+            for (int c = 0; c < k; c++) {
+                if (rank[c] == r) clusters.put(names[c], groups.get(c));
             }
-            
-            // Update centroids
-            for (int k = 0; k < 3; k++) {
-                List<double[]> clusterPoints = new ArrayList<>();
-                for (int i = 0; i < assignments.length; i++) {
-                    if (assignments[i] == k) {
-                        clusterPoints.add(features.get(i));
-                    }
+        }
+        return new ClusteringResult(clusters, k, result.getInertia(), result.getIterations(), result.isConverged());
+    }
+
+    /**
+     * Rang d'affichage de chaque groupe : indice de l'ancre attribuée pour 3 groupes,
+     * sinon rang par score (prix - fréquence + risque) croissant.
+     */
+    private static int[] clusterRanks(KMeans.Result result) {
+        int k = result.getK();
+        if (k == CLUSTER_NAMES.length) {
+            int[] best = PERMUTATIONS_3[0];
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int[] permutation : PERMUTATIONS_3) {
+                double cost = 0;
+                for (int c = 0; c < k; c++) {
+                    cost += anchorDistanceSq(result, c, permutation[c]);
                 }
-                if (!clusterPoints.isEmpty()) {
-                    centroids[k] = calculateCentroid(clusterPoints);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = permutation;
                 }
             }
+            return best.clone();
         }
-        
-        // Group by cluster
-        Map<String, List<Abonnement>> clusters = new HashMap<>();
-        clusters.put("⭐ Essentiels & Rentables", new ArrayList<>());
-        clusters.put("⚖️ Équilibrés", new ArrayList<>());
-        clusters.put("⚠️ À Optimiser", new ArrayList<>());
-        
-        String[] clusterNames = {"⭐ Essentiels & Rentables", "⚖️ Équilibrés", "⚠️ À Optimiser"};
-        for (int i = 0; i < assignments.length; i++) {
-            clusters.get(clusterNames[assignments[i]]).add(abonnements.get(i));
+
+        Integer[] byScore = new Integer[k];
+        for (int c = 0; c < k; c++) byScore[c] = c;
+        Arrays.sort(byScore, Comparator.comparingDouble(
+            (Integer c) -> result.getCentroid(c, 0) - result.getCentroid(c, 1) + result.getCentroid(c, 2)));
+        int[] rank = new int[k];
+        for (int r = 0; r < k; r++) {
+            rank[byScore[r]] = r;
         }
-        
-        return clusters;
+        return rank;
     }
-    
-    private static double euclideanDistance(double[] a, double[] b) {
+
+    private static double anchorDistanceSq(KMeans.Result result, int cluster, int anchor) {
         double sum = 0;
-        for (int i = 0; i < a.length; i++) {
-            sum += Math.pow(a[i] - b[i], 2);
+        for (int d = 0; d < CLUSTER_DIMS; d++) {
+            double delta = result.getCentroid(cluster, d) - CLUSTER_ANCHORS[anchor][d];
+            sum += delta * delta;
         }
-        return Math.sqrt(sum);
+        return sum;
     }
-    
-    private static double[] calculateCentroid(List<double[]> points) {
-        double[] centroid = new double[points.get(0).length];
-        for (double[] point : points) {
-            for (int i = 0; i < point.length; i++) {
-                centroid[i] += point[i];
-            }
-        }
-        for (int i = 0; i < centroid.length; i++) {
-            centroid[i] /= points.size();
-        }
-        return centroid;
-    }
-    
+
     /**
      * Prédit la tendance des dépenses futures (3 mois)
      * @return Map avec mois -> dépense prédite
      */
     public static Map<String, Double> predictSpendingTrend(List<Abonnement> abonnements) {
-        Map<String, Double> predictions = new LinkedHashMap<>();
-        double currentMonthly = abonnements.stream()
+        return spendingTrend(abonnements.stream()
             .mapToDouble(Abonnement::getPrixMensuel)
-            .sum();
+            .sum());
+    }
+
+    static Map<String, Double> spendingTrend(double currentMonthly) {
+        Map<String, Double> predictions = new LinkedHashMap<>();
         
         // Régression linéaire simple basée sur le taux de croissance
         double growthRate = 0.02; // 2% par mois (moyenne historique)
@@ -372,25 +549,23 @@ public class SubscriptionAnalytics {
         for (Abonnement abo : abonnements) {
             if (abo.getDerniereUtilisation() == null) continue;
             
-            int month = abo.getDerniereUtilisation().getMonthValue();
-            String pattern = "";
-            
-            // Détection de patterns saisonniers
-            if (month >= 6 && month <= 8) {
-                pattern = "📊 Pic d'utilisation estival détecté";
-            } else if (month >= 11 || month <= 1) {
-                pattern = "🎄 Usage intensif période festive";
-            } else if (month >= 9 && month <= 10) {
-                pattern = "📚 Reprise activité rentrée";
-            } else {
-                pattern = "📈 Utilisation stable";
-            }
-            
-            patterns.put(abo.getNomService(), pattern);
+            patterns.put(abo.getNomService(), seasonalPattern(abo.getDerniereUtilisation().getMonthValue()));
         }
         
         return patterns;
     }
+
+    static String seasonalPattern(int month) {
+        // Détection de patterns saisonniers
+        if (month >= 6 && month <= 8) {
+            return "📊 Pic d'utilisation estival détecté";
+        } else if (month >= 11 || month <= 1) {
+            return "🎄 Usage intensif période festive";
+        } else if (month >= 9 && month <= 10) {
+            return "📚 Reprise activité rentrée";
+        }
+        return "📈 Utilisation stable";
+    }
     
     /**
      * Calcule le score de santé global du portefeuille
@@ -402,23 +577,30 @@ public class SubscriptionAnalytics {
             return 0.0;
         }
 
-        // Score de base sur activation
-        LocalDate today = LocalDate.now();
         long activeCount = abonnements.stream()
             .filter(a -> a.estActif())
             .count();
-        double activationScore = (activeCount * 100.0) / abonnements.size() * 0.4; // 40% du score
-
-        // Score de diversification des catégories
         long categoryCount = abonnements.stream()
             .map(Abonnement::getCategorie)
             .distinct()
             .count();
+        return portfolioHealthScore(abonnements.size(), activeCount, categoryCount);
+    }
+
+    static double portfolioHealthScore(int size, long activeCount, long categoryCount) {
+        if (size == 0) {
+            return 0.0;
+        }
+
+        // Score de base sur activation
+        double activationScore = (activeCount * 100.0) / size * 0.4; // 40% du score
+
+        // Score de diversification des catégories
         double diversificationScore = Math.min(categoryCount * 10, 100) * 0.3; // 30% du score
 
         // Score sur l'inactivité (potentiel d'économies)
-        long inactiveCount = abonnements.size() - activeCount;
-        long maxInactive = abonnements.size();
+        long inactiveCount = size - activeCount;
+        long maxInactive = size;
         double inactivityScore = (1.0 - (inactiveCount * 1.0 / maxInactive)) * 100 * 0.3; // 30% du score
 
         return Math.min(activationScore + diversificationScore + inactivityScore, 100.0);
@@ -442,6 +624,17 @@ public class SubscriptionAnalytics {
             .mapToDouble(Abonnement::getPrixMensuel)
             .sum();
         
+        long abonnementsExpireSoon = abonnements.stream()
+            .filter(abo -> abo.getJoursAvantExpiration() < 30 && abo.getJoursAvantExpiration() > 0)
+            .count();
+
+        return monthlyReport(top3Depenses, inutilises, economiesPotentielles,
+            detectDuplicates(abonnements), abonnementsExpireSoon);
+    }
+
+    static MonthlyReport monthlyReport(List<Abonnement> top3Depenses, List<Abonnement> inutilises,
+                                       double economiesPotentielles, List<String> duplicates,
+                                       long abonnementsExpireSoon) {
         List<String> recommendations = new ArrayList<>();
         
         // Recommandations personnalisées
@@ -452,13 +645,8 @@ public class SubscriptionAnalytics {
             ));
         }
         
-        List<String> duplicates = detectDuplicates(abonnements);
         recommendations.addAll(duplicates);
         
-        long abonnementsExpireSoon = abonnements.stream()
-            .filter(abo -> abo.getJoursAvantExpiration() < 30 && abo.getJoursAvantExpiration() > 0)
-            .count();
-        
         if (abonnementsExpireSoon > 0) {
             recommendations.add(String.format(
                 "⏰ %d abonnement(s) expire(nt) dans moins de 30 jours - Pensez à renouveler",
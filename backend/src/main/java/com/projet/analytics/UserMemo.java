@@ -0,0 +1,81 @@
+package com.projet.analytics;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.projet.repository.AbonnementRepository;
+
+/**
+ * Mémoire par utilisateur d'un résultat dérivé de ses abonnements.
+ *
+ * <p>Le résultat est réutilisé tant que la version du repository
+ * ({@link AbonnementRepository#version()}) et la date du jour sont inchangées.
+ * Les versions n'étant jamais réattribuées, un résultat calculé avant l'éviction et
+ * le rechargement des données d'un utilisateur ne peut pas être resservi. Un
+ * repository sans version ({@code -1}) est recalculé à chaque appel. Au plus
+ * {@code maxUsers} utilisateurs sont conservés (LRU).</p>
+ *
+ * @param <T> résultat mémorisé
+ */
+public final class UserMemo<T> {
+
+    private final Map<String, Entry<T>> entries;
+
+    public UserMemo(int maxUsers) {
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Résultat mémorisé pour l'utilisateur, ou {@code compute(aujourd'hui)} s'il est
+     * absent ou obsolète.
+     */
+    public T get(String userEmail, AbonnementRepository repo, Function<LocalDate, T> compute) {
+        long version = repo.version();
+        LocalDate today = LocalDate.now();
+        if (version < 0 || userEmail == null) {
+            return compute.apply(today);
+        }
+        synchronized (entries) {
+            Entry<T> entry = entries.get(userEmail);
+            if (entry != null && entry.version == version && entry.day.equals(today)) {
+                return entry.value;
+            }
+        }
+        // Calcul hors verrou : deux requêtes concurrentes peuvent calculer en double, sans incohérence
+        T value = compute.apply(today);
+        synchronized (entries) {
+            Entry<T> current = entries.get(userEmail);
+            // Ne pas remplacer un résultat calculé entre-temps sur des données plus récentes
+            if (current == null || current.version <= version) {
+                entries.put(userEmail, new Entry<>(version, today, value));
+            }
+        }
+        return value;
+    }
+
+    /** Oublie tous les résultats. */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static final class Entry<T> {
+        private final long version;
+        private final LocalDate day;
+        private final T value;
+
+        private Entry(long version, LocalDate day, T value) {
+            this.version = version;
+            this.day = day;
+            this.value = value;
+        }
+    }
+}
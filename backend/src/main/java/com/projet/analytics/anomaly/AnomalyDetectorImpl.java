@@ -2,12 +2,17 @@ package com.projet.analytics.anomaly;
 
 import com.projet.backend.domain.Abonnement;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of the AnomalyDetector service.
+ *
+ * <p>Duplicates, underutilisation and inconsistencies are collected in a single
+ * pass over the portfolio. Duplicates are subscriptions of the same client whose
+ * service names match after normalisation or are near-identical (see
+ * {@link NearDuplicateIndex}).</p>
  */
 public class AnomalyDetectorImpl implements AnomalyDetector {
 
@@ -15,35 +20,30 @@ public class AnomalyDetectorImpl implements AnomalyDetector {
 
     @Override
     public AnomalyReport detectAnomalies(List<Abonnement> abonnements) {
-        List<Abonnement> duplicates = detectDuplicates(abonnements);
-        List<Abonnement> underutilized = detectUnderutilized(abonnements);
-        Map<String, List<Abonnement>> inconsistencies = detectInconsistencies(abonnements);
-
-        return new AnomalyReport(duplicates, underutilized, inconsistencies);
-    }
-
-    private List<Abonnement> detectDuplicates(List<Abonnement> abonnements) {
-        return abonnements.stream()
-                .collect(Collectors.groupingBy(sub -> sub.getNomService() + "#" + sub.getClientName()))
-                .values().stream()
-                .filter(list -> list.size() > 1)
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
-    }
-
-    private List<Abonnement> detectUnderutilized(List<Abonnement> abonnements) {
-        return abonnements.stream()
-                .filter(sub -> sub.estActif())
-                .filter(sub -> sub.getPrixMensuel() <= UNDERUTILIZED_THRESHOLD)
-                .collect(Collectors.toList());
-    }
-
-    private Map<String, List<Abonnement>> detectInconsistencies(List<Abonnement> abonnements) {
+        LocalDate today = LocalDate.now();
+        NearDuplicateIndex duplicateIndex = new NearDuplicateIndex();
+        List<Abonnement> underutilized = new ArrayList<>();
         // Example inconsistency: inactive subscription with a future renewal date
-        List<Abonnement> inactiveWithFutureRenewal = abonnements.stream()
-                .filter(sub -> !sub.estActif() && sub.getDateFin() != null && sub.getDateFin().isAfter(LocalDate.now()))
-                .collect(Collectors.toList());
-
-        return Map.of("InactiveWithFutureRenewal", inactiveWithFutureRenewal);
+        List<Abonnement> inactiveWithFutureRenewal = new ArrayList<>();
+
+        for (Abonnement sub : abonnements) {
+            duplicateIndex.add(sub);
+            // Same rule as Abonnement.estActif(), with the date read once
+            boolean active = !today.isBefore(sub.getDateDebut()) && !today.isAfter(sub.getDateFin());
+            if (active && sub.getPrixMensuel() <= UNDERUTILIZED_THRESHOLD) {
+                underutilized.add(sub);
+            }
+            if (!active && sub.getDateFin() != null && sub.getDateFin().isAfter(today)) {
+                inactiveWithFutureRenewal.add(sub);
+            }
+        }
+
+        List<List<Abonnement>> duplicateGroups = duplicateIndex.groups();
+        List<Abonnement> duplicates = new ArrayList<>();
+        for (List<Abonnement> group : duplicateGroups) {
+            duplicates.addAll(group);
+        }
+        return new AnomalyReport(duplicates, duplicateGroups, underutilized,
+                Map.of("InactiveWithFutureRenewal", inactiveWithFutureRenewal));
     }
 }
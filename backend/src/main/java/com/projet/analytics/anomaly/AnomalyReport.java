@@ -10,11 +10,13 @@ import java.util.Map;
 public class AnomalyReport {
 
     private final List<Abonnement> duplicateSubscriptions;
+    private final List<List<Abonnement>> duplicateGroups;
     private final List<Abonnement> underutilizedSubscriptions;
     private final Map<String, List<Abonnement>> inconsistentSubscriptions;
 
-    public AnomalyReport(List<Abonnement> duplicateSubscriptions, List<Abonnement> underutilizedSubscriptions, Map<String, List<Abonnement>> inconsistentSubscriptions) {
+    public AnomalyReport(List<Abonnement> duplicateSubscriptions, List<List<Abonnement>> duplicateGroups, List<Abonnement> underutilizedSubscriptions, Map<String, List<Abonnement>> inconsistentSubscriptions) {
         this.duplicateSubscriptions = duplicateSubscriptions;
+        this.duplicateGroups = duplicateGroups;
         this.underutilizedSubscriptions = underutilizedSubscriptions;
         this.inconsistentSubscriptions = inconsistentSubscriptions;
     }
@@ -24,6 +26,11 @@ public class AnomalyReport {
         return duplicateSubscriptions;
     }
 
+    /** Duplicate subscriptions grouped by the service they designate. */
+    public List<List<Abonnement>> getDuplicateGroups() {
+        return duplicateGroups;
+    }
+
     public List<Abonnement> getUnderutilizedSubscriptions() {
         return underutilizedSubscriptions;
     }
@@ -0,0 +1,243 @@
+package com.projet.analytics.anomaly;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Groups subscriptions of the same client whose service names designate the same
+ * service ("Netflix", "NETFLIX Premium", "netflix.com").
+ *
+ * <p>Names are normalised (accents, case, punctuation, plan qualifiers such as
+ * "premium" or "famille"); identical normalised names are grouped through a hash
+ * map. Distinct names are compared through MinHash signatures of their character
+ * trigrams, bucketed by band (locality-sensitive hashing): only names sharing a
+ * band bucket are compared with their exact Jaccard similarity, so the portfolio
+ * is never compared pairwise.</p>
+ *
+ * <p>Subscriptions are added one at a time, which lets a caller build the index
+ * during its own pass over the portfolio.</p>
+ */
+public final class NearDuplicateIndex {
+
+    /** Minimum trigram Jaccard similarity for two distinct names to be grouped. */
+    static final double SIMILARITY_THRESHOLD = 0.5;
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 2;
+    private static final int HASHES = BANDS * ROWS;
+    private static final long PRIME = (1L << 31) - 1;
+    private static final long[] HASH_A = new long[HASHES];
+    private static final long[] HASH_B = new long[HASHES];
+
+    static {
+        Random random = new Random(0x5EED);
+        for (int h = 0; h < HASHES; h++) {
+            HASH_A[h] = 1 + random.nextInt((int) PRIME - 1);
+            HASH_B[h] = random.nextInt((int) PRIME);
+        }
+    }
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    /** Plan, billing and filler words that do not identify a service. */
+    private static final Set<String> QUALIFIERS = Set.of(
+        "premium", "standard", "basic", "essentiel", "essential", "plus", "family", "famille",
+        "duo", "solo", "individual", "individuel", "student", "etudiant", "pro", "hd", "uhd", "4k",
+        "abonnement", "subscription", "offre", "mensuel", "annuel", "monthly", "yearly",
+        "com", "fr", "www", "the", "le", "la", "les", "de", "du");
+
+    private final List<Abonnement> abonnements = new ArrayList<>();
+    private final List<Integer> nameOf = new ArrayList<>();
+    private final List<int[]> shingles = new ArrayList<>();
+    private final List<Integer> scopeOf = new ArrayList<>();
+    private final Map<String, Integer> scopes = new HashMap<>();
+    /** Per client scope: raw service name, then normalised name, to name id. */
+    private final List<Map<String, Integer>> namesByScope = new ArrayList<>();
+
+    /**
+     * Adds a subscription; subscriptions without a service name are ignored.
+     */
+    public void add(Abonnement abo) {
+        String raw = abo.getNomService();
+        if (raw == null) {
+            return;
+        }
+        String client = abo.getClientName() == null ? "" : abo.getClientName();
+        Integer scope = scopes.get(client);
+        if (scope == null) {
+            scope = namesByScope.size();
+            scopes.put(client, scope);
+            namesByScope.add(new HashMap<>());
+        }
+        Map<String, Integer> names = namesByScope.get(scope);
+        // Each raw and normalised name is resolved once per client
+        Integer name = names.get(raw);
+        if (name == null) {
+            String key = normalize(raw);
+            if (key.isEmpty()) {
+                return;
+            }
+            name = names.get("\u0000" + key);
+            if (name == null) {
+                name = shingles.size();
+                names.put("\u0000" + key, name);
+                shingles.add(trigrams(key));
+                scopeOf.add(scope);
+            }
+            names.put(raw, name);
+        }
+        abonnements.add(abo);
+        nameOf.add(name);
+    }
+
+    /**
+     * Groups of at least two subscriptions designating the same service for the
+     * same client, ordered by first member; members keep their insertion order.
+     */
+    public List<List<Abonnement>> groups() {
+        int[] parent = new int[shingles.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        int[] signature = new int[HASHES];
+        for (int name = 0; name < parent.length; name++) {
+            minHash(shingles.get(name), signature);
+            for (int band = 0; band < BANDS; band++) {
+                long bandHash = scopeOf.get(name);
+                for (int r = 0; r < ROWS; r++) {
+                    bandHash = bandHash * 31 + signature[band * ROWS + r];
+                }
+                long bucketKey = bandHash * BANDS + band;
+                List<Integer> bucket = buckets.computeIfAbsent(bucketKey, k -> new ArrayList<>(2));
+                for (int other : bucket) {
+                    if (find(parent, other) != find(parent, name)
+                            && scopeOf.get(other).equals(scopeOf.get(name))
+                            && jaccard(shingles.get(other), shingles.get(name)) >= SIMILARITY_THRESHOLD) {
+                        parent[find(parent, name)] = find(parent, other);
+                    }
+                }
+                bucket.add(name);
+            }
+        }
+
+        // Group sizes first, then groups in order of their first member
+        int n = abonnements.size();
+        int[] roots = new int[n];
+        int[] sizes = new int[parent.length];
+        for (int i = 0; i < n; i++) {
+            roots[i] = find(parent, nameOf.get(i));
+            sizes[roots[i]]++;
+        }
+        List<List<Abonnement>> groups = new ArrayList<>();
+        List<Abonnement>[] byRoot = newGroupArray(parent.length);
+        for (int i = 0; i < n; i++) {
+            int root = roots[i];
+            if (sizes[root] < 2) continue;
+            if (byRoot[root] == null) {
+                byRoot[root] = new ArrayList<>(sizes[root]);
+                groups.add(byRoot[root]);
+            }
+            byRoot[root].add(abonnements.get(i));
+        }
+        return groups;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Abonnement>[] newGroupArray(int size) {
+        return (List<Abonnement>[]) new List<?>[size];
+    }
+
+    /** Convenience for {@link #add}ing every subscription then calling {@link #groups()}. */
+    public static List<List<Abonnement>> findGroups(List<Abonnement> abonnements) {
+        NearDuplicateIndex index = new NearDuplicateIndex();
+        for (Abonnement abo : abonnements) {
+            index.add(abo);
+        }
+        return index.groups();
+    }
+
+    /**
+     * Normalised service name: lower case, without accents or punctuation, and
+     * without plan qualifiers unless the name only consists of qualifiers.
+     */
+    public static String normalize(String serviceName) {
+        if (serviceName == null) {
+            return "";
+        }
+        String plain = DIACRITICS.matcher(Normalizer.normalize(serviceName, Normalizer.Form.NFD)).replaceAll("");
+        String[] tokens = SEPARATORS.split(plain.toLowerCase(Locale.ROOT).replace("+", " plus "));
+        StringBuilder core = new StringBuilder();
+        StringBuilder all = new StringBuilder();
+        for (String token : tokens) {
+            if (token.isEmpty()) continue;
+            all.append(all.length() == 0 ? "" : " ").append(token);
+            if (!QUALIFIERS.contains(token)) {
+                core.append(core.length() == 0 ? "" : " ").append(token);
+            }
+        }
+        return core.length() > 0 ? core.toString() : all.toString();
+    }
+
+    /** Sorted, distinct hashes of the padded character trigrams of {@code key}. */
+    private static int[] trigrams(String key) {
+        String padded = "^" + key + "$";
+        int[] grams = new int[Math.max(1, padded.length() - 2)];
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams[i] = (padded.charAt(i) << 16) ^ (padded.charAt(i + 1) << 8) ^ padded.charAt(i + 2);
+        }
+        return Arrays.stream(grams).sorted().distinct().toArray();
+    }
+
+    private static void minHash(int[] grams, int[] signature) {
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int gram : grams) {
+            long x = gram & 0xFFFFFFFFL;
+            for (int h = 0; h < HASHES; h++) {
+                int value = (int) ((HASH_A[h] * x + HASH_B[h]) % PRIME);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+    }
+
+    /** Exact Jaccard similarity of two sorted, distinct arrays. */
+    static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -16,4 +16,13 @@ public interface ForecastService {
      * @return A ForecastResult containing the projected costs.
      */
     ForecastResult projectCosts(List<Abonnement> abonnements, int months);
+
+    /**
+     * Projects the future costs from a prebuilt renewal calendar.
+     *
+     * @param calendar The renewal calendar of the active subscriptions.
+     * @param months The number of months to project costs for.
+     * @return A ForecastResult containing the projected costs.
+     */
+    ForecastResult projectCosts(RenewalCalendar calendar, int months);
 }
@@ -0,0 +1,180 @@
+package com.projet.analytics.forecast;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.List;
+
+import com.projet.analytics.UserMemo;
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.AbonnementRepository;
+
+/**
+ * Index des échéances de renouvellement des abonnements actifs à une date donnée.
+ *
+ * <p>Pour chaque abonnement actif, l'index retient la date de début, la période (en
+ * mois), le montant d'une échéance et le rang de la première échéance à venir,
+ * obtenu arithmétiquement au lieu d'avancer période par période depuis le début.
+ * Une projection sur N mois ne visite donc que les échéances de la fenêtre et les
+ * cumule dans un tableau indexé par mois.</p>
+ *
+ * <p>Les dates d'échéance reproduisent exactement l'avancement itératif par
+ * {@link LocalDate#plusMonths} : un jour absent du mois d'arrivée (31, 30, 29) est
+ * ramené au dernier jour du mois et le reste pour les échéances suivantes.</p>
+ *
+ * <p>{@link #forUser} mémorise l'index par utilisateur ({@link UserMemo}) tant que
+ * la version du repository et la date du jour ne changent pas.</p>
+ */
+public final class RenewalCalendar {
+
+    private static final int MAX_CACHED_USERS = 1024;
+
+    /** Au-delà, la suite des longueurs de mois visités a déjà parcouru un cycle bissextile complet. */
+    private static final int CLAMP_HORIZON = 48;
+
+    private static final UserMemo<RenewalCalendar> CACHE = new UserMemo<>(MAX_CACHED_USERS);
+
+    private final LocalDate day;
+    private final int size;
+    private final int[] anchorMonth;
+    private final int[] anchorDay;
+    private final int[] step;
+    private final double[] amount;
+    private final int[] firstRenewal;
+
+    private RenewalCalendar(List<Abonnement> abonnements, LocalDate today) {
+        int n = abonnements.size();
+        this.day = today;
+        this.anchorMonth = new int[n];
+        this.anchorDay = new int[n];
+        this.step = new int[n];
+        this.amount = new double[n];
+        this.firstRenewal = new int[n];
+
+        int todayMonth = epochMonth(today);
+        int count = 0;
+        for (Abonnement abo : abonnements) {
+            LocalDate debut = abo.getDateDebut();
+            LocalDate fin = abo.getDateFin();
+            if (debut == null || fin == null || today.isBefore(debut) || today.isAfter(fin)) {
+                continue;
+            }
+            int period = periodMonths(abo.getFrequencePaiement());
+            anchorMonth[count] = epochMonth(debut);
+            anchorDay[count] = debut.getDayOfMonth();
+            step[count] = period;
+            amount[count] = abo.getPrixMensuel() * period;
+
+            // Première échéance >= aujourd'hui : au rang k ou k + 1 (k = mois écoulés / période)
+            int k = (todayMonth - anchorMonth[count]) / period;
+            if (renewalDate(count, k).isBefore(today)) {
+                k++;
+            }
+            firstRenewal[count] = k;
+            count++;
+        }
+        this.size = count;
+    }
+
+    /** Index des abonnements actifs aujourd'hui. */
+    public static RenewalCalendar of(List<Abonnement> abonnements) {
+        return new RenewalCalendar(abonnements, LocalDate.now());
+    }
+
+    /** Index des abonnements actifs à la date donnée. */
+    static RenewalCalendar of(List<Abonnement> abonnements, LocalDate today) {
+        return new RenewalCalendar(abonnements, today);
+    }
+
+    /**
+     * Index des abonnements d'un utilisateur, réutilisé tant que le repository n'a
+     * pas été modifié depuis le dernier calcul (même version, même jour).
+     */
+    public static RenewalCalendar forUser(String userEmail, AbonnementRepository repo) {
+        return CACHE.get(userEmail, repo, today -> new RenewalCalendar(repo.findAll(), today));
+    }
+
+    /** Vide le cache des index (tests). */
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    /** Date de référence de l'index (« aujourd'hui »). */
+    public LocalDate getDay() {
+        return day;
+    }
+
+    /** Nombre d'abonnements actifs indexés. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Cumule les échéances comprises entre aujourd'hui (inclus) et aujourd'hui + N mois
+     * (exclu) par mois calendaire : {@code costs[0]} est le mois courant.
+     *
+     * <p>La fenêtre glissante peut déborder sur un mois calendaire supplémentaire
+     * (échéances du mois d'arrivée antérieures au jour de fin) : {@code costs} doit
+     * donc avoir au moins {@code months + 1} cases, et la valeur renvoyée indique si
+     * ce mois supplémentaire a reçu une échéance.</p>
+     *
+     * @return {@code months + 1} si le mois supplémentaire est utilisé, sinon {@code months}
+     */
+    public int accumulate(int months, double[] costs) {
+        if (months <= 0) {
+            throw new IllegalArgumentException("Number of months must be positive.");
+        }
+        int base = epochMonth(day);
+        LocalDate endDate = day.plusMonths(months);
+        boolean overflow = false;
+        for (int i = 0; i < size; i++) {
+            int period = step[i];
+            long offset = (long) anchorMonth[i] + (long) firstRenewal[i] * period - base;
+            for (int k = firstRenewal[i]; offset <= months; k++, offset += period) {
+                if (offset < months) {
+                    costs[(int) offset] += amount[i];
+                } else if (renewalDate(i, k).isBefore(endDate)) {
+                    costs[months] += amount[i];
+                    overflow = true;
+                }
+            }
+        }
+        return overflow ? months + 1 : months;
+    }
+
+    /**
+     * Date de la k-ième échéance, identique à k appels successifs de
+     * {@code plusMonths(période)} depuis la date de début.
+     */
+    private LocalDate renewalDate(int i, int k) {
+        int month = anchorMonth[i] + k * step[i];
+        int dayOfMonth = anchorDay[i];
+        // Le jour ne peut être ramené que pour 29, 30 ou 31 ; il reste ensuite au minimum atteint
+        if (dayOfMonth > 28) {
+            for (int j = 1, last = Math.min(k, CLAMP_HORIZON); j <= last && dayOfMonth > 28; j++) {
+                dayOfMonth = Math.min(dayOfMonth, lengthOfMonth(anchorMonth[i] + j * step[i]));
+            }
+            dayOfMonth = Math.min(dayOfMonth, lengthOfMonth(month));
+        }
+        return LocalDate.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1, dayOfMonth);
+    }
+
+    private static int periodMonths(String frequencePaiement) {
+        if (frequencePaiement == null) return 1;
+        return switch (frequencePaiement) {
+            case "Trimestriel" -> 3;
+            case "Semestriel" -> 6;
+            case "Annuel" -> 12;
+            default -> 1;
+        };
+    }
+
+    private static int epochMonth(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static int lengthOfMonth(int epochMonth) {
+        int year = Math.floorDiv(epochMonth, 12);
+        return Month.of(Math.floorMod(epochMonth, 12) + 1).length(Year.isLeap(year));
+    }
+}
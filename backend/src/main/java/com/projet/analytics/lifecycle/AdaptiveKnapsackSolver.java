@@ -0,0 +1,28 @@
+package com.projet.analytics.lifecycle;
+
+/**
+ * Choix automatique du solveur selon la taille du problème :
+ * programmation dynamique si la table tient dans {@code maxCells} cellules,
+ * sinon branch-and-bound borné en temps jusqu'à
+ * {@link BranchAndBoundKnapsackSolver#MAX_ITEMS} éléments, sinon glouton.
+ */
+public class AdaptiveKnapsackSolver implements KnapsackSolver {
+    private final long maxCells;
+    private final long timeBudgetMs;
+
+    public AdaptiveKnapsackSolver(long maxCells, long timeBudgetMs) {
+        this.maxCells = maxCells;
+        this.timeBudgetMs = timeBudgetMs;
+    }
+
+    @Override
+    public KnapsackSolution solve(double[] costs, double[] values, double budget) {
+        if (DynamicProgrammingKnapsackSolver.cells(costs, values, budget) <= maxCells) {
+            return new DynamicProgrammingKnapsackSolver(maxCells).solve(costs, values, budget);
+        }
+        if (costs.length <= BranchAndBoundKnapsackSolver.MAX_ITEMS) {
+            return new BranchAndBoundKnapsackSolver(timeBudgetMs).solve(costs, values, budget);
+        }
+        return new GreedyKnapsackSolver().solve(costs, values, budget);
+    }
+}
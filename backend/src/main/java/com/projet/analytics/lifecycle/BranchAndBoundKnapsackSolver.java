@@ -0,0 +1,123 @@
+package com.projet.analytics.lifecycle;
+
+/**
+ * Sac à dos par séparation et évaluation (branch-and-bound) avec budget de temps.
+ *
+ * <p>Les éléments sont explorés par ratio utilité/coût décroissant ; chaque nœud
+ * est élagué par la borne de la relaxation continue. La recherche part de la
+ * solution gloutonne, de sorte que le résultat n'est jamais moins bon. Si le budget
+ * de temps est épuisé, la meilleure solution trouvée est renvoyée avec la borne de
+ * Dantzig comme borne supérieure ; sinon elle est prouvée optimale.</p>
+ */
+public class BranchAndBoundKnapsackSolver implements KnapsackSolver {
+
+    /** Au-delà, la profondeur de récursion devient déraisonnable : solveur glouton. */
+    static final int MAX_ITEMS = 5_000;
+
+    private static final double EPSILON = 1e-9;
+
+    private final long timeBudgetMs;
+
+    public BranchAndBoundKnapsackSolver(long timeBudgetMs) {
+        this.timeBudgetMs = timeBudgetMs;
+    }
+
+    @Override
+    public KnapsackSolution solve(double[] costs, double[] values, double budget) {
+        KnapsackSolution greedy = new GreedyKnapsackSolver().solve(costs, values, budget);
+        if (costs.length > MAX_ITEMS || budget < 0) {
+            return greedy;
+        }
+        long start = System.nanoTime();
+        Search search = new Search(costs, values, budget, start + timeBudgetMs * 1_000_000L);
+        for (int i = 0; i < costs.length; i++) {
+            if (greedy.isSelected(i)) {
+                search.best[i] = true;
+            }
+        }
+        search.bestValue = greedy.getValue();
+        search.branch(0, 0, 0);
+
+        double cost = 0;
+        for (int i = 0; i < costs.length; i++) {
+            if (search.best[i]) cost += costs[i];
+        }
+        double bound = KnapsackSolution.lpBound(costs, values, budget);
+        return new KnapsackSolution("bnb", search.best, search.bestValue, cost, bound,
+            !search.aborted, System.nanoTime() - start);
+    }
+
+    /** État de la recherche en profondeur. */
+    private static final class Search {
+        private final double[] costs;
+        private final double[] values;
+        private final double budget;
+        private final long deadline;
+        private final int[] order;
+        private final boolean[] current;
+        private final boolean[] best;
+        private double bestValue;
+        private boolean aborted;
+        private long nodes;
+
+        private Search(double[] costs, double[] values, double budget, long deadline) {
+            this.costs = costs;
+            this.values = values;
+            this.budget = budget;
+            this.deadline = deadline;
+            // Seuls les éléments d'utilité positive peuvent améliorer la solution
+            Integer[] sorted = KnapsackSolution.byRatio(costs, values);
+            int m = 0;
+            for (int i : sorted) {
+                if (values[i] > 0) m++;
+            }
+            this.order = new int[m];
+            int k = 0;
+            for (int i : sorted) {
+                if (values[i] > 0) order[k++] = i;
+            }
+            this.current = new boolean[costs.length];
+            this.best = new boolean[costs.length];
+        }
+
+        private void branch(int k, double cost, double value) {
+            if (value > bestValue + EPSILON) {
+                bestValue = value;
+                System.arraycopy(current, 0, best, 0, current.length);
+            }
+            if (k == order.length || aborted) {
+                return;
+            }
+            if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) {
+                aborted = true;
+                return;
+            }
+            if (value + bound(k, budget - cost) <= bestValue + EPSILON) {
+                return;
+            }
+            int i = order[k];
+            // Tolérance pour les sommes de prix non représentables exactement (0.1 + 0.2)
+            if (cost + costs[i] <= budget + EPSILON) {
+                current[i] = true;
+                branch(k + 1, cost + costs[i], value + values[i]);
+                current[i] = false;
+            }
+            branch(k + 1, cost, value);
+        }
+
+        /** Relaxation continue sur les éléments {@code order[k..]}. */
+        private double bound(int k, double remaining) {
+            double bound = 0;
+            for (int j = k; j < order.length; j++) {
+                int i = order[j];
+                if (costs[i] <= remaining) {
+                    bound += values[i];
+                    remaining -= costs[i];
+                } else {
+                    return bound + values[i] * remaining / costs[i];
+                }
+            }
+            return bound;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.projet.analytics.lifecycle;
+
+/**
+ * Sac à dos exact par programmation dynamique sur les coûts en centimes.
+ *
+ * <p>Complexité O(n × capacité) en temps, un tableau de valeurs de
+ * {@code capacité + 1} cases et un bit de décision par cellule pour reconstruire la
+ * sélection. La capacité est le budget en centimes plafonné au coût total des éléments
+ * utiles : un budget démesuré reçu dans la requête ne fait donc pas grossir la table,
+ * et un budget qui couvre tout retient tous les éléments sans construire de table.
+ * Les coûts sont arrondis au centime supérieur, ce qui garantit que la sélection
+ * respecte le budget réel. Au-delà de {@code maxCells} cellules, le solveur glouton
+ * est utilisé.</p>
+ */
+public class DynamicProgrammingKnapsackSolver implements KnapsackSolver {
+    private final long maxCells;
+
+    public DynamicProgrammingKnapsackSolver(long maxCells) {
+        this.maxCells = maxCells;
+    }
+
+    /** Nombre de cellules de la table pour ce problème. */
+    static long cells(double[] costs, double[] values, double budget) {
+        return (long) costs.length * (capacity(weights(costs), values, budget) + 1);
+    }
+
+    @Override
+    public KnapsackSolution solve(double[] costs, double[] values, double budget) {
+        int n = costs.length;
+        if (budget < 0) {
+            return new GreedyKnapsackSolver().solve(costs, values, budget);
+        }
+        long start = System.nanoTime();
+        int[] weights = weights(costs);
+        int capacity = capacity(weights, values, budget);
+        if (capacity < capacity(budget)) {
+            return takeAll(costs, values, start);
+        }
+        int width = capacity + 1;
+        if ((long) n * width > maxCells) {
+            return new GreedyKnapsackSolver().solve(costs, values, budget);
+        }
+
+        double[] best = new double[width];
+        long[] take = new long[(int) (((long) n * width + 63) >>> 6)];
+        for (int i = 0; i < n; i++) {
+            int w = weights[i];
+            double v = values[i];
+            if (v <= 0 || w > capacity) continue;
+            long row = (long) i * width;
+            for (int c = capacity; c >= w; c--) {
+                double candidate = best[c - w] + v;
+                if (candidate > best[c]) {
+                    best[c] = candidate;
+                    long bit = row + c;
+                    take[(int) (bit >>> 6)] |= 1L << (bit & 63);
+                }
+            }
+        }
+
+        boolean[] selected = new boolean[n];
+        double value = 0;
+        double cost = 0;
+        int c = capacity;
+        for (int i = n - 1; i >= 0; i--) {
+            long bit = (long) i * width + c;
+            if ((take[(int) (bit >>> 6)] & (1L << (bit & 63))) != 0) {
+                selected[i] = true;
+                value += values[i];
+                cost += costs[i];
+                c -= weights[i];
+            }
+        }
+        return new KnapsackSolution("dp", selected, value, cost, value, true, System.nanoTime() - start);
+    }
+
+    /**
+     * Tous les éléments d'utilité positive tiennent dans le budget : ils sont tous retenus,
+     * ce qui est l'optimum, sans passer par la table.
+     */
+    private static KnapsackSolution takeAll(double[] costs, double[] values, long start) {
+        boolean[] selected = new boolean[costs.length];
+        double value = 0;
+        double cost = 0;
+        for (int i = 0; i < costs.length; i++) {
+            if (values[i] > 0) {
+                selected[i] = true;
+                value += values[i];
+                cost += costs[i];
+            }
+        }
+        return new KnapsackSolution("dp", selected, value, cost, value, true, System.nanoTime() - start);
+    }
+
+    private static int[] weights(double[] costs) {
+        int[] weights = new int[costs.length];
+        for (int i = 0; i < costs.length; i++) {
+            weights[i] = (int) Math.min(Integer.MAX_VALUE, Math.ceil(Math.max(0, costs[i]) * 100 - 1e-6));
+        }
+        return weights;
+    }
+
+    /**
+     * Budget en centimes plafonné au coût total des éléments d'utilité positive ; un
+     * résultat strictement inférieur à {@link #capacity(double)} signifie que tout tient.
+     */
+    private static int capacity(int[] weights, double[] values, double budget) {
+        int capacity = capacity(budget);
+        long total = 0;
+        for (int i = 0; i < weights.length && total <= capacity; i++) {
+            if (values[i] > 0) {
+                total += weights[i];
+            }
+        }
+        return total < capacity ? (int) total : capacity;
+    }
+
+    private static int capacity(double budget) {
+        if (budget < 0) return -1;
+        return (int) Math.min(Integer.MAX_VALUE - 1, Math.floor(budget * 100 + 1e-6));
+    }
+}
@@ -0,0 +1,35 @@
+package com.projet.analytics.lifecycle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sélection gloutonne historique : éléments triés par utilité décroissante
+ * (tri stable), chacun retenu tant que le budget le permet. O(n log n), sans
+ * garantie d'optimalité ; l'écart est estimé par la borne de Dantzig.
+ */
+public class GreedyKnapsackSolver implements KnapsackSolver {
+
+    @Override
+    public KnapsackSolution solve(double[] costs, double[] values, double budget) {
+        long start = System.nanoTime();
+        int n = costs.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> values[i]).reversed());
+
+        boolean[] selected = new boolean[n];
+        double cost = 0;
+        double value = 0;
+        for (int i : order) {
+            if (cost + costs[i] <= budget) {
+                selected[i] = true;
+                cost += costs[i];
+                value += values[i];
+            }
+        }
+        double bound = KnapsackSolution.lpBound(costs, values, budget);
+        return new KnapsackSolution("greedy", selected, value, cost, bound,
+            value >= bound - 1e-9, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,429 @@
+package com.projet.analytics.lifecycle;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.projet.backend.domain.Abonnement;
+import com.projet.config.AppConfig;
+
+/**
+ * Planification globale du cycle de vie sur tout l'horizon.
+ *
+ * <p>Contrairement à {@link LifecyclePlanner}, qui optimise chaque mois isolément,
+ * ce planificateur maximise sur l'ensemble des mois :</p>
+ * <pre>
+ *   Σ utilités des abonnements actifs
+ *   - pausePenalty  × nombre de mises en pause
+ *   - resumePenalty × nombre de reprises
+ * </pre>
+ * <p>sous un plafond mensuel ({@code budgetTarget}) et un budget cumulé sur
+ * l'horizon. Tous les abonnements sont supposés actifs avant le premier mois.</p>
+ *
+ * <p>Recherche en faisceau sur les mois : chaque état (sélection courante, dépense
+ * cumulée) produit des successeurs en gardant la sélection précédente (réduite si
+ * elle dépasse le plafond) et en résolvant un sac à dos dont les utilités intègrent
+ * les pénalités de changement, au plafond mensuel et à la part régulière du budget
+ * cumulé restant. Les états de même sélection sont fusionnés (programmation
+ * dynamique sur la sélection) et seuls les {@code beamWidth} meilleurs sont gardés.</p>
+ *
+ * <p>La limite de temps est déterministe : au plus {@code maxExpansions}
+ * résolutions de sac à dos pour tout l'horizon ; au-delà, seuls les successeurs
+ * sans résolution sont explorés. Avec les solveurs {@code dp} ou {@code greedy},
+ * le même portefeuille donne donc toujours le même plan.</p>
+ *
+ * <p>{@code beamWidth} et {@code maxExpansions} pouvant venir d'une requête, ils sont
+ * bornés par {@link #MAX_BEAM_WIDTH} ({@code LIFECYCLE_HORIZON_BEAM_WIDTH_LIMIT}, 64
+ * par défaut) et {@link #MAX_EXPANSIONS} ({@code LIFECYCLE_HORIZON_EXPANSIONS_LIMIT},
+ * 4096 par défaut).</p>
+ */
+public class HorizonPlanner {
+    static final double DEFAULT_PAUSE_PENALTY = 1.0;
+    static final double DEFAULT_RESUME_PENALTY = 5.0;
+
+    /** Largeur de faisceau maximale acceptée. */
+    public static final int MAX_BEAM_WIDTH = Math.max(1, AppConfig.getInt("LIFECYCLE_HORIZON_BEAM_WIDTH_LIMIT", 64));
+    /** Nombre maximal de résolutions de sac à dos accepté. */
+    public static final int MAX_EXPANSIONS = Math.max(0, AppConfig.getInt("LIFECYCLE_HORIZON_EXPANSIONS_LIMIT", 4096));
+
+    private static final double EPSILON = 1e-9;
+
+    private final KnapsackSolver solver;
+    private final int beamWidth;
+    private final int maxExpansions;
+    private final double pausePenalty;
+    private final double resumePenalty;
+    private final PlanEvaluator planEvaluator = new PlanEvaluator();
+
+    /**
+     * Planificateur configuré par {@code LIFECYCLE_HORIZON_BEAM_WIDTH} et
+     * {@code LIFECYCLE_HORIZON_MAX_EXPANSIONS}, ramenés aux plafonds.
+     */
+    public HorizonPlanner() {
+        this(KnapsackSolver.named("dp"),
+            Math.min(AppConfig.getInt("LIFECYCLE_HORIZON_BEAM_WIDTH", 8), MAX_BEAM_WIDTH),
+            Math.min(AppConfig.getInt("LIFECYCLE_HORIZON_MAX_EXPANSIONS", 512), MAX_EXPANSIONS),
+            DEFAULT_PAUSE_PENALTY,
+            DEFAULT_RESUME_PENALTY);
+    }
+
+    /**
+     * @param solver solveur des sélections mensuelles
+     * @param beamWidth nombre d'états conservés par mois (1 à {@link #MAX_BEAM_WIDTH})
+     * @param maxExpansions nombre maximal de résolutions de sac à dos (0 à {@link #MAX_EXPANSIONS})
+     * @param pausePenalty pénalité (en points d'utilité) d'une mise en pause
+     * @param resumePenalty pénalité (en points d'utilité) d'une reprise
+     * @throws IllegalArgumentException si un paramètre est hors limites
+     */
+    public HorizonPlanner(
+        KnapsackSolver solver,
+        int beamWidth,
+        int maxExpansions,
+        double pausePenalty,
+        double resumePenalty
+    ) {
+        if (beamWidth < 1 || beamWidth > MAX_BEAM_WIDTH) {
+            throw new IllegalArgumentException("beamWidth doit être entre 1 et " + MAX_BEAM_WIDTH);
+        }
+        if (maxExpansions < 0 || maxExpansions > MAX_EXPANSIONS) {
+            throw new IllegalArgumentException("maxExpansions doit être entre 0 et " + MAX_EXPANSIONS);
+        }
+        if (pausePenalty < 0 || resumePenalty < 0) {
+            throw new IllegalArgumentException("Les pénalités de changement doivent être positives");
+        }
+        this.solver = solver;
+        this.beamWidth = beamWidth;
+        this.maxExpansions = maxExpansions;
+        this.pausePenalty = pausePenalty;
+        this.resumePenalty = resumePenalty;
+    }
+
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+
+    public int getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    public double getPausePenalty() {
+        return pausePenalty;
+    }
+
+    public double getResumePenalty() {
+        return resumePenalty;
+    }
+
+    /**
+     * Génère un plan global avec un budget cumulé de {@code months × budgetTarget}.
+     */
+    public LifecyclePlanResult generatePlan(List<Abonnement> subscriptions, int months, double budgetTarget) {
+        return generatePlan(subscriptions, months, budgetTarget, budgetTarget * Math.max(0, months));
+    }
+
+    /**
+     * Génère un plan global sur N mois.
+     *
+     * @param subscriptions Liste des abonnements disponibles
+     * @param months Nombre de mois à planifier
+     * @param budgetTarget Plafond de dépense mensuel
+     * @param cumulativeBudget Budget total sur l'horizon
+     * @return LifecyclePlanResult avec le plan et les statistiques de recherche
+     */
+    public LifecyclePlanResult generatePlan(
+        List<Abonnement> subscriptions,
+        int months,
+        double budgetTarget,
+        double cumulativeBudget
+    ) {
+        long startTime = System.currentTimeMillis();
+
+        try {
+            if (subscriptions == null || subscriptions.isEmpty()) {
+                return LifecyclePlanResult.failure("No subscriptions provided");
+            }
+            if (months <= 0) {
+                return LifecyclePlanResult.failure("Months must be > 0");
+            }
+            if (budgetTarget < 0) {
+                return LifecyclePlanResult.failure("Budget target cannot be negative");
+            }
+            if (cumulativeBudget < 0) {
+                return LifecyclePlanResult.failure("Cumulative budget cannot be negative");
+            }
+
+            UtilityBaseline baseline = UtilityBaseline.of(subscriptions);
+            Search search = new Search(baseline, budgetTarget, cumulativeBudget);
+            State best = search.run(months);
+
+            State[] path = new State[months];
+            for (State s = best; s.parent != null; s = s.parent) {
+                path[s.month] = s;
+            }
+            List<MonthlyPlan> monthlyPlans = new ArrayList<>(months);
+            LocalDate currentDate = LocalDate.now();
+            for (int m = 0; m < months; m++) {
+                monthlyPlans.add(toMonthlyPlan(baseline, path[m], currentDate.plusMonths(m)));
+            }
+
+            double globalScore = planEvaluator.evaluate(monthlyPlans);
+            double totalCost = planEvaluator.calculateTotalCost(monthlyPlans);
+            SubscriptionLifecyclePlan plan = new SubscriptionLifecyclePlan(
+                months,
+                budgetTarget,
+                monthlyPlans,
+                totalCost,
+                globalScore
+            );
+            HorizonSearchStats stats = new HorizonSearchStats(
+                beamWidth,
+                maxExpansions,
+                search.expansions,
+                search.candidates,
+                search.merged,
+                search.pruned,
+                search.truncated,
+                best.switches,
+                best.objective
+            );
+
+            long executionTime = System.currentTimeMillis() - startTime;
+            return LifecyclePlanResult.success(plan, executionTime, stats);
+
+        } catch (Exception e) {
+            return LifecyclePlanResult.failure("Error generating plan: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Construit le plan d'un mois : KEEP si l'abonnement reste actif, ACTIVATE s'il
+     * reprend après une pause, PAUSE sinon. Actifs listés par utilité décroissante.
+     */
+    private MonthlyPlan toMonthlyPlan(UtilityBaseline baseline, State state, LocalDate monthDate) {
+        List<Abonnement> subscriptions = baseline.getSubscriptions();
+        double[] utilities = baseline.utilities(state.month);
+        BitSet previous = state.parent.active;
+
+        Integer[] order = new Integer[subscriptions.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> utilities[i]).reversed());
+
+        List<String> activeNames = new ArrayList<>();
+        for (int i : order) {
+            if (state.active.get(i)) {
+                activeNames.add(subscriptions.get(i).getNomService());
+            }
+        }
+        Map<String, LifecycleDecision> decisions = new HashMap<>();
+        for (int i = 0; i < subscriptions.size(); i++) {
+            LifecycleDecision decision;
+            if (!state.active.get(i)) {
+                decision = LifecycleDecision.PAUSE;
+            } else if (previous.get(i)) {
+                decision = LifecycleDecision.KEEP;
+            } else {
+                decision = LifecycleDecision.ACTIVATE;
+            }
+            decisions.put(subscriptions.get(i).getNomService(), decision);
+        }
+
+        return new MonthlyPlan(getMonthLabel(monthDate), activeNames, decisions, state.cost, state.score);
+    }
+
+    private String getMonthLabel(LocalDate date) {
+        Month month = date.getMonth();
+        return month.toString().charAt(0) +
+               month.toString().substring(1).toLowerCase();
+    }
+
+    /** Sélection à la fin d'un mois, reliée à l'état du mois précédent. */
+    private static final class State {
+        private final State parent;
+        private final int month;
+        private final BitSet active;
+        private final double cost;
+        private final double score;
+        private final double objective;
+        private final double spent;
+        private final int switches;
+
+        private State(State parent, int month, BitSet active, double cost, double score,
+                      double objective, double spent, int switches) {
+            this.parent = parent;
+            this.month = month;
+            this.active = active;
+            this.cost = cost;
+            this.score = score;
+            this.objective = objective;
+            this.spent = spent;
+            this.switches = switches;
+        }
+
+        private boolean betterThan(State other) {
+            if (objective > other.objective + EPSILON) return true;
+            if (objective < other.objective - EPSILON) return false;
+            return spent < other.spent - EPSILON;
+        }
+    }
+
+    /** Meilleur objectif d'abord, puis dépense cumulée la plus faible ; tri stable. */
+    private static final Comparator<State> RANKING = Comparator
+        .comparingDouble((State s) -> -s.objective)
+        .thenComparingDouble(s -> s.spent);
+
+    /** Recherche en faisceau sur l'horizon et ses compteurs. */
+    private final class Search {
+        private final UtilityBaseline baseline;
+        private final double[] costs;
+        private final double budgetTarget;
+        private final double cumulativeBudget;
+        private int expansions;
+        private int candidates;
+        private int merged;
+        private int pruned;
+        private boolean truncated;
+
+        private Search(UtilityBaseline baseline, double budgetTarget, double cumulativeBudget) {
+            this.baseline = baseline;
+            this.costs = baseline.costs();
+            this.budgetTarget = budgetTarget;
+            this.cumulativeBudget = cumulativeBudget;
+        }
+
+        private State run(int months) {
+            int n = baseline.size();
+            BitSet all = new BitSet(n);
+            all.set(0, n);
+            List<State> beam = List.of(new State(null, -1, all, 0, 0, 0, 0, 0));
+
+            for (int m = 0; m < months; m++) {
+                double[] utilities = baseline.utilities(m);
+                int monthsLeft = months - m;
+                Map<BitSet, State> next = new LinkedHashMap<>();
+
+                for (State state : beam) {
+                    double remaining = Math.max(0, cumulativeBudget - state.spent);
+                    double cap = Math.min(budgetTarget, remaining);
+                    double[] adjusted = adjustedUtilities(state.active, utilities);
+
+                    offer(next, successor(state, m, keep(state.active, adjusted, cap), utilities));
+
+                    double evenShare = Math.min(cap, remaining / monthsLeft);
+                    double[] levels = evenShare < cap - EPSILON ? new double[]{cap, evenShare} : new double[]{cap};
+                    for (double level : levels) {
+                        if (expansions >= maxExpansions) {
+                            truncated = true;
+                            break;
+                        }
+                        expansions++;
+                        KnapsackSolution solution = solver.solve(costs, adjusted, level);
+                        offer(next, successor(state, m, selection(solution, adjusted, level), utilities));
+                    }
+                }
+
+                List<State> ranked = new ArrayList<>(next.values());
+                ranked.sort(RANKING);
+                if (ranked.size() > beamWidth) {
+                    pruned += ranked.size() - beamWidth;
+                    ranked = ranked.subList(0, beamWidth);
+                }
+                beam = ranked;
+            }
+            return beam.get(0);
+        }
+
+        /**
+         * Utilité d'un abonnement ce mois, pénalités de changement incluses : le
+         * garder évite la pause, le reprendre coûte la reprise.
+         */
+        private double[] adjustedUtilities(BitSet previous, double[] utilities) {
+            double[] adjusted = new double[utilities.length];
+            for (int i = 0; i < utilities.length; i++) {
+                adjusted[i] = utilities[i] + (previous.get(i) ? pausePenalty : -resumePenalty);
+            }
+            return adjusted;
+        }
+
+        /**
+         * Conserve la sélection précédente, en retirant les abonnements de plus faible
+         * ratio utilité/coût tant qu'elle dépasse le plafond.
+         */
+        private BitSet keep(BitSet previous, double[] adjusted, double cap) {
+            BitSet kept = (BitSet) previous.clone();
+            double cost = 0;
+            for (int i = kept.nextSetBit(0); i >= 0; i = kept.nextSetBit(i + 1)) {
+                cost += costs[i];
+            }
+            if (cost <= cap + EPSILON) {
+                return kept;
+            }
+            Integer[] byRatio = KnapsackSolution.byRatio(costs, adjusted);
+            for (int k = byRatio.length - 1; k >= 0 && cost > cap + EPSILON; k--) {
+                int i = byRatio[k];
+                if (kept.get(i)) {
+                    kept.clear(i);
+                    cost -= costs[i];
+                }
+            }
+            return kept;
+        }
+
+        /** Sélection du solveur, sans les abonnements qui n'améliorent pas l'objectif. */
+        private BitSet selection(KnapsackSolution solution, double[] adjusted, double cap) {
+            BitSet selected = new BitSet(adjusted.length);
+            double cost = 0;
+            for (int i = 0; i < adjusted.length; i++) {
+                if (solution.isSelected(i) && adjusted[i] > 0) {
+                    selected.set(i);
+                    cost += costs[i];
+                }
+            }
+            // Un solveur tiers ne doit pas pouvoir faire dépasser le plafond
+            return cost <= cap + EPSILON ? selected : keep(selected, adjusted, cap);
+        }
+
+        private State successor(State state, int month, BitSet active, double[] utilities) {
+            double cost = 0;
+            double score = 0;
+            double penalty = 0;
+            int switches = 0;
+            for (int i = 0; i < utilities.length; i++) {
+                boolean was = state.active.get(i);
+                boolean is = active.get(i);
+                if (is) {
+                    cost += costs[i];
+                    score += utilities[i];
+                }
+                if (was && !is) {
+                    penalty += pausePenalty;
+                    switches++;
+                } else if (!was && is) {
+                    penalty += resumePenalty;
+                    switches++;
+                }
+            }
+            return new State(state, month, active, cost, score,
+                state.objective + score - penalty, state.spent + cost, state.switches + switches);
+        }
+
+        private void offer(Map<BitSet, State> next, State candidate) {
+            candidates++;
+            State existing = next.get(candidate.active);
+            if (existing == null) {
+                next.put(candidate.active, candidate);
+                return;
+            }
+            merged++;
+            if (candidate.betterThan(existing)) {
+                next.put(candidate.active, candidate);
+            }
+        }
+    }
+}
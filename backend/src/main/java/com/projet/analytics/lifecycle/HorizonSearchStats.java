@@ -0,0 +1,83 @@
+package com.projet.analytics.lifecycle;
+
+/**
+ * Statistiques de la recherche en faisceau de {@link HorizonPlanner}.
+ */
+public class HorizonSearchStats {
+    private final int beamWidth;
+    private final int maxExpansions;
+    private final int expansions;
+    private final int candidates;
+    private final int merged;
+    private final int pruned;
+    private final boolean truncated;
+    private final int switches;
+    private final double objective;
+
+    public HorizonSearchStats(
+        int beamWidth,
+        int maxExpansions,
+        int expansions,
+        int candidates,
+        int merged,
+        int pruned,
+        boolean truncated,
+        int switches,
+        double objective
+    ) {
+        this.beamWidth = beamWidth;
+        this.maxExpansions = maxExpansions;
+        this.expansions = expansions;
+        this.candidates = candidates;
+        this.merged = merged;
+        this.pruned = pruned;
+        this.truncated = truncated;
+        this.switches = switches;
+        this.objective = objective;
+    }
+
+    /** Nombre maximal d'états conservés par mois. */
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+
+    /** Limite déterministe de résolutions de sac à dos pour tout l'horizon. */
+    public int getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    /** Résolutions de sac à dos effectuées. */
+    public int getExpansions() {
+        return expansions;
+    }
+
+    /** États successeurs générés. */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /** États fusionnés car même sélection qu'un état meilleur. */
+    public int getMerged() {
+        return merged;
+    }
+
+    /** États écartés par la largeur du faisceau. */
+    public int getPruned() {
+        return pruned;
+    }
+
+    /** Vrai si la limite d'expansions a été atteinte avant la fin de l'horizon. */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /** Nombre de pauses et reprises dans le plan retenu. */
+    public int getSwitches() {
+        return switches;
+    }
+
+    /** Objectif du plan retenu : utilités cumulées moins pénalités de changement. */
+    public double getObjective() {
+        return objective;
+    }
+}
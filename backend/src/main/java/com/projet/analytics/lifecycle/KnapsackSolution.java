@@ -0,0 +1,83 @@
+package com.projet.analytics.lifecycle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Résultat d'un {@link KnapsackSolver} : éléments retenus, valeur atteinte,
+ * borne supérieure connue et temps de résolution.
+ *
+ * <p>L'écart d'optimalité ({@link #getOptimalityGap()}) est relatif à la borne
+ * supérieure : 0 pour une solution prouvée optimale, sinon une majoration de la
+ * perte par rapport à l'optimum (borne de la relaxation continue).</p>
+ */
+public class KnapsackSolution {
+    private final String solver;
+    private final boolean[] selected;
+    private final double value;
+    private final double cost;
+    private final double upperBound;
+    private final boolean optimal;
+    private final long solveTimeNanos;
+
+    public KnapsackSolution(String solver, boolean[] selected, double value, double cost,
+                            double upperBound, boolean optimal, long solveTimeNanos) {
+        this.solver = solver;
+        this.selected = selected;
+        this.value = value;
+        this.cost = cost;
+        this.upperBound = optimal ? value : Math.max(value, upperBound);
+        this.optimal = optimal;
+        this.solveTimeNanos = solveTimeNanos;
+    }
+
+    public String getSolver() { return solver; }
+    public boolean isSelected(int index) { return selected[index]; }
+    public double getValue() { return value; }
+    public double getCost() { return cost; }
+    public double getUpperBound() { return upperBound; }
+    public boolean isOptimal() { return optimal; }
+
+    /** Écart relatif à la borne supérieure, dans [0, 1]. */
+    public double getOptimalityGap() {
+        return upperBound <= 0 ? 0.0 : (upperBound - value) / upperBound;
+    }
+
+    public double getSolveTimeMs() {
+        return solveTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * Borne de Dantzig : valeur de la relaxation continue (éléments triés par
+     * ratio valeur/coût, le dernier pris fractionnellement). Les éléments de
+     * valeur nulle ou négative sont ignorés.
+     */
+    static double lpBound(double[] costs, double[] values, double budget) {
+        Integer[] order = byRatio(costs, values);
+        double remaining = budget;
+        double bound = 0;
+        for (int i : order) {
+            if (values[i] <= 0) continue;
+            if (costs[i] <= remaining) {
+                bound += values[i];
+                remaining -= costs[i];
+            } else {
+                bound += values[i] * remaining / costs[i];
+                break;
+            }
+        }
+        return bound;
+    }
+
+    /** Indices triés par ratio valeur/coût décroissant (coût nul en premier). */
+    static Integer[] byRatio(double[] costs, double[] values) {
+        Integer[] order = new Integer[costs.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> ratio(costs[i], values[i])).reversed());
+        return order;
+    }
+
+    private static double ratio(double cost, double value) {
+        return cost <= 0 ? Double.POSITIVE_INFINITY : value / cost;
+    }
+}
@@ -0,0 +1,46 @@
+package com.projet.analytics.lifecycle;
+
+import com.projet.config.AppConfig;
+
+/**
+ * Stratégie de résolution du sac à dos 0/1 utilisé par {@link MonthlyOptimizer} :
+ * maximiser la somme des utilités sous la contrainte {@code somme(coûts) <= budget}.
+ *
+ * <p>Implémentations : {@code greedy} (tri par utilité, comportement historique),
+ * {@code dp} (programmation dynamique exacte au centime près), {@code bnb}
+ * (branch-and-bound borné en temps) et {@code auto} qui choisit selon la taille
+ * du problème. Configuration par défaut : {@code LIFECYCLE_SOLVER},
+ * {@code LIFECYCLE_SOLVER_TIME_BUDGET_MS}, {@code LIFECYCLE_DP_MAX_CELLS}.</p>
+ */
+public interface KnapsackSolver {
+
+    /**
+     * @param costs coûts (positifs ou nuls) des éléments
+     * @param values utilités des éléments (même longueur)
+     * @param budget budget maximal
+     */
+    KnapsackSolution solve(double[] costs, double[] values, double budget);
+
+    /** Solveur par défaut selon la configuration ({@code auto} si absente). */
+    static KnapsackSolver fromConfig() {
+        return named(AppConfig.get("LIFECYCLE_SOLVER", "auto"));
+    }
+
+    /**
+     * Solveur par nom : {@code greedy}, {@code dp}, {@code bnb} ou {@code auto}.
+     *
+     * @throws IllegalArgumentException si le nom est inconnu
+     */
+    static KnapsackSolver named(String name) {
+        long timeBudgetMs = AppConfig.getLong("LIFECYCLE_SOLVER_TIME_BUDGET_MS", 50);
+        long maxCells = AppConfig.getLong("LIFECYCLE_DP_MAX_CELLS", 20_000_000L);
+        String key = name == null ? "auto" : name.trim().toLowerCase();
+        return switch (key) {
+            case "greedy" -> new GreedyKnapsackSolver();
+            case "dp" -> new DynamicProgrammingKnapsackSolver(maxCells);
+            case "bnb" -> new BranchAndBoundKnapsackSolver(timeBudgetMs);
+            case "auto" -> new AdaptiveKnapsackSolver(maxCells, timeBudgetMs);
+            default -> throw new IllegalArgumentException("Solveur inconnu: " + name + " (greedy, dp, bnb, auto)");
+        };
+    }
+}
@@ -13,17 +13,29 @@ public class LifecyclePlanResult {
     private final long executionTimeMs;
     private final boolean success;
     private final String message;
+    private final HorizonSearchStats searchStats;
 
     public LifecyclePlanResult(
         SubscriptionLifecyclePlan plan,
         long executionTimeMs,
         boolean success,
         String message
+    ) {
+        this(plan, executionTimeMs, success, message, null);
+    }
+
+    public LifecyclePlanResult(
+        SubscriptionLifecyclePlan plan,
+        long executionTimeMs,
+        boolean success,
+        String message,
+        HorizonSearchStats searchStats
     ) {
         this.plan = plan;
         this.executionTimeMs = executionTimeMs;
         this.success = success;
         this.message = message;
+        this.searchStats = searchStats;
     }
 
     public SubscriptionLifecyclePlan getPlan() {
@@ -42,6 +54,11 @@ public class LifecyclePlanResult {
         return message;
     }
 
+    /** Statistiques de recherche du planificateur global, {@code null} pour le plan mois par mois. */
+    public HorizonSearchStats getSearchStats() {
+        return searchStats;
+    }
+
     /**
      * Factory pour création rapide d'un échec.
      */
@@ -55,4 +72,15 @@ public class LifecyclePlanResult {
     public static LifecyclePlanResult success(SubscriptionLifecyclePlan plan, long executionTimeMs) {
         return new LifecyclePlanResult(plan, executionTimeMs, true, "Plan generated successfully");
     }
+
+    /**
+     * Factory pour un succès du planificateur global, avec ses statistiques de recherche.
+     */
+    public static LifecyclePlanResult success(
+        SubscriptionLifecyclePlan plan,
+        long executionTimeMs,
+        HorizonSearchStats searchStats
+    ) {
+        return new LifecyclePlanResult(plan, executionTimeMs, true, "Plan generated successfully", searchStats);
+    }
 }
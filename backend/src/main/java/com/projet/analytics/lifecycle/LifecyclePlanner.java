@@ -3,11 +3,16 @@ package com.projet.analytics.lifecycle;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.projet.analytics.lifecycle.MonthlyOptimizer.MonthlyOptimizationResult;
 import com.projet.backend.domain.Abonnement;
+import com.projet.config.AppConfig;
 
 /**
  * Orchestre la planification du cycle de vie des abonnements sur N mois.
@@ -19,13 +24,28 @@ import com.projet.backend.domain.Abonnement;
  *    c. Sélectionner la meilleure combinaison
  * 2. Agréger les résultats mensuels
  * 3. Retourner un plan complet avec évaluation
+ *
+ * Les parties de l'utilité indépendantes du mois sont calculées une seule fois
+ * ({@link UtilityBaseline}) ; les mois, indépendants entre eux, sont ensuite
+ * optimisés en parallèle sur un pool fork-join dédié
+ * ({@code LIFECYCLE_PLANNER_PARALLELISM}, nombre de cœurs par défaut).
  */
 public class LifecyclePlanner {
+    /** En dessous de (mois × abonnements), le coût de la parallélisation l'emporte. */
+    static final long PARALLEL_THRESHOLD = 4_096;
+
+    private static final ForkJoinPool POOL = createPool();
+
     private final MonthlyOptimizer monthlyOptimizer;
     private final PlanEvaluator planEvaluator;
 
     public LifecyclePlanner() {
-        this.monthlyOptimizer = new MonthlyOptimizer();
+        this(KnapsackSolver.fromConfig());
+    }
+
+    /** Planificateur utilisant le solveur de sélection mensuelle donné. */
+    public LifecyclePlanner(KnapsackSolver solver) {
+        this.monthlyOptimizer = new MonthlyOptimizer(solver);
         this.planEvaluator = new PlanEvaluator();
     }
 
@@ -57,18 +77,8 @@ public class LifecyclePlanner {
             }
 
             // Générer les plans mensuels
-            List<MonthlyPlan> monthlyPlans = new ArrayList<>();
-            LocalDate currentDate = LocalDate.now();
-
-            for (int monthIndex = 0; monthIndex < months; monthIndex++) {
-                MonthlyPlan monthlyPlan = planMonth(
-                    subscriptions,
-                    monthIndex,
-                    budgetTarget,
-                    currentDate.plusMonths(monthIndex)
-                );
-                monthlyPlans.add(monthlyPlan);
-            }
+            UtilityBaseline baseline = UtilityBaseline.of(subscriptions);
+            List<MonthlyPlan> monthlyPlans = planMonths(baseline, months, budgetTarget, LocalDate.now());
 
             // Évaluer et agréger
             double globalScore = planEvaluator.evaluate(monthlyPlans);
@@ -90,18 +100,40 @@ public class LifecyclePlanner {
         }
     }
 
+    /**
+     * Planifie chaque mois de l'horizon, en parallèle au-delà de {@link #PARALLEL_THRESHOLD}.
+     */
+    private List<MonthlyPlan> planMonths(
+        UtilityBaseline baseline,
+        int months,
+        double budgetTarget,
+        LocalDate currentDate
+    ) {
+        MonthlyPlan[] plans = new MonthlyPlan[months];
+        if (months == 1 || (long) months * baseline.size() < PARALLEL_THRESHOLD) {
+            for (int monthIndex = 0; monthIndex < months; monthIndex++) {
+                plans[monthIndex] = planMonth(baseline, monthIndex, budgetTarget, currentDate.plusMonths(monthIndex));
+            }
+        } else {
+            POOL.submit(() -> IntStream.range(0, months).parallel().forEach(monthIndex ->
+                plans[monthIndex] = planMonth(baseline, monthIndex, budgetTarget, currentDate.plusMonths(monthIndex))
+            )).join();
+        }
+        return new ArrayList<>(Arrays.asList(plans));
+    }
+
     /**
      * Planifie les abonnements pour un mois donné.
      */
     private MonthlyPlan planMonth(
-        List<Abonnement> subscriptions,
+        UtilityBaseline baseline,
         int monthIndex,
         double budgetTarget,
         LocalDate monthDate
     ) {
         // Optimiser pour ce mois
         MonthlyOptimizationResult result = monthlyOptimizer.optimize(
-            subscriptions,
+            baseline,
             budgetTarget,
             monthIndex
         );
@@ -118,7 +150,10 @@ public class LifecyclePlanner {
             activeNames,
             result.decisions,
             result.monthlyCost,
-            result.monthlyScore
+            result.monthlyScore,
+            result.solver,
+            result.optimalityGap,
+            result.solveTimeMs
         );
     }
 
@@ -130,4 +165,20 @@ public class LifecyclePlanner {
         return month.toString().charAt(0) +
                month.toString().substring(1).toLowerCase();
     }
+
+    private static ForkJoinPool createPool() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        try {
+            parallelism = Integer.parseInt(AppConfig.get("LIFECYCLE_PLANNER_PARALLELISM",
+                String.valueOf(parallelism)).trim());
+        } catch (NumberFormatException e) {
+            // valeur par défaut conservée
+        }
+        return new ForkJoinPool(Math.max(1, parallelism), pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("lifecycle-planner-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
 }
@@ -1,10 +1,13 @@
 package com.projet.analytics.lifecycle;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import com.projet.backend.domain.Abonnement;
 
@@ -12,31 +15,25 @@ import com.projet.backend.domain.Abonnement;
  * Sélectionne la meilleure combinaison d'abonnements pour un mois donné
  * en respectant la contrainte de budget.
  * 
- * Algorithme : Greedy Selection (sélection gloutonne)
+ * Algorithme : sac à dos 0/1 résolu par un {@link KnapsackSolver}
  * 
  * 1. Calculer l'utilité pour chaque abonnement
- * 2. Trier par utilité décroissante
- * 3. Sélectionner les abonnements tant que le budget le permet
- * 4. Retourner la sélection avec les décisions et le coût
+ * 2. Résoudre la sélection sous budget (glouton, programmation dynamique,
+ *    branch-and-bound ou choix automatique selon la taille)
+ * 3. Compléter avec les abonnements restants qui tiennent encore dans le budget,
+ *    par utilité décroissante
+ * 4. Retourner la sélection avec les décisions, le coût, le solveur utilisé,
+ *    l'écart d'optimalité et le temps de résolution
  */
 public class MonthlyOptimizer {
-    private final SubscriptionUtilityCalculator utilityCalculator;
+    private final KnapsackSolver solver;
 
     public MonthlyOptimizer() {
-        this.utilityCalculator = new SubscriptionUtilityCalculator();
+        this(KnapsackSolver.fromConfig());
     }
 
-    /**
-     * Classe interne pour stocker abonnement + utilité
-     */
-    private static class UtilityScore {
-        final Abonnement subscription;
-        final double utility;
-
-        UtilityScore(Abonnement subscription, double utility) {
-            this.subscription = subscription;
-            this.utility = utility;
-        }
+    public MonthlyOptimizer(KnapsackSolver solver) {
+        this.solver = solver;
     }
 
     /**
@@ -56,38 +53,73 @@ public class MonthlyOptimizer {
             return new MonthlyOptimizationResult(List.of(), new HashMap<>(), 0.0, 0.0);
         }
 
-        // Calculer l'utilité de chaque abonnement
-        double maxPrice = subscriptions.stream()
-            .mapToDouble(Abonnement::getPrixMensuel)
-            .max()
-            .orElse(1.0);
-
-        List<UtilityScore> scored = subscriptions.stream()
-            .map(sub -> new UtilityScore(
-                sub,
-                utilityCalculator.calculateUtility(sub, monthIndex, maxPrice)
-            ))
-            .sorted((a, b) -> Double.compare(b.utility, a.utility)) // Décroissant
-            .collect(Collectors.toList());
-
-        // Sélection gloutonne sous contrainte budgétaire
-        List<Abonnement> selected = new ArrayList<>();
+        return optimize(UtilityBaseline.of(subscriptions), budgetMax, monthIndex);
+    }
+
+    /**
+     * Optimise pour un mois donné à partir d'utilités précalculées.
+     *
+     * <p>Seule la part d'utilité dépendant du mois est recalculée ; la base peut être
+     * partagée entre plusieurs mois optimisés en parallèle.</p>
+     *
+     * @param baseline Utilités précalculées du portefeuille
+     * @param budgetMax Budget maximum pour ce mois
+     * @param monthIndex Index du mois
+     * @return MonthlyOptimizationResult avec sélection, décisions et coût
+     */
+    public MonthlyOptimizationResult optimize(
+        UtilityBaseline baseline,
+        double budgetMax,
+        int monthIndex
+    ) {
+        List<Abonnement> subscriptions = baseline.getSubscriptions();
+        if (subscriptions.isEmpty()) {
+            return new MonthlyOptimizationResult(List.of(), new HashMap<>(), 0.0, 0.0);
+        }
+
+        int n = subscriptions.size();
+        double[] utilities = baseline.utilities(monthIndex);
+        double[] costs = baseline.costs();
+
+        // Sélection sous contrainte budgétaire
+        KnapsackSolution solution = solver.solve(costs, utilities, budgetMax);
+
+        // Ordre d'utilité décroissante (stable), puis complément avec ce qui tient encore
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> utilities[i]).reversed());
+
+        boolean[] kept = new boolean[n];
         double currentCost = 0.0;
-        double currentScore = 0.0;
+        for (int i = 0; i < n; i++) {
+            if (solution.isSelected(i)) {
+                kept[i] = true;
+                currentCost += costs[i];
+            }
+        }
+        for (int i : order) {
+            if (!kept[i] && currentCost + costs[i] <= budgetMax) {
+                kept[i] = true;
+                currentCost += costs[i];
+            }
+        }
 
-        for (UtilityScore item : scored) {
-            double price = Math.max(0.0, item.subscription.getPrixMensuel());
-            if (currentCost + price <= budgetMax) {
-                selected.add(item.subscription);
-                currentCost += price;
-                currentScore += item.utility;
+        List<Abonnement> selected = new ArrayList<>();
+        double currentScore = 0.0;
+        for (int i : order) {
+            if (kept[i]) {
+                selected.add(subscriptions.get(i));
+                currentScore += utilities[i];
             }
         }
 
         // Construire les décisions
         Map<String, LifecycleDecision> decisions = buildDecisions(subscriptions, selected);
 
-        return new MonthlyOptimizationResult(selected, decisions, currentCost, currentScore);
+        double upperBound = solution.getUpperBound();
+        double gap = upperBound <= 0 ? 0.0 : Math.max(0.0, (upperBound - currentScore) / upperBound);
+        return new MonthlyOptimizationResult(selected, decisions, currentCost, currentScore,
+            solution.getSolver(), gap, solution.getSolveTimeMs());
     }
 
     /**
@@ -98,11 +130,10 @@ public class MonthlyOptimizer {
         List<Abonnement> selected
     ) {
         Map<String, LifecycleDecision> decisions = new HashMap<>();
-        List<String> selectedIds = selected.stream()
-            .map(Abonnement::getId)
-            .collect(Collectors.toSet())
-            .stream()
-            .collect(Collectors.toList());
+        Set<String> selectedIds = new HashSet<>();
+        for (Abonnement sub : selected) {
+            selectedIds.add(sub.getId());
+        }
 
         for (Abonnement sub : all) {
             if (selectedIds.contains(sub.getId())) {
@@ -123,17 +154,35 @@ public class MonthlyOptimizer {
         public final Map<String, LifecycleDecision> decisions;
         public final double monthlyCost;
         public final double monthlyScore;
+        public final String solver;
+        public final double optimalityGap;
+        public final double solveTimeMs;
 
         public MonthlyOptimizationResult(
             List<Abonnement> selected,
             Map<String, LifecycleDecision> decisions,
             double monthlyCost,
             double monthlyScore
+        ) {
+            this(selected, decisions, monthlyCost, monthlyScore, null, 0.0, 0.0);
+        }
+
+        public MonthlyOptimizationResult(
+            List<Abonnement> selected,
+            Map<String, LifecycleDecision> decisions,
+            double monthlyCost,
+            double monthlyScore,
+            String solver,
+            double optimalityGap,
+            double solveTimeMs
         ) {
             this.selected = selected;
             this.decisions = decisions;
             this.monthlyCost = monthlyCost;
             this.monthlyScore = monthlyScore;
+            this.solver = solver;
+            this.optimalityGap = optimalityGap;
+            this.solveTimeMs = solveTimeMs;
         }
     }
 }
@@ -12,6 +12,9 @@ public class MonthlyPlan {
     private final Map<String, LifecycleDecision> decisions;
     private final double monthlyCost;
     private final double monthlyScore;
+    private final String solver;
+    private final double optimalityGap;
+    private final double solveTimeMs;
 
     public MonthlyPlan(
         String month,
@@ -19,12 +22,28 @@ public class MonthlyPlan {
         Map<String, LifecycleDecision> decisions,
         double monthlyCost,
         double monthlyScore
+    ) {
+        this(month, activeSubscriptions, decisions, monthlyCost, monthlyScore, null, 0.0, 0.0);
+    }
+
+    public MonthlyPlan(
+        String month,
+        List<String> activeSubscriptions,
+        Map<String, LifecycleDecision> decisions,
+        double monthlyCost,
+        double monthlyScore,
+        String solver,
+        double optimalityGap,
+        double solveTimeMs
     ) {
         this.month = month;
         this.activeSubscriptions = activeSubscriptions;
         this.decisions = decisions;
         this.monthlyCost = monthlyCost;
         this.monthlyScore = monthlyScore;
+        this.solver = solver;
+        this.optimalityGap = optimalityGap;
+        this.solveTimeMs = solveTimeMs;
     }
 
     public String getMonth() {
@@ -46,4 +65,18 @@ public class MonthlyPlan {
     public double getMonthlyScore() {
         return monthlyScore;
     }
+
+    /** Solveur de sac à dos utilisé pour ce mois ({@code greedy}, {@code dp}, {@code bnb}). */
+    public String getSolver() {
+        return solver;
+    }
+
+    /** Écart relatif à la borne supérieure de l'optimum (0 = optimal prouvé). */
+    public double getOptimalityGap() {
+        return optimalityGap;
+    }
+
+    public double getSolveTimeMs() {
+        return solveTimeMs;
+    }
 }
@@ -20,6 +20,9 @@ import com.projet.backend.domain.Abonnement;
  */
 public class SubscriptionUtilityCalculator {
 
+    /** Marqueur d'utilisation de départ pour un abonnement jamais utilisé. */
+    static final double NEVER_USED = -1;
+
     /**
      * Calcule l'utilité d'un abonnement pour un mois donné.
      * 
@@ -31,28 +34,33 @@ public class SubscriptionUtilityCalculator {
     public double calculateUtility(Abonnement abo, int monthIndex, double maxPrice) {
         double valueScore = SubscriptionAnalytics.calculateValueScore(abo);
         double churnRisk = SubscriptionAnalytics.calculateChurnRisk(abo);
-        
+        double baseline = baseline(valueScore, churnRisk, abo.getPrixMensuel(), maxPrice);
+        return combine(baseline, predictUsageForMonth(abo, monthIndex));
+    }
+
+    /**
+     * Partie de l'utilité indépendante du mois : valeur, pénalité de coût et risque.
+     */
+    static double baseline(double valueScore, double churnRisk, double price, double maxPrice) {
         // Pénalité de coût (normalisée)
-        double costPenalty = normalizeCost(abo.getPrixMensuel(), maxPrice);
-        
-        // Utilisation prédite (décroît au fil des mois si pas d'utilisation)
-        double predictedUsage = predictUsageForMonth(abo, monthIndex);
-        
-        // Calcul final : combinaison pondérée
-        double utility = 
-            (valueScore * 0.4) - 
-            (costPenalty * 0.1) - 
-            (churnRisk / 100.0 * 0.2) + 
-            (predictedUsage * 0.1);
-        
-        // Normaliser le score entre 0 et 100
+        double costPenalty = normalizeCost(price, maxPrice);
+        return (valueScore * 0.4) -
+            (costPenalty * 0.1) -
+            (churnRisk / 100.0 * 0.2);
+    }
+
+    /**
+     * Ajoute l'utilisation prédite du mois à la partie fixe et normalise entre 0 et 100.
+     */
+    static double combine(double baseline, double predictedUsage) {
+        double utility = baseline + (predictedUsage * 0.1);
         return Math.max(0, Math.min(100, utility * 5));
     }
 
     /**
      * Normalise le coût en pénalité [0-10] pour équilibrer la formule.
      */
-    private double normalizeCost(double price, double maxPrice) {
+    private static double normalizeCost(double price, double maxPrice) {
         if (maxPrice == 0) return 0;
         return (price / maxPrice) * 10;
     }
@@ -68,23 +76,37 @@ public class SubscriptionUtilityCalculator {
      * Décroissance : l'utilisation prédite diminue aux mois futurs sansutilisation récente
      */
     private double predictUsageForMonth(Abonnement abo, int monthIndex) {
+        return predictUsage(baseUsage(abo), monthIndex);
+    }
+
+    /**
+     * Utilisation de départ d'un abonnement, ou {@link #NEVER_USED} s'il n'a jamais servi.
+     */
+    static double baseUsage(Abonnement abo) {
         if (abo.getDerniereUtilisation() == null) {
-            return 10 - (monthIndex * 2); // Décroît rapidement
+            return NEVER_USED;
         }
 
         long joursSansUtilisation = ChronoUnit.DAYS.between(abo.getDerniereUtilisation(), LocalDate.now());
-        double baseUsage;
 
         if (joursSansUtilisation < 7) {
-            baseUsage = 90; // Très actif
+            return 90; // Très actif
         } else if (joursSansUtilisation < 30) {
-            baseUsage = 60; // Actif
+            return 60; // Actif
         } else if (joursSansUtilisation < 60) {
-            baseUsage = 30; // Peu actif
+            return 30; // Peu actif
         } else {
-            baseUsage = 10; // Dormant
+            return 10; // Dormant
         }
+    }
 
+    /**
+     * Utilisation prédite au mois {@code monthIndex} à partir de {@link #baseUsage}.
+     */
+    static double predictUsage(double baseUsage, int monthIndex) {
+        if (baseUsage == NEVER_USED) {
+            return 10 - (monthIndex * 2); // Décroît rapidement
+        }
         // Décroissance pour les mois futurs
         double decay = baseUsage - (monthIndex * 5);
         return Math.max(0, decay);
@@ -0,0 +1,87 @@
+package com.projet.analytics.lifecycle;
+
+import java.util.List;
+
+import com.projet.analytics.SubscriptionAnalytics;
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Utilités d'un portefeuille précalculées une fois pour tout l'horizon de planification.
+ *
+ * <p>Le score de valeur, le risque de résiliation, la pénalité de coût (normalisée par
+ * le prix maximum) et l'utilisation de départ ne dépendent pas du mois : ils sont
+ * calculés à la construction. {@link #utilities(int)} n'ajoute ensuite que la
+ * décroissance d'utilisation propre au mois, en O(n) sans accès au domaine.</p>
+ *
+ * <p>Instance immuable, partageable entre les mois planifiés en parallèle.</p>
+ */
+public final class UtilityBaseline {
+    private final List<Abonnement> subscriptions;
+    private final double[] costs;
+    private final double[] baselines;
+    private final double[] baseUsages;
+
+    private UtilityBaseline(List<Abonnement> subscriptions, double[] costs,
+                            double[] baselines, double[] baseUsages) {
+        this.subscriptions = subscriptions;
+        this.costs = costs;
+        this.baselines = baselines;
+        this.baseUsages = baseUsages;
+    }
+
+    /**
+     * Précalcule les parties fixes de l'utilité de chaque abonnement.
+     */
+    public static UtilityBaseline of(List<Abonnement> subscriptions) {
+        List<Abonnement> rows = List.copyOf(subscriptions);
+        int n = rows.size();
+        double maxPrice = 1.0;
+        if (n > 0) {
+            maxPrice = Double.NEGATIVE_INFINITY;
+            for (Abonnement sub : rows) {
+                maxPrice = Math.max(maxPrice, sub.getPrixMensuel());
+            }
+        }
+
+        double[] costs = new double[n];
+        double[] baselines = new double[n];
+        double[] baseUsages = new double[n];
+        for (int i = 0; i < n; i++) {
+            Abonnement sub = rows.get(i);
+            costs[i] = Math.max(0.0, sub.getPrixMensuel());
+            baselines[i] = SubscriptionUtilityCalculator.baseline(
+                SubscriptionAnalytics.calculateValueScore(sub),
+                SubscriptionAnalytics.calculateChurnRisk(sub),
+                sub.getPrixMensuel(),
+                maxPrice);
+            baseUsages[i] = SubscriptionUtilityCalculator.baseUsage(sub);
+        }
+        return new UtilityBaseline(rows, costs, baselines, baseUsages);
+    }
+
+    /**
+     * Utilité de chaque abonnement pour le mois donné (0 = mois courant).
+     */
+    public double[] utilities(int monthIndex) {
+        double[] utilities = new double[baselines.length];
+        for (int i = 0; i < utilities.length; i++) {
+            utilities[i] = SubscriptionUtilityCalculator.combine(
+                baselines[i],
+                SubscriptionUtilityCalculator.predictUsage(baseUsages[i], monthIndex));
+        }
+        return utilities;
+    }
+
+    /** Coût mensuel (positif ou nul) de chaque abonnement ; tableau partagé, à ne pas modifier. */
+    double[] costs() {
+        return costs;
+    }
+
+    public List<Abonnement> getSubscriptions() {
+        return subscriptions;
+    }
+
+    public int size() {
+        return baselines.length;
+    }
+}
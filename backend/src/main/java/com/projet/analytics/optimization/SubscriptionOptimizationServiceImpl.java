@@ -1,11 +1,9 @@
 package com.projet.analytics.optimization;
 
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
+import com.projet.analytics.PortfolioColumns;
 import com.projet.backend.domain.Abonnement;
 
 public class SubscriptionOptimizationServiceImpl implements SubscriptionOptimizationService {
@@ -15,17 +13,27 @@ public class SubscriptionOptimizationServiceImpl implements SubscriptionOptimiza
 
     @Override
     public OptimizationResult analyze(List<Abonnement> abonnements) {
+        return analyze(PortfolioColumns.of(abonnements));
+    }
+
+    /**
+     * Analyse sur la représentation en colonnes : le score est calculé à partir des
+     * tableaux primitifs, seules les suggestions référencent les abonnements.
+     */
+    public OptimizationResult analyze(PortfolioColumns columns) {
 
         List<OptimizationSuggestion> suggestions = new ArrayList<>();
+        int today = PortfolioColumns.today();
 
-        for (Abonnement sub : abonnements) {
+        for (int i = 0; i < columns.size(); i++) {
 
-            if (!sub.estActif()) continue;
+            if (!columns.isActive(i, today)) continue;
 
-            double score = calculateScore(sub);
+            Abonnement sub = columns.getRow(i);
+            double score = calculateScore(columns, i, today);
             OptimizationAction action = classify(score);
             String justification = generateJustification(sub, score, action);
-            double economie = calculatePotentialSaving(sub, action);
+            double economie = calculatePotentialSaving(columns.getPrix(i), action);
 
             suggestions.add(
                     new OptimizationSuggestion(sub, action, score, justification, economie)
@@ -38,10 +46,12 @@ public class SubscriptionOptimizationServiceImpl implements SubscriptionOptimiza
     /**
      * Scoring calibré pour respecter les tests métier.
      */
-    private double calculateScore(Abonnement sub) {
+    private double calculateScore(PortfolioColumns columns, int i, int today) {
+
+    double prix = columns.getPrix(i);
 
     // gratuit = toujours conservé
-    if (sub.getPrixMensuel() == 0) {
+    if (prix == 0) {
         return 100.0;
     }
 
@@ -50,16 +60,15 @@ public class SubscriptionOptimizationServiceImpl implements SubscriptionOptimiza
     // ----------------------------
     // coût — modéré
     // ----------------------------
-    score -= sub.getPrixMensuel() * 0.8;
+    score -= prix * 0.8;
 
     // ----------------------------
     // inactivité — plus progressive
     // ----------------------------
-    long daysInactive = ChronoUnit.DAYS.between(
-            Optional.ofNullable(sub.getDerniereUtilisation())
-                    .orElse(sub.getDateDebut()),
-            LocalDate.now()
-    );
+    int lastActivity = columns.getDerniereUtilisation(i) != PortfolioColumns.NONE
+            ? columns.getDerniereUtilisation(i)
+            : columns.getDebut(i);
+    long daysInactive = (long) today - lastActivity;
 
     if (daysInactive > 30) {
         score -= (daysInactive - 30) * 0.7; // Inactivité pénalité
@@ -68,23 +77,18 @@ public class SubscriptionOptimizationServiceImpl implements SubscriptionOptimiza
     // ----------------------------
     // engagement — léger
     // ----------------------------
-    long monthsRemaining = Optional.ofNullable(sub.getDateFin())
-            .map(d -> ChronoUnit.MONTHS.between(LocalDate.now(), d))
-            .filter(m -> m > 0)
-            .orElse(0L);
+    long monthsRemaining = Math.max(0, PortfolioColumns.monthsBetween(today, columns.getFin(i)));
 
     score -= monthsRemaining * 0.5;
 
     // ----------------------------
     // bonus fréquence
     // ----------------------------
-    String freq = Optional.ofNullable(sub.getFrequencePaiement())
-            .orElse("Mensuel");
-
-    switch (freq) {
-        case "Annuel" -> score += 10;
-        case "Semestriel" -> score += 5;
-        case "Trimestriel" -> score += 2;
+    switch (columns.getFrequencePaiement(i)) {
+        case PortfolioColumns.FREQUENCE_ANNUELLE -> score += 10;
+        case PortfolioColumns.FREQUENCE_SEMESTRIELLE -> score += 5;
+        case PortfolioColumns.FREQUENCE_TRIMESTRIELLE -> score += 2;
+        default -> { }
     }
 
     return Math.max(0, Math.min(100, score));
@@ -132,15 +136,15 @@ public class SubscriptionOptimizationServiceImpl implements SubscriptionOptimiza
     }
 
     private double calculatePotentialSaving(
-            Abonnement sub,
+            double prixMensuel,
             OptimizationAction action
     ) {
 
         return switch (action) {
 
-            case RESILIER -> sub.getPrixMensuel();
+            case RESILIER -> prixMensuel;
 
-            case OPTIMISER -> sub.getPrixMensuel() * 0.3;
+            case OPTIMISER -> prixMensuel * 0.3;
 
             default -> 0;
         };
@@ -0,0 +1,131 @@
+package com.projet.api;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.AbonnementRepository;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * Export en flux des abonnements (CSV et JSON lines).
+ *
+ * <p>Les lignes sont écrites directement dans le flux de la réponse au fur et à
+ * mesure de leur lecture via {@link AbonnementRepository#forEach} : la réponse est
+ * envoyée en transfert chunked et la mémoire utilisée ne dépend pas du nombre
+ * d'abonnements. Le flux est compressé en gzip lorsque le client l'accepte
+ * ({@code Accept-Encoding}), sauf si {@code ?gzip=false}.</p>
+ */
+public final class AbonnementExporter {
+
+    static final String CSV_HEADER = "id;nomService;dateDebut;dateFin;prixMensuel;clientName;derniereUtilisation;categorie";
+
+    private AbonnementExporter() { /* utilitaire statique */ }
+
+    /** Écrit l'export CSV (séparateur {@code ;}) dans la réponse. */
+    public static void streamCsv(AbonnementRepository repo, Request req, Response res) throws IOException {
+        res.type("text/csv; charset=utf-8");
+        res.header("Content-Disposition", "attachment; filename=\"abonnements.csv\"");
+        stream(req, res, writer -> writeCsv(repo, writer));
+    }
+
+    /** Écrit l'export JSON lines (un objet JSON par ligne) dans la réponse. */
+    public static void streamJsonLines(AbonnementRepository repo, ObjectMapper mapper,
+                                       Request req, Response res) throws IOException {
+        res.type("application/x-ndjson; charset=utf-8");
+        res.header("Content-Disposition", "attachment; filename=\"abonnements.jsonl\"");
+        stream(req, res, writer -> writeJsonLines(repo, mapper, writer));
+    }
+
+    static void writeCsv(AbonnementRepository repo, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        repo.forEach(a -> {
+            try {
+                writer.write(safeCsv(a.getId()));
+                writer.write(';');
+                writer.write(String.valueOf(a.getNomService()));
+                writer.write(';');
+                writer.write(String.valueOf(a.getDateDebut()));
+                writer.write(';');
+                writer.write(String.valueOf(a.getDateFin()));
+                writer.write(';');
+                writer.write(String.valueOf(a.getPrixMensuel()));
+                writer.write(';');
+                writer.write(String.valueOf(a.getClientName()));
+                writer.write(';');
+                writer.write(String.valueOf(a.getDerniereUtilisation()));
+                writer.write(';');
+                writer.write(String.valueOf(a.getCategorie()));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    static void writeJsonLines(AbonnementRepository repo, ObjectMapper mapper, Writer writer) throws IOException {
+        // Un seul générateur pour tout l'export ; il ne doit pas fermer le flux sous-jacent
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(writer)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            repo.forEach((Abonnement a) -> {
+                try {
+                    mapper.writeValue(gen, a);
+                    gen.flush();
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static void stream(Request req, Response res, Body body) throws IOException {
+        boolean gzip = acceptsGzip(req) && !"false".equalsIgnoreCase(req.queryParams("gzip"));
+        if (gzip) {
+            res.header("Content-Encoding", "gzip");
+        }
+        res.header("Vary", "Accept-Encoding");
+        res.status(200);
+
+        OutputStream raw = res.raw().getOutputStream();
+        GZIPOutputStream gz = gzip ? new GZIPOutputStream(raw, 8192) : null;
+        Writer writer = new BufferedWriter(
+            new OutputStreamWriter(gz != null ? gz : raw, StandardCharsets.UTF_8), 16 * 1024);
+        try {
+            body.write(writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gz != null) {
+            gz.finish();
+        }
+        raw.flush();
+    }
+
+    private static boolean acceptsGzip(Request req) {
+        String accept = req.headers("Accept-Encoding");
+        return accept != null && accept.toLowerCase().contains("gzip");
+    }
+
+    private static String safeCsv(String s) {
+        if (s == null) return "";
+        return s.replace(";", ",");
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(Writer writer) throws IOException;
+    }
+}
@@ -1,13 +1,22 @@
 package com.projet.api;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import com.projet.backend.domain.Abonnement;
 import com.projet.backend.domain.Transaction;
@@ -16,23 +25,35 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.projet.repository.AbonnementRepository;
-import com.projet.repository.FileAbonnementRepository;
+import com.projet.repository.AbonnementStorage;
+import com.projet.repository.UserAbonnementCache;
 import com.projet.user.FileUserRepository;
 import com.projet.backend.domain.User;
 import com.projet.user.UserService;
 import com.projet.user.UserServiceImpl;
+import com.projet.analytics.PortfolioSnapshot;
 import com.projet.analytics.SubscriptionAnalytics;
-import com.projet.analytics.anomaly.AnomalyDetector;
-import com.projet.analytics.anomaly.AnomalyDetectorImpl;
 import com.projet.analytics.forecast.ForecastService;
 import com.projet.analytics.forecast.ForecastServiceImpl;
+import com.projet.analytics.forecast.RenewalCalendar;
 import com.projet.analytics.PortfolioRebalancer;
 import com.projet.analytics.PortfolioRebalancer.RebalanceResult;
+import com.projet.analytics.lifecycle.HorizonPlanner;
+import com.projet.analytics.lifecycle.KnapsackSolver;
 import com.projet.analytics.lifecycle.LifecyclePlanner;
 import com.projet.analytics.lifecycle.LifecyclePlanResult;
+import com.projet.http.OutboundHttpClient;
+import com.projet.metrics.RequestMetrics;
+import com.projet.service.AbonnementImportService;
 import com.projet.service.SubscriptionOptimizer;
 import com.projet.service.ServiceMailgun;
 import com.projet.service.ServiceTauxChange;
+import com.projet.service.ExchangeRateService;
+import com.projet.service.ExchangeRateServiceImpl;
+import com.projet.service.FxRateCache;
+import com.projet.service.BenchmarkService;
+import com.projet.service.BenchmarkServiceImpl;
+import com.projet.service.ExternalBenchmarkServiceImpl;
 import com.projet.service.OpenBankingSubscriptionDetectionService;
 import com.projet.service.PDFToCsvConverter;
 import com.projet.analytics.optimization.SubscriptionOptimizationService;
@@ -91,20 +112,114 @@ import static spark.Spark.staticFiles;
 public class ApiServer {
 
     private static final ForecastService forecastService = new ForecastServiceImpl();
-    private static final AnomalyDetector anomalyDetector = new AnomalyDetectorImpl();
     private static final SubscriptionOptimizationService optimizationService = new SubscriptionOptimizationServiceImpl();
+    private static final ExchangeRateService exchangeRateService = new ExchangeRateServiceImpl();
+    private static final BenchmarkService benchmarkService = new BenchmarkServiceImpl();
 
     private static AbonnementRepository getOrCreateRepo(Request req) {
         AbonnementRepository repo = req.attribute("userRepo");
         if (repo == null) {
             String user = req.session().attribute("user_email");
             repo = user == null 
-                ? new FileAbonnementRepository("abonnements.txt")
-                : new com.projet.repository.UserAbonnementRepository(user);
+                ? AbonnementStorage.shared()
+                : AbonnementStorage.forUser(user);
         }
         return repo;
     }
 
+    /** Identifiants du champ {@code ids} d'un corps JSON, ou {@code null} s'il est absent. */
+    private static List<String> idsFromBody(com.fasterxml.jackson.databind.JsonNode body) {
+        if (!body.path("ids").isArray()) {
+            return null;
+        }
+        List<String> ids = new ArrayList<>();
+        body.path("ids").forEach(id -> ids.add(id.asText()));
+        return ids;
+    }
+
+    /**
+     * Abonnements correspondant aux identifiants (tous si {@code ids} est null), en un seul
+     * chargement du dépôt ; les identifiants introuvables sont ajoutés à {@code missing}.
+     */
+    private static List<Abonnement> selectAbonnements(AbonnementRepository repo, List<String> ids, List<String> missing) {
+        List<Abonnement> all = repo.findAll();
+        if (ids == null) {
+            return all;
+        }
+        Map<String, Abonnement> byId = new HashMap<>();
+        for (Abonnement a : all) {
+            if (a.getId() != null) byId.put(a.getId(), a);
+        }
+        List<Abonnement> selection = new ArrayList<>();
+        for (String id : new java.util.LinkedHashSet<>(ids)) {
+            Abonnement a = byId.get(id);
+            if (a != null) selection.add(a); else missing.add(id);
+        }
+        return selection;
+    }
+
+    /**
+     * Import en flux du corps de la requête. Avec {@code ?async=true}, le corps est
+     * d'abord copié dans un fichier temporaire et l'import s'exécute en arrière-plan
+     * (202 + identifiant de suivi) ; sinon il s'exécute dans le thread de la requête (201).
+     * Un échec après l'écriture de premiers lots renvoie 207 avec le suivi de l'import
+     * (abonnements importés, dernière ligne écrite, cause) : ces lots restent enregistrés.
+     */
+    private static String runImport(Request req, spark.Response res, ObjectMapper mapper,
+                                    String user, AbonnementImportService.Format format) throws Exception {
+        AbonnementRepository repo = getOrCreateRepo(req);
+        AbonnementImportService importer = AbonnementImportService.getInstance();
+
+        if (Boolean.parseBoolean(req.queryParams("async"))) {
+            Path file = Files.createTempFile("abonnements-import-", ".tmp");
+            try (InputStream in = requestStream(req)) {
+                if (Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING) == 0) {
+                    Files.deleteIfExists(file);
+                    res.status(400);
+                    return mapper.writeValueAsString(Map.of("error", "fichier vide"));
+                }
+                AbonnementImportService.Job job = importer.submit(user, repo, format, file);
+                res.status(202);
+                return mapper.writeValueAsString(job);
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                Files.deleteIfExists(file);
+                res.status(429);
+                return mapper.writeValueAsString(Map.of("error", "Trop d'imports en cours, réessayez plus tard"));
+            }
+        }
+
+        AbonnementImportService.Job job;
+        try (InputStream in = requestStream(req)) {
+            job = format == AbonnementImportService.Format.CSV
+                ? importer.importCsv(user, repo, in)
+                : importer.importJson(user, repo, in);
+        }
+        if (job.isPartial()) {
+            res.status(207);
+            return mapper.writeValueAsString(job);
+        }
+        if (job.getStatus() == AbonnementImportService.Status.FAILED || job.getRowsRead() == 0) {
+            res.status(400);
+            return mapper.writeValueAsString(Map.of(
+                "error", job.getFailure() != null ? job.getFailure() : "fichier vide ou format invalide",
+                "job", job));
+        }
+        res.status(201);
+        return mapper.writeValueAsString(job);
+    }
+
+    /**
+     * Flux brut du corps de la requête. Le wrapper de Spark met tout le corps en
+     * mémoire au premier accès ; on lit donc directement la requête Jetty sous-jacente.
+     */
+    private static InputStream requestStream(Request req) throws java.io.IOException {
+        javax.servlet.http.HttpServletRequest raw = req.raw();
+        if (raw instanceof javax.servlet.ServletRequestWrapper) {
+            return ((javax.servlet.ServletRequestWrapper) raw).getRequest().getInputStream();
+        }
+        return raw.getInputStream();
+    }
+
     public static void main(String[] args) {
 
         // ---- PORT ----
@@ -124,6 +239,15 @@ public class ApiServer {
             res.header("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
         });
 
+        // ---- MÉTRIQUES (latence, débit, erreurs par route) ----
+        RequestMetrics.getInstance().install();
+        get("/metrics", (req, res) -> {
+            res.type("text/plain; version=0.0.4; charset=utf-8");
+            return RequestMetrics.getInstance().scrape() + FxRateCache.getInstance().scrape()
+                + ExternalBenchmarkServiceImpl.sharedResolver().scrape() + OutboundHttpClient.getInstance().scrape()
+                + AbonnementStorage.scrape();
+        });
+
         // ---- JSON ----
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
@@ -157,11 +281,14 @@ public class ApiServer {
                         return mapper.writeValueAsString(Map.of("error", "Non authentifié"));
                     }
 
-                    byte[] payload = req.bodyAsBytes();
-                    if (payload == null || payload.length == 0) {
+                    // Le fichier est lu en flux : ni l'upload ni le CSV intermédiaire ne sont chargés en entier
+                    PushbackInputStream upload = new PushbackInputStream(requestStream(req));
+                    int firstByte = upload.read();
+                    if (firstByte < 0) {
                         res.status(400);
                         return mapper.writeValueAsString(Map.of("error", "Fichier vide"));
                     }
+                    upload.unread(firstByte);
 
                     String contentType = req.contentType() == null ? "" : req.contentType().toLowerCase();
                     String fileName = req.headers("X-File-Name") == null ? "" : req.headers("X-File-Name").toLowerCase();
@@ -181,40 +308,49 @@ public class ApiServer {
                         ));
                     }
 
-                    String csvContent;
-                    try {
-                        if (isPdf) {
-                            try (InputStream pdfInputStream = new ByteArrayInputStream(payload)) {
-                                csvContent = PDFToCsvConverter.convertPdfToCsv(pdfInputStream);
-                            }
-                        } else {
-                            csvContent = new String(payload, StandardCharsets.UTF_8);
-                        }
-                    } catch (Exception e) {
+                    // Le CSV converti n'est renvoyé que sur demande (?includeCsv=true)
+                    boolean includeCsv = Boolean.parseBoolean(req.queryParamOrDefault("includeCsv", "false"));
+                    StringBuilder csvContent = includeCsv ? new StringBuilder() : null;
+                    AtomicBoolean hasData = new AtomicBoolean();
+                    AtomicInteger transactionsProcessed = new AtomicInteger();
+
+                    OpenBankingSubscriptionDetectionService service = new OpenBankingSubscriptionDetectionService();
+                    List<DetectedSubscription> detected;
+                    try (InputStream in = upload;
+                         Stream<String> lines = isPdf
+                             ? PDFToCsvConverter.streamCsvLines(in)
+                             : new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).lines();
+                         Stream<Transaction> transactions = service.streamTransactions(lines.peek(line -> {
+                             if (!line.isBlank()) hasData.set(true);
+                             if (csvContent != null) csvContent.append(line).append('\n');
+                         }))) {
+                        detected = service.detectRecurringSubscriptions(
+                            transactions.peek(tx -> transactionsProcessed.incrementAndGet()));
+                    } catch (IOException | UncheckedIOException e) {
                         res.status(400);
                         return mapper.writeValueAsString(Map.of(
                             "error", "Impossible de lire le fichier importé: " + e.getMessage()
                         ));
                     }
 
-                    if (csvContent == null || csvContent.trim().isEmpty()) {
+                    if (!hasData.get()) {
                         res.status(400);
                         return mapper.writeValueAsString(Map.of("error", "Aucune donnée exploitable trouvée"));
                     }
 
-                    OpenBankingSubscriptionDetectionService service = new OpenBankingSubscriptionDetectionService();
-                    List<Transaction> transactions = service.parseCSV(csvContent);
-                    List<DetectedSubscription> detected = service.detectRecurringSubscriptions(transactions);
-
                     String sourceCurrency = req.queryParamOrDefault("sourceCurrency", "EUR");
                     String targetCurrency = req.queryParamOrDefault("targetCurrency", "EUR");
-                    List<Map<String, Object>> result = service.buildDetectionApiPayload(detected, sourceCurrency, targetCurrency);
+                    Map<String, Object> enrichment = new HashMap<>();
+                    List<Map<String, Object>> result = service.buildDetectionApiPayload(detected, sourceCurrency, targetCurrency, enrichment);
 
                     Map<String, Object> response = new HashMap<>();
                     response.put("success", true);
+                    response.put("enrichment", enrichment);
                     response.put("importedFormat", isPdf ? "PDF" : "CSV");
-                    response.put("csvContent", csvContent);
-                    response.put("transactionsProcessed", transactions.size());
+                    if (csvContent != null) {
+                        response.put("csvContent", csvContent.toString());
+                    }
+                    response.put("transactionsProcessed", transactionsProcessed.get());
                     response.put("subscriptionsDetected", detected.size());
                     response.put("sourceCurrency", sourceCurrency);
                     response.put("targetCurrency", targetCurrency);
@@ -253,10 +389,12 @@ public class ApiServer {
 
                     String sourceCurrency = req.queryParamOrDefault("sourceCurrency", "EUR");
                     String targetCurrency = req.queryParamOrDefault("targetCurrency", "EUR");
-                    List<Map<String, Object>> result = service.buildDetectionApiPayload(detected, sourceCurrency, targetCurrency);
+                    Map<String, Object> enrichment = new HashMap<>();
+                    List<Map<String, Object>> result = service.buildDetectionApiPayload(detected, sourceCurrency, targetCurrency, enrichment);
 
                     Map<String, Object> response = new HashMap<>();
                     response.put("success", true);
+                    response.put("enrichment", enrichment);
                     response.put("transactionsProcessed", transactions.size());
                     response.put("subscriptionsDetected", detected.size());
                     response.put("sourceCurrency", sourceCurrency);
@@ -329,11 +467,11 @@ public class ApiServer {
 
                 AbonnementRepository userRepo;
                 if (user == null) {
-                    // Utilisateur non connecté : utiliser fichier partagé
-                    userRepo = new FileAbonnementRepository("abonnements.txt");
+                    // Utilisateur non connecté : utiliser le stockage partagé
+                    userRepo = AbonnementStorage.shared();
                 } else {
-                    // Utilisateur connecté : fichier personnel
-                    userRepo = new com.projet.repository.UserAbonnementRepository(user);
+                    // Utilisateur connecté : stockage personnel (fichier en cache ou base H2)
+                    userRepo = AbonnementStorage.forUser(user);
                 }
                 
                 req.attribute("userRepo", userRepo);
@@ -380,10 +518,7 @@ public class ApiServer {
                 Abonnement abo = opt.get();
                 
                 try {
-                    com.projet.service.ExchangeRateService exchangeService = 
-                        new com.projet.service.ExchangeRateServiceImpl();
-                    
-                    Map<String, Double> rates = exchangeService.getExchangeRates("EUR", currencies);
+                    Map<String, Double> rates = exchangeRateService.getExchangeRates("EUR", currencies);
                     
                     com.projet.backend.domain.CurrencyConversion conversion = 
                         new com.projet.backend.domain.CurrencyConversion(
@@ -412,6 +547,48 @@ public class ApiServer {
                 }
             });
 
+            // 🔵 CONVERSION DE DEVISES POUR TOUT LE PORTEFEUILLE
+            // Corps optionnel : {"ids": ["..."], "currencies": "USD,GBP"} ; sans ids, tous les abonnements
+            post("/abonnements/convert", (req, res) -> {
+                res.type("application/json");
+
+                String currencies = req.queryParamOrDefault("currencies", "USD,GBP,CHF");
+                List<String> ids = null;
+                try {
+                    if (req.body() != null && !req.body().isBlank()) {
+                        com.fasterxml.jackson.databind.JsonNode body = mapper.readTree(req.body());
+                        com.fasterxml.jackson.databind.JsonNode cur = body.path("currencies");
+                        if (cur.isArray()) {
+                            List<String> codes = new ArrayList<>();
+                            cur.forEach(c -> codes.add(c.asText()));
+                            currencies = String.join(",", codes);
+                        } else if (cur.isTextual() && !cur.asText().isBlank()) {
+                            currencies = cur.asText();
+                        }
+                        ids = idsFromBody(body);
+                    }
+                } catch (Exception e) {
+                    res.status(400);
+                    return mapper.writeValueAsString(Map.of("error", "Corps JSON invalide"));
+                }
+
+                // Un seul chargement du dépôt pour tout le lot
+                List<String> missing = new ArrayList<>();
+                List<Abonnement> selection = selectAbonnements(getOrCreateRepo(req), ids, missing);
+
+                try {
+                    com.projet.backend.domain.PortfolioConversion conversion =
+                        exchangeRateService.convertPortfolio(selection, currencies);
+                    conversion.setMissingIds(missing);
+                    return mapper.writeValueAsString(conversion);
+                } catch (Exception e) {
+                    res.status(500);
+                    return mapper.writeValueAsString(
+                        Map.of("error", "Erreur lors de la conversion : " + e.getMessage())
+                    );
+                }
+            });
+
             // 🔵 SMART SUBSCRIPTION BENCHMARK
             get("/abonnements/:id/benchmark", (req, res) -> {
                 res.type("application/json");
@@ -429,9 +606,6 @@ public class ApiServer {
                 Abonnement abo = opt.get();
                 
                 try {
-                    com.projet.service.BenchmarkService benchmarkService = 
-                        new com.projet.service.BenchmarkServiceImpl();
-                    
                     com.projet.backend.domain.BenchmarkResult result = benchmarkService.benchmark(
                         abonnementId,
                         abo.getNomService(),
@@ -448,6 +622,39 @@ public class ApiServer {
                 }
             });
 
+            // 🔵 BENCHMARK DE TOUT LE PORTEFEUILLE
+            // Corps optionnel : {"ids": ["..."]} ; sans ids, tous les abonnements
+            post("/abonnements/benchmark", (req, res) -> {
+                res.type("application/json");
+
+                List<String> ids = null;
+                try {
+                    if (req.body() != null && !req.body().isBlank()) {
+                        ids = idsFromBody(mapper.readTree(req.body()));
+                    }
+                } catch (Exception e) {
+                    res.status(400);
+                    return mapper.writeValueAsString(Map.of("error", "Corps JSON invalide"));
+                }
+
+                List<String> missing = new ArrayList<>();
+                List<Abonnement> selection = selectAbonnements(getOrCreateRepo(req), ids, missing);
+
+                try {
+                    List<com.projet.backend.domain.BenchmarkResult> results = benchmarkService.benchmarkPortfolio(selection);
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("results", results);
+                    response.put("count", results.size());
+                    response.put("missingIds", missing);
+                    return mapper.writeValueAsString(response);
+                } catch (Exception e) {
+                    res.status(500);
+                    return mapper.writeValueAsString(
+                        Map.of("error", "Erreur lors du benchmark : " + e.getMessage())
+                    );
+                }
+            });
+
             // 🔵 PRÉVISION DU COÛT SUR 3 MOIS
             get("/prediction", (req, res) -> {
                 res.type("application/json");
@@ -505,41 +712,7 @@ public class ApiServer {
                 }
                 
                 res.type("application/json");
-                AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> arr = mapper.readValue(
-                    req.body(),
-                    new com.fasterxml.jackson.core.type.TypeReference<List<Abonnement>>() {}
-                );
-
-                if (arr == null || arr.isEmpty()) {
-                    res.status(400);
-                    return mapper.writeValueAsString(Map.of("error", "fichier vide ou format invalide"));
-                }
-
-                List<Abonnement> existing = repo.findAll();
-                List<String> errors = new java.util.ArrayList<>();
-                int imported = 0;
-
-                for (int i = 0; i < arr.size(); i++) {
-                    Abonnement a = arr.get(i);
-
-                    if (a.getNomService() == null || a.getNomService().isBlank()) { errors.add("index=" + i + " nomService manquant"); continue; }
-                    if (a.getDateDebut() == null) { errors.add("index=" + i + " dateDebut manquante"); continue; }
-                    if (a.getDateFin() == null) { errors.add("index=" + i + " dateFin manquante"); continue; }
-                    if (a.getClientName() == null || a.getClientName().isBlank()) { errors.add("index=" + i + " clientName manquant"); continue; }
-                    if (a.getPrixMensuel() < 0) { errors.add("index=" + i + " prixMensuel invalide"); continue; }
-
-                    if (a.getId() == null || a.getId().isBlank()) {
-                        a.setId(java.util.UUID.randomUUID().toString());
-                    }
-
-                    existing.add(a);
-                    imported++;
-                }
-
-                repo.saveAll(existing);
-                res.status(201);
-                return mapper.writeValueAsString(Map.of("imported", imported, "errors", errors));
+                return runImport(req, res, mapper, user, AbonnementImportService.Format.JSON);
             });
 
             put("/abonnements/:id", (req, res) -> {
@@ -563,16 +736,7 @@ public class ApiServer {
                 }
 
                 updated.setId(pid);
-
-                List<Abonnement> all = repo.findAll();
-                for (int i = 0; i < all.size(); i++) {
-                    if (pid.equals(all.get(i).getId())) {
-                        all.set(i, updated);
-                        break;
-                    }
-                }
-
-                repo.saveAll(all);
+                repo.save(updated);
                 res.type("application/json");
                 return mapper.writeValueAsString(updated);
             });
@@ -602,29 +766,14 @@ public class ApiServer {
             // 🔵  EXPORT CSV DES ABONNEMENTS
             // =================================================
             get("/abonnements/export/csv", (req, res) -> {
+                AbonnementExporter.streamCsv(getOrCreateRepo(req), req, res);
+                return "";
+            });
 
-                AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> list = repo.findAll();
-
-                res.type("text/csv; charset=utf-8");
-                res.header("Content-Disposition", "attachment; filename=\"abonnements.csv\"");
-
-                StringBuilder csv = new StringBuilder();
-                csv.append("id;nomService;dateDebut;dateFin;prixMensuel;clientName;derniereUtilisation;categorie\n");
-
-                for (Abonnement a : list) {
-                    csv.append(safeCsv(a.getId())).append(";")
-                       .append(a.getNomService()).append(";")
-                       .append(a.getDateDebut()).append(";")
-                       .append(a.getDateFin()).append(";")
-                       .append(a.getPrixMensuel()).append(";")
-                       .append(a.getClientName()).append(";")
-                       .append(a.getDerniereUtilisation()).append(";")
-                       .append(a.getCategorie())
-                       .append("\n");
-                }
-
-                return csv.toString();
+            // Export JSON lines (un abonnement par ligne), en flux comme le CSV
+            get("/abonnements/export/jsonl", (req, res) -> {
+                AbonnementExporter.streamJsonLines(getOrCreateRepo(req), mapper, req, res);
+                return "";
             });
 
                         // =================================================
@@ -638,61 +787,22 @@ public class ApiServer {
                     return "{\"error\":\"Vous devez être connecté pour importer (CSV)\"}";
                 }
 
-                String body = req.body();
-                if (body == null || body.isBlank()) {
-                    res.status(400);
-                    return "{\"error\":\"CSV vide\"}";
-                }
-
-                AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> existing = repo.findAll();
-
-                String[] lignes = body.split("\\R");
-                int imported = 0;
-                List<String> errors = new ArrayList<>();
-
-                for (int i = 1; i < lignes.length; i++) {
-                    String line = lignes[i].trim();
-                    if (line.isEmpty()) continue;
-
-                    String[] p = line.split(";");
-                    if (p.length < 8) {
-                        errors.add("Ligne " + i + " invalide (colonnes manquantes)");
-                        continue;
-                    }
-
-                    try {
-                        Abonnement a = new Abonnement(
-                            p[1],                                 // nomService
-                            LocalDate.parse(p[2]),                // dateDebut
-                            LocalDate.parse(p[3]),                // dateFin
-                            Double.parseDouble(p[4]),             // prixMensuel
-                            p[5],                                 // clientName
-                            LocalDate.parse(p[6]),                // derniereUtilisation
-                            p[7]                                  // categorie
-                        );
-
-                        if (p[0] == null || p[0].isBlank()) {
-                            a.setId(java.util.UUID.randomUUID().toString());
-                        } else {
-                            a.setId(p[0]);
-                        }
-
-                        existing.add(a);
-                        imported++;
-
-                    } catch (Exception e) {
-                        errors.add("Erreur ligne " + i + " : " + e.getMessage());
-                    }
-                }
-
-                repo.saveAll(existing);
+                res.type("application/json");
+                return runImport(req, res, mapper, user, AbonnementImportService.Format.CSV);
+            });
 
-                res.status(201);
+            // Suivi d'un import (progression, débit, erreurs)
+            get("/abonnements/import/jobs/:id", (req, res) -> {
                 res.type("application/json");
-                return mapper.writeValueAsString(
-                    Map.of("imported", imported, "errors", errors)
-                );
+                String user = req.session().attribute("user_email");
+                java.util.Optional<AbonnementImportService.Job> job = user == null
+                    ? java.util.Optional.empty()
+                    : AbonnementImportService.getInstance().find(user, req.params(":id"));
+                if (job.isEmpty()) {
+                    res.status(404);
+                    return "{\"error\":\"Import introuvable\"}";
+                }
+                return mapper.writeValueAsString(job.get());
             });
 
             // =================================================
@@ -746,7 +856,6 @@ public class ApiServer {
                 res.type("application/json");
                 try {
                     AbonnementRepository repo = getOrCreateRepo(req);
-                    List<Abonnement> abonnements = repo.findAll();
 
                     String monthsParam = req.queryParams("months");
                     int months = 6;
@@ -759,7 +868,7 @@ public class ApiServer {
                         }
                     }
 
-                    var forecast = forecastService.projectCosts(abonnements, months);
+                    var forecast = forecastService.projectCosts(RenewalCalendar.forUser(email, repo), months);
 
                     return mapper.writeValueAsString(forecast);
                 } catch (IllegalArgumentException iae) {
@@ -815,9 +924,7 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                var metrics = SubscriptionAnalytics.calculateAdvancedMetrics(abonnements);
+                var metrics = PortfolioSnapshot.forUser(email, repo).getMetrics();
                 
                 return mapper.writeValueAsString(metrics);
             });
@@ -834,9 +941,7 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                var report = anomalyDetector.detectAnomalies(abonnements);
+                var report = PortfolioSnapshot.forUser(user, repo).getAnomalies();
                 
                 return mapper.writeValueAsString(report);
             });
@@ -853,9 +958,7 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                var duplicates = SubscriptionAnalytics.detectDuplicates(abonnements);
+                var duplicates = PortfolioSnapshot.forUser(user, repo).getDuplicates();
                 
                 return mapper.writeValueAsString(duplicates);
             });
@@ -872,9 +975,7 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                var report = SubscriptionAnalytics.generateMonthlyReport(abonnements);
+                var report = PortfolioSnapshot.forUser(user, repo).getMonthlyReport();
                 
                 return mapper.writeValueAsString(report);
             });
@@ -889,11 +990,24 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                var clusters = SubscriptionAnalytics.clusterSubscriptions(abonnements);
-                
-                return mapper.writeValueAsString(clusters);
+                PortfolioSnapshot snapshot = PortfolioSnapshot.forUser(email, repo);
+                String kParam = req.queryParams("k");
+                // Groupes et statistiques de convergence (k, inertia, iterations, converged)
+                if (kParam == null || kParam.isBlank()) {
+                    return mapper.writeValueAsString(snapshot.getClustering());
+                }
+                int k;
+                try {
+                    k = Integer.parseInt(kParam.trim());
+                } catch (NumberFormatException e) {
+                    k = 0;
+                }
+                if (k < 1 || k > SubscriptionAnalytics.MAX_CLUSTER_COUNT) {
+                    res.status(400);
+                    return mapper.writeValueAsString(Map.of("error",
+                        "Le paramètre 'k' doit être un entier entre 1 et " + SubscriptionAnalytics.MAX_CLUSTER_COUNT));
+                }
+                return mapper.writeValueAsString(snapshot.getClustering(k));
             });
 
             // Endpoint: Prédiction des dépenses
@@ -906,9 +1020,7 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                var predictions = SubscriptionAnalytics.predictSpendingTrend(abonnements);
+                var predictions = PortfolioSnapshot.forUser(email, repo).getSpendingTrend();
                 
                 return mapper.writeValueAsString(predictions);
             });
@@ -923,9 +1035,7 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                var patterns = SubscriptionAnalytics.detectSeasonalPatterns(abonnements);
+                var patterns = PortfolioSnapshot.forUser(email, repo).getSeasonalPatterns();
                 
                 return mapper.writeValueAsString(patterns);
             });
@@ -940,13 +1050,25 @@ public class ApiServer {
                 
                 res.type("application/json");
                 AbonnementRepository repo = getOrCreateRepo(req);
-                List<Abonnement> abonnements = repo.findAll();
-                
-                int healthScore = (int) SubscriptionAnalytics.calculatePortfolioHealthScore(abonnements);
+                int healthScore = (int) PortfolioSnapshot.forUser(email, repo).getHealthScore();
                 
                 return "{\"healthScore\": " + healthScore + "}";
             });
 
+            // Endpoint: Tableau de bord (toutes les sections analytics en un seul calcul)
+            get("/analytics/dashboard", (req, res) -> {
+                String email = req.session().attribute("user_email");
+                if (email == null) {
+                    res.status(401);
+                    return "{\"error\":\"Vous devez être connecté\"}";
+                }
+                
+                res.type("application/json");
+                AbonnementRepository repo = getOrCreateRepo(req);
+                
+                return mapper.writeValueAsString(PortfolioSnapshot.forUser(email, repo).toDashboard());
+            });
+
             // =================================================
             // 🔵  PORTFOLIO - REBALANCE (Optimisation Portfolio)
             // =================================================
@@ -1012,8 +1134,30 @@ public class ApiServer {
                     AbonnementRepository repo = getOrCreateRepo(req);
                     List<Abonnement> abonnements = repo.findAll();
 
-                    LifecyclePlanner planner = new LifecyclePlanner();
-                    LifecyclePlanResult result = planner.generatePlan(abonnements, months, budget);
+                    Object solverName = requestBody.get("solver");
+                    Object mode = requestBody.getOrDefault("mode", "monthly");
+                    LifecyclePlanResult result;
+                    if ("horizon".equalsIgnoreCase(mode.toString())) {
+                        // Optimisation globale avec pénalités de pause/reprise et budget cumulé
+                        // beamWidth / maxExpansions au-delà des plafonds du planificateur : 400
+                        HorizonPlanner defaults = new HorizonPlanner();
+                        HorizonPlanner planner = new HorizonPlanner(
+                            KnapsackSolver.named(solverName == null ? "dp" : solverName.toString()),
+                            parseIntBodyValue(requestBody.get("beamWidth"), defaults.getBeamWidth(), "beamWidth"),
+                            parseIntBodyValue(requestBody.get("maxExpansions"), defaults.getMaxExpansions(), "maxExpansions"),
+                            parseDoubleBodyValue(requestBody.get("pausePenalty"), defaults.getPausePenalty(), "pausePenalty"),
+                            parseDoubleBodyValue(requestBody.get("resumePenalty"), defaults.getResumePenalty(), "resumePenalty"));
+                        double cumulativeBudget = parseDoubleBodyValue(requestBody.get("cumulativeBudget"),
+                            budget * Math.max(0, months), "cumulativeBudget");
+                        result = planner.generatePlan(abonnements, months, budget, cumulativeBudget);
+                    } else if ("monthly".equalsIgnoreCase(mode.toString())) {
+                        LifecyclePlanner planner = solverName == null
+                            ? new LifecyclePlanner()
+                            : new LifecyclePlanner(KnapsackSolver.named(solverName.toString()));
+                        result = planner.generatePlan(abonnements, months, budget);
+                    } else {
+                        throw new IllegalArgumentException("Mode inconnu: " + mode + " (monthly, horizon)");
+                    }
 
                     return mapper.writeValueAsString(result);
 
@@ -1048,6 +1192,28 @@ public class ApiServer {
                     email, user.getPseudo());
             });
 
+            // =================================================
+            // 🔵  CACHE ABONNEMENTS - COMPTEURS
+            // =================================================
+            get("/cache/stats", (req, res) -> {
+                res.type("application/json");
+                if (req.session().attribute("user_email") == null) {
+                    res.status(401);
+                    return mapper.writeValueAsString(Map.of("error", "Non authentifié"));
+                }
+                return mapper.writeValueAsString(UserAbonnementCache.getInstance().stats());
+            });
+
+            get("/storage/health", (req, res) -> {
+                res.type("application/json");
+                Map<String, Object> health = AbonnementStorage.health();
+                Object database = health.get("database");
+                if (database instanceof Map<?, ?> db && "DOWN".equals(db.get("status"))) {
+                    res.status(503);
+                }
+                return mapper.writeValueAsString(health);
+            });
+
             // =================================================
             //     🔵  INSCRIPTION UTILISATEUR
             // =================================================
@@ -1389,9 +1555,4 @@ public class ApiServer {
         }
     }
 
-    private static String safeCsv(String s) {
-    if (s == null) return "";
-    return s.replace(";", ",");
-}
-
 }
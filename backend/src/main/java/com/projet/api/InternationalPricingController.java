@@ -14,8 +14,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.projet.backend.domain.Abonnement;
 import com.projet.backend.domain.PaymentResult;
 import com.projet.repository.AbonnementRepository;
-import com.projet.repository.FileAbonnementRepository;
-import com.projet.repository.UserAbonnementRepository;
+import com.projet.repository.AbonnementStorage;
 import com.projet.service.CountryCurrencyMapper;
 import com.projet.service.CurrencyCatalogService;
 import com.projet.service.CurrencyCatalogServiceImpl;
@@ -38,9 +37,9 @@ public final class InternationalPricingController {
     private static AbonnementRepository getOrCreateRepo(Request req) {
         String user = req.session().attribute("user_email");
         if (user == null) {
-            return new FileAbonnementRepository("abonnements.txt");
+            return AbonnementStorage.shared();
         }
-        return new UserAbonnementRepository(user);
+        return AbonnementStorage.forUser(user);
     }
 
     public static void register(ObjectMapper mapper) {
@@ -12,8 +12,9 @@
  * Endpoints principaux:
  * - /api/abonnements - Gestion des abonnements (CRUD)
  * - /api/auth - Authentification et sessions
- * - /analytics/* - Analyses et optimisations
+ * - /analytics/* - Analyses et optimisations (/analytics/dashboard : toutes les sections en un appel)
  * - /convert - Conversions de devises
  * - /benchmark - Comparaison avec prix du marché
+ * - /metrics - Métriques Prometheus (latence, débit, erreurs par route)
  */
 package com.projet.api;
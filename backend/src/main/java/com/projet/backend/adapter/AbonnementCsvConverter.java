@@ -1,5 +1,6 @@
 package com.projet.backend.adapter;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -47,88 +48,215 @@ public class AbonnementCsvConverter {
         );
     }
 
+    /** Nombre maximal de colonnes (format complet). */
+    private static final int MAX_COLUMNS = 16;
+
+    /**
+     * Cache des dates ISO déjà rencontrées (les fichiers répètent beaucoup les mêmes dates).
+     * Accès concurrents sans verrou : les {@link LocalDate} sont immuables, une collision
+     * ne fait que remplacer l'entrée.
+     */
+    private static final LocalDate[] DATE_CACHE = new LocalDate[4096];
+
     /**
-     * Parses a string price value, tolerating both dot and comma as decimal separator.
+     * Returns the number of columns of a CSV line, with the same semantics as
+     * {@code line.split(";").length} (trailing empty columns are not counted).
      */
-    private static double parsePrice(String s) {
-        return Double.parseDouble(s.replace(',', '.').trim());
+    public static int columnCount(String line) {
+        return scan(line, null);
+    }
+
+    /**
+     * Returns true for the legacy formats without UUID (6 and 7 columns), which are
+     * rewritten in the full format when loaded.
+     */
+    public static boolean isLegacyFormat(String line) {
+        int columns = columnCount(line);
+        return columns == 6 || columns == 7;
     }
 
     /**
      * Converts CSV string to Abonnement object.
      * Supports multiple CSV formats for backwards compatibility.
+     *
+     * <p>Single pass over the line: the column boundaries are located with
+     * {@code indexOf}, then each column is converted directly from its index range
+     * (no regex, no intermediate {@code String[]}; numbers and dates are parsed in
+     * place). Same results and exceptions as the former {@code split(";")} parser.</p>
      */
     public static Abonnement fromCsvString(String csvString) {
-        String[] parts = csvString.split(";");
-        String id = null;
-        String nomService;
-        LocalDate dateDebut;
-        LocalDate dateFin;
-        double prixMensuel;
-        String clientName;
-        LocalDate derniereUtilisation = null;
-        String categorie = "Non classé";
+        int[] ends = new int[MAX_COLUMNS];
+        int columns = scan(csvString, ends);
 
         // Format complet (16 colonnes) avec nouvelles fonctionnalités
-        if (parts.length == 16) {
-            id = parts[0];
-            nomService = parts[1];
-            dateDebut = LocalDate.parse(parts[2]);
-            dateFin = LocalDate.parse(parts[3]);
-            prixMensuel = parsePrice(parts[4]);
-            clientName = parts[5];
-            derniereUtilisation = parts[6].isEmpty() ? null : LocalDate.parse(parts[6]);
-            categorie = parts[7];
-            
-            List<String> tags = new ArrayList<>();
-            if (!parts[8].isEmpty()) {
-                String[] tagArray = parts[8].split("\\|");
-                for (String tag : tagArray) {
-                    tags.add(tag);
-                }
-            }
-            String groupeAbonnement = parts[9].isEmpty() ? null : parts[9];
-            String priorite = parts[10];
-            String notes = parts[11].isEmpty() ? null : parts[11].replace("｜", ";");
-            int nombreUtilisateurs = Integer.parseInt(parts[12]);
-            boolean partage = parts[13].equals("OUI");
-            int joursRappelAvantFin = Integer.parseInt(parts[14]);
-            String frequencePaiement = parts[15];
-            
-            return new Abonnement(id, nomService, dateDebut, dateFin, prixMensuel, clientName, 
-                derniereUtilisation, categorie, tags, groupeAbonnement, priorite, notes, 
+        if (columns == 16) {
+            String s = csvString;
+            String id = text(s, ends, 0);
+            String nomService = text(s, ends, 1);
+            LocalDate dateDebut = date(s, ends, 2);
+            LocalDate dateFin = date(s, ends, 3);
+            double prixMensuel = price(s, ends, 4);
+            String clientName = text(s, ends, 5);
+            LocalDate derniereUtilisation = isEmpty(ends, 6) ? null : date(s, ends, 6);
+            String categorie = text(s, ends, 7);
+            List<String> tags = tags(s, start(ends, 8), ends[8]);
+            String groupeAbonnement = isEmpty(ends, 9) ? null : text(s, ends, 9);
+            String priorite = text(s, ends, 10);
+            String notes = isEmpty(ends, 11) ? null : text(s, ends, 11).replace("｜", ";");
+            int nombreUtilisateurs = Integer.parseInt(s, start(ends, 12), ends[12], 10);
+            boolean partage = s.startsWith("OUI", start(ends, 13)) && ends[13] - start(ends, 13) == 3;
+            int joursRappelAvantFin = Integer.parseInt(s, start(ends, 14), ends[14], 10);
+            String frequencePaiement = text(s, ends, 15);
+
+            return new Abonnement(id, nomService, dateDebut, dateFin, prixMensuel, clientName,
+                derniereUtilisation, categorie, tags, groupeAbonnement, priorite, notes,
                 nombreUtilisateurs, partage, joursRappelAvantFin, frequencePaiement);
         }
-        // Format standard (8 colonnes) - rétrocompatibilité
-        else if (parts.length == 8) {
-            id = parts[0];
-            nomService = parts[1];
-            dateDebut = LocalDate.parse(parts[2]);
-            dateFin = LocalDate.parse(parts[3]);
-            prixMensuel = parsePrice(parts[4]);
-            clientName = parts[5];
-            derniereUtilisation = parts[6].isEmpty() ? null : LocalDate.parse(parts[6]);
-            categorie = parts[7];
-        } else if (parts.length == 7) {
-            nomService = parts[0];
-            dateDebut = LocalDate.parse(parts[1]);
-            dateFin = LocalDate.parse(parts[2]);
-            prixMensuel = parsePrice(parts[3]);
-            clientName = parts[4];
-            derniereUtilisation = parts[5].isEmpty() ? null : LocalDate.parse(parts[5]);
-            categorie = parts[6];
-            id = UUID.randomUUID().toString();
-        } else if (parts.length == 6) {
-            nomService = parts[0];
-            dateDebut = LocalDate.parse(parts[1]);
-            dateFin = LocalDate.parse(parts[2]);
-            prixMensuel = parsePrice(parts[3]);
-            clientName = parts[4];
-            derniereUtilisation = parts[5].isEmpty() ? null : LocalDate.parse(parts[5]);
+
+        String id;
+        int first;
+        if (columns == 8) {
+            // Format standard (8 colonnes) - rétrocompatibilité
+            id = text(csvString, ends, 0);
+            first = 1;
+        } else if (columns == 7 || columns == 6) {
+            // Formats anciens sans UUID
             id = UUID.randomUUID().toString();
+            first = 0;
         } else {
             throw new IllegalArgumentException("Format CSV invalide pour l'abonnement: " + csvString);
         }
+        String nomService = text(csvString, ends, first);
+        LocalDate dateDebut = date(csvString, ends, first + 1);
+        LocalDate dateFin = date(csvString, ends, first + 2);
+        double prixMensuel = price(csvString, ends, first + 3);
+        String clientName = text(csvString, ends, first + 4);
+        LocalDate derniereUtilisation = isEmpty(ends, first + 5) ? null : date(csvString, ends, first + 5);
+        String categorie = columns == 6 ? "Non classé" : text(csvString, ends, first + 6);
         return new Abonnement(id, nomService, dateDebut, dateFin, prixMensuel, clientName, derniereUtilisation, categorie);
     }
+
+    // -------------------------------------------------------------------------
+    // Lecture par index
+    // -------------------------------------------------------------------------
+
+    /**
+     * Locates the column boundaries ({@code ends[i]} = exclusive end of column i)
+     * and returns the column count, trailing empty columns excluded like {@code split}.
+     */
+    private static int scan(String s, int[] ends) {
+        int columns = 0;
+        int field = 0;
+        int start = 0;
+        int length = s.length();
+        while (true) {
+            int sep = s.indexOf(';', start);
+            int end = sep < 0 ? length : sep;
+            if (end > start) {
+                columns = field + 1;
+            }
+            if (ends != null && field < ends.length) {
+                ends[field] = end;
+            }
+            field++;
+            if (sep < 0) {
+                break;
+            }
+            start = sep + 1;
+        }
+        // "".split(";") retourne [""]
+        return length == 0 ? 1 : columns;
+    }
+
+    private static int start(int[] ends, int column) {
+        return column == 0 ? 0 : ends[column - 1] + 1;
+    }
+
+    private static boolean isEmpty(int[] ends, int column) {
+        return ends[column] == start(ends, column);
+    }
+
+    private static String text(String s, int[] ends, int column) {
+        return s.substring(start(ends, column), ends[column]);
+    }
+
+    /**
+     * Parses a price value, tolerating both dot and comma as decimal separator.
+     */
+    private static double price(String s, int[] ends, int column) {
+        int from = start(ends, column);
+        int to = ends[column];
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c <= ' ') {
+                return Double.parseDouble(s.substring(from, to).replace(',', '.').trim());
+            }
+        }
+        return Double.parseDouble(s.substring(from, to));
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date from the column range, using {@link #DATE_CACHE}.
+     * Anything else goes through {@link LocalDate#parse} (same exceptions as before).
+     */
+    private static LocalDate date(String s, int[] ends, int column) {
+        int from = start(ends, column);
+        int to = ends[column];
+        if (to - from == 10 && s.charAt(from + 4) == '-' && s.charAt(from + 7) == '-') {
+            int year = digits(s, from, 4);
+            int month = digits(s, from + 5, 2);
+            int day = digits(s, from + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                int key = (year << 9) | (month << 5) | day;
+                int slot = (key * 0x9E3779B1) >>> 20;
+                LocalDate cached = DATE_CACHE[slot];
+                if (cached != null && cached.getYear() == year
+                        && cached.getMonthValue() == month && cached.getDayOfMonth() == day) {
+                    return cached;
+                }
+                try {
+                    LocalDate parsed = LocalDate.of(year, month, day);
+                    DATE_CACHE[slot] = parsed;
+                    return parsed;
+                } catch (DateTimeException e) {
+                    // date impossible : LocalDate.parse lève l'exception habituelle
+                }
+            }
+        }
+        return LocalDate.parse(s.substring(from, to));
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /** Tags séparés par {@code |}, mêmes résultats que {@code split("\\|")}. */
+    private static List<String> tags(String s, int from, int to) {
+        List<String> tags = new ArrayList<>();
+        if (from == to) {
+            return tags;
+        }
+        int start = from;
+        while (true) {
+            int sep = s.indexOf('|', start);
+            if (sep < 0 || sep >= to) {
+                tags.add(s.substring(start, to));
+                break;
+            }
+            tags.add(s.substring(start, sep));
+            start = sep + 1;
+        }
+        while (!tags.isEmpty() && tags.get(tags.size() - 1).isEmpty()) {
+            tags.remove(tags.size() - 1);
+        }
+        return tags;
+    }
 }
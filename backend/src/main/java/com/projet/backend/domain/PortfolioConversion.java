@@ -0,0 +1,129 @@
+package com.projet.backend.domain;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Représente la conversion de tout un portefeuille d'abonnements dans plusieurs devises.
+ *
+ * Encapsule :
+ * - Les taux de change utilisés (un seul instantané pour tout le portefeuille)
+ * - La conversion de chaque abonnement
+ * - Les totaux mensuels par devise et par catégorie
+ * - Les identifiants demandés mais introuvables
+ *
+ * DTO utilisé pour la sérialisation JSON dans les réponses API.
+ */
+public class PortfolioConversion {
+
+    /** Devise de base des prix (ex: EUR) */
+    private String baseCurrency;
+
+    /** Taux de change utilisés, par devise cible */
+    private Map<String, Double> exchangeRates = new LinkedHashMap<>();
+
+    /** Conversion de chaque abonnement */
+    private List<CurrencyConversion> conversions = new ArrayList<>();
+
+    /** Total mensuel par devise (devise de base comprise) */
+    private Map<String, Double> totals = new LinkedHashMap<>();
+
+    /** Total mensuel par catégorie puis par devise */
+    private Map<String, Map<String, Double>> totalsByCategory = new TreeMap<>();
+
+    /** Identifiants demandés sans abonnement correspondant */
+    private List<String> missingIds = new ArrayList<>();
+
+    /** Timestamp de la conversion */
+    private long timestamp = System.currentTimeMillis();
+
+    // ========== CONSTRUCTEURS ==========
+
+    public PortfolioConversion() {
+    }
+
+    public PortfolioConversion(String baseCurrency, Map<String, Double> exchangeRates) {
+        this.baseCurrency = baseCurrency;
+        this.exchangeRates.putAll(exchangeRates);
+        this.totals.put(baseCurrency, 0.0);
+        exchangeRates.keySet().forEach(currency -> totals.put(currency, 0.0));
+    }
+
+    // ========== GETTERS/SETTERS ==========
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
+    public Map<String, Double> getExchangeRates() {
+        return exchangeRates;
+    }
+
+    public void setExchangeRates(Map<String, Double> exchangeRates) {
+        this.exchangeRates = exchangeRates;
+    }
+
+    public List<CurrencyConversion> getConversions() {
+        return conversions;
+    }
+
+    public void setConversions(List<CurrencyConversion> conversions) {
+        this.conversions = conversions;
+    }
+
+    public Map<String, Double> getTotals() {
+        return totals;
+    }
+
+    public void setTotals(Map<String, Double> totals) {
+        this.totals = totals;
+    }
+
+    public Map<String, Map<String, Double>> getTotalsByCategory() {
+        return totalsByCategory;
+    }
+
+    public void setTotalsByCategory(Map<String, Map<String, Double>> totalsByCategory) {
+        this.totalsByCategory = totalsByCategory;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<String> missingIds) {
+        this.missingIds = missingIds;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    // ========== MÉTHODES UTILITAIRES ==========
+
+    /**
+     * Ajoute la conversion d'un abonnement et la reporte dans les totaux.
+     */
+    public void addConversion(CurrencyConversion conversion, String category) {
+        conversions.add(conversion);
+        Map<String, Double> byCurrency = totalsByCategory.computeIfAbsent(category, c -> new LinkedHashMap<>());
+        add(totals, byCurrency, baseCurrency, conversion.getOriginalPrice());
+        conversion.getConvertedPrices().forEach((currency, price) -> add(totals, byCurrency, currency, price));
+    }
+
+    private static void add(Map<String, Double> totals, Map<String, Double> byCurrency, String currency, double amount) {
+        totals.merge(currency, amount, Double::sum);
+        byCurrency.merge(currency, amount, Double::sum);
+    }
+}
@@ -69,6 +69,40 @@ public final class AppConfig {
         return defaultValue;
     }
 
+    /**
+     * Retourne la valeur entière de {@code key}, ou {@code defaultValue} si elle est
+     * absente ou invalide (un avertissement est alors journalisé).
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valeur invalide pour {} : utilisation de {}", key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Retourne la valeur entière longue de {@code key}, ou {@code defaultValue} si elle
+     * est absente ou invalide (un avertissement est alors journalisé).
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key);
+        if (value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valeur invalide pour {} : utilisation de {}", key, defaultValue);
+            return defaultValue;
+        }
+    }
+
     /** Retourne {@code true} si la clé est définie et non vide. */
     public static boolean isDefined(String key) {
         return !get(key).isBlank();
@@ -0,0 +1,376 @@
+package com.projet.http;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.config.AppConfig;
+import com.projet.metrics.LatencyHistogram;
+
+/**
+ * Client HTTP partagé par toutes les intégrations sortantes (taux de change, benchmark,
+ * Mailgun, OpenAI...).
+ *
+ * <p>Un seul {@link HttpClient} JDK (HTTP/2 préféré) conserve les connexions ouvertes
+ * entre les appels : les poignées de main TLS ne sont payées qu'une fois par hôte.
+ * Chaque {@link #send} applique en plus, par hôte :</p>
+ * <ul>
+ *   <li>un nombre maximal de requêtes simultanées ({@code HTTP_MAX_CONCURRENCY_PER_HOST}) ;</li>
+ *   <li>un délai par défaut si la requête n'en fixe pas ({@code HTTP_REQUEST_TIMEOUT_MS}) ;</li>
+ *   <li>pour GET/HEAD uniquement, jusqu'à {@code HTTP_RETRY_MAX} nouvelles tentatives sur
+ *       erreur réseau, 429, 502, 503 ou 504, espacées d'un backoff exponentiel aléatoire
+ *       ({@code HTTP_RETRY_BACKOFF_MS}) ;</li>
+ *   <li>un disjoncteur : après {@code HTTP_BREAKER_FAILURES} échecs consécutifs (erreur
+ *       réseau ou 5xx), l'hôte est coupé pendant {@code HTTP_BREAKER_OPEN_MS} puis une
+ *       seule requête d'essai décide de sa réouverture ;</li>
+ *   <li>latence, résultats, tentatives et coupures, exportés par {@link #scrape()}.</li>
+ * </ul>
+ *
+ * <p>{@code sendAsync} est délégué tel quel, sans ces règles.</p>
+ */
+public final class OutboundHttpClient extends HttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundHttpClient.class);
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(429, 502, 503, 504);
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD");
+    private static final String[] OUTCOMES = {"success", "client_error", "server_error", "io_error"};
+
+    private static final OutboundHttpClient INSTANCE = new OutboundHttpClient(
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(AppConfig.getInt("HTTP_CONNECT_TIMEOUT_MS", 5000)))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build(),
+        new Policy(
+            AppConfig.getInt("HTTP_MAX_CONCURRENCY_PER_HOST", 8),
+            AppConfig.getInt("HTTP_REQUEST_TIMEOUT_MS", 10_000),
+            AppConfig.getInt("HTTP_RETRY_MAX", 2),
+            AppConfig.getInt("HTTP_RETRY_BACKOFF_MS", 200),
+            AppConfig.getInt("HTTP_BREAKER_FAILURES", 5),
+            AppConfig.getInt("HTTP_BREAKER_OPEN_MS", 30_000)));
+
+    private final HttpClient delegate;
+    private final Policy policy;
+    private final Map<String, HostStats> hosts = new ConcurrentHashMap<>();
+
+    OutboundHttpClient(HttpClient delegate, Policy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    public static OutboundHttpClient getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        HttpRequest req = request.timeout().isPresent() ? request
+            : HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofMillis(policy.requestTimeoutMs))
+                .build();
+        HostStats host = statsFor(req.uri());
+        int attempts = IDEMPOTENT_METHODS.contains(req.method()) ? 1 + policy.maxRetries : 1;
+
+        for (int attempt = 1; ; attempt++) {
+            if (!host.allowRequest()) {
+                host.shortCircuited.increment();
+                throw new CircuitOpenException(host.name);
+            }
+            long waitMs = req.timeout().map(Duration::toMillis).orElse((long) policy.requestTimeoutMs);
+            if (!host.permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                host.rejected.increment();
+                host.trial.set(false);
+                throw new HttpTimeoutException("Trop de requêtes simultanées vers " + host.name);
+            }
+
+            long start = System.nanoTime();
+            HttpResponse<T> response = null;
+            IOException error = null;
+            try {
+                response = delegate.send(req, handler);
+            } catch (IOException e) {
+                error = e;
+            } catch (InterruptedException | RuntimeException e) {
+                host.trial.set(false);
+                throw e;
+            } finally {
+                host.permits.release();
+                host.latency.record((System.nanoTime() - start) / 1_000L);
+            }
+
+            if (response != null) {
+                int status = response.statusCode();
+                host.outcomes.incrementAndGet(status >= 500 ? 2 : status >= 400 ? 1 : 0);
+                if (status >= 500) {
+                    host.onFailure(policy);
+                } else {
+                    host.onSuccess();
+                }
+                if (attempt < attempts && RETRYABLE_STATUS.contains(status)) {
+                    host.retries.increment();
+                    backoff(attempt);
+                    continue;
+                }
+                return response;
+            }
+
+            host.outcomes.incrementAndGet(3);
+            host.onFailure(policy);
+            if (attempt < attempts && !(error instanceof CircuitOpenException)) {
+                host.retries.increment();
+                backoff(attempt);
+                continue;
+            }
+            throw error;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return delegate.sendAsync(request, handler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return delegate.sendAsync(request, handler, pushPromiseHandler);
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+
+    /** Export au format texte Prometheus. */
+    public String scrape() {
+        List<HostStats> snapshot = new ArrayList<>(hosts.values());
+        snapshot.sort(Comparator.comparing(h -> h.name));
+        StringBuilder out = new StringBuilder(snapshot.size() * 1024 + 256);
+
+        header(out, "outbound_http_requests_total", "counter", "Requêtes HTTP sortantes par hôte et résultat.");
+        for (HostStats h : snapshot) {
+            for (int i = 0; i < OUTCOMES.length; i++) {
+                sample(out, "outbound_http_requests_total", h, "outcome=\"" + OUTCOMES[i] + "\"", h.outcomes.get(i));
+            }
+        }
+
+        header(out, "outbound_http_request_duration_seconds", "summary", "Latence des requêtes HTTP sortantes par hôte.");
+        for (HostStats h : snapshot) {
+            for (double q : QUANTILES) {
+                sample(out, "outbound_http_request_duration_seconds", h, "quantile=\"" + q + "\"", h.latency.percentile(q) / 1e6);
+            }
+            sample(out, "outbound_http_request_duration_seconds_sum", h, null, h.latency.getSum() / 1e6);
+            sample(out, "outbound_http_request_duration_seconds_count", h, null, h.latency.getCount());
+        }
+
+        header(out, "outbound_http_retries_total", "counter", "Nouvelles tentatives par hôte.");
+        for (HostStats h : snapshot) {
+            sample(out, "outbound_http_retries_total", h, null, h.retries.sum());
+        }
+
+        header(out, "outbound_http_rejected_total", "counter", "Requêtes refusées par hôte (disjoncteur ouvert ou trop de requêtes simultanées).");
+        for (HostStats h : snapshot) {
+            sample(out, "outbound_http_rejected_total", h, "reason=\"circuit_open\"", h.shortCircuited.sum());
+            sample(out, "outbound_http_rejected_total", h, "reason=\"concurrency\"", h.rejected.sum());
+        }
+
+        header(out, "outbound_http_circuit_open", "gauge", "1 si le disjoncteur de l'hôte est ouvert.");
+        for (HostStats h : snapshot) {
+            sample(out, "outbound_http_circuit_open", h, null, h.open ? 1 : 0);
+        }
+
+        header(out, "outbound_http_in_flight", "gauge", "Requêtes sortantes en cours par hôte.");
+        for (HostStats h : snapshot) {
+            sample(out, "outbound_http_in_flight", h, null, policy.maxPerHost - h.permits.availablePermits());
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, HostStats h, String extraLabel, double value) {
+        out.append(name).append("{host=\"").append(h.name).append('"');
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel);
+        }
+        out.append("} ");
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private HostStats statsFor(URI uri) {
+        String host = uri.getHost() == null ? "unknown" : uri.getHost().toLowerCase(Locale.ROOT);
+        return hosts.computeIfAbsent(host, h -> new HostStats(h, policy.maxPerHost));
+    }
+
+    /** Backoff exponentiel avec gigue : entre la moitié et la totalité de base × 2^(tentative-1). */
+    private void backoff(int attempt) throws InterruptedException {
+        long cap = (long) policy.backoffMs << Math.min(attempt - 1, 10);
+        long delay = cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    /** Levée sans appel réseau quand le disjoncteur de l'hôte est ouvert. */
+    public static final class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        CircuitOpenException(String host) {
+            super("Hôte " + host + " temporairement coupé après des échecs répétés");
+        }
+    }
+
+    /** Réglages du client (voir la documentation de la classe). */
+    static final class Policy {
+        final int maxPerHost;
+        final int requestTimeoutMs;
+        final int maxRetries;
+        final int backoffMs;
+        final int breakerFailures;
+        final long breakerOpenNanos;
+
+        Policy(int maxPerHost, int requestTimeoutMs, int maxRetries, int backoffMs,
+               int breakerFailures, int breakerOpenMs) {
+            this.maxPerHost = Math.max(1, maxPerHost);
+            this.requestTimeoutMs = Math.max(1, requestTimeoutMs);
+            this.maxRetries = Math.max(0, maxRetries);
+            this.backoffMs = Math.max(0, backoffMs);
+            this.breakerFailures = Math.max(1, breakerFailures);
+            this.breakerOpenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, breakerOpenMs));
+        }
+    }
+
+    private static final class HostStats {
+        private final String name;
+        private final Semaphore permits;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        /** Index : succès (&lt; 400), 4xx, 5xx, erreur réseau. */
+        private final AtomicLongArray outcomes = new AtomicLongArray(OUTCOMES.length);
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder shortCircuited = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean trial = new AtomicBoolean();
+        private volatile boolean open;
+        private volatile long openUntil;
+
+        private HostStats(String name, int maxConcurrent) {
+            this.name = name;
+            this.permits = new Semaphore(maxConcurrent, true);
+        }
+
+        /** Fermé : tout passe ; ouvert : rien avant l'échéance, puis une seule requête d'essai. */
+        private boolean allowRequest() {
+            if (!open) {
+                return true;
+            }
+            if (System.nanoTime() - openUntil < 0) {
+                return false;
+            }
+            return trial.compareAndSet(false, true);
+        }
+
+        private void onSuccess() {
+            consecutiveFailures.set(0);
+            if (open) {
+                open = false;
+                logger.info("Hôte {} de nouveau disponible", name);
+            }
+            trial.set(false);
+        }
+
+        private void onFailure(Policy policy) {
+            int failures = consecutiveFailures.incrementAndGet();
+            if (trial.get() || failures >= policy.breakerFailures) {
+                openUntil = System.nanoTime() + policy.breakerOpenNanos;
+                if (!open) {
+                    open = true;
+                    logger.warn("Hôte {} coupé après {} échecs consécutifs", name, failures);
+                }
+            }
+            trial.set(false);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Client HTTP sortant - Intégrations externes
+ *
+ * Responsabilités:
+ * - Partager un seul pool de connexions (HTTP/2, keep-alive) entre toutes les intégrations
+ * - Borner les requêtes simultanées par hôte, appliquer les délais par défaut
+ * - Réessayer les requêtes idempotentes avec un backoff aléatoire
+ * - Couper un hôte défaillant (disjoncteur) et exposer la latence par hôte (GET /metrics)
+ *
+ * Composants:
+ * - OutboundHttpClient : HttpClient partagé appliquant ces règles à chaque envoi
+ */
+package com.projet.http;
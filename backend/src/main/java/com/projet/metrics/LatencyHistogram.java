@@ -0,0 +1,100 @@
+package com.projet.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences log-linéaire (même principe que HdrHistogram), sans verrou.
+ *
+ * <p>Les valeurs (en microsecondes) inférieures à {@value #LINEAR_LIMIT} sont
+ * comptées exactement ; au-delà, chaque puissance de deux est découpée en
+ * {@value #SUB_BUCKETS} sous-intervalles, soit une erreur relative d'au plus
+ * 1/16 (~6 %) sur les percentiles. L'enregistrement coûte quelques opérations
+ * atomiques et la mémoire est fixe (~5 Ko par histogramme).</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR_LIMIT = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BITS = 4;
+    /** Exposant de {@link #LINEAR_LIMIT}. */
+    private static final int FIRST_EXPONENT = 5;
+    /** 2^40 µs ≈ 12 jours : toute valeur au-delà est comptée dans le dernier intervalle. */
+    private static final int LAST_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_LIMIT + (LAST_EXPONENT - FIRST_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Enregistre une durée en microsecondes (les valeurs négatives comptent pour 0). */
+    public void record(long micros) {
+        long value = Math.max(0L, micros);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** Somme des valeurs enregistrées, en microsecondes. */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Percentile {@code quantile} (0..1) en microsecondes : borne haute de l'intervalle
+     * qui le contient (jamais sous-estimé), plafonnée au maximum observé.
+     */
+    public long percentile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > LAST_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = FIRST_EXPONENT + (bucket - LINEAR_LIMIT) / SUB_BUCKETS;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+    }
+}
@@ -0,0 +1,205 @@
+package com.projet.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+
+/**
+ * Instrumentation des routes HTTP via des filtres Spark {@code before} / {@code afterAfter}.
+ *
+ * <p>Pour chaque couple (méthode, route) : nombre de requêtes par classe de statut
+ * (2xx..5xx), histogramme de latence ({@link LatencyHistogram}), temps CPU du thread
+ * de traitement et nombre de requêtes en cours. Les segments variables du chemin
+ * (UUID, nombres, emails...) sont remplacés par {@code :id} pour borner le nombre
+ * de séries ; au-delà de {@value #MAX_ROUTES} routes distinctes, les nouvelles sont
+ * regroupées sous {@code other}.</p>
+ *
+ * <p>{@link #scrape()} produit le format texte Prometheus (version 0.0.4). Les
+ * percentiles sont cumulés depuis le démarrage du serveur.</p>
+ */
+public final class RequestMetrics {
+
+    private static final RequestMetrics INSTANCE = new RequestMetrics();
+
+    static final int MAX_ROUTES = 256;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final String START_ATTR = "metrics.startNanos";
+    private static final String CPU_ATTR = "metrics.cpuNanos";
+    private static final String ROUTE_ATTR = "metrics.route";
+
+    private static final Pattern VARIABLE_SEGMENT = Pattern.compile(
+        "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F-]{27,}|[0-9a-fA-F]{16,}|.*@.*");
+
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+
+    RequestMetrics() { }
+
+    public static RequestMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /** Installe les filtres globaux ; à appeler une fois, avant la déclaration des routes. */
+    public void install() {
+        Spark.before(this::onStart);
+        Spark.afterAfter(this::onEnd);
+    }
+
+    void onStart(Request req, Response res) {
+        RouteStats stats = statsFor(req.requestMethod(), routeOf(req.pathInfo()));
+        stats.inFlight.incrementAndGet();
+        req.attribute(ROUTE_ATTR, stats);
+        req.attribute(START_ATTR, System.nanoTime());
+        if (cpuTimeSupported) {
+            req.attribute(CPU_ATTR, threads.getCurrentThreadCpuTime());
+        }
+    }
+
+    void onEnd(Request req, Response res) {
+        RouteStats stats = req.attribute(ROUTE_ATTR);
+        Long start = req.attribute(START_ATTR);
+        if (stats == null || start == null) {
+            return;
+        }
+        // afterAfter peut être rejoué (erreur dans un filtre) : ne compter qu'une fois
+        req.raw().removeAttribute(ROUTE_ATTR);
+        stats.inFlight.decrementAndGet();
+        stats.latency.record((System.nanoTime() - start) / 1_000L);
+        Long cpuStart = req.attribute(CPU_ATTR);
+        if (cpuStart != null) {
+            stats.cpuNanos.add(threads.getCurrentThreadCpuTime() - cpuStart);
+        }
+        int status = res.raw().getStatus();
+        stats.statusClasses.incrementAndGet(Math.min(4, Math.max(0, status / 100 - 1)));
+    }
+
+    /** Remplace les segments variables du chemin par {@code :id}. */
+    static String routeOf(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        StringBuilder route = new StringBuilder(path.length());
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            route.append('/').append(VARIABLE_SEGMENT.matcher(segment).matches() ? ":id" : segment);
+        }
+        return route.length() == 0 ? "/" : route.toString();
+    }
+
+    private RouteStats statsFor(String method, String route) {
+        String key = method + " " + route;
+        RouteStats stats = routes.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        if (routes.size() >= MAX_ROUTES) {
+            return routes.computeIfAbsent(method + " other", k -> new RouteStats(method, "other"));
+        }
+        return routes.computeIfAbsent(key, k -> new RouteStats(method, route));
+    }
+
+    /** Export au format texte Prometheus. */
+    public String scrape() {
+        List<RouteStats> snapshot = new ArrayList<>(routes.values());
+        snapshot.sort(Comparator.comparing((RouteStats s) -> s.route).thenComparing(s -> s.method));
+        StringBuilder out = new StringBuilder(snapshot.size() * 1024);
+
+        header(out, "http_requests_total", "counter", "Requêtes HTTP traitées par route et classe de statut.");
+        for (RouteStats s : snapshot) {
+            for (int i = 0; i < 5; i++) {
+                long n = s.statusClasses.get(i);
+                if (n > 0) {
+                    sample(out, "http_requests_total", s, "status=\"" + (i + 1) + "xx\"", n);
+                }
+            }
+        }
+
+        header(out, "http_request_error_ratio", "gauge", "Part des réponses 5xx par route.");
+        for (RouteStats s : snapshot) {
+            long total = s.latency.getCount();
+            sample(out, "http_request_error_ratio", s, null, total == 0 ? 0.0 : (double) s.statusClasses.get(4) / total);
+        }
+
+        header(out, "http_request_duration_seconds", "summary", "Latence des requêtes HTTP par route.");
+        for (RouteStats s : snapshot) {
+            for (double q : QUANTILES) {
+                sample(out, "http_request_duration_seconds", s, "quantile=\"" + q + "\"", s.latency.percentile(q) / 1e6);
+            }
+            sample(out, "http_request_duration_seconds_sum", s, null, s.latency.getSum() / 1e6);
+            sample(out, "http_request_duration_seconds_count", s, null, s.latency.getCount());
+        }
+
+        header(out, "http_request_duration_seconds_max", "gauge", "Latence maximale observée par route.");
+        for (RouteStats s : snapshot) {
+            sample(out, "http_request_duration_seconds_max", s, null, s.latency.getMax() / 1e6);
+        }
+
+        if (cpuTimeSupported) {
+            header(out, "http_request_cpu_seconds_total", "counter", "Temps CPU consommé par le thread de traitement, par route.");
+            for (RouteStats s : snapshot) {
+                sample(out, "http_request_cpu_seconds_total", s, null, s.cpuNanos.sum() / 1e9);
+            }
+        }
+
+        header(out, "http_requests_in_flight", "gauge", "Requêtes en cours de traitement par route.");
+        for (RouteStats s : snapshot) {
+            sample(out, "http_requests_in_flight", s, null, s.inFlight.get());
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, RouteStats s, String extraLabel, double value) {
+        out.append(name).append("{method=\"").append(escape(s.method))
+           .append("\",route=\"").append(escape(s.route)).append('"');
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel);
+        }
+        out.append("} ");
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class RouteStats {
+        private final String method;
+        private final String route;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        /** Index 0..4 = 1xx..5xx. */
+        private final AtomicLongArray statusClasses = new AtomicLongArray(5);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder cpuNanos = new LongAdder();
+
+        private RouteStats(String method, String route) {
+            this.method = method;
+            this.route = route;
+        }
+    }
+}
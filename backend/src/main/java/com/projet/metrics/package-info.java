@@ -0,0 +1,12 @@
+/**
+ * Métriques techniques - Instrumentation
+ * 
+ * Responsabilités:
+ * - Mesurer latence, débit, erreurs et requêtes en cours par route HTTP
+ * - Exposer les métriques au format texte Prometheus (GET /metrics)
+ * 
+ * Composants:
+ * - LatencyHistogram : histogramme log-linéaire sans verrou (percentiles)
+ * - RequestMetrics : filtres Spark before/afterAfter et export Prometheus
+ */
+package com.projet.metrics;
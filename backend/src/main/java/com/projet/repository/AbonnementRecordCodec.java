@@ -0,0 +1,143 @@
+package com.projet.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Encodage sans perte d'un abonnement pour {@link JournalAbonnementRepository}.
+ *
+ * <p>Chaque champ est préfixé par sa longueur ({@code 7:Netflix}, {@code ~} pour
+ * {@code null}) : aucun caractère n'a besoin d'être échappé, un {@code ;}, une
+ * tabulation ou un saut de ligne dans un nom de service ou une note est relu tel quel,
+ * contrairement au format CSV de {@link com.projet.backend.adapter.AbonnementCsvConverter}.
+ * Les tags sont écrits comme leur nombre suivi d'un champ par tag.</p>
+ */
+final class AbonnementRecordCodec {
+
+    private static final char NULL = '~';
+
+    private AbonnementRecordCodec() {
+    }
+
+    static String encode(Abonnement a) {
+        StringBuilder out = new StringBuilder(128);
+        field(out, a.getId());
+        field(out, a.getNomService());
+        field(out, a.getDateDebut());
+        field(out, a.getDateFin());
+        field(out, Double.toString(a.getPrixMensuel()));
+        field(out, a.getCurrency());
+        field(out, a.getClientName());
+        field(out, a.getDerniereUtilisation());
+        field(out, a.getCategorie());
+        List<String> tags = a.getTags();
+        field(out, Integer.toString(tags.size()));
+        for (String tag : tags) {
+            field(out, tag);
+        }
+        field(out, a.getGroupeAbonnement());
+        field(out, a.getPriorite());
+        field(out, a.getNotes());
+        field(out, Integer.toString(a.getNombreUtilisateurs()));
+        field(out, a.isPartage() ? "1" : "0");
+        field(out, Integer.toString(a.getJoursRappelAvantFin()));
+        field(out, a.getFrequencePaiement());
+        return out.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException si la charge utile est incomplète ou mal formée
+     */
+    static Abonnement decode(String payload) {
+        Reader in = new Reader(payload);
+        String id = in.next();
+        String nomService = in.next();
+        LocalDate dateDebut = in.nextDate();
+        LocalDate dateFin = in.nextDate();
+        double prixMensuel = Double.parseDouble(in.required());
+        String currency = in.next();
+        String clientName = in.next();
+        LocalDate derniereUtilisation = in.nextDate();
+        String categorie = in.next();
+        int tagCount = Integer.parseInt(in.required());
+        List<String> tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(in.next());
+        }
+        String groupeAbonnement = in.next();
+        String priorite = in.next();
+        String notes = in.next();
+        int nombreUtilisateurs = Integer.parseInt(in.required());
+        boolean partage = "1".equals(in.required());
+        int joursRappelAvantFin = Integer.parseInt(in.required());
+        String frequencePaiement = in.next();
+        if (!in.atEnd()) {
+            throw new IllegalArgumentException("Données en trop après le dernier champ");
+        }
+
+        Abonnement a = new Abonnement(id, nomService, dateDebut, dateFin, prixMensuel, clientName,
+            derniereUtilisation, categorie, tags, groupeAbonnement, priorite, notes,
+            nombreUtilisateurs, partage, joursRappelAvantFin, frequencePaiement);
+        a.setCurrency(currency);
+        return a;
+    }
+
+    private static void field(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append(NULL);
+            return;
+        }
+        String text = value.toString();
+        out.append(text.length()).append(':').append(text);
+    }
+
+    private static final class Reader {
+        private final String s;
+        private int pos;
+
+        Reader(String s) {
+            this.s = s;
+        }
+
+        String next() {
+            if (pos >= s.length()) {
+                throw new IllegalArgumentException("Champ manquant à la position " + pos);
+            }
+            if (s.charAt(pos) == NULL) {
+                pos++;
+                return null;
+            }
+            int colon = s.indexOf(':', pos);
+            if (colon < 0) {
+                throw new IllegalArgumentException("Longueur de champ absente à la position " + pos);
+            }
+            int length = Integer.parseInt(s, pos, colon, 10);
+            int end = colon + 1 + length;
+            if (length < 0 || end > s.length()) {
+                throw new IllegalArgumentException("Champ tronqué à la position " + pos);
+            }
+            pos = end;
+            return s.substring(colon + 1, end);
+        }
+
+        String required() {
+            String value = next();
+            if (value == null) {
+                throw new IllegalArgumentException("Champ obligatoire nul avant la position " + pos);
+            }
+            return value;
+        }
+
+        LocalDate nextDate() {
+            String value = next();
+            return value == null ? null : LocalDate.parse(value);
+        }
+
+        boolean atEnd() {
+            return pos == s.length();
+        }
+    }
+}
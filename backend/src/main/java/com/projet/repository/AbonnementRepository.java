@@ -1,7 +1,11 @@
 package com.projet.repository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.projet.backend.domain.Abonnement;
 
@@ -16,4 +20,37 @@ public interface AbonnementRepository {
 	void save(Abonnement abonnement);
 	void delete(Abonnement abonnement);
 	void deleteByUuid(String uuid);
+
+	/**
+	 * Insère ou remplace (par UUID) un lot d'abonnements, en conservant les autres.
+	 * Les implémentations peuvent l'écrire en une seule opération groupée.
+	 */
+	default void saveBatch(List<Abonnement> abonnements) {
+		Map<String, Abonnement> merged = new LinkedHashMap<>();
+		for (Abonnement a : findAll()) {
+			merged.put(a.getId(), a);
+		}
+		for (Abonnement a : abonnements) {
+			merged.put(a.getId(), a);
+		}
+		saveAll(new ArrayList<>(merged.values()));
+	}
+
+	/**
+	 * Parcourt les abonnements un par un sans matérialiser la liste complète
+	 * lorsque l'implémentation le permet (exports en flux).
+	 */
+	default void forEach(Consumer<Abonnement> action) {
+		findAll().forEach(action);
+	}
+
+	/**
+	 * Numéro de version des données, modifié à chaque écriture ; {@code -1} si
+	 * l'implémentation n'en suit pas (les résultats dérivés ne sont alors pas mémorisés).
+	 * Une version n'est jamais réattribuée à un autre état des données, y compris
+	 * après un rechargement ou une réouverture.
+	 */
+	default long version() {
+		return -1;
+	}
 }
@@ -0,0 +1,92 @@
+package com.projet.repository;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.config.AppConfig;
+import com.projet.user.FileUserRepository;
+
+/**
+ * Sélection du stockage des abonnements selon la configuration.
+ *
+ * <ul>
+ *   <li>{@code ABONNEMENT_USER_STORAGE} : {@code file} (défaut, fichiers par utilisateur
+ *       servis via {@link UserAbonnementCache}) ou {@code h2} ({@link UserDatabaseAbonnementRepository})</li>
+ *   <li>{@code USER_JDBC_URL} : base multi-utilisateurs ({@code jdbc:h2:./data/abonnements-users} par défaut)</li>
+ *   <li>{@code ABONNEMENT_MIGRATE_ON_START} : importe au démarrage les fichiers utilisateurs
+ *       pas encore migrés (h2)</li>
+ *   <li>{@code ABONNEMENT_STORAGE} : {@code journal} pour le stockage partagé des
+ *       utilisateurs non connectés ({@link JournalAbonnementRepository}), sinon {@code abonnements.txt}</li>
+ * </ul>
+ */
+public final class AbonnementStorage {
+    private static final Logger logger = LoggerFactory.getLogger(AbonnementStorage.class);
+
+    private static final String USER_DIR = "data/abonnements/";
+
+    private static final AbonnementRepository SHARED_JOURNAL =
+        "journal".equalsIgnoreCase(AppConfig.get("ABONNEMENT_STORAGE"))
+            ? new JournalAbonnementRepository(AppConfig.get("ABONNEMENT_JOURNAL_DIR", "data/journal"))
+            : null;
+
+    private static final JdbcConnectionPool USER_POOL = initUserPool();
+
+    private AbonnementStorage() { /* utilitaire statique */ }
+
+    /** Repository des abonnements d'un utilisateur connecté. */
+    public static AbonnementRepository forUser(String userEmail) {
+        if (USER_POOL != null) {
+            return new UserDatabaseAbonnementRepository(USER_POOL, userEmail);
+        }
+        return UserAbonnementCache.getInstance().repositoryFor(userEmail);
+    }
+
+    /** Repository partagé utilisé pour les utilisateurs non connectés. */
+    public static AbonnementRepository shared() {
+        return SHARED_JOURNAL != null ? SHARED_JOURNAL : new FileAbonnementRepository("abonnements.txt");
+    }
+
+    /** État du stockage : type, pool JDBC et cache selon la configuration. */
+    public static Map<String, Object> health() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("userStorage", USER_POOL != null ? "h2" : "file");
+        health.put("sharedStorage", SHARED_JOURNAL != null ? "journal" : "file");
+        if (USER_POOL != null) {
+            health.put("database", USER_POOL.health());
+            health.put("writes", UserDatabaseAbonnementRepository.getWriteStats());
+        } else {
+            health.put("cache", UserAbonnementCache.getInstance().stats());
+        }
+        return health;
+    }
+
+    /** Compteurs d'écriture du stockage H2 au format Prometheus ({@code ""} en mode fichier). */
+    public static String scrape() {
+        return USER_POOL != null ? UserDatabaseAbonnementRepository.scrapeWriteStats() : "";
+    }
+
+    private static JdbcConnectionPool initUserPool() {
+        if (!"h2".equalsIgnoreCase(AppConfig.get("ABONNEMENT_USER_STORAGE", "file"))) {
+            return null;
+        }
+        JdbcConnectionPool pool = new JdbcConnectionPool(
+            AppConfig.get("USER_JDBC_URL", "jdbc:h2:./data/abonnements-users"),
+            AppConfig.get("JDBC_USER"),
+            AppConfig.get("JDBC_PASS"));
+        try {
+            UserDatabaseAbonnementRepository.ensureSchema(pool);
+            if (Boolean.parseBoolean(AppConfig.get("ABONNEMENT_MIGRATE_ON_START", "false"))) {
+                new UserAbonnementMigrator(pool).migrate(USER_DIR, new FileUserRepository().findAllEmails());
+            }
+        } catch (SQLException e) {
+            logger.error("Initialisation du stockage H2 impossible, repli sur les fichiers: {}", e.getMessage(), e);
+            pool.close();
+            return null;
+        }
+        return pool;
+    }
+}
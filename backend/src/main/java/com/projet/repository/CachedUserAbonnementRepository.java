@@ -0,0 +1,69 @@
+package com.projet.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Repository par utilisateur servi depuis {@link UserAbonnementCache}.
+ *
+ * <p>Même sémantique que {@link UserAbonnementRepository} (save = insertion ou
+ * remplacement par UUID), mais les lectures ne reparsent plus le fichier à chaque
+ * requête et les écritures sont persistées de façon différée et regroupée.</p>
+ */
+public class CachedUserAbonnementRepository implements AbonnementRepository {
+    private final UserAbonnementCache cache;
+    private final String userEmail;
+
+    CachedUserAbonnementRepository(UserAbonnementCache cache, String userEmail) {
+        this.cache = cache;
+        this.userEmail = userEmail;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    @Override
+    public List<Abonnement> findAll() {
+        return cache.findAll(userEmail);
+    }
+
+    @Override
+    public void saveAll(List<Abonnement> abonnements) {
+        cache.saveAll(userEmail, abonnements);
+    }
+
+    @Override
+    public Optional<Abonnement> findByUuid(String uuid) {
+        return cache.findByUuid(userEmail, uuid);
+    }
+
+    @Override
+    public void save(Abonnement abonnement) {
+        cache.save(userEmail, abonnement);
+    }
+
+    @Override
+    public void saveBatch(List<Abonnement> abonnements) {
+        cache.saveBatch(userEmail, abonnements);
+    }
+
+    @Override
+    public long version() {
+        return cache.version(userEmail);
+    }
+
+    @Override
+    public void delete(Abonnement abonnement) {
+        if (abonnement != null && abonnement.getId() != null) {
+            deleteByUuid(abonnement.getId());
+        }
+    }
+
+    @Override
+    public void deleteByUuid(String uuid) {
+        cache.deleteByUuid(userEmail, uuid);
+    }
+}
@@ -0,0 +1,24 @@
+package com.projet.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur des numéros renvoyés par {@link AbonnementRepository#version()}.
+ *
+ * <p>Un compteur unique pour tout le processus : une version n'est jamais
+ * réattribuée, même après l'éviction puis le rechargement d'une entrée de cache
+ * ou la réouverture d'un repository. Un résultat mémorisé sous une version ne peut
+ * donc pas être confondu avec un état ultérieur des données.</p>
+ */
+final class DataVersions {
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private DataVersions() {
+    }
+
+    /** Nouvelle version, strictement supérieure à toutes celles déjà attribuées. */
+    static long next() {
+        return LAST.incrementAndGet();
+    }
+}
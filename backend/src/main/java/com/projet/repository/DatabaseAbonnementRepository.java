@@ -1,31 +1,57 @@
 package com.projet.repository;
 
-import java.sql.Connection;
 import java.sql.Date;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.projet.backend.domain.Abonnement;
+import com.projet.repository.JdbcConnectionPool.PooledConnection;
 
 /**
  * Implémentation JDBC simple pour H2 (ou autre via JDBC URL) de AbonnementRepository.
  * Utilise une table `abonnements` avec une colonne id (UUID stockée en texte).
+ *
+ * Les connexions proviennent d'un {@link JdbcConnectionPool} borné et les requêtes
+ * préparées sont réutilisées d'un appel à l'autre (voir {@link #getPoolStats()}
+ * et {@link #health()}).
+ *
+ * Chaque ligne stocke une empreinte (`row_hash`) de ses colonnes : {@link #saveAll(List)}
+ * compare l'état reçu à l'état stocké et n'émet que les MERGE/DELETE nécessaires.
  */
-public class DatabaseAbonnementRepository implements AbonnementRepository {
+public class DatabaseAbonnementRepository implements AbonnementRepository, AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseAbonnementRepository.class);
-    private final String jdbcUrl;
-    private final String username;
-    private final String password;
+
+    private static final String COLUMNS = "id, nom_service, date_debut, date_fin, prix_mensuel, client_name, derniere_utilisation, categorie";
+    private static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM abonnements ORDER BY id";
+    private static final String SELECT_FIRST_PAGE_SQL = "SELECT " + COLUMNS + " FROM abonnements ORDER BY id LIMIT ?";
+    private static final String SELECT_NEXT_PAGE_SQL = "SELECT " + COLUMNS + " FROM abonnements WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + COLUMNS + " FROM abonnements WHERE id = ?";
+    private static final String SELECT_HASHES_SQL = "SELECT id, row_hash FROM abonnements";
+    // H2 supports MERGE; for other DBs this may need to be adjusted.
+    private static final String MERGE_SQL = "MERGE INTO abonnements (" + COLUMNS + ", row_hash) KEY(id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_BY_ID_SQL = "DELETE FROM abonnements WHERE id = ?";
+
+    /** Lignes lues par page dans {@link #forEach(Consumer)}. */
+    static final int PAGE_SIZE = 500;
+
+    private final JdbcConnectionPool pool;
+
+    private final WriteStats writeStats = new WriteStats();
+
     public DatabaseAbonnementRepository() {
         this(System.getenv("JDBC_URL") != null ? System.getenv("JDBC_URL") : "jdbc:h2:./data/abonnements-db",
              System.getenv("JDBC_USER"), System.getenv("JDBC_PASS"));
@@ -39,9 +65,11 @@ public class DatabaseAbonnementRepository implements AbonnementRepository {
     }
 
     public DatabaseAbonnementRepository(String jdbcUrl, String username, String password) {
-        this.jdbcUrl = jdbcUrl;
-        this.username = username;
-        this.password = password;
+        this(new JdbcConnectionPool(jdbcUrl, username, password));
+    }
+
+    public DatabaseAbonnementRepository(JdbcConnectionPool pool) {
+        this.pool = pool;
         try {
             ensureTable();
         } catch (SQLException e) {
@@ -49,13 +77,6 @@ public class DatabaseAbonnementRepository implements AbonnementRepository {
         }
     }
 
-    private Connection getConnection() throws SQLException {
-        if (username == null || username.isEmpty()) {
-            return DriverManager.getConnection(jdbcUrl);
-        }
-        return DriverManager.getConnection(jdbcUrl, username, password);
-    }
-
     private void ensureTable() throws SQLException {
         String ddl = "CREATE TABLE IF NOT EXISTS abonnements ("
                 + "id VARCHAR(64) PRIMARY KEY,"
@@ -65,32 +86,52 @@ public class DatabaseAbonnementRepository implements AbonnementRepository {
                 + "prix_mensuel DOUBLE,"
                 + "client_name VARCHAR(255),"
                 + "derniere_utilisation DATE,"
-                + "categorie VARCHAR(255)"
+                + "categorie VARCHAR(255),"
+                + "row_hash BIGINT"
                 + ")";
-        try (Connection c = getConnection(); Statement st = c.createStatement()) {
+        try (PooledConnection c = pool.borrow(); Statement st = c.connection().createStatement()) {
             st.execute(ddl);
+            // Tables créées avant l'introduction de l'empreinte de ligne
+            st.execute("ALTER TABLE abonnements ADD COLUMN IF NOT EXISTS row_hash BIGINT");
         }
     }
 
+    /** Compteurs des écritures incrémentales réalisées par {@link #saveAll(List)}. */
+    public Map<String, Object> getWriteStats() {
+        return writeStats.toMap();
+    }
+
+    /** Compteurs de {@link #saveAll(List)} au format Prometheus, étiquetés par {@code store}. */
+    public String scrapeWriteStats(String store) {
+        return writeStats.scrape(store);
+    }
+
+    /** Métriques du pool de connexions (attente, utilisation, cache de requêtes). */
+    public Map<String, Object> getPoolStats() {
+        return pool.stats();
+    }
+
+    /** Sonde de santé : exécute une requête triviale sur une connexion du pool. */
+    public Map<String, Object> health() {
+        return pool.health();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
     @Override
     public List<Abonnement> findAll() {
         List<Abonnement> out = new ArrayList<>();
-        String sql = "SELECT id, nom_service, date_debut, date_fin, prix_mensuel, client_name, derniere_utilisation, categorie FROM abonnements ORDER BY id";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                String id = rs.getString(1);
-                String nom = rs.getString(2);
-                Date dDeb = rs.getDate(3);
-                Date dFin = rs.getDate(4);
-                double prix = rs.getDouble(5);
-                String client = rs.getString(6);
-                Date last = rs.getDate(7);
-                String cat = rs.getString(8);
-                LocalDate ldDeb = dDeb != null ? dDeb.toLocalDate() : null;
-                LocalDate ldFin = dFin != null ? dFin.toLocalDate() : null;
-                LocalDate ldLast = last != null ? last.toLocalDate() : null;
-                Abonnement a = new Abonnement(id, nom, ldDeb, ldFin, prix, client, ldLast, cat != null ? cat : "Non classé");
-                out.add(a);
+        try (PooledConnection c = pool.borrow()) {
+            try (ResultSet rs = c.prepare(SELECT_ALL_SQL).executeQuery()) {
+                while (rs.next()) {
+                    out.add(mapRow(rs));
+                }
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
             }
         } catch (SQLException e) {
             logger.error("Erreur findAll DB: {}", e.getMessage(), e);
@@ -99,31 +140,106 @@ public class DatabaseAbonnementRepository implements AbonnementRepository {
         return out;
     }
 
+    /**
+     * Parcourt la table par pages de {@value #PAGE_SIZE} lignes (pagination par clé
+     * sur {@code id}). Une connexion est empruntée puis rendue pour chaque page :
+     * un consommateur lent (export vers un client lent) ne garde ni connexion du
+     * pool ni curseur ouvert.
+     */
     @Override
-    public void saveAll(List<Abonnement> abonnements) {
-        String deleteSql = "DELETE FROM abonnements";
-        String insertSql = "INSERT INTO abonnements (id, nom_service, date_debut, date_fin, prix_mensuel, client_name, derniere_utilisation, categorie) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        try (Connection c = getConnection()) {
-            c.setAutoCommit(false);
-            try (Statement st = c.createStatement()) {
-                st.execute(deleteSql);
+    public void forEach(Consumer<Abonnement> action) {
+        String after = null;
+        List<Abonnement> page;
+        do {
+            page = page(after);
+            page.forEach(action);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private List<Abonnement> page(String afterId) {
+        List<Abonnement> out = new ArrayList<>(PAGE_SIZE);
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                PreparedStatement ps = c.prepare(afterId == null ? SELECT_FIRST_PAGE_SQL : SELECT_NEXT_PAGE_SQL);
+                int index = 1;
+                if (afterId != null) {
+                    ps.setString(index++, afterId);
+                }
+                ps.setInt(index, PAGE_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(mapRow(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
             }
-            try (PreparedStatement ps = c.prepareStatement(insertSql)) {
+        } catch (SQLException e) {
+            logger.error("Erreur de lecture paginée DB: {}", e.getMessage(), e);
+        }
+        return out;
+    }
+
+    /**
+     * Synchronise la table avec la liste fournie : seules les lignes nouvelles ou
+     * modifiées (empreinte différente) sont fusionnées, et seules les lignes
+     * absentes de la liste sont supprimées, le tout dans une transaction.
+     */
+    @Override
+    public void saveAll(List<Abonnement> abonnements) {
+        try (PooledConnection c = pool.borrow()) {
+            int merged = 0;
+            int deleted = 0;
+            try {
+                c.connection().setAutoCommit(false);
+                Map<String, Long> stored = new HashMap<>();
+                try (ResultSet rs = c.prepare(SELECT_HASHES_SQL).executeQuery()) {
+                    while (rs.next()) {
+                        long hash = rs.getLong(2);
+                        stored.put(rs.getString(1), rs.wasNull() ? null : hash);
+                    }
+                }
+
+                Set<String> kept = new HashSet<>();
+                PreparedStatement merge = c.prepare(MERGE_SQL);
                 for (Abonnement a : abonnements) {
-                    ps.setString(1, a.getId());
-                    ps.setString(2, a.getNomService());
-                    ps.setDate(3, a.getDateDebut() != null ? Date.valueOf(a.getDateDebut()) : null);
-                    ps.setDate(4, a.getDateFin() != null ? Date.valueOf(a.getDateFin()) : null);
-                    ps.setDouble(5, a.getPrixMensuel());
-                    ps.setString(6, a.getClientName());
-                    ps.setDate(7, a.getDerniereUtilisation() != null ? Date.valueOf(a.getDerniereUtilisation()) : null);
-                    ps.setString(8, a.getCategorie());
-                    ps.addBatch();
+                    kept.add(a.getId());
+                    long hash = rowHash(a);
+                    Long previous = stored.get(a.getId());
+                    if (previous != null && previous == hash) {
+                        continue;
+                    }
+                    bind(merge, a, hash);
+                    merge.addBatch();
+                    merged++;
+                }
+                if (merged > 0) {
+                    merge.executeBatch();
+                }
+
+                PreparedStatement delete = c.prepare(DELETE_BY_ID_SQL);
+                for (String id : stored.keySet()) {
+                    if (!kept.contains(id)) {
+                        delete.setString(1, id);
+                        delete.addBatch();
+                        deleted++;
+                    }
+                }
+                if (deleted > 0) {
+                    delete.executeBatch();
                 }
-                ps.executeBatch();
+                c.connection().commit();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
             }
-            c.commit();
-            logger.info("{} abonnements sauvegardés dans la base", abonnements.size());
+            writeStats.record(abonnements.size(), merged, deleted);
+            logger.info("{} abonnements sauvegardés dans la base ({} fusionnés, {} supprimés)",
+                abonnements.size(), merged, deleted);
         } catch (SQLException e) {
             logger.error("Erreur saveAll DB: {}", e.getMessage(), e);
         }
@@ -131,25 +247,18 @@ public class DatabaseAbonnementRepository implements AbonnementRepository {
 
     @Override
     public Optional<Abonnement> findByUuid(String uuid) {
-        String sql = "SELECT id, nom_service, date_debut, date_fin, prix_mensuel, client_name, derniere_utilisation, categorie FROM abonnements WHERE id = ?";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, uuid);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    String id = rs.getString(1);
-                    String nom = rs.getString(2);
-                    Date dDeb = rs.getDate(3);
-                    Date dFin = rs.getDate(4);
-                    double prix = rs.getDouble(5);
-                    String client = rs.getString(6);
-                    Date last = rs.getDate(7);
-                    String cat = rs.getString(8);
-                    LocalDate ldDeb = dDeb != null ? dDeb.toLocalDate() : null;
-                    LocalDate ldFin = dFin != null ? dFin.toLocalDate() : null;
-                    LocalDate ldLast = last != null ? last.toLocalDate() : null;
-                    Abonnement a = new Abonnement(id, nom, ldDeb, ldFin, prix, client, ldLast, cat != null ? cat : "Non classé");
-                    return Optional.of(a);
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                PreparedStatement ps = c.prepare(SELECT_BY_ID_SQL);
+                ps.setString(1, uuid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapRow(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
             }
         } catch (SQLException e) {
             logger.error("Erreur findByUuid DB: {}", e.getMessage(), e);
@@ -159,18 +268,15 @@ public class DatabaseAbonnementRepository implements AbonnementRepository {
 
     @Override
     public void save(Abonnement abonnement) {
-        String insertSql = "MERGE INTO abonnements (id, nom_service, date_debut, date_fin, prix_mensuel, client_name, derniere_utilisation, categorie) KEY(id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        // H2 supports MERGE; for other DBs this may need to be adjusted.
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(insertSql)) {
-            ps.setString(1, abonnement.getId());
-            ps.setString(2, abonnement.getNomService());
-            ps.setDate(3, abonnement.getDateDebut() != null ? Date.valueOf(abonnement.getDateDebut()) : null);
-            ps.setDate(4, abonnement.getDateFin() != null ? Date.valueOf(abonnement.getDateFin()) : null);
-            ps.setDouble(5, abonnement.getPrixMensuel());
-            ps.setString(6, abonnement.getClientName());
-            ps.setDate(7, abonnement.getDerniereUtilisation() != null ? Date.valueOf(abonnement.getDerniereUtilisation()) : null);
-            ps.setString(8, abonnement.getCategorie());
-            ps.executeUpdate();
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                PreparedStatement ps = c.prepare(MERGE_SQL);
+                bind(ps, abonnement, rowHash(abonnement));
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
             logger.info("Abonnement inséré/mis à jour: {} - {}", abonnement.getClientName(), abonnement.getNomService());
         } catch (SQLException e) {
             logger.error("Erreur insert/update DB: {}", e.getMessage(), e);
@@ -185,12 +291,76 @@ public class DatabaseAbonnementRepository implements AbonnementRepository {
 
     @Override
     public void deleteByUuid(String uuid) {
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement("DELETE FROM abonnements WHERE id = ?")) {
-            ps.setString(1, uuid);
-            ps.executeUpdate();
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                PreparedStatement ps = c.prepare(DELETE_BY_ID_SQL);
+                ps.setString(1, uuid);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
             logger.info("Abonnement supprimé uuid={}", uuid);
         } catch (SQLException e) {
             logger.error("Erreur deleteByUuid DB: {}", e.getMessage(), e);
         }
     }
+
+    private static Abonnement mapRow(ResultSet rs) throws SQLException {
+        String id = rs.getString(1);
+        String nom = rs.getString(2);
+        Date dDeb = rs.getDate(3);
+        Date dFin = rs.getDate(4);
+        double prix = rs.getDouble(5);
+        String client = rs.getString(6);
+        Date last = rs.getDate(7);
+        String cat = rs.getString(8);
+        LocalDate ldDeb = dDeb != null ? dDeb.toLocalDate() : null;
+        LocalDate ldFin = dFin != null ? dFin.toLocalDate() : null;
+        LocalDate ldLast = last != null ? last.toLocalDate() : null;
+        return new Abonnement(id, nom, ldDeb, ldFin, prix, client, ldLast, cat != null ? cat : "Non classé");
+    }
+
+    private static void bind(PreparedStatement ps, Abonnement a, long rowHash) throws SQLException {
+        ps.setString(1, a.getId());
+        ps.setString(2, a.getNomService());
+        ps.setDate(3, a.getDateDebut() != null ? Date.valueOf(a.getDateDebut()) : null);
+        ps.setDate(4, a.getDateFin() != null ? Date.valueOf(a.getDateFin()) : null);
+        ps.setDouble(5, a.getPrixMensuel());
+        ps.setString(6, a.getClientName());
+        ps.setDate(7, a.getDerniereUtilisation() != null ? Date.valueOf(a.getDerniereUtilisation()) : null);
+        ps.setString(8, a.getCategorie());
+        ps.setLong(9, rowHash);
+    }
+
+    /**
+     * Empreinte FNV-1a 64 bits des colonnes persistées d'un abonnement.
+     */
+    static long rowHash(Abonnement a) {
+        return fnv1a64(
+            a.getId(),
+            a.getNomService(),
+            String.valueOf(a.getDateDebut()),
+            String.valueOf(a.getDateFin()),
+            Long.toHexString(Double.doubleToLongBits(a.getPrixMensuel())),
+            a.getClientName(),
+            String.valueOf(a.getDerniereUtilisation()),
+            a.getCategorie()
+        );
+    }
+
+    /** FNV-1a 64 bits d'une suite de valeurs séparées (null distinct de ""). */
+    static long fnv1a64(String... values) {
+        long hash = 0xcbf29ce484222325L;
+        for (String value : values) {
+            String v = value == null ? "\u0000" : value;
+            for (int i = 0; i < v.length(); i++) {
+                hash ^= v.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= 0x1F;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
 }
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -73,10 +74,8 @@ public class FileAbonnementRepository implements AbonnementRepository {
                 try {
                     Abonnement a = AbonnementCsvConverter.fromCsvString(line);
                     abonnements.add(a);
-                    // detect old-format (6 parts) and mark for migration
-                    int parts = line.split(";").length;
-                    if (parts == 6 || parts == 7) {
-                        // old formats without uuid (6 legacy, 7 new without id)
+                    // old formats without uuid (6 legacy, 7 new without id): mark for migration
+                    if (AbonnementCsvConverter.isLegacyFormat(line)) {
                         migrated = true;
                     }
                 } catch (IllegalArgumentException ex) {
@@ -116,6 +115,29 @@ public class FileAbonnementRepository implements AbonnementRepository {
 
 
 
+    /**
+     * Lit et convertit le fichier ligne par ligne (pas de migration de format).
+     */
+    @Override
+    public void forEach(Consumer<Abonnement> action) {
+        if (!new File(filePath).exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                try {
+                    action.accept(AbonnementCsvConverter.fromCsvString(line));
+                } catch (IllegalArgumentException ex) {
+                    logger.warn("Ligne ignorée lors du parcours (format invalide): {} -> {}", line, ex.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Erreur lors du parcours des abonnements du fichier: {}", e.getMessage());
+        }
+    }
+
     @Override
     public Optional<Abonnement> findByUuid(String uuid) {
         return findAll().stream().filter(a -> uuid != null && uuid.equals(a.getId())).findFirst();
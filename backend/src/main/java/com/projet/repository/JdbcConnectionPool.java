@@ -0,0 +1,322 @@
+package com.projet.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.config.AppConfig;
+
+/**
+ * Pool JDBC borné avec cache de {@link PreparedStatement} par connexion.
+ *
+ * <p>Les connexions sont ouvertes à la demande jusqu'à {@code maxSize}, puis les
+ * appelants attendent au plus {@code borrowTimeoutMs} qu'une connexion se libère.
+ * Chaque connexion conserve ses requêtes préparées (LRU de
+ * {@code statementCacheSize} entrées) : la même requête SQL n'est donc analysée
+ * qu'une fois par connexion. Les requêtes hors cache (cache désactivé avec une taille
+ * de 0, ou entrée évincée pendant l'emprunt) sont fermées au retour de la connexion.</p>
+ *
+ * <p>Configuration (via {@link AppConfig}) :</p>
+ * <ul>
+ *   <li>{@code JDBC_POOL_MAX_SIZE} : nombre maximal de connexions (8 par défaut)</li>
+ *   <li>{@code JDBC_POOL_TIMEOUT_MS} : attente maximale d'une connexion (5000 ms par défaut)</li>
+ *   <li>{@code JDBC_STATEMENT_CACHE_SIZE} : requêtes préparées gardées par connexion (32 par défaut)</li>
+ * </ul>
+ */
+public class JdbcConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+    /** Au-delà de cette inactivité, une connexion est revalidée avant d'être prêtée. */
+    private static final long VALIDATION_IDLE_MS = 30_000L;
+
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final int statementCacheSize;
+
+    private final BlockingQueue<PooledConnection> idle;
+    private final Semaphore permits;
+    private volatile boolean closed;
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public JdbcConnectionPool(String jdbcUrl, String username, String password) {
+        this(jdbcUrl, username, password,
+            AppConfig.getInt("JDBC_POOL_MAX_SIZE", 8),
+            AppConfig.getInt("JDBC_POOL_TIMEOUT_MS", 5000),
+            AppConfig.getInt("JDBC_STATEMENT_CACHE_SIZE", 32));
+    }
+
+    public JdbcConnectionPool(String jdbcUrl, String username, String password,
+                              int maxSize, long borrowTimeoutMs, int statementCacheSize) {
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.borrowTimeoutMs = Math.max(0L, borrowTimeoutMs);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.idle = new ArrayBlockingQueue<>(this.maxSize);
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * Emprunte une connexion ; elle doit être rendue via {@link PooledConnection#close()}
+     * (try-with-resources).
+     *
+     * @throws SQLException si aucune connexion n'est disponible dans le délai imparti
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool JDBC fermé");
+        }
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire();
+        if (!acquired) {
+            waits.incrementAndGet();
+            try {
+                acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrompu en attente d'une connexion JDBC", e);
+            }
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Aucune connexion JDBC disponible après " + borrowTimeoutMs + " ms");
+        }
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.poll()) != null) {
+                if (pc.isUsable()) {
+                    break;
+                }
+                pc.destroy();
+            }
+            if (pc == null) {
+                pc = new PooledConnection(openConnection());
+                opened.incrementAndGet();
+            }
+            pc.inUse = true;
+            borrows.incrementAndGet();
+            active.incrementAndGet();
+            return pc;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        if (username == null || username.isEmpty()) {
+            return DriverManager.getConnection(jdbcUrl);
+        }
+        return DriverManager.getConnection(jdbcUrl, username, password);
+    }
+
+    private void release(PooledConnection pc) {
+        active.decrementAndGet();
+        try {
+            if (closed || pc.broken || !pc.reset() || !idle.offer(pc)) {
+                pc.destroy();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Exécute une requête triviale et retourne l'état du pool et de la base. */
+    public Map<String, Object> health() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        try (PooledConnection pc = borrow();
+             Statement st = pc.connection().createStatement();
+             ResultSet rs = st.executeQuery("SELECT 1")) {
+            rs.next();
+            health.put("status", "UP");
+        } catch (SQLException e) {
+            health.put("status", "DOWN");
+            health.put("error", e.getMessage());
+        }
+        health.put("latencyMs", (System.nanoTime() - start) / 1_000_000.0);
+        health.put("pool", stats());
+        return health;
+    }
+
+    /** Métriques d'attente et d'utilisation du pool. */
+    public Map<String, Object> stats() {
+        long b = borrows.get();
+        int act = active.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxSize", maxSize);
+        stats.put("opened", opened.get());
+        stats.put("active", act);
+        stats.put("idle", idle.size());
+        stats.put("utilisation", (double) act / maxSize);
+        stats.put("borrows", b);
+        stats.put("waits", waits.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("avgWaitMs", b == 0 ? 0.0 : totalWaitNanos.get() / (double) b / 1_000_000.0);
+        stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        stats.put("statementCacheHits", statementHits.get());
+        stats.put("statementCacheMisses", statementMisses.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pc;
+        while ((pc = idle.poll()) != null) {
+            pc.destroy();
+        }
+    }
+
+    /**
+     * Connexion empruntée au pool. {@link #close()} la rend au pool au lieu de la fermer.
+     * Les {@link PreparedStatement} obtenus via {@link #prepare(String)} appartiennent
+     * à la connexion et ne doivent pas être fermés par l'appelant : ceux qui ne sont pas
+     * (ou plus) en cache sont fermés quand la connexion est rendue.
+     */
+    public final class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        /** Requêtes prêtées pendant l'emprunt en cours mais absentes du cache. */
+        private final List<PreparedStatement> detached = new ArrayList<>();
+        private long lastUsed = System.currentTimeMillis();
+        private boolean broken;
+        private boolean inUse;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        // l'appelant peut encore l'utiliser : fermée au retour de la connexion
+                        detached.add(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        /** Retourne une requête préparée, réutilisée si elle est déjà en cache. */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps != null && !ps.isClosed()) {
+                statementHits.incrementAndGet();
+                ps.clearParameters();
+                return ps;
+            }
+            statementMisses.incrementAndGet();
+            ps = connection.prepareStatement(sql);
+            if (statementCacheSize > 0) {
+                statements.put(sql, ps);
+            } else {
+                detached.add(ps);
+            }
+            return ps;
+        }
+
+        /** Signale une erreur : la connexion sera fermée au lieu d'être réutilisée. */
+        public void markBroken() {
+            broken = true;
+        }
+
+        private boolean isUsable() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (System.currentTimeMillis() - lastUsed > VALIDATION_IDLE_MS) {
+                    return connection.isValid(1);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private boolean reset() {
+            closeDetached();
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                lastUsed = System.currentTimeMillis();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void closeDetached() {
+            detached.forEach(PooledConnection::closeQuietly);
+            detached.clear();
+        }
+
+        private void destroy() {
+            closeDetached();
+            statements.values().forEach(PooledConnection::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Erreur à la fermeture d'une connexion JDBC: {}", e.getMessage());
+            }
+            opened.decrementAndGet();
+        }
+
+        private static void closeQuietly(Statement st) {
+            try {
+                st.close();
+            } catch (SQLException ignored) {
+                // statement déjà invalide
+            }
+        }
+
+        @Override
+        public void close() {
+            if (inUse) {
+                inUse = false;
+                release(this);
+            }
+        }
+    }
+}
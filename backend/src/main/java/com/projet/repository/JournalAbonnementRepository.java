@@ -0,0 +1,529 @@
+package com.projet.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.backend.adapter.AbonnementCsvConverter;
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Repository à journal en ajout seul (append-only) avec compaction périodique.
+ *
+ * <p><b>Persistence Strategy:</b></p>
+ * <ul>
+ *   <li>{@code <dir>/snapshot.txt} : état compacté, un enregistrement {@code U} par
+ *       abonnement (les anciens snapshots en lignes CSV sont encore relus)</li>
+ *   <li>{@code <dir>/journal.log} : enregistrements {@code U} (upsert) et {@code D}
+ *       (suppression) ajoutés en fin de fichier via un {@link FileChannel}</li>
+ * </ul>
+ *
+ * <p>Chaque enregistrement a la forme {@code TYPE\tLONGUEUR\tCRC32\tPAYLOAD\n}, la
+ * longueur étant celle du payload en octets ; le payload d'un upsert est encodé par
+ * {@link AbonnementRecordCodec} (champs préfixés par leur longueur, sans échappement).
+ * Au démarrage, le snapshot est chargé puis le journal rejoué :</p>
+ * <ul>
+ *   <li>seul un dernier enregistrement incomplet (crash pendant un append : en-tête
+ *       inachevé ou longueur annoncée dépassant la fin du fichier) est tronqué ;</li>
+ *   <li>un enregistrement illisible ou dont la somme de contrôle est invalide est
+ *       copié dans {@code <fichier>.corrupt} puis ignoré, et le rejeu continue ;
+ *       le journal est alors compacté pour ne plus le contenir.</li>
+ * </ul>
+ *
+ * <p>Une écriture unitaire coûte donc un seul append ({@code save},
+ * {@code delete}, {@code deleteByUuid}) ; {@code saveAll} n'ajoute que la différence
+ * avec l'état courant. Le {@code fsync} est regroupé : il est effectué toutes les
+ * {@code syncEvery} écritures (1 = synchrone). Lorsque le journal dépasse
+ * {@code compactionThreshold} enregistrements, il est fusionné dans un nouveau
+ * snapshot écrit puis renommé atomiquement.</p>
+ *
+ * <p>Toute modification passe par le journal avant d'atteindre un snapshot : le
+ * snapshot contient donc toujours l'effet de chaque enregistrement du journal, et
+ * rejouer un journal qu'un crash a empêché de vider après la compaction redonne le
+ * même état.</p>
+ *
+ * <p><b>Thread Safety:</b> méthodes synchronisées sur l'instance ; une seule
+ * instance doit ouvrir un répertoire donné.</p>
+ */
+public class JournalAbonnementRepository implements AbonnementRepository, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JournalAbonnementRepository.class);
+
+    private static final String SNAPSHOT_FILE = "snapshot.txt";
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final char UPSERT = 'U';
+    private static final char DELETE = 'D';
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final int syncEvery;
+    private final int compactionThreshold;
+
+    private final Map<String, Abonnement> state = new LinkedHashMap<>();
+    private FileChannel journal;
+    private int journalRecords;
+    private int quarantinedRecords;
+    private int unsyncedRecords;
+    private long version = DataVersions.next();
+
+    public JournalAbonnementRepository(String directory) {
+        this(directory, 16, 1000);
+    }
+
+    /**
+     * @param directory           répertoire contenant snapshot et journal
+     * @param syncEvery           nombre d'appends entre deux fsync (1 = fsync à chaque écriture)
+     * @param compactionThreshold nombre d'enregistrements du journal déclenchant une compaction
+     */
+    public JournalAbonnementRepository(String directory, int syncEvery, int compactionThreshold) {
+        Path dir = Paths.get(directory);
+        this.snapshotPath = dir.resolve(SNAPSHOT_FILE);
+        this.journalPath = dir.resolve(JOURNAL_FILE);
+        this.syncEvery = Math.max(1, syncEvery);
+        this.compactionThreshold = Math.max(1, compactionThreshold);
+        try {
+            Files.createDirectories(dir);
+            loadSnapshot();
+            long validBytes = replayJournal();
+            this.journal = FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Tronquer une éventuelle fin de journal corrompue avant de reprendre les appends
+            journal.truncate(validBytes);
+            journal.position(validBytes);
+            if (quarantinedRecords > 0) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le journal d'abonnements " + dir, e);
+        }
+        logger.info("{} abonnements chargés depuis le journal {} ({} enregistrements rejoués)",
+            state.size(), dir, journalRecords);
+    }
+
+    @Override
+    public synchronized List<Abonnement> findAll() {
+        return new ArrayList<>(state.values());
+    }
+
+    @Override
+    public synchronized Optional<Abonnement> findByUuid(String uuid) {
+        return uuid == null ? Optional.empty() : Optional.ofNullable(state.get(uuid));
+    }
+
+    @Override
+    public synchronized void save(Abonnement abonnement) {
+        append(UPSERT, AbonnementRecordCodec.encode(abonnement));
+        state.put(abonnement.getId(), abonnement);
+        version = DataVersions.next();
+        maybeCompact();
+    }
+
+    @Override
+    public synchronized void delete(Abonnement abonnement) {
+        if (abonnement != null && abonnement.getId() != null) {
+            deleteByUuid(abonnement.getId());
+        }
+    }
+
+    @Override
+    public synchronized void deleteByUuid(String uuid) {
+        if (uuid == null || !state.containsKey(uuid)) {
+            return;
+        }
+        append(DELETE, uuid);
+        state.remove(uuid);
+        version = DataVersions.next();
+        maybeCompact();
+    }
+
+    /**
+     * Remplace l'intégralité du contenu en ajoutant au journal la différence avec
+     * l'état courant : une suppression par abonnement absent de la liste, un upsert
+     * par abonnement nouveau ou modifié. Un objet déjà détenu par le repository (donc
+     * éventuellement modifié sur place) est toujours réécrit.
+     */
+    @Override
+    public synchronized void saveAll(List<Abonnement> abonnements) {
+        Map<String, Abonnement> next = new LinkedHashMap<>();
+        for (Abonnement a : abonnements) {
+            next.put(a.getId(), a);
+        }
+        for (String id : new ArrayList<>(state.keySet())) {
+            if (!next.containsKey(id)) {
+                append(DELETE, id);
+                state.remove(id);
+            }
+        }
+        for (Abonnement a : next.values()) {
+            Abonnement previous = state.get(a.getId());
+            String payload = AbonnementRecordCodec.encode(a);
+            if (previous == a || previous == null || !payload.equals(AbonnementRecordCodec.encode(previous))) {
+                append(UPSERT, payload);
+            }
+        }
+        // Ordre de la liste reçue, comme à la relecture d'un snapshot compacté
+        state.clear();
+        state.putAll(next);
+        version = DataVersions.next();
+        maybeCompact();
+    }
+
+    /** Un append par abonnement, puis au plus une compaction pour tout le lot. */
+    @Override
+    public synchronized void saveBatch(List<Abonnement> abonnements) {
+        for (Abonnement a : abonnements) {
+            append(UPSERT, AbonnementRecordCodec.encode(a));
+            state.put(a.getId(), a);
+        }
+        version = DataVersions.next();
+        maybeCompact();
+    }
+
+    @Override
+    public synchronized long version() {
+        return version;
+    }
+
+    /** Force la fusion du journal dans le snapshot. */
+    public synchronized void compact() {
+        Path tmp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                for (Abonnement a : state.values()) {
+                    out.write(record(UPSERT, AbonnementRecordCodec.encode(a)));
+                }
+            }
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.truncate(0);
+            journal.position(0);
+            journal.force(true);
+            journalRecords = 0;
+            unsyncedRecords = 0;
+            logger.info("Journal compacté : {} abonnements dans {}", state.size(), snapshotPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de la compaction du journal " + journalPath, e);
+        }
+    }
+
+    /** Force l'écriture sur disque des enregistrements en attente de fsync. */
+    public synchronized void sync() {
+        if (unsyncedRecords == 0) {
+            return;
+        }
+        try {
+            journal.force(false);
+            unsyncedRecords = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur fsync du journal " + journalPath, e);
+        }
+    }
+
+    public synchronized int getJournalRecords() {
+        return journalRecords;
+    }
+
+    /** Enregistrements mis en quarantaine à l'ouverture (snapshot et journal). */
+    public synchronized int getQuarantinedRecords() {
+        return quarantinedRecords;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            sync();
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Erreur à la fermeture du journal {}: {}", journalPath, e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Journal
+    // -------------------------------------------------------------------------
+
+    private void append(char type, String payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(record(type, payload));
+        try {
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journalRecords++;
+            if (++unsyncedRecords >= syncEvery) {
+                journal.force(false);
+                unsyncedRecords = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur d'écriture dans le journal " + journalPath, e);
+        }
+    }
+
+    private static byte[] record(char type, String payload) {
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        byte[] header = (type + "\t" + body.length + "\t" + Long.toHexString(crc.getValue()) + "\t")
+            .getBytes(StandardCharsets.US_ASCII);
+        byte[] record = new byte[header.length + body.length + 1];
+        System.arraycopy(header, 0, record, 0, header.length);
+        System.arraycopy(body, 0, record, header.length, body.length);
+        record[record.length - 1] = '\n';
+        return record;
+    }
+
+    /**
+     * Compaction au-delà du seuil. Un échec n'annule pas l'écriture, déjà dans le
+     * journal : il est journalisé et la compaction sera retentée à l'écriture suivante.
+     */
+    private void maybeCompact() {
+        if (journalRecords >= compactionThreshold) {
+            try {
+                compact();
+            } catch (UncheckedIOException e) {
+                logger.error("Compaction du journal {} reportée : {}", journalPath, e.getMessage());
+            }
+        }
+    }
+
+    private void loadSnapshot() throws IOException {
+        if (Files.exists(snapshotPath)) {
+            readRecords(snapshotPath, false);
+        }
+    }
+
+    /**
+     * Rejoue le journal sur l'état chargé.
+     *
+     * @return nombre d'octets à conserver (tout le fichier, sauf un dernier enregistrement incomplet)
+     */
+    private long replayJournal() throws IOException {
+        return Files.exists(journalPath) ? readRecords(journalPath, true) : 0L;
+    }
+
+    /**
+     * Applique les enregistrements d'un fichier à l'état.
+     *
+     * @param journalFile {@code true} pour le journal (enregistrements comptés, fin
+     *                    incomplète tronquée), {@code false} pour le snapshot
+     * @return début du dernier enregistrement incomplet, ou la taille du fichier
+     */
+    private long readRecords(Path file, boolean journalFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int pos = 0;
+        while (pos < bytes.length) {
+            int newline = indexOf(bytes, (byte) '\n', pos);
+            Header header = Header.parse(bytes, pos);
+            int next;
+            if (header != null) {
+                long end = (long) header.payloadStart + header.length;
+                if (end >= bytes.length) {
+                    return tornTail(file, bytes, pos, journalFile);
+                }
+                if (bytes[(int) end] == '\n') {
+                    next = (int) end + 1;
+                    String payload = new String(bytes, header.payloadStart, header.length, StandardCharsets.UTF_8);
+                    if (checksum(payload) == header.crc && apply(header.type, payload, file)) {
+                        if (journalFile) journalRecords++;
+                    } else {
+                        quarantine(file, bytes, pos, next);
+                    }
+                    pos = next;
+                    continue;
+                }
+                // Longueur incohérente : resynchronisation sur la ligne suivante
+            } else if (newline < 0 && journalFile && Header.isPrefix(bytes, pos)) {
+                return tornTail(file, bytes, pos, journalFile);
+            }
+            next = newline < 0 ? bytes.length : newline + 1;
+            String line = new String(bytes, pos, next - pos, StandardCharsets.UTF_8).strip();
+            if (header == null && applyLegacy(line, file, journalFile)) {
+                if (journalFile) journalRecords++;
+            } else if (!line.isEmpty()) {
+                quarantine(file, bytes, pos, next);
+            }
+            pos = next;
+        }
+        return bytes.length;
+    }
+
+    /**
+     * Ancien format : {@code TYPE\tCRC32\tPAYLOAD} (journal) ou ligne CSV (snapshot).
+     */
+    private boolean applyLegacy(String line, Path file, boolean journalFile) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        if (!journalFile) {
+            try {
+                Abonnement a = AbonnementCsvConverter.fromCsvString(line);
+                state.put(a.getId(), a);
+                return true;
+            } catch (RuntimeException ex) {
+                return false;
+            }
+        }
+        int first = line.indexOf('\t');
+        int second = first < 0 ? -1 : line.indexOf('\t', first + 1);
+        if (first != 1 || second < 0) {
+            return false;
+        }
+        String payload = line.substring(second + 1);
+        try {
+            if (Long.parseLong(line.substring(first + 1, second), 16) != checksum(payload)) {
+                return false;
+            }
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        if (line.charAt(0) == UPSERT) {
+            try {
+                Abonnement a = AbonnementCsvConverter.fromCsvString(payload);
+                state.put(a.getId(), a);
+                return true;
+            } catch (RuntimeException ex) {
+                return false;
+            }
+        }
+        return apply(line.charAt(0), payload, file);
+    }
+
+    private boolean apply(char type, String payload, Path file) {
+        try {
+            if (type == UPSERT) {
+                Abonnement a = AbonnementRecordCodec.decode(payload);
+                state.put(a.getId(), a);
+                return true;
+            }
+            if (type == DELETE) {
+                state.remove(payload);
+                return true;
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Enregistrement illisible dans {}: {}", file, ex.getMessage());
+        }
+        return false;
+    }
+
+    private long tornTail(Path file, byte[] bytes, int start, boolean journalFile) throws IOException {
+        if (!journalFile) {
+            quarantine(file, bytes, start, bytes.length);
+            return bytes.length;
+        }
+        // Conservée à part : une longueur corrompue pourrait faire passer des
+        // enregistrements valides pour une fin de journal incomplète
+        Path corrupt = copyAside(file, bytes, start, bytes.length);
+        logger.warn("Enregistrement incomplet en fin de journal {} (octet {}) tronqué, copié dans {}",
+            file, start, corrupt);
+        return start;
+    }
+
+    /** Copie un enregistrement invalide dans {@code <fichier>.corrupt} avant de l'ignorer. */
+    private void quarantine(Path file, byte[] bytes, int from, int to) throws IOException {
+        Path corrupt = copyAside(file, bytes, from, to);
+        quarantinedRecords++;
+        logger.warn("Enregistrement invalide dans {} (octets {}-{}) mis en quarantaine dans {}",
+            file, from, to, corrupt);
+    }
+
+    private static Path copyAside(Path file, byte[] bytes, int from, int to) throws IOException {
+        Path corrupt = file.resolveSibling(file.getFileName() + ".corrupt");
+        try (OutputStream out = Files.newOutputStream(corrupt,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(bytes, from, to - from);
+        }
+        return corrupt;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long checksum(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /** En-tête {@code TYPE\tLONGUEUR\tCRC32\t} d'un enregistrement. */
+    private static final class Header {
+        final char type;
+        final int length;
+        final long crc;
+        final int payloadStart;
+
+        private Header(char type, int length, long crc, int payloadStart) {
+            this.type = type;
+            this.length = length;
+            this.crc = crc;
+            this.payloadStart = payloadStart;
+        }
+
+        /** En-tête complet et bien formé à {@code pos}, sinon {@code null}. */
+        static Header parse(byte[] b, int pos) {
+            if (pos + 1 >= b.length || (b[pos] != UPSERT && b[pos] != DELETE) || b[pos + 1] != '\t') {
+                return null;
+            }
+            int i = pos + 2;
+            long length = 0;
+            int digits = 0;
+            while (i < b.length && b[i] >= '0' && b[i] <= '9' && digits < 10) {
+                length = length * 10 + (b[i++] - '0');
+                digits++;
+            }
+            if (digits == 0 || i >= b.length || b[i] != '\t' || length > Integer.MAX_VALUE) {
+                return null;
+            }
+            i++;
+            long crc = 0;
+            int hex = 0;
+            while (i < b.length && hex < 8 && Character.digit(b[i], 16) >= 0) {
+                crc = (crc << 4) | Character.digit(b[i++], 16);
+                hex++;
+            }
+            if (hex == 0 || i >= b.length || b[i] != '\t') {
+                return null;
+            }
+            return new Header((char) b[pos], (int) length, crc, i + 1);
+        }
+
+        /** Le fichier se termine au milieu d'un en-tête (append interrompu). */
+        static boolean isPrefix(byte[] b, int pos) {
+            if (b[pos] != UPSERT && b[pos] != DELETE) {
+                return false;
+            }
+            int tabs = 0;
+            for (int i = pos + 1; i < b.length; i++) {
+                if (b[i] == '\t') {
+                    tabs++;
+                } else if (tabs == 0 || Character.digit(b[i], 16) < 0) {
+                    return tabs == 2;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.projet.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.backend.domain.Abonnement;
+import com.projet.config.AppConfig;
+
+/**
+ * Cache mémoire partagé des abonnements par utilisateur (write-through différé).
+ *
+ * <p>Chaque utilisateur (clé = email) possède une entrée contenant la liste
+ * d'abonnements déjà parsée ainsi qu'un index par UUID. Les lectures sont
+ * servies depuis la mémoire tant que le fichier sous-jacent n'a pas été modifié
+ * (date de modification / taille). Les écritures sont appliquées immédiatement
+ * en mémoire, marquent l'entrée comme « sale » et sont regroupées puis
+ * persistées de façon asynchrone par un thread dédié. Une écriture en échec est
+ * retentée avec un délai doublé à chaque échec (jusqu'à {@link #MAX_RETRY_DELAY_MS}) ;
+ * une entrée sale n'est jamais évincée, ses modifications restent servies depuis
+ * la mémoire jusqu'à ce qu'une écriture réussisse.</p>
+ *
+ * <p>Configuration (via {@link AppConfig}) :</p>
+ * <ul>
+ *   <li>{@code ABONNEMENT_CACHE_FLUSH_MS} : délai de regroupement des écritures (200 ms par défaut)</li>
+ *   <li>{@code ABONNEMENT_CACHE_IDLE_MINUTES} : éviction des entrées propres inactives (30 min par défaut)</li>
+ * </ul>
+ *
+ * <p><b>Thread Safety:</b> toutes les opérations sur une entrée sont synchronisées
+ * sur cette entrée ; les objets {@link Abonnement} retournés sont partagés et
+ * doivent être réenregistrés via le repository après modification.</p>
+ */
+public final class UserAbonnementCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserAbonnementCache.class);
+
+    /** Délai minimal avant de retenter une écriture en échec. */
+    static final long MIN_RETRY_DELAY_MS = 1_000L;
+    /** Délai maximal entre deux tentatives d'écriture. */
+    static final long MAX_RETRY_DELAY_MS = 60_000L;
+
+    private static final UserAbonnementCache INSTANCE = new UserAbonnementCache(
+        AppConfig.getLong("ABONNEMENT_CACHE_FLUSH_MS", 200L),
+        AppConfig.getLong("ABONNEMENT_CACHE_IDLE_MINUTES", 30L),
+        "data/abonnements/"
+    );
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::flushAll, "abonnement-cache-shutdown"));
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final long flushDelayMs;
+    private final long idleEvictionMs;
+    private final String baseDir;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    /**
+     * Cache dédié stockant ses fichiers sous {@code baseDir} (tests, benchmarks) ;
+     * l'application utilise {@link #getInstance()}.
+     */
+    public UserAbonnementCache(long flushDelayMs, long idleEvictionMinutes, String baseDir) {
+        this.flushDelayMs = Math.max(0L, flushDelayMs);
+        this.idleEvictionMs = TimeUnit.MINUTES.toMillis(Math.max(1L, idleEvictionMinutes));
+        this.baseDir = baseDir;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "abonnement-cache-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.scheduleWithFixedDelay(this::evictIdleEntries, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public static UserAbonnementCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Retourne un repository adossé au cache pour l'utilisateur donné.
+     * L'objet retourné est léger et peut être créé à chaque requête HTTP.
+     */
+    public AbonnementRepository repositoryFor(String userEmail) {
+        return new CachedUserAbonnementRepository(this, userEmail);
+    }
+
+    /**
+     * Numéro de version des données d'un utilisateur ; renouvelé à chaque
+     * écriture ou rechargement depuis le disque, jamais réutilisé (voir {@link DataVersions}).
+     */
+    public long version(String userEmail) {
+        return withEntry(userEmail, entry -> {
+            ensureFresh(entry);
+            return entry.version;
+        });
+    }
+
+    /** Persiste immédiatement toutes les entrées en attente d'écriture. */
+    public void flushAll() {
+        for (Entry entry : entries.values()) {
+            flush(entry);
+        }
+    }
+
+    /** Compteurs d'utilisation du cache. */
+    public Map<String, Object> stats() {
+        long h = hits.get();
+        long m = misses.get();
+        long pending = entries.values().stream().filter(e -> e.dirty).count();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", h + m == 0 ? 0.0 : Math.round((double) h / (h + m) * 1000.0) / 1000.0);
+        stats.put("invalidations", invalidations.get());
+        stats.put("writes", writes.get());
+        stats.put("flushes", flushes.get());
+        stats.put("evictions", evictions.get());
+        stats.put("flushFailures", flushFailures.get());
+        stats.put("cachedUsers", entries.size());
+        stats.put("pendingFlushes", pending);
+        stats.put("flushDelayMs", flushDelayMs);
+        return stats;
+    }
+
+    // -------------------------------------------------------------------------
+    // Opérations utilisées par CachedUserAbonnementRepository
+    // -------------------------------------------------------------------------
+
+    List<Abonnement> findAll(String userEmail) {
+        return withEntry(userEmail, entry -> {
+            ensureFresh(entry);
+            return new ArrayList<>(entry.rows);
+        });
+    }
+
+    Optional<Abonnement> findByUuid(String userEmail, String uuid) {
+        if (uuid == null) {
+            return Optional.empty();
+        }
+        return withEntry(userEmail, entry -> {
+            ensureFresh(entry);
+            return Optional.ofNullable(entry.byId.get(uuid));
+        });
+    }
+
+    void saveAll(String userEmail, List<Abonnement> abonnements) {
+        withEntry(userEmail, entry -> {
+            entry.replace(abonnements);
+            markDirty(entry);
+            return null;
+        });
+    }
+
+    void save(String userEmail, Abonnement abonnement) {
+        withEntry(userEmail, entry -> {
+            ensureFresh(entry);
+            upsert(entry, abonnement);
+            markDirty(entry);
+            return null;
+        });
+    }
+
+    void saveBatch(String userEmail, List<Abonnement> abonnements) {
+        withEntry(userEmail, entry -> {
+            ensureFresh(entry);
+            for (Abonnement a : abonnements) {
+                upsert(entry, a);
+            }
+            markDirty(entry);
+            return null;
+        });
+    }
+
+    void deleteByUuid(String userEmail, String uuid) {
+        withEntry(userEmail, entry -> {
+            ensureFresh(entry);
+            if (uuid != null && entry.byId.remove(uuid) != null) {
+                entry.rows.removeIf(a -> uuid.equals(a.getId()));
+                markDirty(entry);
+            }
+            return null;
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Mécanique interne
+    // -------------------------------------------------------------------------
+
+    /**
+     * Exécute {@code action} sous le verrou de l'entrée de l'utilisateur. Si
+     * l'entrée a été évincée entre sa lecture et la prise du verrou, une
+     * nouvelle entrée est obtenue pour ne jamais écrire dans une entrée orpheline.
+     */
+    private <T> T withEntry(String userEmail, Function<Entry, T> action) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(userEmail,
+                email -> new Entry(new UserAbonnementRepository(email, baseDir)));
+            synchronized (entry) {
+                if (!entry.evicted) {
+                    return action.apply(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Charge l'entrée si nécessaire. Une entrée sale fait autorité (écriture en
+     * attente) ; sinon une modification externe du fichier invalide le cache.
+     */
+    private void ensureFresh(Entry entry) {
+        entry.lastAccess = System.currentTimeMillis();
+        if (entry.rows == null) {
+            misses.incrementAndGet();
+            reload(entry);
+            return;
+        }
+        if (!entry.dirty && entry.fileChanged()) {
+            invalidations.incrementAndGet();
+            misses.incrementAndGet();
+            reload(entry);
+            return;
+        }
+        hits.incrementAndGet();
+    }
+
+    private void reload(Entry entry) {
+        entry.replace(entry.store.findAll());
+        entry.rememberFileState();
+        entry.version = DataVersions.next();
+    }
+
+    private static void upsert(Entry entry, Abonnement abonnement) {
+        String id = abonnement.getId();
+        Abonnement previous = id == null ? null : entry.byId.get(id);
+        if (previous != null) {
+            for (int i = 0; i < entry.rows.size(); i++) {
+                if (entry.rows.get(i) == previous) {
+                    entry.rows.set(i, abonnement);
+                    break;
+                }
+            }
+        } else {
+            entry.rows.add(abonnement);
+        }
+        if (id != null) {
+            entry.byId.put(id, abonnement);
+        }
+    }
+
+    private void markDirty(Entry entry) {
+        entry.version = DataVersions.next();
+        entry.dirty = true;
+        writes.incrementAndGet();
+        if (!entry.flushScheduled) {
+            entry.flushScheduled = true;
+            flusher.schedule(() -> flush(entry), flushDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(Entry entry) {
+        synchronized (entry) {
+            entry.flushScheduled = false;
+            if (!entry.dirty) {
+                return;
+            }
+            try {
+                entry.store.write(entry.rows);
+                entry.dirty = false;
+                entry.failedFlushes = 0;
+                entry.rememberFileState();
+                flushes.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                flushFailures.incrementAndGet();
+                entry.failedFlushes++;
+                long delay = retryDelayMs(flushDelayMs, entry.failedFlushes);
+                logger.error("Échec de l'écriture différée pour {} (tentative {}), nouvel essai dans {} ms: {}",
+                    entry.store.getUserEmail(), entry.failedFlushes, delay, e.getMessage(), e);
+                entry.flushScheduled = true;
+                flusher.schedule(() -> flush(entry), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Délai avant la tentative suivant {@code failures} échecs consécutifs. */
+    static long retryDelayMs(long flushDelayMs, int failures) {
+        long base = Math.max(MIN_RETRY_DELAY_MS, flushDelayMs);
+        int shift = Math.min(Math.max(0, failures - 1), 16);
+        return Math.min(MAX_RETRY_DELAY_MS, base << shift);
+    }
+
+    private void evictIdleEntries() {
+        evictIdleEntries(System.currentTimeMillis());
+    }
+
+    /**
+     * Évince les entrées propres inactives depuis {@code idleEvictionMs} à l'instant {@code now}.
+     * Une entrée sale (écriture en attente ou en échec) est toujours conservée.
+     */
+    void evictIdleEntries(long now) {
+        long threshold = now - idleEvictionMs;
+        entries.forEach((email, entry) -> {
+            synchronized (entry) {
+                if (!entry.dirty && !entry.flushScheduled && entry.lastAccess < threshold) {
+                    entry.evicted = true;
+                    entries.remove(email, entry);
+                    evictions.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    /** État mis en cache pour un utilisateur. Accès protégé par le moniteur de l'entrée. */
+    private static final class Entry {
+        private final UserAbonnementRepository store;
+        private final File file;
+        private List<Abonnement> rows;
+        private Map<String, Abonnement> byId = new HashMap<>();
+        private long fileMtime = -1L;
+        private long fileSize = -1L;
+        private long version;
+        private boolean dirty;
+        private boolean flushScheduled;
+        private int failedFlushes;
+        private boolean evicted;
+        private long lastAccess = System.currentTimeMillis();
+
+        private Entry(UserAbonnementRepository store) {
+            this.store = store;
+            this.file = new File(store.getFilePath());
+        }
+
+        private void replace(List<Abonnement> abonnements) {
+            rows = new ArrayList<>(abonnements);
+            reindex();
+        }
+
+        private void reindex() {
+            Map<String, Abonnement> index = new HashMap<>(rows.size() * 2);
+            for (Abonnement a : rows) {
+                if (a.getId() != null) {
+                    index.putIfAbsent(a.getId(), a);
+                }
+            }
+            byId = index;
+        }
+
+        private boolean fileChanged() {
+            return file.lastModified() != fileMtime || file.length() != fileSize;
+        }
+
+        private void rememberFileState() {
+            fileMtime = file.lastModified();
+            fileSize = file.length();
+        }
+    }
+}
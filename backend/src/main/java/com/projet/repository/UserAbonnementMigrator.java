@@ -0,0 +1,182 @@
+package com.projet.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.backend.adapter.AbonnementCsvConverter;
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.JdbcConnectionPool.PooledConnection;
+
+/**
+ * Migration en une passe des fichiers {@code abonnements_<email>.txt} vers la table
+ * {@code user_abonnements} de {@link UserDatabaseAbonnementRepository}.
+ *
+ * <p>Chaque fichier est importé dans sa propre transaction via des MERGE groupés
+ * (batch), puis renommé en {@code .txt.migrated} : une relance (ou
+ * {@code ABONNEMENT_MIGRATE_ON_START} à chaque démarrage) ne réimporte donc pas un
+ * fichier périmé par-dessus les modifications faites depuis en base. Les lignes au
+ * format ancien, sans UUID, reçoivent un identifiant dérivé du propriétaire, du
+ * numéro de ligne et du contenu : réimporter le même fichier ne crée pas de doublons.</p>
+ *
+ * <p>Le nom de fichier ne contient qu'une version assainie de l'email ({@code +}
+ * remplacé par {@code _}, etc.) : le propriétaire est retrouvé parmi les emails
+ * connus. Un fichier qu'aucun email connu ne produit est importé sous le nom lu
+ * dans le fichier ; un nom produit par plusieurs emails est refusé.</p>
+ */
+public class UserAbonnementMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(UserAbonnementMigrator.class);
+
+    private static final String PREFIX = "abonnements_";
+    private static final String SUFFIX = ".txt";
+    private static final String MIGRATED_SUFFIX = ".migrated";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcConnectionPool pool;
+
+    public UserAbonnementMigrator(JdbcConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Importe tous les fichiers utilisateurs du répertoire donné, propriétaires
+     * déduits des noms de fichiers.
+     */
+    public Report migrate(String directory) throws SQLException {
+        return migrate(directory, List.of());
+    }
+
+    /**
+     * Importe tous les fichiers utilisateurs du répertoire donné.
+     *
+     * @param knownEmails emails des comptes existants, pour retrouver le propriétaire
+     *                    exact d'un nom de fichier assaini
+     */
+    public Report migrate(String directory, Collection<String> knownEmails) throws SQLException {
+        UserDatabaseAbonnementRepository.ensureSchema(pool);
+        Map<String, String> owners = new HashMap<>();
+        for (String email : knownEmails) {
+            // Deux emails produisant le même fichier : propriétaire ambigu (null)
+            owners.merge(UserAbonnementRepository.fileName(email), email, (a, b) -> a.equals(b) ? a : null);
+        }
+        Report report = new Report();
+        File[] files = new File(directory).listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files == null) {
+            logger.info("Aucun répertoire d'abonnements à migrer: {}", directory);
+            return report;
+        }
+
+        long start = System.currentTimeMillis();
+        for (File file : files) {
+            String owner = file.getName().substring(PREFIX.length(), file.getName().length() - SUFFIX.length());
+            if (owners.containsKey(file.getName())) {
+                owner = owners.get(file.getName());
+                if (owner == null) {
+                    report.failedUsers.add(file.getName());
+                    logger.error("Fichier {} ignoré : plusieurs comptes correspondent à ce nom", file.getName());
+                    continue;
+                }
+            }
+            try {
+                report.rows += migrateFile(file, owner, report);
+                report.users++;
+                markMigrated(file);
+            } catch (IOException | SQLException e) {
+                report.failedUsers.add(owner);
+                logger.error("Migration impossible pour {}: {}", owner, e.getMessage(), e);
+            }
+        }
+        report.durationMs = System.currentTimeMillis() - start;
+        logger.info("Migration terminée : {} utilisateurs, {} abonnements, {} lignes ignorées, {} échecs en {} ms",
+            report.users, report.rows, report.skippedLines, report.failedUsers.size(), report.durationMs);
+        return report;
+    }
+
+    private int migrateFile(File file, String owner, Report report) throws IOException, SQLException {
+        List<Abonnement> abonnements = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+            String line = lines.get(lineNumber - 1);
+            if (line.isBlank()) continue;
+            try {
+                Abonnement a = AbonnementCsvConverter.fromCsvString(line);
+                if (AbonnementCsvConverter.isLegacyFormat(line)) {
+                    a.setId(legacyId(owner, lineNumber, line));
+                }
+                abonnements.add(a);
+            } catch (RuntimeException ex) {
+                report.skippedLines++;
+                logger.warn("Ligne ignorée pour {} : {}", owner, ex.getMessage());
+            }
+        }
+
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                c.connection().setAutoCommit(false);
+                PreparedStatement merge = c.prepare(UserDatabaseAbonnementRepository.MERGE_SQL);
+                int pending = 0;
+                for (Abonnement a : abonnements) {
+                    UserDatabaseAbonnementRepository.bind(merge, owner, a, UserDatabaseAbonnementRepository.rowHash(a));
+                    merge.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        merge.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    merge.executeBatch();
+                }
+                c.connection().commit();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
+        }
+        return abonnements.size();
+    }
+
+    /** UUID stable d'une ligne sans identifiant : même fichier, mêmes identifiants. */
+    static String legacyId(String owner, int lineNumber, String line) {
+        String key = owner + '\n' + lineNumber + '\n' + line;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static void markMigrated(File file) {
+        Path source = file.toPath();
+        try {
+            Files.move(source, source.resolveSibling(file.getName() + MIGRATED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Fichier {} importé mais non renommé, il sera réimporté à la prochaine migration: {}",
+                file, e.getMessage());
+        }
+    }
+
+    /** Résultat d'une migration. */
+    public static class Report {
+        private int users;
+        private int rows;
+        private int skippedLines;
+        private long durationMs;
+        private final List<String> failedUsers = new ArrayList<>();
+
+        public int getUsers() { return users; }
+        public int getRows() { return rows; }
+        public int getSkippedLines() { return skippedLines; }
+        public long getDurationMs() { return durationMs; }
+        public List<String> getFailedUsers() { return failedUsers; }
+    }
+}
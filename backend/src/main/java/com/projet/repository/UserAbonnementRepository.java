@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -27,8 +28,15 @@ public class UserAbonnementRepository implements AbonnementRepository {
     private static final Logger logger = LoggerFactory.getLogger(UserAbonnementRepository.class);
 
     public UserAbonnementRepository(String userEmail) {
+        this(userEmail, "data/abonnements/");
+    }
+
+    /**
+     * Constructeur avec répertoire de stockage explicite (tests, déploiements spécifiques).
+     */
+    public UserAbonnementRepository(String userEmail, String baseDir) {
         this.userEmail = userEmail;
-        this.baseDir = "data/abonnements/";
+        this.baseDir = baseDir.endsWith("/") ? baseDir : baseDir + "/";
         
         // Créer le répertoire s'il n'existe pas
         File dir = new File(baseDir);
@@ -37,10 +45,17 @@ public class UserAbonnementRepository implements AbonnementRepository {
         }
     }
 
-    private String getFilePath() {
-        // Remplacer les caractères invalides dans le nom de fichier
-        String sanitizedEmail = userEmail.replaceAll("[^a-zA-Z0-9@._-]", "_");
-        return baseDir + "abonnements_" + sanitizedEmail + ".txt";
+    String getUserEmail() {
+        return userEmail;
+    }
+
+    String getFilePath() {
+        return baseDir + fileName(userEmail);
+    }
+
+    /** Nom du fichier d'un utilisateur (caractères invalides remplacés par {@code _}). */
+    static String fileName(String userEmail) {
+        return "abonnements_" + userEmail.replaceAll("[^a-zA-Z0-9@._-]", "_") + ".txt";
     }
 
     @Override
@@ -77,14 +92,48 @@ public class UserAbonnementRepository implements AbonnementRepository {
 
     @Override
     public void saveAll(List<Abonnement> abonnements) {
+        try {
+            write(abonnements);
+        } catch (IOException e) {
+            logger.error("Erreur lors de la sauvegarde des abonnements pour {}", userEmail, e);
+        }
+    }
+
+    /**
+     * Réécrit le fichier de l'utilisateur ; contrairement à {@link #saveAll(List)},
+     * l'échec est remonté à l'appelant (écriture différée de {@link UserAbonnementCache}).
+     */
+    void write(List<Abonnement> abonnements) throws IOException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(getFilePath()))) {
             for (Abonnement a : abonnements) {
                 writer.write(AbonnementCsvConverter.toCsvString(a));
                 writer.newLine();
             }
-            logger.info("{} abonnements sauvegardés pour {}", abonnements.size(), userEmail);
+        }
+        logger.info("{} abonnements sauvegardés pour {}", abonnements.size(), userEmail);
+    }
+
+    /**
+     * Lit et convertit le fichier de l'utilisateur ligne par ligne.
+     */
+    @Override
+    public void forEach(Consumer<Abonnement> action) {
+        File file = new File(getFilePath());
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                try {
+                    action.accept(AbonnementCsvConverter.fromCsvString(line));
+                } catch (IllegalArgumentException ex) {
+                    logger.warn("Ligne ignorée pour {} : {}", userEmail, ex.getMessage());
+                }
+            }
         } catch (IOException e) {
-            logger.error("Erreur lors de la sauvegarde des abonnements pour {}", userEmail, e);
+            logger.error("Erreur lors du parcours des abonnements pour {}", userEmail, e);
         }
     }
 
@@ -0,0 +1,400 @@
+package com.projet.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.backend.adapter.AbonnementCsvConverter;
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.JdbcConnectionPool.PooledConnection;
+
+/**
+ * Repository JDBC multi-utilisateurs : remplace les fichiers
+ * {@code data/abonnements/abonnements_<email>.txt} de {@link UserAbonnementRepository}.
+ *
+ * <p>Tous les utilisateurs partagent la table {@code user_abonnements}, clé primaire
+ * {@code (owner, id)}. Chaque instance est limitée à un propriétaire (email) et toutes
+ * ses requêtes filtrent sur {@code owner}, ce qui en fait des parcours d'index au lieu
+ * de lectures de fichiers. Index composites : {@code (owner, categorie)} et
+ * {@code (owner, date_fin)}.</p>
+ *
+ * <p>Toutes les colonnes du format CSV complet (16 colonnes) sont conservées.</p>
+ *
+ * <p>{@link #version()} est partagé par toutes les instances d'un même propriétaire
+ * sur un même pool (une instance est créée par requête) et renouvelé après chaque
+ * écriture passant par ce processus ; les écritures faites dans la base par un autre
+ * processus ne sont pas vues.</p>
+ */
+public class UserDatabaseAbonnementRepository implements AbonnementRepository {
+    private static final Logger logger = LoggerFactory.getLogger(UserDatabaseAbonnementRepository.class);
+
+    static final String COLUMNS = "id, nom_service, date_debut, date_fin, prix_mensuel, client_name, "
+            + "derniere_utilisation, categorie, tags, groupe_abonnement, priorite, notes, "
+            + "nombre_utilisateurs, partage, jours_rappel_avant_fin, frequence_paiement";
+    private static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM user_abonnements WHERE owner = ? ORDER BY id";
+    private static final String SELECT_FIRST_PAGE_SQL = "SELECT " + COLUMNS + " FROM user_abonnements WHERE owner = ? ORDER BY id LIMIT ?";
+    private static final String SELECT_NEXT_PAGE_SQL = "SELECT " + COLUMNS + " FROM user_abonnements WHERE owner = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + COLUMNS + " FROM user_abonnements WHERE owner = ? AND id = ?";
+    private static final String SELECT_BY_CATEGORY_SQL = "SELECT " + COLUMNS + " FROM user_abonnements WHERE owner = ? AND categorie = ? ORDER BY id";
+    private static final String SELECT_EXPIRING_SQL = "SELECT " + COLUMNS + " FROM user_abonnements WHERE owner = ? AND date_fin <= ? ORDER BY date_fin";
+    private static final String SELECT_HASHES_SQL = "SELECT id, row_hash FROM user_abonnements WHERE owner = ?";
+    static final String MERGE_SQL = "MERGE INTO user_abonnements (owner, " + COLUMNS + ", row_hash) KEY(owner, id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_BY_ID_SQL = "DELETE FROM user_abonnements WHERE owner = ? AND id = ?";
+
+    /** Lignes lues par page dans {@link #forEach(Consumer)}. */
+    static final int PAGE_SIZE = 500;
+
+    /** Compteurs de {@link #saveAll(List)}, tous propriétaires confondus. */
+    private static final WriteStats WRITE_STATS = new WriteStats();
+
+    /** Version courante de chaque propriétaire, par pool. */
+    private static final Map<JdbcConnectionPool, Map<String, Long>> VERSIONS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final JdbcConnectionPool pool;
+    private final String owner;
+    private final Map<String, Long> versions;
+
+    public UserDatabaseAbonnementRepository(JdbcConnectionPool pool, String owner) {
+        this.pool = pool;
+        this.owner = owner;
+        this.versions = VERSIONS.computeIfAbsent(pool, p -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Crée la table multi-utilisateurs et ses index si nécessaire.
+     */
+    public static void ensureSchema(JdbcConnectionPool pool) throws SQLException {
+        String ddl = "CREATE TABLE IF NOT EXISTS user_abonnements ("
+                + "owner VARCHAR(255) NOT NULL,"
+                + "id VARCHAR(64) NOT NULL,"
+                + "nom_service VARCHAR(255),"
+                + "date_debut DATE,"
+                + "date_fin DATE,"
+                + "prix_mensuel DOUBLE,"
+                + "client_name VARCHAR(255),"
+                + "derniere_utilisation DATE,"
+                + "categorie VARCHAR(255),"
+                + "tags VARCHAR(1024),"
+                + "groupe_abonnement VARCHAR(255),"
+                + "priorite VARCHAR(64),"
+                + "notes VARCHAR(4096),"
+                + "nombre_utilisateurs INT,"
+                + "partage BOOLEAN,"
+                + "jours_rappel_avant_fin INT,"
+                + "frequence_paiement VARCHAR(64),"
+                + "row_hash BIGINT,"
+                + "PRIMARY KEY (owner, id)"
+                + ")";
+        try (PooledConnection c = pool.borrow(); Statement st = c.connection().createStatement()) {
+            st.execute(ddl);
+            st.execute("CREATE INDEX IF NOT EXISTS idx_user_abonnements_owner_categorie ON user_abonnements(owner, categorie)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_user_abonnements_owner_date_fin ON user_abonnements(owner, date_fin)");
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @Override
+    public List<Abonnement> findAll() {
+        return query(SELECT_ALL_SQL, null);
+    }
+
+    /**
+     * Parcourt les abonnements du propriétaire par pages de {@value #PAGE_SIZE} lignes
+     * (pagination par clé sur {@code (owner, id)}), en rendant la connexion au pool
+     * après chaque page : un export vers un client lent ne bloque aucune connexion.
+     */
+    @Override
+    public void forEach(Consumer<Abonnement> action) {
+        String after = null;
+        List<Abonnement> page;
+        do {
+            String afterId = after;
+            page = afterId == null
+                ? query(SELECT_FIRST_PAGE_SQL, ps -> ps.setInt(2, PAGE_SIZE))
+                : query(SELECT_NEXT_PAGE_SQL, ps -> {
+                    ps.setString(2, afterId);
+                    ps.setInt(3, PAGE_SIZE);
+                });
+            page.forEach(action);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    /** Abonnements d'une catégorie (index {@code owner, categorie}). */
+    public List<Abonnement> findByCategorie(String categorie) {
+        return query(SELECT_BY_CATEGORY_SQL, ps -> ps.setString(2, categorie));
+    }
+
+    /** Abonnements se terminant au plus tard à la date donnée (index {@code owner, date_fin}). */
+    public List<Abonnement> findExpiringBefore(LocalDate date) {
+        return query(SELECT_EXPIRING_SQL, ps -> ps.setDate(2, Date.valueOf(date)));
+    }
+
+    @Override
+    public Optional<Abonnement> findByUuid(String uuid) {
+        if (uuid == null) {
+            return Optional.empty();
+        }
+        List<Abonnement> found = query(SELECT_BY_ID_SQL, ps -> ps.setString(2, uuid));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public long version() {
+        return versions.computeIfAbsent(owner, o -> DataVersions.next());
+    }
+
+    /** Compteurs des écritures différentielles de {@link #saveAll(List)} depuis le démarrage. */
+    public static Map<String, Object> getWriteStats() {
+        return WRITE_STATS.toMap();
+    }
+
+    /** Compteurs de {@link #saveAll(List)} au format Prometheus. */
+    public static String scrapeWriteStats() {
+        return WRITE_STATS.scrape("h2_users");
+    }
+
+    /** Nouvelle version après une écriture, même en échec : l'état en base n'est alors plus certain. */
+    private void touch() {
+        versions.put(owner, DataVersions.next());
+    }
+
+    /**
+     * Synchronise les lignes du propriétaire avec la liste fournie (même stratégie
+     * différentielle que {@link DatabaseAbonnementRepository#saveAll(List)}).
+     */
+    @Override
+    public void saveAll(List<Abonnement> abonnements) {
+        try (PooledConnection c = pool.borrow()) {
+            int merged = 0;
+            int deleted = 0;
+            try {
+                c.connection().setAutoCommit(false);
+                Map<String, Long> stored = new HashMap<>();
+                PreparedStatement hashes = c.prepare(SELECT_HASHES_SQL);
+                hashes.setString(1, owner);
+                try (ResultSet rs = hashes.executeQuery()) {
+                    while (rs.next()) {
+                        long hash = rs.getLong(2);
+                        stored.put(rs.getString(1), rs.wasNull() ? null : hash);
+                    }
+                }
+
+                Set<String> kept = new HashSet<>();
+                PreparedStatement merge = c.prepare(MERGE_SQL);
+                for (Abonnement a : abonnements) {
+                    kept.add(a.getId());
+                    long hash = rowHash(a);
+                    Long previous = stored.get(a.getId());
+                    if (previous != null && previous == hash) {
+                        continue;
+                    }
+                    bind(merge, owner, a, hash);
+                    merge.addBatch();
+                    merged++;
+                }
+                if (merged > 0) {
+                    merge.executeBatch();
+                }
+
+                PreparedStatement delete = c.prepare(DELETE_BY_ID_SQL);
+                for (String id : stored.keySet()) {
+                    if (!kept.contains(id)) {
+                        delete.setString(1, owner);
+                        delete.setString(2, id);
+                        delete.addBatch();
+                        deleted++;
+                    }
+                }
+                if (deleted > 0) {
+                    delete.executeBatch();
+                }
+                c.connection().commit();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
+            WRITE_STATS.record(abonnements.size(), merged, deleted);
+            logger.info("{} abonnements sauvegardés en base pour {} ({} fusionnés, {} supprimés)",
+                abonnements.size(), owner, merged, deleted);
+        } catch (SQLException e) {
+            logger.error("Erreur saveAll DB pour {}: {}", owner, e.getMessage(), e);
+        }
+        touch();
+    }
+
+    @Override
+    public void save(Abonnement abonnement) {
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                PreparedStatement ps = c.prepare(MERGE_SQL);
+                bind(ps, owner, abonnement, rowHash(abonnement));
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur insert/update DB pour {}: {}", owner, e.getMessage(), e);
+        }
+        touch();
+    }
+
+    /** MERGE groupés (batch) dans une seule transaction. */
+    @Override
+    public void saveBatch(List<Abonnement> abonnements) {
+        if (abonnements.isEmpty()) {
+            return;
+        }
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                c.connection().setAutoCommit(false);
+                PreparedStatement ps = c.prepare(MERGE_SQL);
+                for (Abonnement a : abonnements) {
+                    bind(ps, owner, a, rowHash(a));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.connection().commit();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur d'écriture groupée DB pour {}: {}", owner, e.getMessage(), e);
+        }
+        touch();
+    }
+
+    @Override
+    public void delete(Abonnement abonnement) {
+        if (abonnement != null && abonnement.getId() != null) {
+            deleteByUuid(abonnement.getId());
+        }
+    }
+
+    @Override
+    public void deleteByUuid(String uuid) {
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                PreparedStatement ps = c.prepare(DELETE_BY_ID_SQL);
+                ps.setString(1, owner);
+                ps.setString(2, uuid);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
+            logger.info("Abonnement {} supprimé pour {}", uuid, owner);
+        } catch (SQLException e) {
+            logger.error("Erreur deleteByUuid DB pour {}: {}", owner, e.getMessage(), e);
+        }
+        touch();
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private List<Abonnement> query(String sql, Binder extra) {
+        List<Abonnement> out = new ArrayList<>();
+        try (PooledConnection c = pool.borrow()) {
+            try {
+                PreparedStatement ps = c.prepare(sql);
+                ps.setString(1, owner);
+                if (extra != null) {
+                    extra.bind(ps);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(mapRow(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                c.markBroken();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur de lecture DB pour {}: {}", owner, e.getMessage(), e);
+        }
+        return out;
+    }
+
+    private static Abonnement mapRow(ResultSet rs) throws SQLException {
+        String tags = rs.getString(9);
+        return new Abonnement(
+            rs.getString(1),
+            rs.getString(2),
+            toLocalDate(rs.getDate(3)),
+            toLocalDate(rs.getDate(4)),
+            rs.getDouble(5),
+            rs.getString(6),
+            toLocalDate(rs.getDate(7)),
+            rs.getString(8),
+            tags == null || tags.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(tags.split("\\|"))),
+            rs.getString(10),
+            rs.getString(11),
+            rs.getString(12),
+            rs.getInt(13),
+            rs.getBoolean(14),
+            rs.getInt(15),
+            rs.getString(16)
+        );
+    }
+
+    static void bind(PreparedStatement ps, String owner, Abonnement a, long rowHash) throws SQLException {
+        ps.setString(1, owner);
+        ps.setString(2, a.getId());
+        ps.setString(3, a.getNomService());
+        ps.setDate(4, a.getDateDebut() != null ? Date.valueOf(a.getDateDebut()) : null);
+        ps.setDate(5, a.getDateFin() != null ? Date.valueOf(a.getDateFin()) : null);
+        ps.setDouble(6, a.getPrixMensuel());
+        ps.setString(7, a.getClientName());
+        ps.setDate(8, a.getDerniereUtilisation() != null ? Date.valueOf(a.getDerniereUtilisation()) : null);
+        ps.setString(9, a.getCategorie());
+        ps.setString(10, String.join("|", a.getTags()));
+        ps.setString(11, a.getGroupeAbonnement());
+        ps.setString(12, a.getPriorite());
+        ps.setString(13, a.getNotes());
+        ps.setInt(14, a.getNombreUtilisateurs());
+        ps.setBoolean(15, a.isPartage());
+        ps.setInt(16, a.getJoursRappelAvantFin());
+        ps.setString(17, a.getFrequencePaiement());
+        ps.setLong(18, rowHash);
+    }
+
+    /** Empreinte de toutes les colonnes persistées (format CSV complet). */
+    static long rowHash(Abonnement a) {
+        return DatabaseAbonnementRepository.fnv1a64(AbonnementCsvConverter.toCsvString(a));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.projet.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs des écritures différentielles ({@code saveAll}) des repositories JDBC :
+ * nombre d'appels et lignes fusionnées, supprimées ou laissées intactes.
+ */
+final class WriteStats {
+
+    private final LongAdder saveAllCalls = new LongAdder();
+    private final LongAdder rowsMerged = new LongAdder();
+    private final LongAdder rowsDeleted = new LongAdder();
+    private final LongAdder rowsUnchanged = new LongAdder();
+
+    /** Enregistre un {@code saveAll} validé portant sur {@code rows} lignes. */
+    void record(int rows, int merged, int deleted) {
+        saveAllCalls.increment();
+        rowsMerged.add(merged);
+        rowsDeleted.add(deleted);
+        rowsUnchanged.add(rows - merged);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("saveAllCalls", saveAllCalls.sum());
+        stats.put("rowsMerged", rowsMerged.sum());
+        stats.put("rowsDeleted", rowsDeleted.sum());
+        stats.put("rowsUnchanged", rowsUnchanged.sum());
+        return stats;
+    }
+
+    /** Compteurs au format d'exposition texte Prometheus, étiquetés par {@code store}. */
+    String scrape(String store) {
+        StringBuilder out = new StringBuilder(512);
+        out.append("# HELP abonnement_saveall_calls_total Appels saveAll validés en base.\n");
+        out.append("# TYPE abonnement_saveall_calls_total counter\n");
+        sample(out, "abonnement_saveall_calls_total{store=\"" + store + "\"}", saveAllCalls.sum());
+        out.append("# HELP abonnement_saveall_rows_total Lignes traitées par saveAll selon le résultat.\n");
+        out.append("# TYPE abonnement_saveall_rows_total counter\n");
+        sample(out, "abonnement_saveall_rows_total{store=\"" + store + "\",result=\"merged\"}", rowsMerged.sum());
+        sample(out, "abonnement_saveall_rows_total{store=\"" + store + "\",result=\"deleted\"}", rowsDeleted.sum());
+        sample(out, "abonnement_saveall_rows_total{store=\"" + store + "\",result=\"unchanged\"}", rowsUnchanged.sum());
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String series, long value) {
+        out.append(series).append(' ').append(value).append('\n');
+    }
+}
@@ -11,6 +11,10 @@
  * - FileAbonnementRepository : Persistance en fichiers texte
  * - UserRepository : Gestion des utilisateurs
  * - UserAbonnementRepository : Abonnements par utilisateur
+ * - UserAbonnementCache / CachedUserAbonnementRepository : cache mémoire par utilisateur
+ * - JournalAbonnementRepository : journal append-only + snapshot compacté
+ * - UserDatabaseAbonnementRepository : table H2 multi-utilisateurs (colonne owner)
+ * - AbonnementStorage : sélection du stockage selon la configuration
  * 
  * Pattern: Repository Pattern - Interface + Implémentation
  */
@@ -0,0 +1,447 @@
+package com.projet.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.projet.backend.domain.Abonnement;
+import com.projet.config.AppConfig;
+import com.projet.repository.AbonnementRepository;
+
+/**
+ * Import en flux des abonnements (CSV {@code ;} et tableau JSON).
+ *
+ * <p>Les lignes sont lues une à une depuis le flux d'entrée et regroupées en lots
+ * de {@code batchSize}. Chaque lot est converti et validé sur un pool de threads,
+ * puis écrit dans l'ordre via {@link AbonnementRepository#saveBatch(List)} : la
+ * mémoire utilisée est bornée par le nombre de lots en cours, quelle que soit la
+ * taille du fichier.</p>
+ *
+ * <p>Chaque import est suivi par un {@link Job} (identifiant, progression, débit)
+ * consultable pendant et après son exécution. Un import peut être exécuté dans le
+ * thread appelant ({@link #importCsv}, {@link #importJson}) ou en arrière-plan à
+ * partir d'un fichier temporaire ({@link #submit}).</p>
+ *
+ * <p>Un import n'est pas atomique : les lots sont écrits au fil de la lecture. En cas
+ * d'échec en cours de flux, les lots déjà écrits sont conservés et le {@link Job}
+ * indique leur nombre ({@link Job#getImported()}), la dernière ligne écrite
+ * ({@link Job#getLastCommittedRow()}) et la cause ; {@link Job#isPartial()} signale
+ * ce cas.</p>
+ *
+ * <p>Configuration (via {@link AppConfig}) :</p>
+ * <ul>
+ *   <li>{@code IMPORT_BATCH_SIZE} : abonnements par lot écrit (500 par défaut)</li>
+ *   <li>{@code IMPORT_WORKERS} : threads de validation (nombre de cœurs, 4 au plus, par défaut)</li>
+ *   <li>{@code IMPORT_MAX_QUEUED_JOBS} : imports en arrière-plan en attente (8 par défaut)</li>
+ * </ul>
+ */
+public class AbonnementImportService {
+    private static final Logger logger = LoggerFactory.getLogger(AbonnementImportService.class);
+
+    /** Nombre maximal de messages d'erreur conservés par import. */
+    static final int MAX_ERRORS = 100;
+    /** Durée de conservation des imports terminés. */
+    private static final long JOB_RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static final AbonnementImportService INSTANCE = new AbonnementImportService(
+        AppConfig.getInt("IMPORT_BATCH_SIZE", 500),
+        AppConfig.getInt("IMPORT_WORKERS", Math.min(4, Runtime.getRuntime().availableProcessors())),
+        AppConfig.getInt("IMPORT_MAX_QUEUED_JOBS", 8));
+
+    public enum Format { CSV, JSON }
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final int batchSize;
+    private final int workers;
+    private final ExecutorService validators;
+    private final ThreadPoolExecutor background;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper;
+
+    AbonnementImportService(int batchSize, int workers, int maxQueuedJobs) {
+        this.batchSize = Math.max(1, batchSize);
+        this.workers = Math.max(1, workers);
+        AtomicInteger threadIds = new AtomicInteger();
+        this.validators = Executors.newFixedThreadPool(this.workers, r -> {
+            Thread t = new Thread(r, "abonnement-import-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.background = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, maxQueuedJobs)), r -> {
+                Thread t = new Thread(r, "abonnement-import-job");
+                t.setDaemon(true);
+                return t;
+            });
+        this.mapper = new ObjectMapper();
+        this.mapper.registerModule(new JavaTimeModule());
+    }
+
+    public static AbonnementImportService getInstance() {
+        return INSTANCE;
+    }
+
+    /** Importe un CSV (première ligne = en-tête) dans le thread appelant. */
+    public Job importCsv(String owner, AbonnementRepository repo, InputStream in) {
+        Job job = register(owner, Format.CSV);
+        run(job, repo, in);
+        return job;
+    }
+
+    /** Importe un tableau JSON d'abonnements dans le thread appelant. */
+    public Job importJson(String owner, AbonnementRepository repo, InputStream in) {
+        Job job = register(owner, Format.JSON);
+        run(job, repo, in);
+        return job;
+    }
+
+    /**
+     * Importe en arrière-plan un fichier déjà reçu ; le fichier est supprimé à la fin.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException si trop d'imports sont en attente
+     */
+    public Job submit(String owner, AbonnementRepository repo, Format format, Path file) {
+        Job job = register(owner, format);
+        try {
+            background.execute(() -> {
+                try (InputStream in = Files.newInputStream(file)) {
+                    run(job, repo, in);
+                } catch (IOException e) {
+                    job.fail(e.getMessage());
+                } finally {
+                    deleteQuietly(file);
+                }
+            });
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job;
+    }
+
+    /** Retourne un import de l'utilisateur donné. */
+    public Optional<Job> find(String owner, String jobId) {
+        Job job = jobId == null ? null : jobs.get(jobId);
+        return job != null && job.owner.equals(owner) ? Optional.of(job) : Optional.empty();
+    }
+
+    // -------------------------------------------------------------------------
+    // Pipeline
+    // -------------------------------------------------------------------------
+
+    private Job register(String owner, Format format) {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(j -> j.finishedAtMs > 0 && now - j.finishedAtMs > JOB_RETENTION_MS);
+        Job job = new Job(UUID.randomUUID().toString(), owner, format);
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    /**
+     * Lecture dans le thread appelant, validation sur {@link #validators}, écriture
+     * dans l'ordre de lecture. Au plus {@code workers + 1} lots sont en mémoire.
+     */
+    private void run(Job job, AbonnementRepository repo, InputStream in) {
+        Deque<Future<Batch>> inFlight = new ArrayDeque<>();
+        try {
+            RowReader reader = job.format == Format.CSV ? new CsvRowReader(in) : new JsonRowReader(in);
+            List<Row> chunk = new ArrayList<>(batchSize);
+            Row row;
+            while ((row = reader.next()) != null) {
+                job.rowsRead.incrementAndGet();
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    List<Row> rows = chunk;
+                    inFlight.add(validators.submit(() -> validate(job.format, rows)));
+                    chunk = new ArrayList<>(batchSize);
+                    if (inFlight.size() > workers) {
+                        commit(job, repo, inFlight.poll());
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<Row> rows = chunk;
+                inFlight.add(validators.submit(() -> validate(job.format, rows)));
+            }
+            while (!inFlight.isEmpty()) {
+                commit(job, repo, inFlight.poll());
+            }
+            job.complete();
+            logger.info("Import {} {} terminé pour {} : {} importés, {} rejetés en {} ms",
+                job.format, job.id, job.owner, job.imported.get(), job.rejected.get(), job.getDurationMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.forEach(f -> f.cancel(true));
+            job.fail("Import interrompu");
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            inFlight.forEach(f -> f.cancel(true));
+            String message = e instanceof ExecutionException ? e.getCause().getMessage() : e.getMessage();
+            job.fail(message);
+            logger.error("Import {} {} échoué pour {} : {}", job.format, job.id, job.owner, message);
+        }
+    }
+
+    private static void commit(Job job, AbonnementRepository repo, Future<Batch> future)
+            throws InterruptedException, ExecutionException {
+        Batch batch = future.get();
+        if (!batch.valid.isEmpty()) {
+            repo.saveBatch(batch.valid);
+            job.imported.addAndGet(batch.valid.size());
+        }
+        for (String error : batch.errors) {
+            job.addError(error);
+        }
+        job.lastCommittedRow = batch.lastRow;
+    }
+
+    private Batch validate(Format format, List<Row> rows) {
+        Batch batch = new Batch(rows.size(), rows.get(rows.size() - 1).index);
+        for (Row row : rows) {
+            try {
+                Abonnement a = format == Format.CSV ? parseCsv(row) : parseJson(row);
+                if (a.getId() == null || a.getId().isBlank()) {
+                    a.setId(UUID.randomUUID().toString());
+                }
+                batch.valid.add(a);
+            } catch (RuntimeException | IOException e) {
+                batch.errors.add(format == Format.CSV
+                    ? "Erreur ligne " + row.index + " : " + e.getMessage()
+                    : "index=" + row.index + " " + e.getMessage());
+            }
+        }
+        return batch;
+    }
+
+    private static Abonnement parseCsv(Row row) {
+        String[] p = ((String) row.payload).split(";");
+        if (p.length < 8) {
+            throw new IllegalArgumentException("colonnes manquantes");
+        }
+        Abonnement a = new Abonnement(
+            p[1],                                 // nomService
+            LocalDate.parse(p[2]),                // dateDebut
+            LocalDate.parse(p[3]),                // dateFin
+            Double.parseDouble(p[4]),             // prixMensuel
+            p[5],                                 // clientName
+            LocalDate.parse(p[6]),                // derniereUtilisation
+            p[7]                                  // categorie
+        );
+        a.setId(p[0]);
+        return a;
+    }
+
+    private Abonnement parseJson(Row row) throws IOException {
+        Abonnement a = mapper.treeToValue((JsonNode) row.payload, Abonnement.class);
+        if (a.getNomService() == null || a.getNomService().isBlank()) throw new IllegalArgumentException("nomService manquant");
+        if (a.getDateDebut() == null) throw new IllegalArgumentException("dateDebut manquante");
+        if (a.getDateFin() == null) throw new IllegalArgumentException("dateFin manquante");
+        if (a.getClientName() == null || a.getClientName().isBlank()) throw new IllegalArgumentException("clientName manquant");
+        if (a.getPrixMensuel() < 0) throw new IllegalArgumentException("prixMensuel invalide");
+        return a;
+    }
+
+    // -------------------------------------------------------------------------
+    // Lecture incrémentale
+    // -------------------------------------------------------------------------
+
+    private interface RowReader {
+        /** @return la ligne suivante, ou {@code null} en fin de flux */
+        Row next() throws IOException;
+    }
+
+    /** Une ligne CSV par appel ; l'en-tête (ligne 0) et les lignes vides sont ignorés. */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private int lineNumber = -1;
+
+        CsvRowReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (lineNumber > 0 && !line.isEmpty()) {
+                    return new Row(lineNumber, line);
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Un élément du tableau JSON par appel, lu comme arbre (la conversion se fait sur les workers). */
+    private final class JsonRowReader implements RowReader {
+        private final JsonParser parser;
+        private int index = -1;
+
+        JsonRowReader(InputStream in) throws IOException {
+            this.parser = mapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("fichier vide ou format invalide : tableau JSON attendu");
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            index++;
+            return new Row(index, mapper.readTree(parser));
+        }
+    }
+
+    private static final class Row {
+        private final int index;
+        private final Object payload;
+
+        Row(int index, Object payload) {
+            this.index = index;
+            this.payload = payload;
+        }
+    }
+
+    private static final class Batch {
+        private final List<Abonnement> valid;
+        private final List<String> errors = new ArrayList<>();
+        private final int lastRow;
+
+        Batch(int size, int lastRow) {
+            this.valid = new ArrayList<>(size);
+            this.lastRow = lastRow;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Suivi
+    // -------------------------------------------------------------------------
+
+    /** État d'un import : progression, débit et premières erreurs. */
+    public static class Job {
+        private final String id;
+        private final String owner;
+        private final Format format;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile Status status = Status.RUNNING;
+        private volatile String failure;
+        private volatile long durationNanos = -1;
+        private volatile long finishedAtMs;
+        private volatile int lastCommittedRow = -1;
+
+        private Job(String id, String owner, Format format) {
+            this.id = id;
+            this.owner = owner;
+            this.format = format;
+        }
+
+        private void addError(String error) {
+            if (rejected.incrementAndGet() <= MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private void complete() {
+            finish(Status.COMPLETED);
+        }
+
+        private void fail(String message) {
+            failure = message;
+            finish(Status.FAILED);
+        }
+
+        private void finish(Status result) {
+            durationNanos = System.nanoTime() - startNanos;
+            finishedAtMs = System.currentTimeMillis();
+            status = result;
+        }
+
+        public String getJobId() { return id; }
+        public Format getFormat() { return format; }
+        public Status getStatus() { return status; }
+        public String getFailure() { return failure; }
+        public Instant getStartedAt() { return startedAt; }
+        public long getRowsRead() { return rowsRead.get(); }
+        public long getImported() { return imported.get(); }
+        public long getRejected() { return rejected.get(); }
+
+        /**
+         * Dernière ligne (numéro de ligne CSV ou index JSON) dont le lot a été écrit ;
+         * toutes les lignes jusqu'à celle-ci incluse sont traitées, aucune au-delà.
+         * {@code -1} si aucun lot n'a été écrit.
+         */
+        public int getLastCommittedRow() { return lastCommittedRow; }
+
+        /** Import échoué après avoir déjà écrit des abonnements. */
+        public boolean isPartial() {
+            return status == Status.FAILED && imported.get() > 0;
+        }
+
+        /** Premières erreurs ({@value AbonnementImportService#MAX_ERRORS} au plus). */
+        public List<String> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+
+        public long getDurationMs() {
+            long nanos = durationNanos >= 0 ? durationNanos : System.nanoTime() - startNanos;
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        /** Lignes lues par seconde depuis le début de l'import. */
+        public double getRowsPerSecond() {
+            long nanos = durationNanos >= 0 ? durationNanos : System.nanoTime() - startNanos;
+            return nanos == 0 ? 0.0 : rowsRead.get() * 1_000_000_000.0 / nanos;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Fichier d'import temporaire non supprimé {}: {}", file, e.getMessage());
+        }
+    }
+}
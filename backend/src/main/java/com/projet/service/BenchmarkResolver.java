@@ -0,0 +1,223 @@
+package com.projet.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.projet.config.AppConfig;
+import com.projet.service.ExternalBenchmarkService.BenchmarkData;
+
+/**
+ * Résolution asynchrone et mise en cache des prix de marché obtenus à distance.
+ *
+ * <p>Chaque service (nom normalisé) est résolu au plus une fois par durée de vie :
+ * {@code BENCHMARK_CACHE_TTL_MS} (6 heures par défaut) pour un prix trouvé,
+ * {@code BENCHMARK_NEGATIVE_TTL_MS} (10 minutes par défaut) pour un service inconnu
+ * de l'API ou une erreur, afin de ne pas relancer un appel voué à échouer.
+ * Le cache garde au plus {@code BENCHMARK_CACHE_MAX_ENTRIES} services (1000 par
+ * défaut, les moins récemment consultés sont évincés) et les réponses expirées sont
+ * purgées au fil des écritures : les noms libres saisis par les utilisateurs ne font
+ * pas grossir la mémoire sans limite.</p>
+ *
+ * <p>Les appels distants tournent sur un pool borné à
+ * {@code BENCHMARK_MAX_CONCURRENCY} threads (8 par défaut) ; les demandes
+ * concurrentes pour un même service partagent le même appel.</p>
+ */
+public final class BenchmarkResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkResolver.class);
+
+    private final Function<String, BenchmarkData> lookup;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final LongSupplier clock;
+    private final Executor executor;
+    /** LRU en ordre d'accès ; accès protégé par son propre moniteur. */
+    private final Map<String, Entry> cache;
+    private long nextPurgeAt;
+    private final Map<String, CompletableFuture<Optional<BenchmarkData>>> inflight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param lookup appel distant : prix du service, ou {@code null} si inconnu
+     */
+    BenchmarkResolver(Function<String, BenchmarkData> lookup, long ttlMs, long negativeTtlMs,
+                      int maxEntries, LongSupplier clock, Executor executor) {
+        this.lookup = lookup;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.clock = clock;
+        this.executor = executor;
+        int max = Math.max(1, maxEntries);
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /** Résolveur configuré par {@code AppConfig}, avec son propre pool borné. */
+    static BenchmarkResolver create(Function<String, BenchmarkData> lookup) {
+        int concurrency = Math.max(1, (int) AppConfig.getLong("BENCHMARK_MAX_CONCURRENCY", 8));
+        return new BenchmarkResolver(lookup,
+            AppConfig.getLong("BENCHMARK_CACHE_TTL_MS", 6 * 60 * 60 * 1000L),
+            AppConfig.getLong("BENCHMARK_NEGATIVE_TTL_MS", 10 * 60 * 1000L),
+            (int) Math.min(Integer.MAX_VALUE, AppConfig.getLong("BENCHMARK_CACHE_MAX_ENTRIES", 1000)),
+            System::currentTimeMillis,
+            newLookupExecutor(concurrency));
+    }
+
+    /**
+     * Prix de marché du service, vide si l'API ne le connaît pas ou est indisponible.
+     * Le futur est déjà complété quand la réponse est en cache.
+     */
+    public CompletableFuture<Optional<BenchmarkData>> resolveAsync(String serviceName) {
+        String key = serviceName.trim().toLowerCase(Locale.ROOT);
+        Entry entry = cached(key);
+        if (entry != null) {
+            (entry.data.isPresent() ? hits : negativeHits).increment();
+            return CompletableFuture.completedFuture(entry.data);
+        }
+
+        boolean[] created = {false};
+        CompletableFuture<Optional<BenchmarkData>> future = inflight.computeIfAbsent(key, k -> {
+            created[0] = true;
+            lookups.increment();
+            return CompletableFuture.supplyAsync(() -> load(k, serviceName.trim()), executor);
+        });
+        if (!created[0]) {
+            coalesced.increment();
+        }
+        future.whenComplete((data, error) -> inflight.remove(key, future));
+        return future;
+    }
+
+    /** Oublie toutes les réponses en cache. */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /** Nombre de services en cache (réponses négatives comprises). */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /** Compteurs depuis le démarrage. */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("lookups", lookups.sum());
+        stats.put("failures", failures.sum());
+        stats.put("entries", (long) size());
+        return stats;
+    }
+
+    /** Export au format texte Prometheus. */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(512);
+        out.append("# HELP benchmark_cache_requests_total Résolutions de prix de marché distants par résultat.\n");
+        out.append("# TYPE benchmark_cache_requests_total counter\n");
+        sample(out, "benchmark_cache_requests_total{result=\"hit\"}", hits.sum());
+        sample(out, "benchmark_cache_requests_total{result=\"negative_hit\"}", negativeHits.sum());
+        sample(out, "benchmark_cache_requests_total{result=\"coalesced\"}", coalesced.sum());
+        sample(out, "benchmark_cache_requests_total{result=\"lookup\"}", lookups.sum());
+        out.append("# HELP benchmark_lookup_failures_total Appels distants de benchmark en erreur.\n");
+        out.append("# TYPE benchmark_lookup_failures_total counter\n");
+        sample(out, "benchmark_lookup_failures_total", failures.sum());
+        out.append("# HELP benchmark_cache_entries Services en cache.\n");
+        out.append("# TYPE benchmark_cache_entries gauge\n");
+        sample(out, "benchmark_cache_entries", size());
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String series, long value) {
+        out.append(series).append(' ').append(value).append('\n');
+    }
+
+    private Optional<BenchmarkData> load(String key, String serviceName) {
+        Optional<BenchmarkData> data;
+        try {
+            data = Optional.ofNullable(lookup.apply(serviceName));
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.warn("Benchmark distant indisponible pour {} : {}", serviceName, e.getMessage());
+            data = Optional.empty();
+        }
+        long ttl = data.isPresent() ? ttlMs : negativeTtlMs;
+        store(key, new Entry(data, clock.getAsLong() + ttl));
+        return data;
+    }
+
+    /** Réponse encore valide pour ce service ; une réponse expirée est retirée. */
+    private Entry cached(String key) {
+        long now = clock.getAsLong();
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            if (entry != null && now >= entry.expiresAt) {
+                cache.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Enregistre une réponse ; au plus une fois par durée de vie négative, les réponses
+     * expirées que personne n'a redemandées sont purgées.
+     */
+    private void store(String key, Entry entry) {
+        long now = clock.getAsLong();
+        synchronized (cache) {
+            if (now >= nextPurgeAt) {
+                cache.values().removeIf(e -> now >= e.expiresAt);
+                nextPurgeAt = now + Math.max(1L, Math.min(ttlMs, negativeTtlMs));
+            }
+            cache.put(key, entry);
+        }
+    }
+
+    private static ExecutorService newLookupExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "benchmark-lookup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class Entry {
+        final Optional<BenchmarkData> data;
+        final long expiresAt;
+
+        Entry(Optional<BenchmarkData> data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.projet.service;
 
+import java.util.List;
+
+import com.projet.backend.domain.Abonnement;
 import com.projet.backend.domain.BenchmarkResult;
 
 /**
@@ -36,4 +39,14 @@ public interface BenchmarkService {
      * @return Ratio (1.0 = exact, > 1.0 = overpriced, < 1.0 = underpriced)
      */
     double getPriceRatio(double userPrice, String serviceName);
+
+    /**
+     * Génère le rapport de benchmark de chaque abonnement d'un portefeuille.
+     * Les données de marché de chaque service distinct sont récupérées une seule
+     * fois, en parallèle.
+     * 
+     * @param abonnements Les abonnements à analyser (ceux sans nom de service sont ignorés)
+     * @return Un BenchmarkResult par abonnement analysé, dans l'ordre de la liste
+     */
+    List<BenchmarkResult> benchmarkPortfolio(List<Abonnement> abonnements);
 }
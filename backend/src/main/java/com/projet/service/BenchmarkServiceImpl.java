@@ -1,8 +1,15 @@
 package com.projet.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.projet.backend.domain.Abonnement;
 import com.projet.backend.domain.BenchmarkResult;
 
 /**
@@ -57,17 +64,7 @@ public class BenchmarkServiceImpl implements BenchmarkService {
                 throw new RuntimeException("Données de marché indisponibles pour " + serviceName);
             }
             
-            // Créer le résultat de benchmark
-            BenchmarkResult result = new BenchmarkResult(
-                abonnementId,
-                serviceName,
-                userPrice,
-                marketData.averagePrice,
-                marketData.minPrice,
-                marketData.maxPrice
-            );
-            
-            result.setRegion(marketData.region);
+            BenchmarkResult result = toResult(abonnementId, serviceName, userPrice, marketData);
             
             logger.info("Benchmark complété : {} - Statut: {}", serviceName, result.getStatus());
             
@@ -79,6 +76,51 @@ public class BenchmarkServiceImpl implements BenchmarkService {
         }
     }
 
+    @Override
+    public List<BenchmarkResult> benchmarkPortfolio(List<Abonnement> abonnements) {
+        // Une seule demande de données de marché par service distinct
+        Map<String, CompletableFuture<ExternalBenchmarkService.BenchmarkData>> marketByService = new LinkedHashMap<>();
+        for (Abonnement abo : abonnements) {
+            String serviceName = abo.getNomService();
+            if (serviceName != null && !serviceName.isBlank()) {
+                marketByService.computeIfAbsent(serviceName.trim(), externalBenchmarkService::getMarketPricesAsync);
+            }
+        }
+        CompletableFuture.allOf(marketByService.values().toArray(new CompletableFuture<?>[0])).join();
+
+        List<BenchmarkResult> results = new ArrayList<>(abonnements.size());
+        for (Abonnement abo : abonnements) {
+            String serviceName = abo.getNomService();
+            if (serviceName == null || serviceName.isBlank()) {
+                continue;
+            }
+            ExternalBenchmarkService.BenchmarkData marketData = marketByService.get(serviceName.trim()).join();
+            if (marketData == null) {
+                logger.warn("Données de marché non disponibles pour {}", serviceName);
+                continue;
+            }
+            results.add(toResult(abo.getId(), serviceName, abo.getPrixMensuel(), marketData));
+        }
+        logger.info("Benchmark du portefeuille : {} abonnements, {} services distincts",
+            results.size(), marketByService.size());
+        return results;
+    }
+
+    private static BenchmarkResult toResult(String abonnementId, String serviceName, double userPrice,
+                                            ExternalBenchmarkService.BenchmarkData marketData) {
+        // Créer le résultat de benchmark
+        BenchmarkResult result = new BenchmarkResult(
+            abonnementId,
+            serviceName,
+            userPrice,
+            marketData.averagePrice,
+            marketData.minPrice,
+            marketData.maxPrice
+        );
+        result.setRegion(marketData.region);
+        return result;
+    }
+
     @Override
     public double getPriceRatio(double userPrice, String serviceName) {
         try {
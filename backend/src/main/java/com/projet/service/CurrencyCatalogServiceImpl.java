@@ -1,9 +1,9 @@
 package com.projet.service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Currency;
 import java.util.LinkedHashSet;
@@ -12,6 +12,7 @@ import java.util.TreeSet;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projet.http.OutboundHttpClient;
 
 public class CurrencyCatalogServiceImpl implements CurrencyCatalogService {
 
@@ -71,18 +72,18 @@ public class CurrencyCatalogServiceImpl implements CurrencyCatalogService {
         }
 
         try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(FIXER_SYMBOLS_URL).openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-            connection.setRequestProperty("apikey", apiKey);
-
-            if (connection.getResponseCode() != 200) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(FIXER_SYMBOLS_URL))
+                .timeout(Duration.ofSeconds(5))
+                .header("apikey", apiKey)
+                .GET()
+                .build();
+            HttpResponse<String> response = OutboundHttpClient.getInstance().send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() != 200) {
                 return result;
             }
 
-            String body = readBody(connection);
-            JsonNode root = MAPPER.readTree(body);
+            JsonNode root = MAPPER.readTree(response.body());
             JsonNode symbols = root.path("symbols");
             symbols.fieldNames().forEachRemaining(result::add);
         } catch (Exception ignored) {
@@ -101,17 +102,17 @@ public class CurrencyCatalogServiceImpl implements CurrencyCatalogService {
 
         try {
             String url = CURRENCYLAYER_LIST_URL + "?access_key=" + accessKey;
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+            HttpResponse<String> response = OutboundHttpClient.getInstance().send(request, HttpResponse.BodyHandlers.ofString());
 
-            if (connection.getResponseCode() != 200) {
+            if (response.statusCode() != 200) {
                 return result;
             }
 
-            String body = readBody(connection);
-            JsonNode root = MAPPER.readTree(body);
+            JsonNode root = MAPPER.readTree(response.body());
             JsonNode currencies = root.path("currencies");
             currencies.fieldNames().forEachRemaining(result::add);
         } catch (Exception ignored) {
@@ -120,15 +121,4 @@ public class CurrencyCatalogServiceImpl implements CurrencyCatalogService {
 
         return result;
     }
-
-    private String readBody(HttpURLConnection connection) throws Exception {
-        StringBuilder body = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                body.append(line);
-            }
-        }
-        return body.toString();
-    }
 }
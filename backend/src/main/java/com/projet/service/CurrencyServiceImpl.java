@@ -1,20 +1,11 @@
 package com.projet.service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 public class CurrencyServiceImpl implements CurrencyService {
 
-    private static final String API_BASE = "https://api.exchangerate-api.com/v4/latest/";
-    private static final ObjectMapper MAPPER = new ObjectMapper();
     private static final Set<String> DEFAULT_ALLOWED = Set.of("USD", "GBP", "EUR", "CHF");
 
     @Override
@@ -35,35 +26,8 @@ public class CurrencyServiceImpl implements CurrencyService {
             return amount;
         }
 
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(API_BASE + source).openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-
-            if (connection.getResponseCode() != 200) {
-                return amount;
-            }
-
-            StringBuilder body = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    body.append(line);
-                }
-            }
-
-            JsonNode root = MAPPER.readTree(body.toString());
-            JsonNode rates = root.path("rates");
-            JsonNode rate = rates.path(target);
-            if (!rate.isNumber()) {
-                return amount;
-            }
-
-            return amount * rate.asDouble();
-        } catch (Exception ignored) {
-            return amount;
-        }
+        Double rate = FxRateCache.getInstance().rate(source, target);
+        return rate == null ? amount : amount * rate;
     }
 
     private Set<String> getAllowedCurrencies() {
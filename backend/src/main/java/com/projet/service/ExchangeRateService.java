@@ -1,7 +1,11 @@
 package com.projet.service;
 
+import java.util.List;
 import java.util.Map;
 
+import com.projet.backend.domain.Abonnement;
+import com.projet.backend.domain.PortfolioConversion;
+
 /**
  * Service d'intégration avec une API externe de taux de change.
  * 
@@ -36,4 +40,14 @@ public interface ExchangeRateService {
      * @throws RuntimeException Si la conversion échoue
      */
     double convertAmount(double amount, String fromCurrency, String toCurrency);
+
+    /**
+     * Convertit le prix mensuel (en EUR) de chaque abonnement dans les devises cibles,
+     * avec un seul instantané de taux pour tout le portefeuille.
+     * 
+     * @param abonnements Les abonnements à convertir
+     * @param targetCurrencies Les devises cibles séparées par des virgules (ex: USD,GBP,CHF)
+     * @return Les conversions par abonnement et les totaux par devise et par catégorie
+     */
+    PortfolioConversion convertPortfolio(List<Abonnement> abonnements, String targetCurrencies);
 }
@@ -1,28 +1,25 @@
 package com.projet.service;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.projet.config.AppConfig;
+
+import com.projet.backend.domain.Abonnement;
+import com.projet.backend.domain.CurrencyConversion;
+import com.projet.backend.domain.PortfolioConversion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implémentation du service de taux de change avec ExchangeRate-API v6.
  * 
- * Cette implémentation utilise HttpURLConnection (built-in) pour éviter
- * les dépendances externes inutiles.
- * 
- * Utilise l'API v6 : https://v6.exchangerate-api.com/v6/{API_KEY}/latest/{base}
+ * Les tables de taux viennent du cache partagé {@link FxRateCache}, qui appelle
+ * l'API v6 : https://v6.exchangerate-api.com/v6/{API_KEY}/latest/{base}
+ * (ou la v4 publique sans clé) au plus une fois par devise et par TTL.
  * 
  * Gestion des erreurs :
- * - Timeout : 5 secondes par défaut
+ * - Timeout : 5 secondes par défaut (dans le cache)
  * - Fallback : Retourne des taux par défaut si l'API est indisponible
  * - Logging : Tous les problèmes sont loggés
  */
@@ -30,11 +27,8 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
     
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateServiceImpl.class);
     
-    private static final String API_BASE_V6 = "https://v6.exchangerate-api.com/v6/";
-    private static final String API_BASE_V4 = "https://api.exchangerate-api.com/v4/latest/";
-    private static final int TIMEOUT_MS = 5000; // 5 secondes
-    private static final ObjectMapper mapper = new ObjectMapper();
-    
+    private final FxRateCache rateCache;
+
     /**
      * Taux de change par défaut (fallback) en cas d'indisponibilité de l'API.
      * Ces taux sont approx et permettent la continuité de service.
@@ -51,79 +45,46 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         "EUR", 1.0
     );
 
+    public ExchangeRateServiceImpl() {
+        this(FxRateCache.getInstance());
+    }
+
+    ExchangeRateServiceImpl(FxRateCache rateCache) {
+        this.rateCache = rateCache;
+    }
+
     @Override
     public Map<String, Double> getExchangeRates(String baseCurrency, String targetCurrencies) {
         if (baseCurrency == null || baseCurrency.isEmpty()) {
             baseCurrency = "EUR";
         }
         baseCurrency = baseCurrency.toUpperCase();
-        
-        try {
-            String apiKey = AppConfig.get("EXCHANGERATE_API_KEY", "");
-            String url;
-            
-            // Utiliser l'API v6 si la clé est disponible, sinon v4 (public)
-            if (apiKey != null && !apiKey.isEmpty()) {
-                url = API_BASE_V6 + apiKey + "/latest/" + baseCurrency;
-                logger.info("Récupération des taux de change via API v6 (avec clé) depuis {}", url);
-            } else {
-                url = API_BASE_V4 + baseCurrency;
-                logger.info("Récupération des taux de change via API v4 (public) depuis {}", url);
-            }
-            
-            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(TIMEOUT_MS);
-            conn.setReadTimeout(TIMEOUT_MS);
-            conn.setRequestProperty("Accept", "application/json");
-            
-            int status = conn.getResponseCode();
-            if (status != 200) {
-                logger.warn("API ExchangeRate retourné le status {}, fallback activé", status);
-                return getFallbackRates(targetCurrencies);
-            }
-            
-            // Parser la réponse JSON
-            String response = readResponse(conn);
-            JsonNode root = mapper.readTree(response);
-            JsonNode rates = root.get("rates");
-            
-            if (rates == null) {
-                logger.warn("Champ 'rates' non trouvé dans la réponse JSON");
-                return getFallbackRates(targetCurrencies);
-            }
-            
-            // Extraire les devises demandées
-            Map<String, Double> result = new HashMap<>();
-            if (targetCurrencies != null && !targetCurrencies.isEmpty()) {
-                for (String currency : targetCurrencies.split(",")) {
-                    currency = currency.trim().toUpperCase();
-                    JsonNode rateNode = rates.get(currency);
-                    if (rateNode != null && rateNode.isNumber()) {
-                        result.put(currency, rateNode.asDouble());
-                    }
+
+        FxRateCache.RateTable table = rateCache.rates(baseCurrency);
+        if (table == null) {
+            return getFallbackRates(targetCurrencies);
+        }
+
+        // Extraire les devises demandées
+        Map<String, Double> result = new HashMap<>();
+        if (targetCurrencies != null && !targetCurrencies.isEmpty()) {
+            for (String currency : targetCurrencies.split(",")) {
+                Double rate = table.rate(currency);
+                if (rate != null) {
+                    result.put(currency.trim().toUpperCase(), rate);
                 }
-            } else {
-                // Si pas de devises spécifiées, retourner les devises principales
-                for (String currency : FALLBACK_RATES.keySet()) {
-                    JsonNode rateNode = rates.get(currency);
-                    if (rateNode != null && rateNode.isNumber()) {
-                        result.put(currency, rateNode.asDouble());
-                    }
+            }
+        } else {
+            // Si pas de devises spécifiées, retourner les devises principales
+            for (String currency : FALLBACK_RATES.keySet()) {
+                Double rate = table.rate(currency);
+                if (rate != null) {
+                    result.put(currency, rate);
                 }
             }
-            
-            conn.disconnect();
-            logger.info("Taux de change récupérés avec succès : {}", result.keySet());
-            return result;
-            
-        } catch (IOException e) {
-            logger.error("Erreur lors de la récupération des taux de change : {}", e.getMessage());
-            return getFallbackRates(targetCurrencies);
-        } catch (Exception e) {
-            logger.error("Erreur inattendue lors de la récupération des taux : {}", e.getMessage(), e);
-            return getFallbackRates(targetCurrencies);
         }
+        logger.debug("Taux de change {} servis depuis le cache : {}", baseCurrency, result.keySet());
+        return result;
     }
 
     @Override
@@ -153,18 +114,35 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         }
     }
 
-    /**
-     * Lit la réponse HTTP complète.
-     */
-    private String readResponse(HttpURLConnection conn) throws IOException {
-        StringBuilder response = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
+    @Override
+    public PortfolioConversion convertPortfolio(List<Abonnement> abonnements, String targetCurrencies) {
+        Map<String, Double> snapshot = getExchangeRates("EUR", targetCurrencies);
+
+        // Devises dans l'ordre demandé, limitées à celles dont le taux est connu
+        Map<String, Double> rates = new LinkedHashMap<>();
+        if (targetCurrencies != null && !targetCurrencies.isEmpty()) {
+            for (String currency : targetCurrencies.split(",")) {
+                String code = currency.trim().toUpperCase();
+                Double rate = snapshot.get(code);
+                if (rate != null && !code.equals("EUR")) {
+                    rates.put(code, rate);
+                }
             }
+        } else {
+            snapshot.forEach((code, rate) -> {
+                if (!code.equals("EUR")) rates.put(code, rate);
+            });
+        }
+
+        PortfolioConversion portfolio = new PortfolioConversion("EUR", rates);
+        for (Abonnement abo : abonnements) {
+            CurrencyConversion conversion = new CurrencyConversion(abo.getId(), abo.getNomService(), abo.getPrixMensuel(), "EUR");
+            rates.forEach((currency, rate) -> conversion.addConversion(currency, abo.getPrixMensuel() * rate, rate));
+            String category = abo.getCategorie() == null || abo.getCategorie().isBlank() ? "Non classé" : abo.getCategorie();
+            portfolio.addConversion(conversion, category);
         }
-        return response.toString();
+        logger.info("Portefeuille de {} abonnements converti en {}", abonnements.size(), rates.keySet());
+        return portfolio;
     }
 
     /**
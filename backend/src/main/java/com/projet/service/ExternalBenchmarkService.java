@@ -1,5 +1,7 @@
 package com.projet.service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service d'intégration avec une API externe de benchmark de prix.
  * 
@@ -22,6 +24,17 @@ public interface ExternalBenchmarkService {
      */
     BenchmarkData getMarketPrices(String serviceName);
 
+    /**
+     * Version asynchrone de {@link #getMarketPrices(String)}, pour interroger
+     * plusieurs services en parallèle.
+     * 
+     * @param serviceName Le nom du service (ex: Netflix, Spotify)
+     * @return Futur des données de marché (jamais en échec : fallback si besoin)
+     */
+    default CompletableFuture<BenchmarkData> getMarketPricesAsync(String serviceName) {
+        return CompletableFuture.completedFuture(getMarketPrices(serviceName));
+    }
+
     /**
      * Classe interne pour encapsuler les données de marché.
      */
@@ -1,17 +1,19 @@
 package com.projet.service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projet.http.OutboundHttpClient;
 
 /**
  * Implémentation du service de benchmark de prix d'abonnements.
@@ -24,6 +26,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * 
  * Pour la démo, utilise des données simulées mais le pattern permet
  * facilement de connecter une vraie API de pricing.
+ * 
+ * Les appels à l'API externe passent par un {@link BenchmarkResolver} partagé :
+ * cache par service (réponses négatives comprises), pool d'appels borné et
+ * regroupement des demandes concurrentes.
  */
 public class ExternalBenchmarkServiceImpl implements ExternalBenchmarkService {
     
@@ -38,6 +44,24 @@ public class ExternalBenchmarkServiceImpl implements ExternalBenchmarkService {
      * Ces données sont approximatives et basées sur les services réels en 2026.
      */
     private static final Map<String, BenchmarkData> MARKET_DATABASE = initializeMarketDB();
+
+    /** Résolveur des services absents de la base locale, partagé par toutes les instances. */
+    private static final BenchmarkResolver REMOTE = BenchmarkResolver.create(ExternalBenchmarkServiceImpl::fetchFromExternalAPI);
+
+    private final BenchmarkResolver remote;
+
+    public ExternalBenchmarkServiceImpl() {
+        this(REMOTE);
+    }
+
+    ExternalBenchmarkServiceImpl(BenchmarkResolver remote) {
+        this.remote = remote;
+    }
+
+    /** Résolveur partagé (statistiques exposées sur /metrics). */
+    public static BenchmarkResolver sharedResolver() {
+        return REMOTE;
+    }
     
     private static Map<String, BenchmarkData> initializeMarketDB() {
         Map<String, BenchmarkData> db = new HashMap<>();
@@ -71,36 +95,33 @@ public class ExternalBenchmarkServiceImpl implements ExternalBenchmarkService {
     
     @Override
     public BenchmarkData getMarketPrices(String serviceName) {
+        return getMarketPricesAsync(serviceName).join();
+    }
+
+    @Override
+    public CompletableFuture<BenchmarkData> getMarketPricesAsync(String serviceName) {
         if (serviceName == null || serviceName.trim().isEmpty()) {
             throw new IllegalArgumentException("serviceName ne peut pas être vide");
         }
         
         String normalizedName = serviceName.trim();
         
-        try {
-            // Essayer de récupérer depuis la base de données de fallback d'abord
-            BenchmarkData fallback = MARKET_DATABASE.get(normalizedName);
-            if (fallback != null) {
-                logger.info("Prix de marché trouvés pour {} (depuis base locale)", normalizedName);
-                return fallback;
-            }
-            
-            // Si pas trouvé en local, essayer l'API externe (simulation)
-            BenchmarkData fromApi = fetchFromExternalAPI(normalizedName);
-            if (fromApi != null) {
-                logger.info("Prix de marché récupérés pour {} (depuis API externe)", normalizedName);
-                return fromApi;
+        // Essayer de récupérer depuis la base de données de fallback d'abord
+        BenchmarkData fallback = MARKET_DATABASE.get(normalizedName);
+        if (fallback != null) {
+            logger.debug("Prix de marché trouvés pour {} (depuis base locale)", normalizedName);
+            return CompletableFuture.completedFuture(fallback);
+        }
+        
+        // Si pas trouvé en local, essayer l'API externe (via le cache)
+        return remote.resolveAsync(normalizedName).handle((fromApi, error) -> {
+            if (error == null && fromApi.isPresent()) {
+                return fromApi.get();
             }
-            
             // Fallback : Service inconnu, générer des données par défaut
-            logger.warn("Service {} inconnu, utilisation de données par défaut", normalizedName);
-            return new BenchmarkData(normalizedName, 14.99, 5.00, 29.99, "EUR", "Europe");
-            
-        } catch (Exception e) {
-            logger.error("Erreur lors de la récupération des prix pour {} : {}", normalizedName, e.getMessage());
-            // Retourner fallback plutôt que lever une exception
+            logger.debug("Service {} inconnu, utilisation de données par défaut", normalizedName);
             return new BenchmarkData(normalizedName, 14.99, 5.00, 29.99, "EUR", "Europe");
-        }
+        });
     }
     
     /**
@@ -110,7 +131,7 @@ public class ExternalBenchmarkServiceImpl implements ExternalBenchmarkService {
      * - Format direct: { averagePrice, minPrice, maxPrice, currency, region }
      * - Format catalogue (ex: dummyjson): { products: [{ price }, ...] }
      */
-    private BenchmarkData fetchFromExternalAPI(String serviceName) {
+    private static BenchmarkData fetchFromExternalAPI(String serviceName) {
         try {
             String template = resolveBenchmarkApiTemplate();
             String encodedService = java.net.URLEncoder.encode(serviceName, java.nio.charset.StandardCharsets.UTF_8);
@@ -118,19 +139,19 @@ public class ExternalBenchmarkServiceImpl implements ExternalBenchmarkService {
 
             logger.debug("Tentative de récupération benchmark via API externe: {}", apiUrl);
 
-            HttpURLConnection conn = (HttpURLConnection) new URL(apiUrl).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(TIMEOUT_MS);
-            conn.setReadTimeout(TIMEOUT_MS);
-            conn.setRequestProperty("Accept", "application/json");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(Duration.ofMillis(TIMEOUT_MS))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+            HttpResponse<String> response = OutboundHttpClient.getInstance().send(request, HttpResponse.BodyHandlers.ofString());
 
-            if (conn.getResponseCode() != 200) {
-                logger.warn("API benchmark externe status={} pour service={}", conn.getResponseCode(), serviceName);
+            if (response.statusCode() != 200) {
+                logger.warn("API benchmark externe status={} pour service={}", response.statusCode(), serviceName);
                 return null;
             }
 
-            String response = readResponse(conn);
-            JsonNode root = mapper.readTree(response);
+            JsonNode root = mapper.readTree(response.body());
 
             // Format direct
             if (root.has("averagePrice") && root.has("minPrice") && root.has("maxPrice")) {
@@ -183,7 +204,7 @@ public class ExternalBenchmarkServiceImpl implements ExternalBenchmarkService {
         }
     }
 
-    private String resolveBenchmarkApiTemplate() {
+    private static String resolveBenchmarkApiTemplate() {
         String fromEnv = System.getenv("BENCHMARK_SEARCH_API");
         if (fromEnv == null || fromEnv.isBlank()) {
             return DEFAULT_BENCHMARK_SEARCH_API;
@@ -195,15 +216,4 @@ public class ExternalBenchmarkServiceImpl implements ExternalBenchmarkService {
 
         return fromEnv;
     }
-
-    private String readResponse(HttpURLConnection conn) throws Exception {
-        StringBuilder response = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-        }
-        return response.toString();
-    }
 }
@@ -0,0 +1,319 @@
+package com.projet.service;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projet.config.AppConfig;
+import com.projet.http.OutboundHttpClient;
+
+/**
+ * Cache partagé des tables de taux de change, utilisé par tous les services de devises.
+ *
+ * <p>Une table contient tous les taux d'une devise de base. Elle est servie telle
+ * quelle pendant {@code FX_CACHE_TTL_MS} (5 minutes par défaut), puis, jusqu'à
+ * {@code FX_CACHE_MAX_STALE_MS} (1 heure par défaut), servie périmée pendant
+ * qu'un rafraîchissement tourne en arrière-plan. Au-delà, l'appelant attend le
+ * rechargement.</p>
+ *
+ * <p>Un seul appel distant est en cours par devise de base : les appelants
+ * concurrents attendent le même résultat. Une base absente du cache est d'abord
+ * dérivée d'une table fraîche qui la contient (taux croisés : {@code USD→GBP =
+ * EUR→GBP / EUR→USD}) avant tout appel distant.</p>
+ *
+ * <p>Compteurs : hits, taux dérivés, hits périmés, misses, rafraîchissements et
+ * échecs, exportés par {@link #scrape()}.</p>
+ */
+public final class FxRateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateCache.class);
+
+    private static final String API_BASE_V6 = "https://v6.exchangerate-api.com/v6/";
+    private static final String API_BASE_V4 = "https://api.exchangerate-api.com/v4/latest/";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final FxRateCache INSTANCE = new FxRateCache(
+        FxRateCache::fetchFromApi,
+        AppConfig.getLong("FX_CACHE_TTL_MS", 5 * 60 * 1000L),
+        AppConfig.getLong("FX_CACHE_MAX_STALE_MS", 60 * 60 * 1000L),
+        System::currentTimeMillis,
+        newRefreshExecutor());
+
+    /** Source des taux : tous les taux d'une devise de base. */
+    @FunctionalInterface
+    public interface RateFetcher {
+        Map<String, Double> fetch(String baseCurrency) throws Exception;
+    }
+
+    private final RateFetcher fetcher;
+    private final long ttlMs;
+    private final long maxStaleMs;
+    private final LongSupplier clock;
+    private final Executor executor;
+    private final Map<String, RateTable> tables = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<RateTable>> inflight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder derived = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    FxRateCache(RateFetcher fetcher, long ttlMs, long maxStaleMs, LongSupplier clock, Executor executor) {
+        this.fetcher = fetcher;
+        this.ttlMs = ttlMs;
+        this.maxStaleMs = Math.max(ttlMs, maxStaleMs);
+        this.clock = clock;
+        this.executor = executor;
+    }
+
+    public static FxRateCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Table des taux de {@code baseCurrency}, ou {@code null} si elle ne peut être
+     * obtenue (API indisponible et aucune table exploitable en cache).
+     */
+    public RateTable rates(String baseCurrency) {
+        String base = normalize(baseCurrency);
+        long now = clock.getAsLong();
+        RateTable table = tables.get(base);
+        if (table != null && now - table.fetchedAt <= ttlMs) {
+            hits.increment();
+            return table;
+        }
+
+        RateTable cross = deriveFrom(base, now);
+        if (cross != null) {
+            derived.increment();
+            tables.put(base, cross);
+            return cross;
+        }
+
+        if (table != null && now - table.fetchedAt <= maxStaleMs) {
+            staleHits.increment();
+            refresh(base);
+            return table;
+        }
+
+        misses.increment();
+        try {
+            return refresh(base).join();
+        } catch (CompletionException e) {
+            logger.warn("Taux de change {} indisponibles : {}", base, e.getCause() == null ? e.toString() : e.getCause().toString());
+            return null;
+        }
+    }
+
+    /**
+     * Taux {@code from → to} (1 unité de {@code from} = taux unités de {@code to}),
+     * ou {@code null} si inconnu.
+     */
+    public Double rate(String from, String to) {
+        String source = normalize(from);
+        String target = normalize(to);
+        if (source.equals(target)) {
+            return 1.0;
+        }
+        RateTable table = rates(source);
+        return table == null ? null : table.rate(target);
+    }
+
+    /** Oublie la table d'une devise : le prochain appel la recharge. */
+    public void invalidate(String baseCurrency) {
+        String base = normalize(baseCurrency);
+        tables.remove(base);
+        // Les tables dérivées de celle-ci disparaissent avec elle
+        tables.values().removeIf(t -> base.equals(t.derivedFrom));
+    }
+
+    /** Nombre de tables en cache (dérivées comprises). */
+    public int size() {
+        return tables.size();
+    }
+
+    /** Durée de fraîcheur d'une table, en millisecondes. */
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /** Compteurs depuis le démarrage. */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("derived", derived.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        stats.put("tables", (long) tables.size());
+        return stats;
+    }
+
+    /** Export au format texte Prometheus. */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(512);
+        out.append("# HELP fx_rate_cache_requests_total Consultations du cache de taux de change par résultat.\n");
+        out.append("# TYPE fx_rate_cache_requests_total counter\n");
+        sample(out, "fx_rate_cache_requests_total{result=\"hit\"}", hits.sum());
+        sample(out, "fx_rate_cache_requests_total{result=\"derived\"}", derived.sum());
+        sample(out, "fx_rate_cache_requests_total{result=\"stale\"}", staleHits.sum());
+        sample(out, "fx_rate_cache_requests_total{result=\"miss\"}", misses.sum());
+        out.append("# HELP fx_rate_cache_refreshes_total Appels distants de rechargement par résultat.\n");
+        out.append("# TYPE fx_rate_cache_refreshes_total counter\n");
+        sample(out, "fx_rate_cache_refreshes_total{result=\"success\"}", refreshes.sum() - refreshFailures.sum());
+        sample(out, "fx_rate_cache_refreshes_total{result=\"failure\"}", refreshFailures.sum());
+        out.append("# HELP fx_rate_cache_tables Tables de taux en cache.\n");
+        out.append("# TYPE fx_rate_cache_tables gauge\n");
+        sample(out, "fx_rate_cache_tables", tables.size());
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String series, long value) {
+        out.append(series).append(' ').append(value).append('\n');
+    }
+
+    /** Rechargement unique par base : les appels concurrents partagent le même futur. */
+    private CompletableFuture<RateTable> refresh(String base) {
+        CompletableFuture<RateTable> future = inflight.computeIfAbsent(base, b -> {
+            refreshes.increment();
+            return CompletableFuture.supplyAsync(() -> load(b), executor);
+        });
+        future.whenComplete((table, error) -> inflight.remove(base, future));
+        return future;
+    }
+
+    private RateTable load(String base) {
+        Map<String, Double> raw;
+        try {
+            raw = fetcher.fetch(base);
+        } catch (Exception e) {
+            refreshFailures.increment();
+            throw new CompletionException(e);
+        }
+        if (raw == null || raw.isEmpty()) {
+            refreshFailures.increment();
+            throw new CompletionException(new IllegalStateException("aucun taux pour " + base));
+        }
+        Map<String, Double> rates = new HashMap<>();
+        raw.forEach((currency, rate) -> {
+            if (currency != null && rate != null && rate > 0) {
+                rates.put(currency.toUpperCase(Locale.ROOT), rate);
+            }
+        });
+        rates.put(base, 1.0);
+        RateTable table = new RateTable(base, rates, clock.getAsLong(), null);
+        tables.put(base, table);
+        logger.info("Taux de change {} rechargés ({} devises)", base, rates.size());
+        return table;
+    }
+
+    /** Table de {@code base} recalculée à partir d'une table fraîche chargée qui la contient. */
+    private RateTable deriveFrom(String base, long now) {
+        for (Iterator<RateTable> it = tables.values().iterator(); it.hasNext(); ) {
+            RateTable source = it.next();
+            if (source.derivedFrom != null || now - source.fetchedAt > ttlMs) continue;
+            Double pivot = source.rates.get(base);
+            if (pivot == null) continue;
+            Map<String, Double> rates = new HashMap<>(source.rates.size() * 2);
+            source.rates.forEach((currency, rate) -> rates.put(currency, rate / pivot));
+            rates.put(base, 1.0);
+            return new RateTable(base, rates, source.fetchedAt, source.base);
+        }
+        return null;
+    }
+
+    private static String normalize(String currency) {
+        return currency == null || currency.isBlank() ? "EUR" : currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** Source par défaut : ExchangeRate-API v6 si une clé est configurée, sinon v4 (publique). */
+    private static Map<String, Double> fetchFromApi(String base) throws Exception {
+        String apiKey = AppConfig.get("EXCHANGERATE_API_KEY", "");
+        String url = apiKey.isEmpty() ? API_BASE_V4 + base : API_BASE_V6 + apiKey + "/latest/" + base;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(TIMEOUT)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        HttpResponse<String> response = OutboundHttpClient.getInstance().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("API ExchangeRate : HTTP " + response.statusCode());
+        }
+        JsonNode root = MAPPER.readTree(response.body());
+        JsonNode rates = root.has("conversion_rates") ? root.get("conversion_rates") : root.get("rates");
+        if (rates == null || !rates.isObject()) {
+            throw new IllegalStateException("Champ 'rates' absent de la réponse");
+        }
+        Map<String, Double> result = new HashMap<>();
+        rates.fields().forEachRemaining(e -> {
+            if (e.getValue().isNumber()) {
+                result.put(e.getKey(), e.getValue().asDouble());
+            }
+        });
+        return result;
+    }
+
+    private static ExecutorService newRefreshExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fx-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Taux d'une devise de base vers toutes les devises connues. */
+    public static final class RateTable {
+        private final String base;
+        private final Map<String, Double> rates;
+        private final long fetchedAt;
+        private final String derivedFrom;
+
+        RateTable(String base, Map<String, Double> rates, long fetchedAt, String derivedFrom) {
+            this.base = base;
+            this.rates = Collections.unmodifiableMap(rates);
+            this.fetchedAt = fetchedAt;
+            this.derivedFrom = derivedFrom;
+        }
+
+        public String getBase() { return base; }
+
+        /** Taux par devise (1 unité de base = taux unités de la devise). */
+        public Map<String, Double> getRates() { return rates; }
+
+        /** Taux vers {@code currency}, ou {@code null} si inconnu. */
+        public Double rate(String currency) {
+            return currency == null ? null : rates.get(currency.trim().toUpperCase(Locale.ROOT));
+        }
+
+        /** Horodatage (ms) du chargement de la table source. */
+        public long getFetchedAt() { return fetchedAt; }
+
+        /** Base de la table dont celle-ci est dérivée, ou {@code null} si chargée directement. */
+        public String getDerivedFrom() { return derivedFrom; }
+    }
+}
@@ -0,0 +1,243 @@
+package com.projet.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reconnaissance des marchands dans les libellés bancaires.
+ *
+ * <p>Les motifs (en minuscules) sont compilés en un automate d'Aho-Corasick
+ * déterministe : un libellé est parcouru une seule fois, caractère par caractère,
+ * quel que soit le nombre de marchands connus. Quand plusieurs motifs apparaissent
+ * dans le libellé, le plus long l'emporte (« google one » avant « google »), puis le
+ * premier rencontré.</p>
+ *
+ * <p>Les derniers libellés résolus sont conservés dans un cache LRU : un relevé
+ * répète le plus souvent les mêmes libellés d'un mois sur l'autre.</p>
+ *
+ * <p>Les motifs peuvent être complétés par un fichier marchands, une entrée par ligne
+ * au format {@code motif;Service[;Catégorie]} ({@code #} pour les commentaires).</p>
+ */
+public final class MerchantMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MerchantMatcher.class);
+
+    /** Valeur mise en cache pour un libellé sans marchand reconnu. */
+    private static final String NO_MATCH = "";
+
+    /** Indice de classe des caractères absents de tous les motifs. */
+    private static final int OTHER = 0;
+
+    private final char[] alphabet;
+    private final int[] asciiClass = new int[128];
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final String[] outputService;
+    private final int[] outputLength;
+    private final Map<String, String> categories;
+    private final Map<String, String> cache;
+
+    private MerchantMatcher(Map<String, String> patterns, Map<String, String> categories, int cacheSize) {
+        // Alphabet des motifs : une classe par caractère distinct, 0 pour les autres
+        StringBuilder chars = new StringBuilder();
+        for (String pattern : patterns.keySet()) {
+            for (char c : pattern.toCharArray()) {
+                if (chars.indexOf(String.valueOf(c)) < 0) chars.append(c);
+            }
+        }
+        this.alphabet = chars.toString().toCharArray();
+        Arrays.sort(alphabet);
+        this.alphabetSize = alphabet.length + 1;
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] < 128) asciiClass[alphabet[i]] = i + 1;
+        }
+
+        // Trie des motifs
+        List<int[]> gotoTable = new ArrayList<>();
+        List<String> services = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        gotoTable.add(newRow());
+        services.add(null);
+        lengths.add(0);
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            int node = 0;
+            for (char c : entry.getKey().toCharArray()) {
+                int cls = classOf(c);
+                if (gotoTable.get(node)[cls] < 0) {
+                    gotoTable.get(node)[cls] = gotoTable.size();
+                    gotoTable.add(newRow());
+                    services.add(null);
+                    lengths.add(0);
+                }
+                node = gotoTable.get(node)[cls];
+            }
+            services.set(node, entry.getValue());
+            lengths.set(node, entry.getKey().length());
+        }
+
+        // Liens d'échec en largeur ; chaque nœud hérite du plus long motif de son suffixe
+        int nodes = gotoTable.size();
+        this.transitions = new int[nodes * alphabetSize];
+        this.outputService = services.toArray(new String[0]);
+        this.outputLength = new int[nodes];
+        int[] fail = new int[nodes];
+        int[] queue = new int[nodes];
+        int head = 0;
+        int tail = 0;
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            int child = gotoTable.get(0)[cls];
+            transitions[cls] = Math.max(child, 0);
+            if (child > 0) queue[tail++] = child;
+        }
+        for (int i = 0; i < nodes; i++) {
+            outputLength[i] = lengths.get(i);
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            if (outputLength[node] == 0 && outputLength[fail[node]] > 0) {
+                outputLength[node] = outputLength[fail[node]];
+                outputService[node] = outputService[fail[node]];
+            }
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                int child = gotoTable.get(node)[cls];
+                if (child > 0) {
+                    fail[child] = transitions[fail[node] * alphabetSize + cls];
+                    transitions[node * alphabetSize + cls] = child;
+                    queue[tail++] = child;
+                } else {
+                    transitions[node * alphabetSize + cls] = transitions[fail[node] * alphabetSize + cls];
+                }
+            }
+        }
+
+        this.categories = Collections.unmodifiableMap(new HashMap<>(categories));
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Automate des motifs donnés ({@code motif → service}).
+     *
+     * @param cacheSize nombre de libellés résolus conservés (0 pour aucun cache)
+     */
+    public static MerchantMatcher of(Map<String, String> patterns, int cacheSize) {
+        return new MerchantMatcher(lowerCaseKeys(patterns), Map.of(), cacheSize);
+    }
+
+    /**
+     * Automate des motifs donnés complétés par un fichier marchands. Un fichier absent
+     * ou illisible est ignoré (avec un avertissement) ; ses entrées priment sur les
+     * motifs de même nom.
+     */
+    public static MerchantMatcher withMerchantFile(Map<String, String> patterns, String merchantFile, int cacheSize) {
+        Map<String, String> merged = lowerCaseKeys(patterns);
+        Map<String, String> categories = new HashMap<>();
+        if (merchantFile != null && !merchantFile.isBlank()) {
+            Path path = Path.of(merchantFile.trim());
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                int added = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    String[] parts = line.split(";");
+                    if (parts.length < 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                        logger.warn("Ligne marchand ignorée dans {} : {}", path, line);
+                        continue;
+                    }
+                    merged.put(parts[0].trim().toLowerCase(Locale.ROOT), parts[1].trim());
+                    if (parts.length > 2 && !parts[2].isBlank()) {
+                        categories.put(parts[1].trim(), parts[2].trim());
+                    }
+                    added++;
+                }
+                logger.info("{} marchands chargés depuis {}", added, path);
+            } catch (IOException e) {
+                logger.warn("Fichier marchands {} illisible : {}", path, e.getMessage());
+            }
+        }
+        return new MerchantMatcher(merged, categories, cacheSize);
+    }
+
+    /**
+     * Service correspondant au plus long motif présent dans le libellé, ou
+     * {@code null} si aucun marchand n'est reconnu.
+     */
+    public String match(String rawLabel) {
+        if (rawLabel == null || rawLabel.isBlank()) {
+            return null;
+        }
+        synchronized (cache) {
+            String cached = cache.get(rawLabel);
+            if (cached != null) {
+                return cached.isEmpty() ? null : cached;
+            }
+        }
+        String service = scan(rawLabel.toLowerCase(Locale.ROOT));
+        synchronized (cache) {
+            cache.put(rawLabel, service == null ? NO_MATCH : service);
+        }
+        return service;
+    }
+
+    /** Catégorie fournie par le fichier marchands pour ce service, ou {@code null}. */
+    public String category(String service) {
+        return categories.get(service);
+    }
+
+    private String scan(String label) {
+        int node = 0;
+        int bestLength = 0;
+        String best = null;
+        for (int i = 0; i < label.length(); i++) {
+            node = transitions[node * alphabetSize + classOf(label.charAt(i))];
+            if (outputLength[node] > bestLength) {
+                bestLength = outputLength[node];
+                best = outputService[node];
+            }
+        }
+        return best;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClass[c];
+        }
+        int index = Arrays.binarySearch(alphabet, c);
+        return index < 0 ? OTHER : index + 1;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static Map<String, String> lowerCaseKeys(Map<String, String> patterns) {
+        Map<String, String> lower = new LinkedHashMap<>();
+        patterns.forEach((pattern, service) -> {
+            if (pattern != null && !pattern.isEmpty()) {
+                lower.put(pattern.toLowerCase(Locale.ROOT), service);
+            }
+        });
+        return lower;
+    }
+}
@@ -1,5 +1,10 @@
 package com.projet.service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -8,13 +13,35 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.projet.backend.domain.BenchmarkResult;
 import com.projet.backend.domain.DetectedSubscription;
 import com.projet.backend.domain.Transaction;
+import com.projet.config.AppConfig;
 
 /**
  * Service de détection d'abonnements récurrents via Open Banking.
@@ -24,14 +51,30 @@ public class OpenBankingSubscriptionDetectionService {
 
     private final ExchangeRateService exchangeRateService;
     private final BenchmarkService benchmarkService;
+    /** Appels d'enrichissement en attente au plus ; au-delà, l'appel est compté en échec. */
+    private static final int ENRICHMENT_QUEUE_CAPACITY = 1024;
+    /**
+     * Pool des appels d'enrichissement (taux de change, benchmark), partagé par toutes les
+     * requêtes et borné à {@code DETECTION_ENRICH_PARALLELISM} threads.
+     */
+    private static final ExecutorService ENRICHMENT_POOL =
+        newEnrichmentPool(Math.max(1, AppConfig.getInt("DETECTION_ENRICH_PARALLELISM", 8)));
+
+    private final long enrichmentTimeoutMs;
 
     public OpenBankingSubscriptionDetectionService() {
         this(new ExchangeRateServiceImpl(), new BenchmarkServiceImpl());
     }
 
     public OpenBankingSubscriptionDetectionService(ExchangeRateService exchangeRateService, BenchmarkService benchmarkService) {
+        this(exchangeRateService, benchmarkService, AppConfig.getInt("DETECTION_ENRICH_TIMEOUT_MS", 3000));
+    }
+
+    OpenBankingSubscriptionDetectionService(ExchangeRateService exchangeRateService, BenchmarkService benchmarkService,
+                                            long enrichmentTimeoutMs) {
         this.exchangeRateService = exchangeRateService;
         this.benchmarkService = benchmarkService;
+        this.enrichmentTimeoutMs = enrichmentTimeoutMs;
     }
 
     // ===== DICTIONNAIRES DE RECONNAISSANCE =====
@@ -129,55 +172,98 @@ public class OpenBankingSubscriptionDetectionService {
         Map.entry("KeepCool Fitness", "Fitness")
     );
 
+    /**
+     * Automate compilé à partir de {@link #SERVICE_MAPPING}, complété par le fichier
+     * {@code MERCHANT_MAPPING_FILE} ; {@code MERCHANT_CACHE_SIZE} libellés récents
+     * (4096 par défaut) sont gardés en cache. Partagé par toutes les instances.
+     */
+    private static final MerchantMatcher MERCHANTS = MerchantMatcher.withMerchantFile(
+        SERVICE_MAPPING, AppConfig.get("MERCHANT_MAPPING_FILE"), AppConfig.getInt("MERCHANT_CACHE_SIZE", 4096));
+
     // ===== PARSING =====
 
     /**
      * Parse un CSV simple (Date;Label;Amount).
      */
     public List<Transaction> parseCSV(String csvContent) {
-        List<Transaction> transactions = new ArrayList<>();
-        
         if (csvContent == null || csvContent.trim().isEmpty()) {
-            return transactions;
+            return new ArrayList<>();
         }
-
-        String normalizedContent = csvContent.replace("\uFEFF", "").trim();
-        String[] lines = normalizedContent.split("\\r?\\n");
-        if (lines.length == 0) {
-            return transactions;
+        try (Stream<Transaction> transactions = streamTransactions(new StringReader(csvContent))) {
+            return transactions.collect(Collectors.toCollection(ArrayList::new));
         }
+    }
+
+    /**
+     * Parse un CSV ligne par ligne depuis un flux, sans charger le fichier en mémoire.
+     * Le flux renvoyé doit être fermé (il ferme le {@code Reader}).
+     */
+    public Stream<Transaction> streamTransactions(Reader csv) {
+        BufferedReader reader = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+        return streamTransactions(reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
 
-        char delimiter = detectDelimiter(lines[0]);
-        Map<String, Integer> headerIndexes = extractHeaderIndexes(lines[0], delimiter);
-        int startLine = headerIndexes.isEmpty() ? 0 : 1;
+    /**
+     * Parse des lignes CSV au fil de l'eau : la première ligne non vide sert à
+     * détecter le séparateur et l'en-tête, les suivantes sont converties une à une.
+     * Les lignes invalides sont ignorées.
+     */
+    public Stream<Transaction> streamTransactions(Stream<String> lines) {
+        Iterator<String> iterator = lines.iterator();
+        String first = null;
+        while (iterator.hasNext() && first == null) {
+            String line = iterator.next().replace("\uFEFF", "").trim();
+            if (!line.isEmpty()) {
+                first = line;
+            }
+        }
+        if (first == null) {
+            return Stream.<Transaction>empty().onClose(lines::close);
+        }
 
-        for (int i = startLine; i < lines.length; i++) {
-            String line = lines[i].trim();
-            if (line.isEmpty()) continue;
+        char delimiter = detectDelimiter(first);
+        Map<String, Integer> headerIndexes = extractHeaderIndexes(first, delimiter);
+        Stream<String> body = StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        if (headerIndexes.isEmpty()) {
+            body = Stream.concat(Stream.of(first), body);
+        }
+        return body
+            .map(line -> parseTransactionLine(line, delimiter, headerIndexes))
+            .filter(Objects::nonNull)
+            .onClose(lines::close);
+    }
 
-            List<String> parts = splitCsvLine(line, delimiter);
-            if (parts.size() < 3) continue;
+    private Transaction parseTransactionLine(String rawLine, char delimiter, Map<String, Integer> headerIndexes) {
+        String line = rawLine.replace("\uFEFF", "").trim();
+        if (line.isEmpty()) return null;
 
-            try {
-                String rawDate = getColumn(parts, headerIndexes, List.of("date"), 0);
-                String label = getColumn(parts, headerIndexes, List.of("label", "description", "libelle", "libellé", "service"), 1);
-                String rawAmount = getColumn(parts, headerIndexes, List.of("amount", "montant", "prix", "debit", "débit"), 2);
+        List<String> parts = splitCsvLine(line, delimiter);
+        if (parts.size() < 3) return null;
 
-                LocalDate date = parseDate(rawDate);
-                double amount = parseAmount(rawAmount);
+        try {
+            String rawDate = getColumn(parts, headerIndexes, List.of("date"), 0);
+            String label = getColumn(parts, headerIndexes, List.of("label", "description", "libelle", "libellé", "service"), 1);
+            String rawAmount = getColumn(parts, headerIndexes, List.of("amount", "montant", "prix", "debit", "débit"), 2);
 
-                if (date == null || label == null || label.isBlank()) {
-                    continue;
-                }
+            LocalDate date = parseDate(rawDate);
+            double amount = parseAmount(rawAmount);
 
-                Transaction tx = new Transaction(label, amount, date);
-                transactions.add(tx);
-            } catch (Exception e) {
-                // Ignorer les lignes invalides
+            if (date == null || label == null || label.isBlank()) {
+                return null;
             }
-        }
 
-        return transactions;
+            return new Transaction(label, amount, date);
+        } catch (Exception e) {
+            // Ignorer les lignes invalides
+            return null;
+        }
     }
 
     // ===== NORMALISATION =====
@@ -194,7 +280,11 @@ public class OpenBankingSubscriptionDetectionService {
      * Catégorise un service détecté.
      */
     public String categorizeService(String serviceName) {
-        return CATEGORY_MAPPING.getOrDefault(serviceName, "Autre");
+        String category = CATEGORY_MAPPING.get(serviceName);
+        if (category == null) {
+            category = MERCHANTS.category(serviceName);
+        }
+        return category != null ? category : "Autre";
     }
 
     // ===== DÉTECTION DE RÉCURRENCE =====
@@ -203,6 +293,14 @@ public class OpenBankingSubscriptionDetectionService {
      * Détecte les abonnements récurrents dans une liste de transactions.
      */
     public List<DetectedSubscription> detectRecurringSubscriptions(List<Transaction> transactions) {
+        return detectRecurringSubscriptions(transactions.stream());
+    }
+
+    /**
+     * Détecte les abonnements récurrents en consommant les transactions au fil de
+     * l'eau : seules les transactions regroupées par service sont conservées.
+     */
+    public List<DetectedSubscription> detectRecurringSubscriptions(Stream<Transaction> transactions) {
         Map<String, List<Transaction>> grouped = groupByService(transactions);
         List<DetectedSubscription> detected = new ArrayList<>();
 
@@ -257,13 +355,13 @@ public class OpenBankingSubscriptionDetectionService {
     /**
      * Groupe les transactions par service normalisé.
      */
-    private Map<String, List<Transaction>> groupByService(List<Transaction> transactions) {
+    private Map<String, List<Transaction>> groupByService(Stream<Transaction> transactions) {
         Map<String, List<Transaction>> grouped = new HashMap<>();
 
-        for (Transaction tx : transactions) {
+        transactions.forEach(tx -> {
             String normalized = normalizeServiceName(tx.getRawLabel());
             grouped.computeIfAbsent(normalized, k -> new ArrayList<>()).add(tx);
-        }
+        });
 
         // Trier les transactions de chaque groupe par date (plus récente d'abord)
         grouped.values().forEach(list -> list.sort((a, b) -> b.getDate().compareTo(a.getDate())));
@@ -280,18 +378,7 @@ public class OpenBankingSubscriptionDetectionService {
     }
 
     private String findMappedService(String rawLabel) {
-        if (rawLabel == null || rawLabel.isBlank()) {
-            return null;
-        }
-
-        String lower = rawLabel.toLowerCase(Locale.ROOT);
-        for (Map.Entry<String, String> entry : SERVICE_MAPPING.entrySet()) {
-            if (lower.contains(entry.getKey())) {
-                return entry.getValue();
-            }
-        }
-
-        return null;
+        return MERCHANTS.match(rawLabel);
     }
 
     /**
@@ -576,35 +663,104 @@ public class OpenBankingSubscriptionDetectionService {
         String sourceCurrency,
         String targetCurrency
     ) {
-        List<Map<String, Object>> payload = new ArrayList<>();
+        return buildDetectionApiPayload(detected, sourceCurrency, targetCurrency, new HashMap<>());
+    }
+
+    /**
+     * Enrichit les détections avec des appels API externes, en parallèle :
+     * - taux de change : un appel par paire de devises (la conversion est linéaire) ;
+     * - benchmark : un appel par service distinct, tous lancés ensemble.
+     *
+     * <p>Chaque étape dispose de {@code DETECTION_ENRICH_TIMEOUT_MS} ; un appel en
+     * retard ou en erreur laisse les détections concernées sans enrichissement,
+     * sans bloquer les autres. Les appels tournent sur le pool borné partagé ; un appel
+     * hors délai est annulé avec interruption, et ceux de la requête encore en cours ou
+     * en attente le sont en fin de requête : un service lent ne garde pas les threads
+     * dont les requêtes suivantes ont besoin.</p>
+     *
+     * @param timings rempli avec la durée totale et la latence de chaque dépendance
+     */
+    public List<Map<String, Object>> buildDetectionApiPayload(
+        List<DetectedSubscription> detected,
+        String sourceCurrency,
+        String targetCurrency,
+        Map<String, Object> timings
+    ) {
+        long start = System.nanoTime();
         if (detected == null || detected.isEmpty()) {
-            return payload;
+            reportTimings(timings, start, new DependencyTimer(), new DependencyTimer());
+            return new ArrayList<>();
+        }
+        DependencyTimer fxTimer = new DependencyTimer();
+        DependencyTimer benchmarkTimer = new DependencyTimer();
+        try {
+            return enrich(detected, sourceCurrency, targetCurrency, timings, start, fxTimer, benchmarkTimer);
+        } finally {
+            fxTimer.cancelAll();
+            benchmarkTimer.cancelAll();
         }
+    }
+
+    private List<Map<String, Object>> enrich(List<DetectedSubscription> detected, String sourceCurrency,
+                                             String targetCurrency, Map<String, Object> timings, long start,
+                                             DependencyTimer fxTimer, DependencyTimer benchmarkTimer) {
+        List<Map<String, Object>> payload = new ArrayList<>();
 
         String source = normalizeCurrency(sourceCurrency);
         String target = normalizeCurrency(targetCurrency);
 
+        // Taux de change : les deux paires en parallèle
+        Future<Double> toEurFuture = "EUR".equals(source) ? null
+            : fxTimer.submit(() -> exchangeRateService.convertAmount(1.0, source, "EUR"));
+        Future<Double> toTargetFuture = source.equals(target) ? null
+            : fxTimer.submit(() -> exchangeRateService.convertAmount(1.0, source, target));
+        long fxDeadline = System.nanoTime() + enrichmentTimeoutMs * 1_000_000L;
+        Double toEur = toEurFuture == null ? Double.valueOf(1.0) : fxTimer.await(toEurFuture, fxDeadline);
+        Double toTarget = toTargetFuture == null ? Double.valueOf(1.0) : fxTimer.await(toTargetFuture, fxDeadline);
+        boolean exchangeApiUsed = (toEurFuture != null || toTargetFuture != null) && toEur != null && toTarget != null;
+        if (toEur == null || toTarget == null) {
+            toEur = 1.0;
+            toTarget = 1.0;
+        }
+
+        double[] amountsEur = new double[detected.size()];
         for (int i = 0; i < detected.size(); i++) {
-            DetectedSubscription sub = detected.get(i);
-            double amountSource = sub.getAmount();
-            double amountEur = amountSource;
-            double amountTarget = amountSource;
-            boolean exchangeApiUsed = false;
+            amountsEur[i] = detected.get(i).getAmount() * toEur;
+        }
 
-            try {
-                if (!"EUR".equals(source)) {
-                    amountEur = exchangeRateService.convertAmount(amountSource, source, "EUR");
-                    exchangeApiUsed = true;
+        // Benchmark : une tâche par service distinct, qui traite toutes ses détections
+        Map<String, List<Integer>> indicesByService = new LinkedHashMap<>();
+        for (int i = 0; i < detected.size(); i++) {
+            indicesByService.computeIfAbsent(Objects.toString(detected.get(i).getService(), ""), k -> new ArrayList<>()).add(i);
+        }
+        Map<String, Future<BenchmarkResult[]>> benchmarkFutures = new LinkedHashMap<>();
+        indicesByService.forEach((service, indices) -> benchmarkFutures.put(service, benchmarkTimer.submit(() -> {
+            BenchmarkResult[] results = new BenchmarkResult[indices.size()];
+            for (int k = 0; k < indices.size(); k++) {
+                int i = indices.get(k);
+                try {
+                    results[k] = benchmarkService.benchmark("detected-" + i, detected.get(i).getService(), amountsEur[i]);
+                } catch (RuntimeException ignored) {
                 }
-
-                if (!source.equals(target)) {
-                    amountTarget = exchangeRateService.convertAmount(amountSource, source, target);
-                    exchangeApiUsed = true;
+            }
+            return results;
+        })));
+        long benchmarkDeadline = System.nanoTime() + enrichmentTimeoutMs * 1_000_000L;
+        BenchmarkResult[] benchmarks = new BenchmarkResult[detected.size()];
+        benchmarkFutures.forEach((service, future) -> {
+            BenchmarkResult[] results = benchmarkTimer.await(future, benchmarkDeadline);
+            if (results != null) {
+                List<Integer> indices = indicesByService.get(service);
+                for (int k = 0; k < indices.size(); k++) {
+                    benchmarks[indices.get(k)] = results[k];
                 }
-            } catch (Exception ignored) {
-                amountEur = amountSource;
-                amountTarget = amountSource;
             }
+        });
+
+        for (int i = 0; i < detected.size(); i++) {
+            DetectedSubscription sub = detected.get(i);
+            double amountEur = amountsEur[i];
+            double amountTarget = sub.getAmount() * toTarget;
 
             boolean benchmarkApiUsed = false;
             double marketAvg = 0.0;
@@ -614,8 +770,8 @@ public class OpenBankingSubscriptionDetectionService {
             String marketStatus = "UNKNOWN";
             String benchmarkRecommendation = "";
 
-            try {
-                BenchmarkResult benchmark = benchmarkService.benchmark("detected-" + i, sub.getService(), amountEur);
+            BenchmarkResult benchmark = benchmarks[i];
+            if (benchmark != null) {
                 benchmarkApiUsed = true;
                 marketAvg = benchmark.getMarketAveragePrice();
                 marketMin = benchmark.getMarketMinPrice();
@@ -623,7 +779,6 @@ public class OpenBankingSubscriptionDetectionService {
                 marketDeviation = benchmark.getPriceDeviation();
                 marketStatus = benchmark.getStatus();
                 benchmarkRecommendation = benchmark.getRecommendation();
-            } catch (Exception ignored) {
             }
 
             double score = calculateOptimizationScore(
@@ -684,9 +839,101 @@ public class OpenBankingSubscriptionDetectionService {
             payload.add(item);
         }
 
+        reportTimings(timings, start, fxTimer, benchmarkTimer);
         return payload;
     }
 
+    private void reportTimings(Map<String, Object> timings, long start,
+                               DependencyTimer fxTimer, DependencyTimer benchmarkTimer) {
+        timings.put("totalMs", round2((System.nanoTime() - start) / 1e6));
+        timings.put("exchangeRate", fxTimer.toMap());
+        timings.put("benchmark", benchmarkTimer.toMap());
+        timings.put("timeoutMs", enrichmentTimeoutMs);
+    }
+
+    /**
+     * Appels d'une dépendance externe lancés sur le pool d'enrichissement pour une requête :
+     * nombre, latence cumulée et maximale, appels hors délai ou en erreur.
+     */
+    private static final class DependencyTimer {
+        private final List<Future<?>> submitted = new ArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicInteger timeouts = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        /**
+         * Lance l'appel ; {@code cancel(true)} sur le futur interrompt le thread qui l'exécute.
+         * Si le pool est saturé, le futur retourné est déjà en échec.
+         */
+        <T> Future<T> submit(Callable<T> call) {
+            calls.incrementAndGet();
+            Future<T> future;
+            try {
+                future = ENRICHMENT_POOL.submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        return call.call();
+                    } finally {
+                        long elapsed = System.nanoTime() - start;
+                        totalNanos.add(elapsed);
+                        maxNanos.accumulate(elapsed);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            submitted.add(future);
+            return future;
+        }
+
+        /** Annule (avec interruption) les appels de la requête encore en cours ou en attente. */
+        void cancelAll() {
+            for (Future<?> future : submitted) {
+                future.cancel(true);
+            }
+        }
+
+        /** Résultat de l'appel, ou {@code null} s'il échoue ou dépasse l'échéance. */
+        <T> T await(Future<T> future, long deadlineNanos) {
+            try {
+                return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                timeouts.incrementAndGet();
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                failures.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.incrementAndGet();
+            }
+            return null;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls.get());
+            map.put("totalMs", Math.round(totalNanos.sum() / 1e4) / 100.0);
+            map.put("maxMs", Math.round(maxNanos.get() / 1e4) / 100.0);
+            map.put("timeouts", timeouts.get());
+            map.put("failures", failures.get());
+            return map;
+        }
+    }
+
+    private static ExecutorService newEnrichmentPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(ENRICHMENT_QUEUE_CAPACITY), r -> {
+                Thread thread = new Thread(r, "detection-enrich-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
     private String normalizeCurrency(String currency) {
         if (currency == null || currency.isBlank()) {
             return "EUR";
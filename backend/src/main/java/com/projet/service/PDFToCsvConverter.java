@@ -2,15 +2,23 @@ package com.projet.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 
@@ -34,64 +42,142 @@ public class PDFToCsvConverter {
         "([-+]?\\d{1,3}(?:[\\s.]\\d{3})*(?:[.,]\\d{2})|[-+]?\\d+(?:[.,]\\d{2}))\\s*(€|EUR|DEBIT|CREDIT|CR|DR)?"
     );
 
+    private static final String CSV_HEADER = "Date;Label;Amount";
+
     /**
      * Convertir un PDF en CSV au format: Date;Label;Amount
      */
     public static String convertPdfToCsv(InputStream pdfInputStream) throws IOException {
-        StringBuilder csvContent = new StringBuilder();
-        csvContent.append("Date;Label;Amount\n");
-        
-        // Convertir InputStream en byte array
-        byte[] pdfBytes = pdfInputStream.readAllBytes();
-        
-        try (PDDocument document = Loader.loadPDF(pdfBytes)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            
-            List<BankTransaction> transactions = parseBankTransactions(text);
-            
-            for (BankTransaction transaction : transactions) {
-                csvContent.append(String.format("%s;%s;%.2f\n",
-                    transaction.date,
-                    sanitizeCsvField(transaction.label),
-                    transaction.amount
-                ));
-            }
+        try (Stream<String> lines = streamCsvLines(pdfInputStream)) {
+            StringBuilder csvContent = new StringBuilder();
+            lines.forEach(line -> csvContent.append(line).append('\n'));
+            return csvContent.toString();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        
-        return csvContent.toString();
     }
 
     /**
-     * Parser le texte PDF et extraire les transactions bancaires
+     * Lignes CSV (en-tête compris) du relevé, produites page par page à la demande :
+     * le texte du document n'est jamais extrait en une seule fois. Le flux renvoyé
+     * doit être fermé (il ferme le document PDF).
      */
-    private static List<BankTransaction> parseBankTransactions(String text) {
-        List<BankTransaction> transactions = new ArrayList<>();
+    public static Stream<String> streamCsvLines(InputStream pdfInputStream) throws IOException {
+        PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(pdfInputStream));
+        Iterator<BankTransaction> transactions;
+        try {
+            transactions = new TransactionIterator(new PageLineIterator(document));
+        } catch (IOException e) {
+            document.close();
+            throw e;
+        }
+        // Déduplication (plusieurs transactions identiques)
+        Set<String> seen = new HashSet<>();
+        Stream<String> rows = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(transactions, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .filter(t -> seen.add(String.format("%s_%s_%.2f", t.date, t.label, t.amount)))
+            .map(t -> String.format("%s;%s;%.2f", t.date, sanitizeCsvField(t.label), t.amount));
+        return Stream.concat(Stream.of(CSV_HEADER), rows).onClose(() -> {
+            try {
+                document.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Lignes de texte du document, extraites une page à la fois.
+     */
+    private static final class PageLineIterator implements Iterator<String> {
+        private final PDDocument document;
+        private final PDFTextStripper stripper;
+        private int nextPage = 1;
+        private String[] lines = new String[0];
+        private int index;
+
+        PageLineIterator(PDDocument document) throws IOException {
+            this.document = document;
+            this.stripper = new PDFTextStripper();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index >= lines.length && nextPage <= document.getNumberOfPages()) {
+                stripper.setStartPage(nextPage);
+                stripper.setEndPage(nextPage);
+                nextPage++;
+                try {
+                    lines = stripper.getText(document).split("\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                index = 0;
+            }
+            return index < lines.length;
+        }
 
-        String[] lines = text.split("\n");
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return lines[index++];
+        }
+    }
 
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i].trim();
-            if (line.isEmpty()) continue;
+    /**
+     * Transactions reconnues dans une suite de lignes de texte.
+     */
+    private static final class TransactionIterator implements Iterator<BankTransaction> {
+        private final Iterator<String> lines;
+        private String lookahead;
+        private BankTransaction next;
 
-            BankTransaction transaction = parseTransactionLine(line);
+        TransactionIterator(Iterator<String> lines) {
+            this.lines = lines;
+        }
 
-            // Certains relevés coupent une transaction sur 2 lignes
-            if (transaction == null && i + 1 < lines.length) {
-                String merged = (line + " " + lines[i + 1].trim()).trim();
-                transaction = parseTransactionLine(merged);
-                if (transaction != null) {
-                    i++; // La ligne suivante est déjà consommée
+        @Override
+        public boolean hasNext() {
+            while (next == null && (lookahead != null || lines.hasNext())) {
+                String line = pull().trim();
+                if (line.isEmpty()) continue;
+
+                BankTransaction transaction = parseTransactionLine(line);
+
+                // Certains relevés coupent une transaction sur 2 lignes
+                if (transaction == null && (lookahead != null || lines.hasNext())) {
+                    String following = pull();
+                    String merged = (line + " " + following.trim()).trim();
+                    transaction = parseTransactionLine(merged);
+                    if (transaction == null) {
+                        lookahead = following; // La ligne suivante n'est pas consommée
+                    }
                 }
+                next = transaction;
             }
+            return next != null;
+        }
 
-            if (transaction != null) {
-                transactions.add(transaction);
+        @Override
+        public BankTransaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
+            BankTransaction transaction = next;
+            next = null;
+            return transaction;
         }
 
-        // Déduplication (plusieurs transactions identiques)
-        return deduplicateTransactions(transactions);
+        private String pull() {
+            if (lookahead != null) {
+                String line = lookahead;
+                lookahead = null;
+                return line;
+            }
+            return lines.next();
+        }
     }
 
     /**
@@ -314,20 +400,6 @@ public class PDFToCsvConverter {
         return candidates.get(candidates.size() - 2);
     }
 
-    /**
-     * Dédupliquer les transactions identiques
-     */
-    private static List<BankTransaction> deduplicateTransactions(List<BankTransaction> transactions) {
-        Map<String, BankTransaction> map = new LinkedHashMap<>();
-        
-        for (BankTransaction t : transactions) {
-            String key = String.format("%s_%s_%.2f", t.date, t.label, t.amount);
-            map.putIfAbsent(key, t);
-        }
-        
-        return new ArrayList<>(map.values());
-    }
-
     /**
      * Nettoyer un champ pour le CSV
      */
@@ -1,6 +1,7 @@
 package com.projet.service;
 
 import com.projet.config.AppConfig;
+import com.projet.http.OutboundHttpClient;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -24,7 +25,7 @@ public class ServiceMailgun {
     private static String mailgunApiKey()  { return AppConfig.get("MAILGUN_API_KEY",  "key-demo-123456789"); }
     private static String mailgunApiUrl()  { return "https://api.mailgun.net/v3/" + mailgunDomain(); }
 
-    private static final HttpClient httpClient = HttpClient.newHttpClient();
+    private static final HttpClient httpClient = OutboundHttpClient.getInstance();
 
     public static class ResultatEnvoiEmail {
         public boolean success;
@@ -1,6 +1,5 @@
 package com.projet.service;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -8,20 +7,20 @@ import java.net.http.HttpResponse;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.projet.http.OutboundHttpClient;
+
 /**
  * ServiceTauxChange - Intégration avec l'API ExchangeRate pour conversion devises
  * 
  * API distante : https://api.exchangerate-api.com/v4
  * Service gratuit pour conversion entre devises en temps réel
+ * 
+ * Les taux sont lus dans le cache partagé {@link FxRateCache}.
  */
 public class ServiceTauxChange {
 
     private static final String API_URL = "https://api.exchangerate-api.com/v4/latest";
-    private static final HttpClient httpClient = HttpClient.newHttpClient();
-    
-    // Cache simple avec TTL (5 minutes)
-    private static final Map<String, CacheTaux> cacheTaux = new HashMap<>();
-    private static final long TTL_MS = 5 * 60 * 1000; // 5 minutes
+    private static final HttpClient httpClient = OutboundHttpClient.getInstance();
 
     public static class ResultatConversion {
         public boolean success;
@@ -47,20 +46,6 @@ public class ServiceTauxChange {
         }
     }
 
-    private static class CacheTaux {
-        long timestamp;
-        Map<String, Double> taux;
-
-        CacheTaux(Map<String, Double> taux) {
-            this.timestamp = System.currentTimeMillis();
-            this.taux = taux;
-        }
-
-        boolean estExpire() {
-            return System.currentTimeMillis() - timestamp > TTL_MS;
-        }
-    }
-
     /**
      * Convertir un montant d'une devise à une autre
      */
@@ -99,81 +84,8 @@ public class ServiceTauxChange {
      * Obtenir les taux de change pour une devise source
      */
     private static Map<String, Double> obtenirTaux(String deviseSource) {
-        // Vérifier le cache
-        if (cacheTaux.containsKey(deviseSource)) {
-            CacheTaux cache = cacheTaux.get(deviseSource);
-            if (!cache.estExpire()) {
-                return cache.taux;
-            } else {
-                cacheTaux.remove(deviseSource);
-            }
-        }
-
-        // Appel à l'API
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(API_URL + "/" + deviseSource))
-                    .header("Accept", "application/json")
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                Map<String, Double> taux = extraireTaux(response.body());
-                if (taux != null && !taux.isEmpty()) {
-                    // Mettre en cache
-                    cacheTaux.put(deviseSource, new CacheTaux(taux));
-                    return taux;
-                }
-            }
-
-        } catch (IOException | InterruptedException e) {
-            // Ignorer et retourner null
-        }
-
-        return null;
-    }
-
-    /**
-     * Extraire les taux de change de la réponse JSON
-     */
-    private static Map<String, Double> extraireTaux(String jsonResponse) {
-        Map<String, Double> taux = new HashMap<>();
-
-        try {
-            // Chercher la section "rates"
-            int debut = jsonResponse.indexOf("\"rates\":{");
-            if (debut == -1) {
-                return null;
-            }
-
-            debut += 9; // Longueur de "\"rates\":{"
-            int fin = jsonResponse.indexOf("}", debut);
-
-            String ratessString = jsonResponse.substring(debut, fin);
-            String[] paires = ratessString.split(",");
-
-            for (String paire : paires) {
-                String[] parts = paire.split(":");
-                if (parts.length == 2) {
-                    String devise = parts[0].replaceAll("[\"\\s]", "").trim();
-                    String valeur = parts[1].replaceAll("[\"\\s]", "").trim();
-                    
-                    try {
-                        double tauxValue = Double.parseDouble(valeur);
-                        taux.put(devise, tauxValue);
-                    } catch (NumberFormatException e) {
-                        // Ignorer les valeurs non numériques
-                    }
-                }
-            }
-
-        } catch (Exception e) {
-            // Ignorer erreur parsing
-        }
-
-        return taux.isEmpty() ? null : taux;
+        FxRateCache.RateTable table = FxRateCache.getInstance().rates(deviseSource);
+        return table == null ? null : table.getRates();
     }
 
     /**
@@ -197,7 +109,7 @@ public class ServiceTauxChange {
             Thread.sleep(10000);
             
             // Vider le cache pour forcer un nouvel appel
-            cacheTaux.remove(devise.toUpperCase());
+            FxRateCache.getInstance().invalidate(devise);
             
             // Deuxième appel
             Map<String, Double> taux2 = obtenirTaux(devise.toUpperCase());
@@ -268,8 +180,8 @@ public class ServiceTauxChange {
 
         infos.put("service", "ExchangeRate-API");
         infos.put("apiUrl", API_URL);
-        infos.put("cacheTTL", "5 minutes");
-        infos.put("devisesCachees", cacheTaux.size());
+        infos.put("cacheTTL", (FxRateCache.getInstance().getTtlMs() / 1000) + " secondes");
+        infos.put("devisesCachees", FxRateCache.getInstance().size());
         infos.put("connecte", connecte);
 
         // Champs normalisés utilisés par l'UI dashboard
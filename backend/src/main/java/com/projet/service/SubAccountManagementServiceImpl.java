@@ -27,6 +27,7 @@ import com.projet.backend.domain.SubAccount;
 import com.projet.backend.domain.SubAccountPayment;
 import com.projet.backend.domain.SubAccountSubscription;
 import com.projet.config.AppConfig;
+import com.projet.http.OutboundHttpClient;
 
 public class SubAccountManagementServiceImpl implements SubAccountManagementService {
 
@@ -35,7 +36,7 @@ public class SubAccountManagementServiceImpl implements SubAccountManagementServ
     private static final Path PAYMENTS_FILE = DATA_DIR.resolve("payments.json");
 
     private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
-    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+    private static final HttpClient HTTP_CLIENT = OutboundHttpClient.getInstance();
 
     @Override
     public SubAccount createSubAccount(String parentEmail, Map<String, Object> request) {
@@ -1,6 +1,8 @@
 package com.projet.service;
 
 import com.projet.backend.domain.Abonnement;
+import com.projet.analytics.PortfolioColumns;
+import com.projet.analytics.PortfolioSnapshot;
 import com.projet.analytics.SubscriptionAnalytics;
 import com.projet.analytics.SubscriptionAnalytics.*;
 
@@ -22,13 +24,19 @@ public class SubscriptionOptimizer {
             .filter(Abonnement::estActif)
             .collect(Collectors.toList());
         
+        // Scores par ligne calculés en un passage sur les colonnes
+        PortfolioColumns columns = PortfolioColumns.of(actifs);
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of(columns);
+        double seuilAnomalie = SubscriptionAnalytics.priceAnomalyThreshold(columns, PortfolioColumns.today());
+        
         // Analyser chaque abonnement
         List<SubscriptionAnalysis> analyses = new ArrayList<>();
-        for (Abonnement abo : actifs) {
-            double valueScore = abo.getValueScore();
-            double churnRisk = abo.getChurnRisk();
-            double costPerUse = abo.getCostPerUse();
-            boolean isAnomaly = SubscriptionAnalytics.detectPriceAnomaly(actifs, abo);
+        for (int i = 0; i < columns.size(); i++) {
+            Abonnement abo = columns.getRow(i);
+            double valueScore = snapshot.getValueScore(i);
+            double churnRisk = snapshot.getChurnRisk(i);
+            double costPerUse = snapshot.getCostPerUse(i);
+            boolean isAnomaly = columns.getPrix(i) > seuilAnomalie;
             
             String recommendation = generateRecommendation(abo, valueScore, churnRisk, isAnomaly);
             
@@ -47,10 +55,10 @@ public class SubscriptionOptimizer {
             .sum();
         
         // Détecter doublons
-        List<String> duplicates = SubscriptionAnalytics.detectDuplicates(actifs);
+        List<String> duplicates = snapshot.getDuplicates();
         
         // Métriques avancées
-        AdvancedMetrics metrics = SubscriptionAnalytics.calculateAdvancedMetrics(actifs);
+        AdvancedMetrics metrics = snapshot.getMetrics();
         
         // Prévisions
         Map<String, Double> forecast = SubscriptionAnalytics.forecastCashflow(actifs, 6);
@@ -104,57 +112,66 @@ public class SubscriptionOptimizer {
      */
     public static List<SavingOpportunity> findSavingOpportunities(List<Abonnement> abonnements) {
         List<SavingOpportunity> opportunities = new ArrayList<>();
+        PortfolioColumns columns = PortfolioColumns.of(abonnements);
+        int today = PortfolioColumns.today();
+        int n = columns.size();
+        double[] frequence = new double[n];
+        double[] valeur = new double[n];
+        double[] risque = new double[n];
+        double[] coutParUsage = new double[n];
+        SubscriptionAnalytics.scoreColumns(columns, today, frequence, valeur, risque, coutParUsage);
+        
+        int unusedCount = 0;
+        double unusedSavings = 0;
+        int[] countByCategory = new int[columns.getCategoryCount()];
+        double[] redundantSavings = new double[columns.getCategoryCount()];
+        int notSharedCount = 0;
+        double notSharedSavings = 0;
+        for (int i = 0; i < n; i++) {
+            if (!columns.isActive(i, today)) continue;
+            double prix = columns.getPrix(i);
+            if (risque[i] > 70) {
+                unusedCount++;
+                unusedSavings += prix;
+            }
+            int categorie = columns.getCategorie(i);
+            if (countByCategory[categorie]++ > 0) {
+                redundantSavings[categorie] += prix; // Garder le premier
+            }
+            if (!columns.isPartage(i) && prix > 10) {
+                notSharedCount++;
+                notSharedSavings += prix * 0.5; // 50% si partagé avec 1 personne
+            }
+        }
         
         // Opportunité 1: Abonnements inutilisés
-        List<Abonnement> unused = abonnements.stream()
-            .filter(Abonnement::estActif)
-            .filter(abo -> abo.getChurnRisk() > 70)
-            .collect(Collectors.toList());
-        
-        if (!unused.isEmpty()) {
-            double savings = unused.stream().mapToDouble(Abonnement::getPrixMensuel).sum();
+        if (unusedCount > 0) {
             opportunities.add(new SavingOpportunity(
                 "Supprimer abonnements inutilisés",
-                unused.size() + " abonnement(s) peu ou pas utilisé(s)",
-                savings,
+                unusedCount + " abonnement(s) peu ou pas utilisé(s)",
+                unusedSavings,
                 "high"
             ));
         }
         
         // Opportunité 2: Services redondants
-        Map<String, List<Abonnement>> byCategory = abonnements.stream()
-            .filter(Abonnement::estActif)
-            .collect(Collectors.groupingBy(Abonnement::getCategorie));
-        
-        byCategory.forEach((category, list) -> {
-            if (list.size() > 1) {
-                double savings = list.stream()
-                    .skip(1) // Garder le premier
-                    .mapToDouble(Abonnement::getPrixMensuel)
-                    .sum();
+        for (int categorie = 0; categorie < countByCategory.length; categorie++) {
+            if (countByCategory[categorie] > 1) {
                 opportunities.add(new SavingOpportunity(
-                    "Réduire redondance: " + category,
-                    list.size() + " services similaires détectés",
-                    savings,
+                    "Réduire redondance: " + columns.getCategoryName(categorie),
+                    countByCategory[categorie] + " services similaires détectés",
+                    redundantSavings[categorie],
                     "medium"
                 ));
             }
-        });
+        }
         
         // Opportunité 3: Optimiser abonnements partagés
-        List<Abonnement> notShared = abonnements.stream()
-            .filter(Abonnement::estActif)
-            .filter(abo -> !abo.isPartage() && abo.getPrixMensuel() > 10)
-            .collect(Collectors.toList());
-        
-        if (!notShared.isEmpty()) {
-            double potentialSavings = notShared.stream()
-                .mapToDouble(abo -> abo.getPrixMensuel() * 0.5) // 50% si partagé avec 1 personne
-                .sum();
+        if (notSharedCount > 0) {
             opportunities.add(new SavingOpportunity(
                 "Partager les abonnements",
-                notShared.size() + " abonnement(s) partageables",
-                potentialSavings,
+                notSharedCount + " abonnement(s) partageables",
+                notSharedSavings,
                 "low"
             ));
         }
@@ -171,32 +188,42 @@ public class SubscriptionOptimizer {
     public static double calculateOptimizationScore(List<Abonnement> abonnements) {
         if (abonnements.isEmpty()) return 100;
         
-        List<Abonnement> actifs = abonnements.stream()
-            .filter(Abonnement::estActif)
-            .collect(Collectors.toList());
+        PortfolioColumns columns = PortfolioColumns.of(abonnements);
+        int today = PortfolioColumns.today();
+        int n = columns.size();
+        double[] frequence = new double[n];
+        double[] valeur = new double[n];
+        double[] risque = new double[n];
+        double[] coutParUsage = new double[n];
+        SubscriptionAnalytics.scoreColumns(columns, today, frequence, valeur, risque, coutParUsage);
+        
+        int actifs = 0;
+        double sommeValeur = 0;
+        long highRisk = 0;
+        long shared = 0;
+        for (int i = 0; i < n; i++) {
+            if (!columns.isActive(i, today)) continue;
+            actifs++;
+            sommeValeur += valeur[i];
+            if (risque[i] > 60) highRisk++;
+            if (columns.isPartage(i)) shared++;
+        }
         
-        if (actifs.isEmpty()) return 100;
+        if (actifs == 0) return 100;
         
         // Critère 1: Taux d'utilisation (40%)
-        double avgValueScore = actifs.stream()
-            .mapToDouble(Abonnement::getValueScore)
-            .average()
-            .orElse(0);
+        double avgValueScore = sommeValeur / actifs;
         double usageScore = Math.min(100, avgValueScore * 20) * 0.4;
         
         // Critère 2: Absence de risques (30%)
-        long highRisk = actifs.stream()
-            .filter(abo -> abo.getChurnRisk() > 60)
-            .count();
-        double riskScore = (1 - (double) highRisk / actifs.size()) * 100 * 0.3;
+        double riskScore = (1 - (double) highRisk / actifs) * 100 * 0.3;
         
         // Critère 3: Pas de redondances (20%)
-        List<String> duplicates = SubscriptionAnalytics.detectDuplicates(actifs);
+        List<String> duplicates = SubscriptionAnalytics.detectDuplicates(columns, today);
         double redundancyScore = (duplicates.isEmpty() ? 100 : 50) * 0.2;
         
         // Critère 4: Optimisation du partage (10%)
-        long shared = actifs.stream().filter(Abonnement::isPartage).count();
-        double shareScore = ((double) shared / actifs.size()) * 100 * 0.1;
+        double shareScore = ((double) shared / actifs) * 100 * 0.1;
         
         return Math.round((usageScore + riskScore + redundancyScore + shareScore) * 100) / 100.0;
     }
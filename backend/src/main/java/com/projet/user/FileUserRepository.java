@@ -60,6 +60,22 @@ public class FileUserRepository implements UserRepository {
         return null;
     }
 
+    @Override
+    public List<String> findAllEmails() {
+        List<String> emails = new ArrayList<>();
+        if (!file.exists()) return emails;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] p = line.split(";");
+                if (!p[0].isBlank()) emails.add(p[0]);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return emails;
+    }
+
     @Override
     public void update(User user) {
         try {
@@ -1,5 +1,7 @@
 package com.projet.user;
 
+import java.util.List;
+
 import com.projet.backend.domain.User;
 
 public interface UserRepository {
@@ -7,4 +9,5 @@ public interface UserRepository {
     User findByEmail(String email);
     User findByToken(String token);
     void update(User user);
+    List<String> findAllEmails();
 }
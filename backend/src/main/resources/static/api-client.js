@@ -255,6 +255,9 @@ const APIClient = {
             const importUrl = new URL(`${APIClient.BASE_URL}/api/bank/import`);
             importUrl.searchParams.set('sourceCurrency', sourceCurrency);
             importUrl.searchParams.set('targetCurrency', targetCurrency);
+            if (options.includeCsv) {
+                importUrl.searchParams.set('includeCsv', 'true');
+            }
 
             return APIClient._fetch(importUrl.toString(), {
                 method: 'POST',
@@ -37,7 +37,7 @@ class PDFBankStatementManager {
                 throw new Error('APIClient Bank non disponible');
             }
 
-            const data = await window.APIClient.bank.importFile(file);
+            const data = await window.APIClient.bank.importFile(file, { includeCsv: true });
             
             this.csvContent = data.csvContent || '';
             this.detections = Array.isArray(data.detections) ? data.detections : [];
@@ -0,0 +1,123 @@
+package com.projet.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.Abonnement;
+
+@DisplayName("Tests du moteur K-means")
+class KMeansTest {
+
+    @Test
+    @DisplayName("Doit séparer des groupes distincts et s'arrêter avant la limite d'itérations")
+    void shouldSeparateBlobsAndConvergeEarly() {
+        double[][] centers = {{0, 0}, {10, 10}, {-10, 10}};
+        Random random = new Random(1);
+        int perBlob = 200;
+        double[] points = new double[centers.length * perBlob * 2];
+        for (int b = 0; b < centers.length; b++) {
+            for (int j = 0; j < perBlob; j++) {
+                int p = (b * perBlob + j) * 2;
+                points[p] = centers[b][0] + random.nextGaussian() * 0.5;
+                points[p + 1] = centers[b][1] + random.nextGaussian() * 0.5;
+            }
+        }
+
+        KMeans.Result result = KMeans.fit(points, 2, 3, 100, 1e-6, 42);
+
+        assertTrue(result.isConverged());
+        assertTrue(result.getIterations() < 100);
+        for (int b = 0; b < centers.length; b++) {
+            int label = result.getAssignment(b * perBlob);
+            for (int j = 1; j < perBlob; j++) {
+                assertEquals(label, result.getAssignment(b * perBlob + j));
+            }
+            for (int other = 0; other < b; other++) {
+                assertNotEquals(result.getAssignment(other * perBlob), label);
+            }
+        }
+        assertTrue(result.getInertia() < points.length);
+    }
+
+    @Test
+    @DisplayName("Doit affecter chaque point au centroïde le plus proche en parallèle")
+    void shouldAssignToNearestCentroidOnLargeInput() {
+        Random random = new Random(3);
+        int n = KMeans.PARALLEL_THRESHOLD + 1_000;
+        double[] points = new double[n * 3];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextDouble();
+        }
+
+        KMeans.Result result = KMeans.fit(points, 3, 4, 20, 1e-6, 7);
+
+        double inertia = 0;
+        for (int i = 0; i < n; i++) {
+            int assigned = result.getAssignment(i);
+            double assignedDist = distanceSq(points, i, result, assigned);
+            for (int c = 0; c < 4; c++) {
+                assertTrue(assignedDist <= distanceSq(points, i, result, c));
+            }
+            inertia += assignedDist;
+        }
+        assertEquals(inertia, result.getInertia(), 1e-6 * inertia);
+        assertEquals(result.getInertia(), KMeans.fit(points, 3, 4, 20, 1e-6, 7).getInertia(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Doit accepter plus de groupes que de points et rejeter k < 1")
+    void shouldHandleDegenerateInputs() {
+        KMeans.Result result = KMeans.fit(new double[]{1, 1, 2, 2}, 2, 5, 10, 1e-6, 42);
+
+        assertEquals(5, result.getK());
+        assertEquals(0.0, result.getInertia(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> KMeans.fit(new double[]{1}, 1, 0, 10, 1e-6, 42));
+        assertThrows(IllegalArgumentException.class, () -> KMeans.fit(new double[]{1, 2, 3}, 2, 1, 10, 1e-6, 42));
+    }
+
+    @Test
+    @DisplayName("Doit segmenter un portefeuille avec un nombre de groupes configurable")
+    void shouldClusterPortfolioWithConfigurableK() {
+        List<Abonnement> abonnements = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 40; i++) {
+            abonnements.add(new Abonnement("S" + i, today.minusMonths(3), today.plusMonths(i % 12 + 1),
+                5 + (i % 8) * 10, "Client", i % 5 == 0 ? null : today.minusDays(i * 3L), "Cat" + (i % 4)));
+        }
+
+        ClusteringResult three = SubscriptionAnalytics.clusterPortfolio(abonnements, 3);
+        ClusteringResult five = SubscriptionAnalytics.clusterPortfolio(abonnements, 5);
+
+        assertEquals(List.of("⭐ Essentiels & Rentables", "⚖️ Équilibrés", "⚠️ À Optimiser"),
+            new ArrayList<>(three.getClusters().keySet()));
+        assertEquals(List.of("Segment 1", "Segment 2", "Segment 3", "Segment 4", "Segment 5"),
+            new ArrayList<>(five.getClusters().keySet()));
+        assertEquals(abonnements.size(), countMembers(three.getClusters()));
+        assertEquals(abonnements.size(), countMembers(five.getClusters()));
+        assertTrue(five.getInertia() <= three.getInertia());
+        assertTrue(three.getIterations() >= 1);
+    }
+
+    private static int countMembers(Map<String, List<Abonnement>> clusters) {
+        return clusters.values().stream().mapToInt(List::size).sum();
+    }
+
+    private static double distanceSq(double[] points, int i, KMeans.Result result, int c) {
+        double sum = 0;
+        for (int d = 0; d < result.getDims(); d++) {
+            double delta = points[i * result.getDims() + d] - result.getCentroid(c, d);
+            sum += delta * delta;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,108 @@
+package com.projet.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.Abonnement;
+
+@DisplayName("PortfolioColumns Tests")
+public class PortfolioColumnsTest {
+
+    @Test
+    @DisplayName("Devrait convertir les abonnements en colonnes avec catégories internées")
+    public void testColumnsFromList() {
+        LocalDate today = LocalDate.now();
+        Abonnement netflix = abonnement("Netflix", 15.99, today.minusDays(2), "Streaming");
+        netflix.setPriorite("Luxe");
+        netflix.setFrequencePaiement("Annuel");
+        Abonnement spotify = abonnement("Spotify", 9.99, null, "Musique");
+        Abonnement disney = abonnement("Disney", 8.99, today, "Streaming");
+        Abonnement sansCategorie = abonnement("Divers", 1.0, today, null);
+        sansCategorie.setDateFin(null);
+
+        PortfolioColumns columns = PortfolioColumns.of(List.of(netflix, spotify, disney, sansCategorie));
+        int epochToday = PortfolioColumns.today();
+
+        assertEquals(4, columns.size());
+        assertEquals(15.99, columns.getPrix(0));
+        assertEquals(epochToday - 2, columns.getDerniereUtilisation(0));
+        assertEquals(PortfolioColumns.NONE, columns.getDerniereUtilisation(1));
+        assertEquals(columns.getCategorie(0), columns.getCategorie(2));
+        assertEquals(3, columns.getCategoryCount());
+        assertEquals(sansCategorie.getCategorie(), columns.getCategoryName(columns.getCategorie(3)));
+        assertEquals(PortfolioColumns.PRIORITE_LUXE, columns.getPriorite(0));
+        assertEquals(PortfolioColumns.FREQUENCE_ANNUELLE, columns.getFrequencePaiement(0));
+        assertEquals(PortfolioColumns.FREQUENCE_MENSUELLE, columns.getFrequencePaiement(1));
+        assertTrue(columns.isActive(0, epochToday));
+        assertFalse(columns.isActive(3, epochToday));
+        assertEquals(disney, columns.getRow(2));
+    }
+
+    @Test
+    @DisplayName("Devrait calculer les mêmes scores que les méthodes par abonnement")
+    public void testScoreColumnsMatchPerRowMethods() {
+        LocalDate today = LocalDate.now();
+        List<Abonnement> abonnements = new ArrayList<>();
+        for (int i = 0; i < 200; i += 7) {
+            Abonnement a = abonnement("S" + i, i % 30, i % 3 == 0 ? null : today.minusDays(i), "C" + (i % 5));
+            a.setPriorite(i % 2 == 0 ? "Luxe" : "Optionnel");
+            abonnements.add(a);
+        }
+        PortfolioColumns columns = PortfolioColumns.of(abonnements);
+        int n = columns.size();
+        double[] frequence = new double[n];
+        double[] valeur = new double[n];
+        double[] risque = new double[n];
+        double[] cout = new double[n];
+
+        SubscriptionAnalytics.scoreColumns(columns, PortfolioColumns.today(), frequence, valeur, risque, cout);
+
+        for (int i = 0; i < n; i++) {
+            Abonnement a = abonnements.get(i);
+            assertEquals(SubscriptionAnalytics.calculateValueScore(a), valeur[i]);
+            assertEquals(SubscriptionAnalytics.calculateChurnRisk(a), risque[i]);
+            assertEquals(SubscriptionAnalytics.calculateCostPerUse(a), cout[i]);
+        }
+        assertEquals(SubscriptionAnalytics.detectDuplicates(abonnements),
+            SubscriptionAnalytics.detectDuplicates(columns, PortfolioColumns.today()));
+    }
+
+    @Test
+    @DisplayName("Devrait calculer les mois comme ChronoUnit.MONTHS.between")
+    public void testMonthsBetween() {
+        Random random = new Random(42);
+        for (int k = 0; k < 10_000; k++) {
+            LocalDate from = LocalDate.ofEpochDay(random.nextInt(80_000) - 20_000);
+            LocalDate to = from.plusDays(random.nextInt(4000) - 2000);
+            assertEquals(ChronoUnit.MONTHS.between(from, to),
+                PortfolioColumns.monthsBetween((int) from.toEpochDay(), (int) to.toEpochDay()),
+                from + " -> " + to);
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait trier les indices par clé décroissante de façon stable")
+    public void testSortedIndicesDescendingIsStable() {
+        double[] keys = {1.0, 3.0, 2.0, 3.0, 1.0, 5.0, 2.0};
+
+        assertArrayEquals(new int[]{5, 1, 3, 2, 6, 0, 4}, PortfolioColumns.sortedIndicesDescending(keys, keys.length));
+        assertArrayEquals(new int[0], PortfolioColumns.sortedIndicesDescending(new double[0], 0));
+    }
+
+    private static Abonnement abonnement(String nom, double prix, LocalDate derniereUtilisation, String categorie) {
+        LocalDate today = LocalDate.now();
+        return new Abonnement(nom, today.minusMonths(2), today.plusMonths(10), prix, "Client",
+            derniereUtilisation, categorie);
+    }
+}
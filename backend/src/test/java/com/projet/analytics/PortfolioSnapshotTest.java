@@ -0,0 +1,197 @@
+package com.projet.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.AbonnementRepository;
+
+@DisplayName("PortfolioSnapshot Tests")
+public class PortfolioSnapshotTest {
+
+    @AfterEach
+    public void tearDown() {
+        PortfolioSnapshot.clearCache();
+    }
+
+    @Test
+    @DisplayName("Devrait produire les mêmes résultats que SubscriptionAnalytics")
+    public void testMatchesSubscriptionAnalytics() {
+        List<Abonnement> abonnements = portfolio();
+
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of(abonnements);
+
+        for (int i = 0; i < abonnements.size(); i++) {
+            Abonnement abo = abonnements.get(i);
+            assertEquals(SubscriptionAnalytics.calculateValueScore(abo), snapshot.getValueScore(i));
+            assertEquals(SubscriptionAnalytics.calculateChurnRisk(abo), snapshot.getChurnRisk(i));
+            assertEquals(SubscriptionAnalytics.calculateCostPerUse(abo), snapshot.getCostPerUse(i));
+        }
+
+        var metrics = SubscriptionAnalytics.calculateAdvancedMetrics(abonnements);
+        assertEquals(metrics.getLifetimeValue(), snapshot.getMetrics().getLifetimeValue(), 1e-9);
+        assertEquals(metrics.getAverageROI(), snapshot.getMetrics().getAverageROI(), 1e-9);
+        assertEquals(metrics.getHighRiskCount(), snapshot.getMetrics().getHighRiskCount());
+
+        var report = SubscriptionAnalytics.generateMonthlyReport(abonnements);
+        assertEquals(report.getTop3Depenses(), snapshot.getMonthlyReport().getTop3Depenses());
+        assertEquals(report.getAbonnementsInutilises(), snapshot.getMonthlyReport().getAbonnementsInutilises());
+        assertEquals(report.getEconomiesPotentielles(), snapshot.getMonthlyReport().getEconomiesPotentielles(), 1e-9);
+        assertEquals(report.getRecommendations(), snapshot.getMonthlyReport().getRecommendations());
+
+        assertEquals(SubscriptionAnalytics.detectDuplicates(abonnements), snapshot.getDuplicates());
+        assertEquals(SubscriptionAnalytics.predictSpendingTrend(abonnements), snapshot.getSpendingTrend());
+        assertEquals(SubscriptionAnalytics.detectSeasonalPatterns(abonnements), snapshot.getSeasonalPatterns());
+        assertEquals(SubscriptionAnalytics.calculatePortfolioHealthScore(abonnements), snapshot.getHealthScore(), 1e-9);
+        assertEquals(SubscriptionAnalytics.clusterSubscriptions(abonnements), snapshot.getClusters());
+    }
+
+    @Test
+    @DisplayName("Devrait réutiliser le snapshot tant que la version du repository ne change pas")
+    public void testMemoisedPerVersion() {
+        VersionedRepository repo = new VersionedRepository(portfolio());
+
+        PortfolioSnapshot first = PortfolioSnapshot.forUser("user@test.com", repo);
+        PortfolioSnapshot second = PortfolioSnapshot.forUser("user@test.com", repo);
+
+        assertSame(first, second);
+        assertEquals(1, repo.loads);
+        assertNotSame(first, PortfolioSnapshot.forUser("other@test.com", repo));
+
+        repo.save(abonnement("Nouveau", 3.0, LocalDate.now(), "Autre", "Essentiel"));
+        PortfolioSnapshot third = PortfolioSnapshot.forUser("user@test.com", repo);
+
+        assertNotSame(first, third);
+        assertEquals(first.size() + 1, third.size());
+    }
+
+    @Test
+    @DisplayName("Ne devrait pas mémoriser un repository sans version")
+    public void testNoMemoisationWithoutVersion() {
+        VersionedRepository repo = new VersionedRepository(portfolio());
+        repo.versioned = false;
+
+        PortfolioSnapshot.forUser("user@test.com", repo);
+        PortfolioSnapshot.forUser("user@test.com", repo);
+
+        assertEquals(2, repo.loads);
+    }
+
+    @Test
+    @DisplayName("Devrait borner k au nombre d'abonnements et rejeter un k trop grand")
+    public void testClusterCountIsBounded() {
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of(portfolio());
+
+        ClusteringResult clamped = snapshot.getClustering(SubscriptionAnalytics.MAX_CLUSTER_COUNT);
+
+        assertEquals(snapshot.size(), clamped.getK());
+        assertThrows(IllegalArgumentException.class,
+            () -> snapshot.getClustering(SubscriptionAnalytics.MAX_CLUSTER_COUNT + 1));
+        assertThrows(IllegalArgumentException.class, () -> KMeans.fit(new double[3], 3, Integer.MAX_VALUE, 10, 1e-6, 1L));
+    }
+
+    @Test
+    @DisplayName("Le résultat de segmentation sérialisé expose inertie et itérations")
+    public void testClusteringSerializesConvergenceStats() {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        JsonNode json = mapper.valueToTree(PortfolioSnapshot.of(portfolio()).getClustering(2));
+
+        assertEquals(2, json.get("k").asInt());
+        assertTrue(json.get("inertia").isNumber());
+        assertTrue(json.get("iterations").asInt() >= 1);
+        assertTrue(json.get("converged").isBoolean());
+        assertTrue(json.get("clusters").isObject());
+    }
+
+    private static List<Abonnement> portfolio() {
+        LocalDate today = LocalDate.now();
+        List<Abonnement> list = new ArrayList<>();
+        list.add(abonnement("Netflix", 15.99, today.minusDays(1), "Streaming", "Essentiel"));
+        list.add(abonnement("Disney", 8.99, today.minusDays(45), "Streaming", "Luxe"));
+        list.add(abonnement("Spotify", 9.99, today.minusDays(10), "Musique", "Optionnel"));
+        list.add(abonnement("Salle", 29.90, null, "Sport", "Luxe"));
+        list.add(abonnement("Presse", 15.99, today.minusDays(200), "Info", "Optionnel"));
+        list.add(abonnement("Cloud", 0.99, today.minusDays(5), "Stockage", "Essentiel"));
+        Abonnement expire = abonnement("Ancien", 12.0, today.minusDays(400), "Streaming", "Essentiel");
+        expire.setDateDebut(today.minusYears(2));
+        expire.setDateFin(today.minusDays(10));
+        list.add(expire);
+        Abonnement bientot = abonnement("Bientot", 4.0, today.minusDays(20), "Musique", "Essentiel");
+        bientot.setDateFin(today.plusDays(12));
+        list.add(bientot);
+        return list;
+    }
+
+    private static Abonnement abonnement(String nom, double prix, LocalDate derniereUtilisation,
+                                         String categorie, String priorite) {
+        LocalDate today = LocalDate.now();
+        Abonnement a = new Abonnement(nom, today.minusMonths(3), today.plusMonths(9), prix, "Client",
+            derniereUtilisation, categorie);
+        a.setPriorite(priorite);
+        return a;
+    }
+
+    /** Repository en mémoire avec un compteur de versions et de chargements. */
+    private static final class VersionedRepository implements AbonnementRepository {
+        private final List<Abonnement> rows;
+        private long version;
+        private boolean versioned = true;
+        private int loads;
+
+        private VersionedRepository(List<Abonnement> rows) {
+            this.rows = new ArrayList<>(rows);
+        }
+
+        @Override
+        public List<Abonnement> findAll() {
+            loads++;
+            return new ArrayList<>(rows);
+        }
+
+        @Override
+        public long version() { return versioned ? version : -1; }
+
+        @Override
+        public void saveAll(List<Abonnement> abonnements) {
+            rows.clear();
+            rows.addAll(abonnements);
+            version++;
+        }
+
+        @Override
+        public Optional<Abonnement> findByUuid(String uuid) {
+            return rows.stream().filter(a -> a.getId().equals(uuid)).findFirst();
+        }
+
+        @Override
+        public void save(Abonnement abonnement) {
+            rows.add(abonnement);
+            version++;
+        }
+
+        @Override
+        public void delete(Abonnement abonnement) { deleteByUuid(abonnement.getId()); }
+
+        @Override
+        public void deleteByUuid(String uuid) {
+            rows.removeIf(a -> a.getId().equals(uuid));
+            version++;
+        }
+    }
+}
@@ -99,4 +99,18 @@ class AnomalyDetectorTest {
                         "Il ne devrait pas y avoir d'abonnement incohérent de type 'InactiveWithFutureRenewal'")
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Doit signaler comme doublons les variantes de nom d'un même service")
+    void shouldDetectNearDuplicateServiceNames() {
+        LocalDate today = LocalDate.now();
+        Abonnement netflix = new Abonnement("Netflix", today.minusMonths(2), today.plusMonths(10), 13.49, "user1");
+        Abonnement netflixPremium = new Abonnement("NETFLIX Premium", today.minusMonths(1), today.plusMonths(11), 19.99, "user1");
+        Abonnement spotify = new Abonnement("Spotify", today.minusMonths(1), today.plusMonths(11), 10.99, "user1");
+
+        AnomalyReport report = anomalyDetector.detectAnomalies(List.of(netflix, spotify, netflixPremium));
+
+        assertEquals(List.of(netflix, netflixPremium), report.getDuplicateSubscriptions());
+        assertEquals(List.of(List.of(netflix, netflixPremium)), report.getDuplicateGroups());
+    }
+}
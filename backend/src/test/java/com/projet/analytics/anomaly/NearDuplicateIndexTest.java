@@ -0,0 +1,75 @@
+package com.projet.analytics.anomaly;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.Abonnement;
+
+@DisplayName("Tests de la détection de doublons approximatifs")
+class NearDuplicateIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Test
+    @DisplayName("Doit normaliser casse, accents, ponctuation et qualificatifs d'offre")
+    void shouldNormalizeServiceNames() {
+        assertEquals("netflix", NearDuplicateIndex.normalize("NETFLIX Premium"));
+        assertEquals("netflix", NearDuplicateIndex.normalize("netflix.com"));
+        assertEquals("disney", NearDuplicateIndex.normalize("Disney+"));
+        assertEquals("salle sport", NearDuplicateIndex.normalize("Salle de Sport"));
+        assertEquals("deezer", NearDuplicateIndex.normalize("Déezer Famille"));
+        assertEquals("premium", NearDuplicateIndex.normalize("Premium"));
+        assertEquals("", NearDuplicateIndex.normalize(null));
+    }
+
+    @Test
+    @DisplayName("Doit regrouper les variantes d'un même service pour un même client uniquement")
+    void shouldGroupVariantsPerClient() {
+        Abonnement netflix = sub("Netflix", "Alice");
+        Abonnement netflixPremium = sub("NETFLIX Premium", "Alice");
+        Abonnement spotify = sub("Spotify", "Alice");
+        Abonnement amazon = sub("Amazon Prime", "Alice");
+        Abonnement amazonVideo = sub("Amazon Prime Video", "Alice");
+        Abonnement netflixBob = sub("Netflix", "Bob");
+        Abonnement unnamed = sub(null, "Alice");
+
+        List<List<Abonnement>> groups = NearDuplicateIndex.findGroups(
+            List.of(netflix, spotify, amazon, netflixBob, netflixPremium, amazonVideo, unnamed));
+
+        assertEquals(List.of(List.of(netflix, netflixPremium), List.of(amazon, amazonVideo)), groups);
+    }
+
+    @Test
+    @DisplayName("Ne doit pas regrouper des services distincts dans un grand portefeuille")
+    void shouldKeepDistinctServicesApartAtScale() {
+        Random random = new Random(18);
+        List<Abonnement> abonnements = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            StringBuilder nom = new StringBuilder();
+            for (int c = 0; c < 10; c++) {
+                nom.append((char) ('a' + random.nextInt(26)));
+            }
+            abonnements.add(sub(nom.toString(), "Client" + (i % 10)));
+        }
+        abonnements.add(sub("Canal+", "Client3"));
+        abonnements.add(sub("CANAL PLUS", "Client3"));
+
+        List<List<Abonnement>> groups = NearDuplicateIndex.findGroups(abonnements);
+
+        assertEquals(1, groups.size());
+        assertEquals(List.of("Canal+", "CANAL PLUS"),
+            groups.get(0).stream().map(Abonnement::getNomService).collect(Collectors.toList()));
+        assertEquals(0.5, NearDuplicateIndex.jaccard(new int[]{1, 2, 3}, new int[]{2, 3, 4}), 1e-12);
+    }
+
+    private static Abonnement sub(String nom, String client) {
+        return new Abonnement(nom, TODAY.minusMonths(1), TODAY.plusMonths(6), 9.99, client);
+    }
+}
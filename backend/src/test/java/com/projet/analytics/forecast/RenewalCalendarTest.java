@@ -0,0 +1,107 @@
+package com.projet.analytics.forecast;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.Abonnement;
+
+@DisplayName("Tests de l'index des échéances de renouvellement")
+class RenewalCalendarTest {
+
+    private static final String[] FREQUENCES = {"Mensuel", "Trimestriel", "Semestriel", "Annuel"};
+
+    @Test
+    @DisplayName("Doit reproduire l'avancement période par période, jours de fin de mois compris")
+    void shouldMatchIterativeProjection() {
+        Random random = new Random(17);
+        LocalDate[] todays = {
+            LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 28), LocalDate.of(2028, 2, 29),
+            LocalDate.of(2026, 3, 30), LocalDate.of(2026, 3, 31), LocalDate.of(2026, 10, 18),
+            LocalDate.of(2026, 12, 31), LocalDate.of(2027, 6, 1)
+        };
+
+        for (LocalDate today : todays) {
+            List<Abonnement> abonnements = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                LocalDate debut = today.minusDays(random.nextInt(365 * 12));
+                if (i % 3 == 0) {
+                    // Débuts en fin de mois pour exercer le report au dernier jour
+                    YearMonth ym = YearMonth.from(debut);
+                    debut = ym.atDay(Math.max(1, ym.lengthOfMonth() - random.nextInt(3)));
+                }
+                LocalDate fin = today.plusDays(random.nextInt(900) - 60);
+                Abonnement abo = new Abonnement("S" + i, debut, fin, 1 + random.nextInt(50), "Client");
+                abo.setFrequencePaiement(FREQUENCES[random.nextInt(FREQUENCES.length)]);
+                abonnements.add(abo);
+            }
+
+            for (int months : new int[]{1, 6, 12, 37}) {
+                Map<String, Double> expected = iterativeProjection(abonnements, today, months);
+                RenewalCalendar calendar = RenewalCalendar.of(abonnements, today);
+                double[] costs = new double[months + 1];
+                int periods = calendar.accumulate(months, costs);
+
+                assertEquals(expected.size(), periods, today + " / " + months);
+                double[] expectedCosts = expected.values().stream().mapToDouble(Double::doubleValue).toArray();
+                double[] actual = new double[periods];
+                System.arraycopy(costs, 0, actual, 0, periods);
+                assertArrayEquals(expectedCosts, actual, 1e-9, today + " / " + months);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Doit ignorer les abonnements inactifs et rejeter un horizon nul")
+    void shouldSkipInactiveSubscriptionsAndRejectEmptyHorizon() {
+        LocalDate today = LocalDate.of(2026, 5, 10);
+        List<Abonnement> abonnements = List.of(
+            new Abonnement("Actif", today.minusMonths(5), today.plusMonths(5), 10, "Client"),
+            new Abonnement("Futur", today.plusDays(3), today.plusMonths(5), 10, "Client"),
+            new Abonnement("Terminé", today.minusYears(2), today.minusDays(1), 10, "Client"));
+
+        RenewalCalendar calendar = RenewalCalendar.of(abonnements, today);
+
+        assertEquals(1, calendar.size());
+        assertThrows(IllegalArgumentException.class, () -> calendar.accumulate(0, new double[1]));
+    }
+
+    /** Algorithme d'origine : avance depuis la date de début jusqu'à aujourd'hui, puis dans la fenêtre. */
+    private static Map<String, Double> iterativeProjection(List<Abonnement> abonnements, LocalDate startDate, int months) {
+        LocalDate endDate = startDate.plusMonths(months);
+        Map<String, Double> projectedCosts = new TreeMap<>();
+        for (Abonnement sub : abonnements) {
+            if (startDate.isBefore(sub.getDateDebut()) || startDate.isAfter(sub.getDateFin())) continue;
+            int period = switch (sub.getFrequencePaiement()) {
+                case "Trimestriel" -> 3;
+                case "Semestriel" -> 6;
+                case "Annuel" -> 12;
+                default -> 1;
+            };
+            LocalDate nextRenewal = sub.getDateDebut();
+            while (nextRenewal.isBefore(startDate)) {
+                nextRenewal = nextRenewal.plusMonths(period);
+            }
+            while (nextRenewal.isBefore(endDate)) {
+                projectedCosts.merge(YearMonth.from(nextRenewal).toString(), sub.getPrixMensuel() * period, Double::sum);
+                nextRenewal = nextRenewal.plusMonths(period);
+            }
+        }
+        YearMonth currentMonth = YearMonth.from(startDate);
+        for (int i = 0; i < months; i++) {
+            projectedCosts.putIfAbsent(currentMonth.toString(), 0.0);
+            currentMonth = currentMonth.plusMonths(1);
+        }
+        return projectedCosts;
+    }
+}
@@ -0,0 +1,141 @@
+package com.projet.analytics.lifecycle;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.Abonnement;
+
+@DisplayName("Tests du planificateur global sur l'horizon")
+class HorizonPlannerTest {
+
+    private List<Abonnement> subscriptions;
+
+    @BeforeEach
+    void setUp() {
+        subscriptions = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 12; i++) {
+            subscriptions.add(new Abonnement("S" + i, today.minusMonths(2), today.plusMonths(12),
+                4 + 3 * i, "Client", i % 4 == 0 ? null : today.minusDays(i * 9L), "Cat" + (i % 3)));
+        }
+    }
+
+    @Test
+    @DisplayName("Doit respecter le plafond mensuel et le budget cumulé")
+    void shouldRespectMonthlyCapAndCumulativeBudget() {
+        HorizonPlanner planner = new HorizonPlanner(new GreedyKnapsackSolver(), 4, 200, 1.0, 5.0);
+
+        LifecyclePlanResult result = planner.generatePlan(subscriptions, 12, 60.0, 400.0);
+
+        assertTrue(result.isSuccess(), result.getMessage());
+        for (MonthlyPlan month : result.getPlan().getMonthlyPlans()) {
+            assertTrue(month.getMonthlyCost() <= 60.0 + 1e-6);
+        }
+        assertTrue(result.getPlan().getTotalCost() <= 400.0 + 1e-6);
+        assertEquals(12, result.getPlan().getMonthlyPlans().size());
+    }
+
+    @Test
+    @DisplayName("Une pénalité de reprise prohibitive doit empêcher toute réactivation")
+    void shouldNotResumeWhenResumePenaltyIsProhibitive() {
+        HorizonPlanner planner = new HorizonPlanner(KnapsackSolver.named("dp"), 4, 500, 0.0, 1_000.0);
+
+        LifecyclePlanResult result = planner.generatePlan(subscriptions, 9, 50.0);
+
+        assertTrue(result.isSuccess(), result.getMessage());
+        for (MonthlyPlan month : result.getPlan().getMonthlyPlans()) {
+            assertFalse(month.getDecisions().containsValue(LifecycleDecision.ACTIVATE),
+                "Aucune reprise attendue en " + month.getMonth());
+        }
+    }
+
+    @Test
+    @DisplayName("Le plan global doit changer moins souvent que le plan mois par mois")
+    void shouldSwitchLessThanMonthlyPlanner() {
+        int months = 12;
+        LifecyclePlanResult monthly = new LifecyclePlanner(KnapsackSolver.named("dp"))
+            .generatePlan(subscriptions, months, 50.0);
+        LifecyclePlanResult horizon = new HorizonPlanner(KnapsackSolver.named("dp"), 8, 1_000, 2.0, 5.0)
+            .generatePlan(subscriptions, months, 50.0);
+
+        assertTrue(horizon.isSuccess(), horizon.getMessage());
+        assertTrue(horizon.getSearchStats().getSwitches() <= countSwitches(monthly.getPlan().getMonthlyPlans()));
+    }
+
+    @Test
+    @DisplayName("Doit être déterministe et rapporter les statistiques de recherche")
+    void shouldBeDeterministicAndReportStats() {
+        HorizonPlanner planner = new HorizonPlanner(KnapsackSolver.named("dp"), 4, 5, 1.0, 5.0);
+
+        LifecyclePlanResult first = planner.generatePlan(subscriptions, 24, 45.0);
+        LifecyclePlanResult second = planner.generatePlan(subscriptions, 24, 45.0);
+
+        HorizonSearchStats stats = first.getSearchStats();
+        assertNotNull(stats);
+        assertEquals(5, stats.getExpansions());
+        assertTrue(stats.isTruncated());
+        assertTrue(stats.getCandidates() >= stats.getExpansions());
+        assertEquals(stats.getObjective(), second.getSearchStats().getObjective(), 0.0);
+        for (int m = 0; m < 24; m++) {
+            assertEquals(first.getPlan().getMonthlyPlans().get(m).getDecisions(),
+                second.getPlan().getMonthlyPlans().get(m).getDecisions());
+        }
+    }
+
+    @Test
+    @DisplayName("Sans expansion, la sélection courante est conservée dans le plafond")
+    void shouldKeepCurrentSelectionWithoutExpansions() {
+        HorizonPlanner planner = new HorizonPlanner(new GreedyKnapsackSolver(), 2, 0, 1.0, 5.0);
+
+        LifecyclePlanResult result = planner.generatePlan(subscriptions, 6, 1_000.0);
+
+        assertTrue(result.isSuccess(), result.getMessage());
+        assertEquals(0, result.getSearchStats().getExpansions());
+        assertEquals(0, result.getSearchStats().getSwitches());
+        for (MonthlyPlan month : result.getPlan().getMonthlyPlans()) {
+            assertEquals(subscriptions.size(), month.getActiveSubscriptions().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Doit rejeter des paramètres de recherche invalides")
+    void shouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new HorizonPlanner(new GreedyKnapsackSolver(), 0, 10, 1.0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new HorizonPlanner(new GreedyKnapsackSolver(), 1, 10, -1.0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new HorizonPlanner(new GreedyKnapsackSolver(), HorizonPlanner.MAX_BEAM_WIDTH + 1, 10, 1.0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new HorizonPlanner(new GreedyKnapsackSolver(), 1, HorizonPlanner.MAX_EXPANSIONS + 1, 1.0, 1.0));
+        assertTrue(new HorizonPlanner().getBeamWidth() <= HorizonPlanner.MAX_BEAM_WIDTH);
+        assertFalse(new HorizonPlanner().generatePlan(subscriptions, 3, 10.0, -1.0).isSuccess());
+    }
+
+    /** Pauses et reprises d'un plan, tous les abonnements étant actifs au départ. */
+    private int countSwitches(List<MonthlyPlan> plans) {
+        int switches = 0;
+        List<String> previous = subscriptions.stream().map(Abonnement::getNomService).toList();
+        for (MonthlyPlan plan : plans) {
+            List<String> current = plan.getActiveSubscriptions();
+            for (String name : previous) {
+                if (!current.contains(name)) switches++;
+            }
+            for (String name : current) {
+                if (!previous.contains(name)) switches++;
+            }
+            previous = current;
+        }
+        return switches;
+    }
+}
@@ -0,0 +1,163 @@
+package com.projet.analytics.lifecycle;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.analytics.lifecycle.MonthlyOptimizer.MonthlyOptimizationResult;
+import com.projet.backend.domain.Abonnement;
+
+@DisplayName("Tests des solveurs de sac à dos de l'optimiseur mensuel")
+class KnapsackSolverTest {
+
+    @Test
+    @DisplayName("Doit trouver l'optimum là où le glouton se trompe")
+    void shouldBeatGreedyOnClassicCounterExample() {
+        double[] costs = {6.0, 5.0, 5.0};
+        double[] values = {10.0, 9.0, 9.0};
+
+        KnapsackSolution greedy = new GreedyKnapsackSolver().solve(costs, values, 10.0);
+        KnapsackSolution dp = new DynamicProgrammingKnapsackSolver(1_000_000).solve(costs, values, 10.0);
+        KnapsackSolution bnb = new BranchAndBoundKnapsackSolver(1_000).solve(costs, values, 10.0);
+
+        assertEquals(10.0, greedy.getValue(), 1e-9);
+        assertFalse(greedy.isOptimal());
+        assertTrue(greedy.getOptimalityGap() > 0);
+        assertEquals(18.0, dp.getValue(), 1e-9);
+        assertEquals(18.0, bnb.getValue(), 1e-9);
+        assertTrue(dp.isOptimal() && bnb.isOptimal());
+        assertEquals(0.0, bnb.getOptimalityGap(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Doit égaler la recherche exhaustive sur des instances aléatoires")
+    void shouldMatchBruteForce() {
+        Random random = new Random(2026);
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(12);
+            double[] costs = new double[n];
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                costs[i] = random.nextInt(3000) / 100.0;
+                values[i] = random.nextInt(100);
+            }
+            double budget = random.nextInt(6000) / 100.0;
+            double optimum = bruteForce(costs, values, budget);
+
+            for (KnapsackSolver solver : List.of(
+                    new DynamicProgrammingKnapsackSolver(10_000_000),
+                    new BranchAndBoundKnapsackSolver(1_000),
+                    new AdaptiveKnapsackSolver(10_000_000, 1_000))) {
+                KnapsackSolution solution = solver.solve(costs, values, budget);
+                assertEquals(optimum, solution.getValue(), 1e-6, solver.getClass().getSimpleName());
+                assertTrue(solution.getCost() <= budget + 1e-9, "Budget dépassé");
+                assertTrue(solution.isOptimal());
+            }
+            KnapsackSolution greedy = new GreedyKnapsackSolver().solve(costs, values, budget);
+            assertTrue(greedy.getUpperBound() >= optimum - 1e-6, "La borne doit majorer l'optimum");
+        }
+    }
+
+    @Test
+    @DisplayName("Doit se replier sur le glouton lorsque la table de programmation dynamique est trop grande")
+    void shouldFallBackToGreedyWhenTableTooLarge() {
+        double[] costs = {6.0, 5.0, 5.0};
+        double[] values = {10.0, 9.0, 9.0};
+
+        KnapsackSolution solution = new DynamicProgrammingKnapsackSolver(10).solve(costs, values, 10.0);
+
+        assertEquals("greedy", solution.getSolver());
+    }
+
+    @Test
+    @DisplayName("Doit plafonner la table au coût total et tout retenir quand le budget couvre tout")
+    void shouldCapCapacityAtTotalCost() {
+        double[] costs = {6.0, 5.0, 5.0, 3.0};
+        double[] values = {10.0, 9.0, 0.0, 9.0};
+
+        assertEquals(4L * (1400 + 1), DynamicProgrammingKnapsackSolver.cells(costs, values, 1e12));
+        KnapsackSolution all = new DynamicProgrammingKnapsackSolver(10).solve(costs, values, 1e12);
+        assertEquals("dp", all.getSolver());
+        assertEquals(28.0, all.getValue(), 1e-9);
+        assertEquals(14.0, all.getCost(), 1e-9);
+        assertTrue(all.isOptimal());
+
+        KnapsackSolution tight = new DynamicProgrammingKnapsackSolver(1_000_000).solve(costs, values, 11.0);
+        assertEquals(19.0, tight.getValue(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Doit rendre une solution réalisable quand le budget de temps est épuisé")
+    void shouldReturnFeasibleSolutionWhenTimeBudgetExhausted() {
+        Random random = new Random(7);
+        int n = 3_000;
+        double[] costs = new double[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            costs[i] = 1 + random.nextInt(5000) / 100.0;
+            values[i] = costs[i] * (0.9 + random.nextDouble() * 0.2);
+        }
+
+        KnapsackSolution solution = new BranchAndBoundKnapsackSolver(0).solve(costs, values, 20_000.0);
+        KnapsackSolution greedy = new GreedyKnapsackSolver().solve(costs, values, 20_000.0);
+
+        assertTrue(solution.getCost() <= 20_000.0 + 1e-6);
+        assertTrue(solution.getValue() >= greedy.getValue() - 1e-9);
+        assertTrue(solution.getUpperBound() >= solution.getValue());
+    }
+
+    @Test
+    @DisplayName("Doit rejeter un nom de solveur inconnu")
+    void shouldRejectUnknownSolverName() {
+        assertEquals("dp", KnapsackSolver.named("DP").solve(new double[]{1}, new double[]{1}, 1).getSolver());
+        assertThrows(IllegalArgumentException.class, () -> KnapsackSolver.named("simplex"));
+    }
+
+    @Test
+    @DisplayName("Doit exposer le solveur, l'écart et le temps dans le résultat mensuel")
+    void shouldReportSolverMetadataInMonthlyResult() {
+        List<Abonnement> subscriptions = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 20; i++) {
+            subscriptions.add(new Abonnement("S" + i, today.minusMonths(1), today.plusMonths(6),
+                5 + i, "Client", today.minusDays(i * 4L), "Cat" + (i % 4)));
+        }
+
+        MonthlyOptimizationResult exact = new MonthlyOptimizer(KnapsackSolver.named("dp")).optimize(subscriptions, 60.0, 0);
+        MonthlyOptimizationResult greedy = new MonthlyOptimizer(new GreedyKnapsackSolver()).optimize(subscriptions, 60.0, 0);
+
+        assertEquals("dp", exact.solver);
+        assertEquals(0.0, exact.optimalityGap, 1e-12);
+        assertTrue(exact.solveTimeMs >= 0);
+        assertTrue(exact.monthlyCost <= 60.0 + 1e-9);
+        assertTrue(exact.monthlyScore >= greedy.monthlyScore - 1e-9);
+        assertEquals(subscriptions.size(), exact.decisions.size());
+    }
+
+    private static double bruteForce(double[] costs, double[] values, double budget) {
+        int n = costs.length;
+        double best = 0;
+        for (int mask = 0; mask < (1 << n); mask++) {
+            double cost = 0;
+            double value = 0;
+            for (int i = 0; i < n; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    cost += costs[i];
+                    value += values[i];
+                }
+            }
+            if (cost <= budget + 1e-9 && value > best) {
+                best = value;
+            }
+        }
+        return best;
+    }
+}
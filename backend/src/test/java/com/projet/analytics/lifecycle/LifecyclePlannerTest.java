@@ -1,6 +1,7 @@
 package com.projet.analytics.lifecycle;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.projet.analytics.lifecycle.MonthlyOptimizer.MonthlyOptimizationResult;
 import com.projet.backend.domain.Abonnement;
 
 @DisplayName("Tests du planificateur de cycle de vie des abonnements")
@@ -142,6 +144,33 @@ class LifecyclePlannerTest {
         }
     }
 
+    @Test
+    @DisplayName("La planification parallèle doit égaler l'optimisation mois par mois")
+    void shouldMatchSequentialMonthlyOptimizationWhenParallel() {
+        List<Abonnement> portfolio = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 500; i++) {
+            portfolio.add(new Abonnement("S" + i, today.minusMonths(2), today.plusMonths(12),
+                3 + (i % 40), "Client", i % 7 == 0 ? null : today.minusDays(i % 90), "Cat" + (i % 5)));
+        }
+        int months = 24;
+        assertTrue((long) months * portfolio.size() >= LifecyclePlanner.PARALLEL_THRESHOLD);
+
+        KnapsackSolver solver = new GreedyKnapsackSolver();
+        LifecyclePlanResult result = new LifecyclePlanner(solver).generatePlan(portfolio, months, 400.0);
+
+        assertSuccessfulResult(result);
+        List<MonthlyPlan> plans = result.getPlan().getMonthlyPlans();
+        assertEquals(months, plans.size());
+        MonthlyOptimizer optimizer = new MonthlyOptimizer(solver);
+        for (int m = 0; m < months; m++) {
+            MonthlyOptimizationResult expected = optimizer.optimize(portfolio, 400.0, m);
+            assertEquals(expected.monthlyCost, plans.get(m).getMonthlyCost(), 1e-9);
+            assertEquals(expected.monthlyScore, plans.get(m).getMonthlyScore(), 1e-9);
+            assertEquals(expected.decisions, plans.get(m).getDecisions());
+        }
+    }
+
     // =========================
     // Helpers - Assertions
     // =========================
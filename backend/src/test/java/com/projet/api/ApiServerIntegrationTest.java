@@ -1,13 +1,16 @@
 package com.projet.api;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.ServerSocket;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -176,6 +179,20 @@ class ApiServerIntegrationTest {
         );
     }
 
+    @Test
+    @DisplayName("Doit rejeter un mode de planification inconnu sur lifecycle-plan")
+    void shouldRejectUnknownLifecyclePlanMode() throws Exception {
+        Map<String, Object> payload = Map.of(
+            "months", 6,
+            "budget", 50,
+            "mode", "annealing"
+        );
+
+        HttpResponse<String> response = sendPost("/api/portfolio/lifecycle-plan", objectMapper.writeValueAsString(payload));
+
+        assertEquals(400, response.statusCode(), "Un mode inconnu doit être refusé");
+    }
+
     @Test
     @DisplayName("Doit exposer un statut normalisé pour Email et Currency")
     void shouldExposeNormalizedServiceStatusPayloads() throws Exception {
@@ -233,6 +250,66 @@ class ApiServerIntegrationTest {
         }
     }
 
+    @Test
+    @DisplayName("Doit exporter les abonnements en flux CSV, CSV gzip et JSON lines")
+    void shouldStreamExports() throws Exception {
+        Map<String, Object> payload = Map.of(
+            "nomService", "ExportService",
+            "dateDebut", "2025-01-01",
+            "dateFin", "2026-01-01",
+            "prixMensuel", 7.0,
+            "clientName", "Test",
+            "derniereUtilisation", "2025-02-01",
+            "categorie", "export"
+        );
+        HttpResponse<String> postResponse = sendPost("/api/abonnements", objectMapper.writeValueAsString(payload));
+        String uuid = (String) objectMapper.readValue(postResponse.body(),
+            new TypeReference<Map<String, Object>>() {}).get("id");
+
+        try {
+            HttpResponse<String> csv = sendGet("/api/abonnements/export/csv");
+            assertEquals(200, csv.statusCode());
+            assertTrue(csv.body().startsWith("id;nomService;dateDebut;dateFin;prixMensuel;clientName;derniereUtilisation;categorie\n"));
+            assertTrue(csv.body().contains(uuid + ";ExportService;2025-01-01;2026-01-01;7.0;Test;2025-02-01;export\n"));
+
+            HttpRequest gzipRequest = HttpRequest.newBuilder()
+                .uri(buildUri("/api/abonnements/export/csv"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+            HttpResponse<byte[]> gzip = client.send(gzipRequest, HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElse(null));
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+                assertEquals(csv.body(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            HttpResponse<String> jsonl = sendGet("/api/abonnements/export/jsonl");
+            assertEquals(200, jsonl.statusCode());
+            boolean found = false;
+            for (String line : jsonl.body().split("\n")) {
+                Map<String, Object> row = objectMapper.readValue(line, new TypeReference<Map<String, Object>>() {});
+                found |= uuid.equals(row.get("id"));
+            }
+            assertTrue(found, "L'export JSON lines doit contenir l'abonnement créé");
+        } finally {
+            sendDelete("/api/abonnements/" + uuid);
+        }
+    }
+
+    @Test
+    @DisplayName("Doit exposer les métriques des routes au format Prometheus")
+    void shouldExposePrometheusMetrics() throws Exception {
+        sendGet("/api/abonnements");
+
+        HttpResponse<String> response = sendGet("/metrics");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        assertTrue(response.body().contains("http_requests_total{method=\"GET\",route=\"/api/abonnements\",status=\"2xx\"}"));
+        assertTrue(response.body().contains("http_request_duration_seconds{method=\"GET\",route=\"/api/abonnements\",quantile=\"0.99\"}"));
+    }
+
     // =========================
     // Helpers - HTTP
     // =========================
@@ -0,0 +1,80 @@
+package com.projet.backend.adapter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.Abonnement;
+
+@DisplayName("Tests du convertisseur CSV des abonnements")
+class AbonnementCsvConverterTest {
+
+    @Test
+    @DisplayName("Doit relire à l'identique le format complet écrit par toCsvString")
+    void shouldRoundTripFullFormat() {
+        Abonnement original = new Abonnement("id-1", "Netflix", LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1),
+            15.99, "Alice", LocalDate.of(2025, 6, 1), "Streaming", List.of("famille", "", "soir"), "Maison",
+            "Essentiel", "a;b", 3, true, 7, "Annuel");
+
+        Abonnement parsed = AbonnementCsvConverter.fromCsvString(AbonnementCsvConverter.toCsvString(original));
+
+        assertAll(
+            () -> assertEquals("id-1", parsed.getId()),
+            () -> assertEquals(15.99, parsed.getPrixMensuel(), 0.001),
+            () -> assertEquals(List.of("famille", "", "soir"), parsed.getTags()),
+            () -> assertEquals("a;b", parsed.getNotes()),
+            () -> assertEquals(3, parsed.getNombreUtilisateurs()),
+            () -> assertTrue(parsed.isPartage()),
+            () -> assertEquals(7, parsed.getJoursRappelAvantFin()),
+            () -> assertEquals("Annuel", parsed.getFrequencePaiement())
+        );
+    }
+
+    @Test
+    @DisplayName("Doit compter les colonnes comme split(\";\")")
+    void shouldCountColumnsLikeSplit() {
+        for (String line : List.of("", ";;;", "a", "a;b;", ";a;;b;;", "S;2025-01-01;2025-12-31;9.99;A;;")) {
+            assertEquals(line.split(";").length, AbonnementCsvConverter.columnCount(line), line);
+        }
+        assertTrue(AbonnementCsvConverter.isLegacyFormat("S;2025-01-01;2025-12-31;9.99;A;2025-06-01"));
+        assertFalse(AbonnementCsvConverter.isLegacyFormat("id;S;2025-01-01;2025-12-31;9.99;A;2025-06-01;Cat"));
+    }
+
+    @Test
+    @DisplayName("Doit traiter une catégorie vide en fin de ligne comme l'ancien format")
+    void shouldDropTrailingEmptyColumns() {
+        // 8 colonnes dont la dernière vide : lue comme 7 colonnes (sans UUID), comme avec split
+        Abonnement a = AbonnementCsvConverter.fromCsvString("S;2025-01-01;2025-12-31;9,5;A;;Cat;");
+
+        assertAll(
+            () -> assertEquals("S", a.getNomService()),
+            () -> assertEquals(9.5, a.getPrixMensuel()),
+            () -> assertNull(a.getDerniereUtilisation()),
+            () -> assertEquals("Cat", a.getCategorie())
+        );
+    }
+
+    @Test
+    @DisplayName("Doit réutiliser les dates en cache et rejeter les dates invalides")
+    void shouldCacheDatesAndRejectInvalidOnes() {
+        Abonnement a = AbonnementCsvConverter.fromCsvString("a;S;2025-03-01;2025-03-01;1.0;A;2025-03-01;C");
+        Abonnement b = AbonnementCsvConverter.fromCsvString("b;T;2025-03-01;2026-03-01;1.0;A;2025-03-01;C");
+
+        assertSame(a.getDateDebut(), b.getDateDebut());
+        assertSame(a.getDateDebut(), a.getDateFin());
+        assertThrows(DateTimeParseException.class,
+            () -> AbonnementCsvConverter.fromCsvString("c;S;2025-02-30;2026-03-01;1.0;A;;C"));
+        assertThrows(IllegalArgumentException.class,
+            () -> AbonnementCsvConverter.fromCsvString("a;b;c"));
+    }
+}
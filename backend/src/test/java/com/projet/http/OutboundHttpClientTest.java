@@ -0,0 +1,167 @@
+package com.projet.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+@DisplayName("Client HTTP sortant partagé")
+public class OutboundHttpClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    /** Codes renvoyés dans l'ordre ; le dernier est répété. */
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private volatile int lastStatus = 200;
+    private volatile CountDownLatch release;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            CountDownLatch latch = release;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Integer next = statuses.poll();
+            int status = next != null ? next : lastStatus;
+            lastStatus = status;
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (release != null) {
+            release.countDown();
+        }
+        server.stop(0);
+    }
+
+    private OutboundHttpClient client(int maxPerHost, int maxRetries, int breakerFailures) {
+        HttpClient delegate = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        return new OutboundHttpClient(delegate,
+            new OutboundHttpClient.Policy(maxPerHost, 2_000, maxRetries, 1, breakerFailures, 60_000));
+    }
+
+    private HttpRequest get() {
+        return HttpRequest.newBuilder(uri()).GET().build();
+    }
+
+    private HttpRequest post() {
+        return HttpRequest.newBuilder(uri()).POST(HttpRequest.BodyPublishers.ofString("{}")).build();
+    }
+
+    private URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/rates");
+    }
+
+    @Test
+    @DisplayName("Devrait réessayer un GET après un 503")
+    void shouldRetryIdempotentRequests() throws Exception {
+        statuses.add(503);
+        statuses.add(200);
+        OutboundHttpClient client = client(4, 2, 10);
+
+        HttpResponse<String> response = client.send(get(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, hits.get());
+        String scrape = client.scrape();
+        assertTrue(scrape.contains("outbound_http_retries_total{host=\"127.0.0.1\"} 1"), scrape);
+        assertTrue(scrape.contains("outbound_http_requests_total{host=\"127.0.0.1\",outcome=\"server_error\"} 1"), scrape);
+        assertTrue(scrape.contains("outbound_http_request_duration_seconds_count{host=\"127.0.0.1\"} 2"), scrape);
+    }
+
+    @Test
+    @DisplayName("Ne devrait jamais réessayer un POST")
+    void shouldNotRetryPost() throws Exception {
+        statuses.add(503);
+        statuses.add(200);
+        OutboundHttpClient client = client(4, 2, 10);
+
+        HttpResponse<String> response = client.send(post(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(503, response.statusCode());
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    @DisplayName("Devrait couper l'hôte après des échecs consécutifs")
+    void shouldOpenBreaker() throws Exception {
+        lastStatus = 500;
+        OutboundHttpClient client = client(4, 0, 2);
+
+        client.send(get(), HttpResponse.BodyHandlers.ofString());
+        client.send(get(), HttpResponse.BodyHandlers.ofString());
+
+        assertThrows(OutboundHttpClient.CircuitOpenException.class,
+            () -> client.send(get(), HttpResponse.BodyHandlers.ofString()));
+        assertEquals(2, hits.get(), "Aucun appel réseau tant que le disjoncteur est ouvert");
+        String scrape = client.scrape();
+        assertTrue(scrape.contains("outbound_http_circuit_open{host=\"127.0.0.1\"} 1"), scrape);
+        assertTrue(scrape.contains("outbound_http_rejected_total{host=\"127.0.0.1\",reason=\"circuit_open\"} 1"), scrape);
+    }
+
+    @Test
+    @DisplayName("Devrait borner les requêtes simultanées par hôte")
+    void shouldBoundConcurrencyPerHost() throws Exception {
+        release = new CountDownLatch(1);
+        OutboundHttpClient client = client(1, 0, 10);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.send(get(), HttpResponse.BodyHandlers.ofString()).statusCode();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (hits.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        HttpRequest second = HttpRequest.newBuilder(uri()).timeout(Duration.ofMillis(100)).GET().build();
+        assertThrows(HttpTimeoutException.class, () -> client.send(second, HttpResponse.BodyHandlers.ofString()));
+        assertTrue(client.scrape().contains("outbound_http_in_flight{host=\"127.0.0.1\"} 1"));
+
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, hits.get());
+        assertTrue(client.scrape().contains("outbound_http_rejected_total{host=\"127.0.0.1\",reason=\"concurrency\"} 1"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.projet.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LatencyHistogram Tests")
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Devrait calculer des percentiles à ~6 % près")
+    public void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(100_000L * 100_001L / 2, histogram.getSum());
+        for (double q : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long expected = (long) (q * 100_000);
+            long actual = histogram.percentile(q);
+            assertTrue(actual >= expected, "p" + q + " ne doit pas être sous-estimé");
+            assertTrue(actual <= expected * 1.07, "p" + q + " = " + actual + " pour " + expected);
+        }
+        assertEquals(100_000, histogram.percentile(1.0));
+    }
+
+    @Test
+    @DisplayName("Devrait compter exactement les petites valeurs et couvrir toute la plage")
+    public void testBucketBoundaries() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(-5);
+
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(3, histogram.percentile(1.0));
+        assertEquals(0, new LatencyHistogram().percentile(0.99));
+
+        long previous = -1;
+        for (long v = 0; v < (1L << 20); v = v * 2 + 1) {
+            int bucket = LatencyHistogram.bucketOf(v);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= v);
+            assertTrue(bucket > previous || v == 0);
+            previous = bucket;
+        }
+        assertEquals(LatencyHistogram.bucketOf(Long.MAX_VALUE), LatencyHistogram.bucketOf(1L << 50));
+    }
+}
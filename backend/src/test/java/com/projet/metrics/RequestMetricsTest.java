@@ -0,0 +1,31 @@
+package com.projet.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RequestMetrics Tests")
+public class RequestMetricsTest {
+
+    @Test
+    @DisplayName("Devrait remplacer les segments variables par :id")
+    public void testRouteNormalisation() {
+        assertEquals("/api/abonnements/:id",
+            RequestMetrics.routeOf("/api/abonnements/3f2b8c1e-9d4a-4c55-8a11-0b6f2d7e9a10"));
+        assertEquals("/api/users/:id/accounts/:id", RequestMetrics.routeOf("/api/users/alice@test.com/accounts/42"));
+        assertEquals("/api/analytics/optimization", RequestMetrics.routeOf("/api/analytics/optimization/"));
+        assertEquals("/", RequestMetrics.routeOf(""));
+    }
+
+    @Test
+    @DisplayName("Devrait produire un export Prometheus valide même sans requête")
+    public void testEmptyScrape() {
+        String text = new RequestMetrics().scrape();
+
+        assertTrue(text.contains("# TYPE http_requests_total counter\n"));
+        assertTrue(text.contains("# TYPE http_request_duration_seconds summary\n"));
+        assertTrue(text.lines().allMatch(line -> line.startsWith("#")));
+    }
+}
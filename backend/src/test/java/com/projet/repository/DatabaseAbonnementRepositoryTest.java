@@ -0,0 +1,106 @@
+package com.projet.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.Abonnement;
+
+public class DatabaseAbonnementRepositoryTest {
+
+    private DatabaseAbonnementRepository repo;
+
+    @BeforeEach
+    public void setUp() {
+        String url = "jdbc:h2:mem:abonnements-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        repo = new DatabaseAbonnementRepository(new JdbcConnectionPool(url, null, null, 2, 1000, 8));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repo.close();
+    }
+
+    private Abonnement abonnement(String id, String service) {
+        return new Abonnement(id, service, LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1),
+                9.99, "Client", LocalDate.of(2025, 6, 1), "Streaming");
+    }
+
+    @Test
+    public void testCrudReusesPooledConnectionsAndStatements() {
+        repo.save(abonnement("d-1", "Netflix"));
+        repo.save(abonnement("d-2", "Spotify"));
+        repo.deleteByUuid("d-1");
+
+        List<Abonnement> all = repo.findAll();
+        assertEquals(1, all.size());
+        assertTrue(repo.findByUuid("d-2").isPresent());
+        assertFalse(repo.findByUuid("d-1").isPresent());
+
+        Map<String, Object> stats = repo.getPoolStats();
+        assertEquals(1, stats.get("opened"), "Sequential calls should reuse a single connection");
+        assertEquals(0, stats.get("active"));
+        assertTrue((Long) stats.get("statementCacheHits") >= 1L);
+    }
+
+    @Test
+    public void testForEachReadsPagesWithoutHoldingAConnection() {
+        List<Abonnement> rows = new ArrayList<>();
+        for (int i = 0; i < DatabaseAbonnementRepository.PAGE_SIZE + 1; i++) {
+            rows.add(abonnement(String.format("f-%05d", i), "Service" + i));
+        }
+        repo.saveAll(rows);
+
+        List<String> seen = new ArrayList<>();
+        repo.forEach(a -> {
+            assertEquals(0, repo.getPoolStats().get("active"), "La connexion est rendue entre deux pages");
+            seen.add(a.getId());
+        });
+
+        assertEquals(rows.size(), seen.size());
+        assertEquals("f-00000", seen.get(0));
+        assertEquals(String.format("f-%05d", rows.size() - 1), seen.get(seen.size() - 1));
+    }
+
+    @Test
+    public void testSaveAllReplacesContentInOneTransaction() {
+        repo.save(abonnement("s-1", "Deezer"));
+        repo.saveAll(List.of(abonnement("s-2", "Canal+"), abonnement("s-3", "Disney+")));
+
+        assertEquals(2, repo.findAll().size());
+        assertFalse(repo.findByUuid("s-1").isPresent());
+    }
+
+    @Test
+    public void testSaveAllOnlyWritesChangedRows() {
+        Abonnement a = abonnement("i-1", "Netflix");
+        Abonnement b = abonnement("i-2", "Spotify");
+        Abonnement c = abonnement("i-3", "Deezer");
+        repo.saveAll(List.of(a, b, c));
+
+        b.setPrixMensuel(12.99);
+        repo.saveAll(List.of(a, b));
+
+        Map<String, Object> stats = repo.getWriteStats();
+        assertEquals(4L, stats.get("rowsMerged"), "3 initial inserts + 1 modified row");
+        assertEquals(1L, stats.get("rowsDeleted"));
+        assertEquals(1L, stats.get("rowsUnchanged"));
+        assertEquals(12.99, repo.findByUuid("i-2").get().getPrixMensuel(), 0.001);
+        assertFalse(repo.findByUuid("i-3").isPresent());
+    }
+
+    @Test
+    public void testHealthProbeReportsUp() {
+        Map<String, Object> health = repo.health();
+        assertEquals("UP", health.get("status"));
+        assertTrue(health.containsKey("pool"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.projet.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class JdbcConnectionPoolTest {
+
+    private static JdbcConnectionPool pool(int statementCacheSize) {
+        String url = "jdbc:h2:mem:pool-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        return new JdbcConnectionPool(url, null, null, 1, 1000, statementCacheSize);
+    }
+
+    @Test
+    public void testUncachedStatementsAreClosedOnReturn() throws SQLException {
+        try (JdbcConnectionPool pool = pool(0)) {
+            PreparedStatement ps;
+            try (JdbcConnectionPool.PooledConnection pc = pool.borrow()) {
+                ps = pc.prepare("SELECT 1");
+                assertTrue(ps.executeQuery().next());
+                assertFalse(ps.isClosed());
+            }
+            assertTrue(ps.isClosed(), "Une requête hors cache doit être fermée au retour de la connexion");
+        }
+    }
+
+    @Test
+    public void testEvictedStatementStaysOpenUntilReturn() throws SQLException {
+        try (JdbcConnectionPool pool = pool(1)) {
+            PreparedStatement first;
+            PreparedStatement cached;
+            try (JdbcConnectionPool.PooledConnection pc = pool.borrow()) {
+                first = pc.prepare("SELECT 1");
+                cached = pc.prepare("SELECT 2");
+                assertTrue(first.executeQuery().next(), "L'appelant peut encore utiliser la requête évincée");
+            }
+            assertTrue(first.isClosed());
+            assertFalse(cached.isClosed());
+            try (JdbcConnectionPool.PooledConnection pc = pool.borrow()) {
+                assertSame(cached, pc.prepare("SELECT 2"));
+            }
+        }
+    }
+}
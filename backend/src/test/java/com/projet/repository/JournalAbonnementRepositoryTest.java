@@ -0,0 +1,173 @@
+package com.projet.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.projet.backend.domain.Abonnement;
+
+public class JournalAbonnementRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Abonnement abonnement(String id, String service, double prix) {
+        return new Abonnement(id, service, LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1),
+                prix, "Client", LocalDate.of(2025, 6, 1), "Streaming");
+    }
+
+    @Test
+    public void testSingleWritesAreAppendedAndReplayed() throws IOException {
+        try (JournalAbonnementRepository repo = new JournalAbonnementRepository(tempDir.toString(), 1, 100)) {
+            repo.save(abonnement("j-1", "Netflix", 13.49));
+            repo.save(abonnement("j-2", "Spotify", 10.99));
+            repo.save(abonnement("j-1", "Netflix", 15.99));
+            repo.deleteByUuid("j-2");
+            assertEquals(4, repo.getJournalRecords());
+        }
+        assertEquals(4, Files.readAllLines(tempDir.resolve("journal.log")).size());
+
+        try (JournalAbonnementRepository reopened = new JournalAbonnementRepository(tempDir.toString())) {
+            List<Abonnement> all = reopened.findAll();
+            assertEquals(1, all.size());
+            assertEquals(15.99, all.get(0).getPrixMensuel(), 0.001);
+            assertFalse(reopened.findByUuid("j-2").isPresent());
+        }
+    }
+
+    @Test
+    public void testTornRecordIsIgnoredOnRecovery() throws IOException {
+        try (JournalAbonnementRepository repo = new JournalAbonnementRepository(tempDir.toString(), 1, 100)) {
+            repo.save(abonnement("t-1", "Deezer", 9.99));
+        }
+        // Simule un crash au milieu d'un append
+        Files.write(tempDir.resolve("journal.log"), "U\tdeadbeef\tt-2;Canal".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (JournalAbonnementRepository recovered = new JournalAbonnementRepository(tempDir.toString())) {
+            assertEquals(1, recovered.findAll().size());
+            recovered.save(abonnement("t-3", "Disney+", 8.99));
+        }
+        try (JournalAbonnementRepository reopened = new JournalAbonnementRepository(tempDir.toString())) {
+            assertEquals(2, reopened.findAll().size());
+            assertTrue(reopened.findByUuid("t-3").isPresent());
+        }
+    }
+
+    @Test
+    public void testCompactionFoldsJournalIntoSnapshot() throws IOException {
+        try (JournalAbonnementRepository repo = new JournalAbonnementRepository(tempDir.toString(), 4, 3)) {
+            repo.save(abonnement("c-1", "Netflix", 13.49));
+            repo.save(abonnement("c-2", "Spotify", 10.99));
+            repo.save(abonnement("c-3", "Deezer", 9.99));
+            assertEquals(0, repo.getJournalRecords());
+        }
+        assertEquals(0L, Files.size(tempDir.resolve("journal.log")));
+        assertEquals(3, Files.readAllLines(tempDir.resolve("snapshot.txt")).size());
+
+        try (JournalAbonnementRepository reopened = new JournalAbonnementRepository(tempDir.toString())) {
+            assertEquals(3, reopened.findAll().size());
+        }
+    }
+
+    @Test
+    public void testSaveAllAppendsDiffAndSurvivesInterruptedCompaction() throws IOException {
+        Path journal = tempDir.resolve("journal.log");
+        byte[] pending;
+        try (JournalAbonnementRepository repo = new JournalAbonnementRepository(tempDir.toString(), 1, 100)) {
+            repo.save(abonnement("s-1", "Netflix", 13.49));
+            repo.save(abonnement("s-2", "Spotify", 10.99));
+            repo.save(abonnement("s-3", "Deezer", 9.99));
+            repo.compact();
+
+            // s-1 inchangé (autre instance), s-2 supprimé, s-3 modifié, s-4 ajouté
+            repo.saveAll(List.of(abonnement("s-1", "Netflix", 13.49),
+                    abonnement("s-3", "Deezer", 11.99), abonnement("s-4", "Canal+", 8.99)));
+            assertEquals(3, repo.getJournalRecords());
+
+            // Crash après le renommage du snapshot, avant la troncature du journal
+            pending = Files.readAllBytes(journal);
+            repo.compact();
+        }
+        Files.write(journal, pending);
+
+        try (JournalAbonnementRepository reopened = new JournalAbonnementRepository(tempDir.toString())) {
+            assertEquals(3, reopened.findAll().size());
+            assertFalse(reopened.findByUuid("s-2").isPresent());
+            assertEquals(11.99, reopened.findByUuid("s-3").get().getPrixMensuel(), 0.001);
+            assertTrue(reopened.findByUuid("s-4").isPresent());
+        }
+    }
+
+    @Test
+    public void testSeparatorsInFieldsSurviveReplayAndCompaction() throws IOException {
+        Abonnement tricky = new Abonnement("s-1", "Canal+;Sport\nHD", LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1),
+                19.99, "Dupont; Jean", null, "TV\tCâble", Arrays.asList("a;b", "c|d"), null, "Luxe",
+                "ligne 1\nligne 2 ｜ ;", 2, true, 5, "Annuel");
+        try (JournalAbonnementRepository repo = new JournalAbonnementRepository(tempDir.toString(), 1, 100)) {
+            repo.save(tricky);
+            repo.save(abonnement("s-2", "Spotify", 10.99));
+        }
+        try (JournalAbonnementRepository reopened = new JournalAbonnementRepository(tempDir.toString(), 1, 100)) {
+            assertEquals(2, reopened.findAll().size());
+            assertEquals(0, reopened.getQuarantinedRecords());
+            assertSameFields(tricky, reopened.findByUuid("s-1").orElseThrow());
+            reopened.compact();
+        }
+        try (JournalAbonnementRepository reopened = new JournalAbonnementRepository(tempDir.toString())) {
+            assertSameFields(tricky, reopened.findByUuid("s-1").orElseThrow());
+        }
+    }
+
+    @Test
+    public void testCorruptRecordIsQuarantinedAndLaterWritesKept() throws IOException {
+        try (JournalAbonnementRepository repo = new JournalAbonnementRepository(tempDir.toString(), 1, 100)) {
+            repo.save(abonnement("q-1", "Netflix", 13.49));
+            repo.save(abonnement("q-2", "Spotify", 10.99));
+            repo.save(abonnement("q-3", "Deezer", 9.99));
+        }
+        // Altère un octet du payload du deuxième enregistrement : somme de contrôle invalide
+        Path journalPath = tempDir.resolve("journal.log");
+        byte[] bytes = Files.readAllBytes(journalPath);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        int offset = text.indexOf("Spotify");
+        bytes[offset] = 'X';
+        Files.write(journalPath, bytes);
+
+        try (JournalAbonnementRepository recovered = new JournalAbonnementRepository(tempDir.toString())) {
+            assertEquals(1, recovered.getQuarantinedRecords());
+            assertTrue(recovered.findByUuid("q-1").isPresent());
+            assertFalse(recovered.findByUuid("q-2").isPresent());
+            assertTrue(recovered.findByUuid("q-3").isPresent(), "Les écritures suivantes ne doivent pas être perdues");
+        }
+        assertTrue(new String(Files.readAllBytes(tempDir.resolve("journal.log.corrupt")), StandardCharsets.UTF_8)
+                .contains("Xpotify"));
+        try (JournalAbonnementRepository reopened = new JournalAbonnementRepository(tempDir.toString())) {
+            assertEquals(0, reopened.getQuarantinedRecords(), "Le journal a été compacté sans l'enregistrement invalide");
+            assertEquals(2, reopened.findAll().size());
+        }
+    }
+
+    private static void assertSameFields(Abonnement expected, Abonnement actual) {
+        assertEquals(expected.getNomService(), actual.getNomService());
+        assertEquals(expected.getClientName(), actual.getClientName());
+        assertEquals(expected.getCategorie(), actual.getCategorie());
+        assertEquals(expected.getTags(), actual.getTags());
+        assertEquals(expected.getNotes(), actual.getNotes());
+        assertEquals(expected.getDerniereUtilisation(), actual.getDerniereUtilisation());
+        assertEquals(expected.getPrixMensuel(), actual.getPrixMensuel(), 0.0);
+        assertEquals(expected.isPartage(), actual.isPartage());
+        assertEquals(expected.getFrequencePaiement(), actual.getFrequencePaiement());
+    }
+}
@@ -0,0 +1,127 @@
+package com.projet.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.projet.analytics.PortfolioSnapshot;
+import com.projet.backend.domain.Abonnement;
+
+public class UserAbonnementCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Abonnement abonnement(String id, String service) {
+        return new Abonnement(id, service, LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1),
+                9.99, "Client", LocalDate.of(2025, 6, 1), "Streaming");
+    }
+
+    @Test
+    public void testReadsAreServedFromCacheAfterFirstLoad() {
+        UserAbonnementCache cache = new UserAbonnementCache(10_000, 30, tempDir.toString());
+        AbonnementRepository repo = cache.repositoryFor("alice@test.com");
+
+        repo.save(abonnement("a-1", "Netflix"));
+        assertEquals(1, repo.findAll().size());
+        assertTrue(repo.findByUuid("a-1").isPresent());
+
+        assertEquals(1L, cache.stats().get("misses"));
+        assertEquals(2L, cache.stats().get("hits"));
+    }
+
+    @Test
+    public void testWritesAreBatchedAndFlushed() throws IOException {
+        UserAbonnementCache cache = new UserAbonnementCache(10_000, 30, tempDir.toString());
+        AbonnementRepository repo = cache.repositoryFor("bob@test.com");
+        Path file = tempDir.resolve("abonnements_bob@test.com.txt");
+
+        repo.save(abonnement("b-1", "Spotify"));
+        repo.save(abonnement("b-2", "Deezer"));
+        repo.deleteByUuid("b-1");
+        assertFalse(Files.exists(file), "Writes should be deferred until flush");
+
+        cache.flushAll();
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("b-2;Deezer"));
+        assertEquals(1L, cache.stats().get("flushes"));
+    }
+
+    @Test
+    public void testExternalFileChangeInvalidatesEntry() throws IOException {
+        UserAbonnementCache cache = new UserAbonnementCache(0, 30, tempDir.toString());
+        AbonnementRepository repo = cache.repositoryFor("carol@test.com");
+        Path file = tempDir.resolve("abonnements_carol@test.com.txt");
+
+        repo.save(abonnement("c-1", "Canal+"));
+        cache.flushAll();
+        assertEquals(1, repo.findAll().size());
+
+        Files.write(file, List.of(
+                "c-1;Canal+;2025-01-01;2026-01-01;9.99;Client;2025-06-01;Streaming",
+                "c-2;Disney+;2025-01-01;2026-01-01;8.99;Client;2025-06-01;Streaming"
+        ));
+        file.toFile().setLastModified(System.currentTimeMillis() + 5_000);
+
+        assertEquals(2, repo.findAll().size());
+        assertEquals(1L, cache.stats().get("invalidations"));
+    }
+
+    @Test
+    public void testFailedFlushIsRetriedAndNeverEvicted() throws IOException {
+        UserAbonnementCache cache = new UserAbonnementCache(10_000, 30, tempDir.toString());
+        AbonnementRepository repo = cache.repositoryFor("dave@test.com");
+        Path file = tempDir.resolve("abonnements_dave@test.com.txt");
+        Files.createDirectory(file);
+
+        repo.save(abonnement("d-1", "Netflix"));
+        cache.flushAll();
+        assertEquals(1L, cache.stats().get("flushFailures"));
+        assertEquals(1L, cache.stats().get("pendingFlushes"));
+
+        cache.evictIdleEntries(System.currentTimeMillis() + 3_600_000L);
+        assertEquals(0L, cache.stats().get("evictions"), "Une entrée sale ne doit pas être évincée");
+        assertEquals(1, repo.findAll().size());
+
+        Files.delete(file);
+        cache.flushAll();
+        assertEquals(1, Files.readAllLines(file).size());
+        assertEquals(0L, cache.stats().get("pendingFlushes"));
+    }
+
+    @Test
+    public void testRetryDelayBacksOffUpToTheCap() {
+        assertEquals(1_000L, UserAbonnementCache.retryDelayMs(200, 1));
+        assertEquals(2_000L, UserAbonnementCache.retryDelayMs(200, 2));
+        assertEquals(8_000L, UserAbonnementCache.retryDelayMs(200, 4));
+        assertEquals(UserAbonnementCache.MAX_RETRY_DELAY_MS, UserAbonnementCache.retryDelayMs(200, 40));
+    }
+
+    @Test
+    public void testVersionIsNeverReusedAfterEviction() {
+        UserAbonnementCache cache = new UserAbonnementCache(10_000, 30, tempDir.toString());
+        AbonnementRepository repo = cache.repositoryFor("eve@test.com");
+
+        repo.save(abonnement("e-1", "Netflix"));
+        long before = repo.version();
+        assertEquals(1, PortfolioSnapshot.forUser("eve@test.com", repo).size());
+
+        cache.flushAll();
+        cache.evictIdleEntries(System.currentTimeMillis() + 3_600_000L);
+        assertEquals(1L, cache.stats().get("evictions"));
+
+        // Rechargement + une écriture : autant d'incréments qu'avant l'éviction
+        repo.save(abonnement("e-2", "Spotify"));
+        assertTrue(repo.version() > before);
+        assertEquals(2, PortfolioSnapshot.forUser("eve@test.com", repo).size());
+    }
+}
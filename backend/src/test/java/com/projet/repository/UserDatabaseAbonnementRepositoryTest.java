@@ -0,0 +1,202 @@
+package com.projet.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.projet.backend.domain.Abonnement;
+
+public class UserDatabaseAbonnementRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        pool = new JdbcConnectionPool("jdbc:h2:mem:users-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", null, null, 2, 1000, 8);
+        UserDatabaseAbonnementRepository.ensureSchema(pool);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    private Abonnement abonnement(String id, String service, String categorie, LocalDate fin) {
+        return new Abonnement(id, service, LocalDate.of(2025, 1, 1), fin,
+                9.99, "Client", LocalDate.of(2025, 6, 1), categorie);
+    }
+
+    @Test
+    public void testSaveAllPublishesWriteCounters() {
+        UserDatabaseAbonnementRepository repo = new UserDatabaseAbonnementRepository(pool, "alice@test.com");
+        Abonnement a = abonnement("w-1", "Netflix", "Streaming", LocalDate.of(2026, 1, 1));
+        Abonnement b = abonnement("w-2", "Spotify", "Musique", LocalDate.of(2026, 1, 1));
+        repo.saveAll(List.of(a, b));
+        Map<String, Object> before = UserDatabaseAbonnementRepository.getWriteStats();
+
+        b.setPrixMensuel(12.99);
+        repo.saveAll(List.of(b));
+
+        Map<String, Object> after = UserDatabaseAbonnementRepository.getWriteStats();
+        assertEquals(1L, delta(before, after, "saveAllCalls"));
+        assertEquals(1L, delta(before, after, "rowsMerged"));
+        assertEquals(1L, delta(before, after, "rowsDeleted"));
+        assertEquals(0L, delta(before, after, "rowsUnchanged"));
+        assertTrue(UserDatabaseAbonnementRepository.scrapeWriteStats()
+            .contains("abonnement_saveall_rows_total{store=\"h2_users\",result=\"merged\"}"));
+    }
+
+    private static long delta(Map<String, Object> before, Map<String, Object> after, String key) {
+        return (Long) after.get(key) - (Long) before.get(key);
+    }
+
+    @Test
+    public void testForEachReadsPagesWithoutHoldingAConnection() {
+        UserDatabaseAbonnementRepository alice = new UserDatabaseAbonnementRepository(pool, "alice@test.com");
+        List<Abonnement> rows = new ArrayList<>();
+        for (int i = 0; i < UserDatabaseAbonnementRepository.PAGE_SIZE * 2 + 3; i++) {
+            rows.add(abonnement(String.format("p-%05d", i), "Service" + i, "Streaming", LocalDate.of(2026, 1, 1)));
+        }
+        alice.saveBatch(rows);
+        new UserDatabaseAbonnementRepository(pool, "bob@test.com")
+            .save(abonnement("p-00000", "Autre", "Musique", LocalDate.of(2026, 1, 1)));
+
+        List<String> seen = new ArrayList<>();
+        long borrowsBefore = (Long) pool.stats().get("borrows");
+        alice.forEach(a -> {
+            assertEquals(0, pool.stats().get("active"), "Aucune connexion empruntée pendant le traitement");
+            seen.add(a.getId());
+        });
+
+        assertEquals(rows.size(), seen.size());
+        assertEquals("p-00000", seen.get(0));
+        assertEquals(String.format("p-%05d", rows.size() - 1), seen.get(seen.size() - 1));
+        assertEquals(3L, (Long) pool.stats().get("borrows") - borrowsBefore, "Une connexion par page");
+    }
+
+    @Test
+    public void testVersionIsSharedPerOwnerAndRenewedOnWrite() {
+        UserDatabaseAbonnementRepository first = new UserDatabaseAbonnementRepository(pool, "alice@test.com");
+        UserDatabaseAbonnementRepository second = new UserDatabaseAbonnementRepository(pool, "alice@test.com");
+        UserDatabaseAbonnementRepository bob = new UserDatabaseAbonnementRepository(pool, "bob@test.com");
+
+        long initial = first.version();
+        assertTrue(initial > 0);
+        assertEquals(initial, second.version(), "Une instance par requête : la version doit être partagée");
+        long bobVersion = bob.version();
+
+        first.save(abonnement("v-1", "Netflix", "Streaming", LocalDate.of(2026, 1, 1)));
+        assertTrue(second.version() > initial);
+        second.deleteByUuid("v-1");
+        assertTrue(first.version() > initial);
+        assertEquals(bobVersion, bob.version());
+    }
+
+    @Test
+    public void testQueriesAreScopedToOwner() {
+        UserDatabaseAbonnementRepository alice = new UserDatabaseAbonnementRepository(pool, "alice@test.com");
+        UserDatabaseAbonnementRepository bob = new UserDatabaseAbonnementRepository(pool, "bob@test.com");
+
+        Abonnement shared = abonnement("same-id", "Netflix", "Streaming", LocalDate.of(2026, 1, 1));
+        shared.setTags(List.of("famille", "soir"));
+        alice.save(shared);
+        alice.save(abonnement("a-2", "Notion", "Travail", LocalDate.of(2025, 3, 1)));
+        bob.save(abonnement("same-id", "Spotify", "Musique", LocalDate.of(2026, 1, 1)));
+
+        assertEquals(2, alice.findAll().size());
+        assertEquals(1, bob.findAll().size());
+        assertEquals("Netflix", alice.findByUuid("same-id").get().getNomService());
+        assertEquals(List.of("famille", "soir"), alice.findByUuid("same-id").get().getTags());
+        assertEquals(1, alice.findByCategorie("Travail").size());
+        assertEquals(1, alice.findExpiringBefore(LocalDate.of(2025, 12, 31)).size());
+
+        alice.deleteByUuid("same-id");
+        assertEquals(1, alice.findAll().size());
+        assertTrue(bob.findByUuid("same-id").isPresent());
+    }
+
+    @Test
+    public void testSaveBatchUpsertsWithoutTouchingOtherRows() {
+        UserDatabaseAbonnementRepository repo = new UserDatabaseAbonnementRepository(pool, "dave@test.com");
+        repo.save(abonnement("d-1", "Netflix", "Streaming", LocalDate.of(2026, 1, 1)));
+        repo.save(abonnement("d-2", "Notion", "Travail", LocalDate.of(2026, 1, 1)));
+
+        repo.saveBatch(List.of(
+                abonnement("d-2", "Notion Plus", "Travail", LocalDate.of(2026, 1, 1)),
+                abonnement("d-3", "Spotify", "Musique", LocalDate.of(2026, 1, 1))));
+
+        assertEquals(3, repo.findAll().size());
+        assertEquals("Netflix", repo.findByUuid("d-1").get().getNomService());
+        assertEquals("Notion Plus", repo.findByUuid("d-2").get().getNomService());
+    }
+
+    @Test
+    public void testMigratorImportsUserFilesIdempotently() throws IOException, SQLException {
+        Files.write(tempDir.resolve("abonnements_carol@test.com.txt"), List.of(
+                "c-1;Canal+;2025-01-01;2026-01-01;9.99;Carol;2025-06-01;Streaming",
+                "ligne invalide",
+                "c-2;Disney+;2025-01-01;2026-01-01;8.99;Carol;2025-06-01;Streaming"
+        ));
+        Files.write(tempDir.resolve("abonnements_dave@test.com.txt"), List.of(
+                "d-1;Spotify;2025-01-01;2026-01-01;10.99;Dave;2025-06-01;Musique"
+        ));
+
+        UserAbonnementMigrator migrator = new UserAbonnementMigrator(pool);
+        UserAbonnementMigrator.Report report = migrator.migrate(tempDir.toString());
+        migrator.migrate(tempDir.toString());
+
+        assertEquals(2, report.getUsers());
+        assertEquals(3, report.getRows());
+        assertEquals(1, report.getSkippedLines());
+        assertEquals(2, new UserDatabaseAbonnementRepository(pool, "carol@test.com").findAll().size());
+        assertEquals(1, new UserDatabaseAbonnementRepository(pool, "dave@test.com").findAll().size());
+    }
+
+    @Test
+    public void testMigratorMapsRealOwnerAndKeepsLegacyIdsStable() throws IOException, SQLException {
+        Path file = tempDir.resolve("abonnements_eve_news@test.com.txt");
+        Files.write(file, List.of(
+                "Netflix;2025-01-01;2026-01-01;13.49;Eve;2025-06-01;Streaming",
+                "Spotify;2025-01-01;2026-01-01;10.99;Eve;2025-06-01"
+        ));
+        Path backup = tempDir.resolve("backup.txt.bak");
+        Files.copy(file, backup);
+        UserAbonnementMigrator migrator = new UserAbonnementMigrator(pool);
+
+        UserAbonnementMigrator.Report report = migrator.migrate(tempDir.toString(), List.of("eve+news@test.com"));
+
+        assertEquals(2, report.getRows());
+        assertFalse(Files.exists(file), "Le fichier importé est renommé");
+        assertTrue(Files.exists(tempDir.resolve("abonnements_eve_news@test.com.txt.migrated")));
+        UserDatabaseAbonnementRepository repo = new UserDatabaseAbonnementRepository(pool, "eve+news@test.com");
+        List<Abonnement> imported = repo.findAll();
+        assertEquals(2, imported.size());
+
+        // Suppression en base puis nouveau démarrage : le fichier migré n'est pas réimporté
+        repo.deleteByUuid(imported.get(0).getId());
+        assertEquals(0, migrator.migrate(tempDir.toString(), List.of("eve+news@test.com")).getRows());
+        assertEquals(1, repo.findAll().size());
+
+        // Réimport explicite du même fichier : mêmes identifiants, pas de doublons
+        Files.copy(backup, file, StandardCopyOption.REPLACE_EXISTING);
+        migrator.migrate(tempDir.toString(), List.of("eve+news@test.com"));
+        assertEquals(2, repo.findAll().size());
+    }
+}
@@ -0,0 +1,178 @@
+package com.projet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.AbonnementRepository;
+
+@DisplayName("AbonnementImportService Tests")
+public class AbonnementImportServiceTest {
+
+    private static final String HEADER = "id;nomService;dateDebut;dateFin;prixMensuel;clientName;derniereUtilisation;categorie\n";
+
+    private final AbonnementImportService service = new AbonnementImportService(3, 2, 2);
+
+    @Test
+    @DisplayName("Devrait importer un CSV par lots dans l'ordre et rejeter les lignes invalides")
+    public void testCsvImportInBatches() {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 10; i++) {
+            csv.append("id-").append(i).append(";Service").append(i)
+               .append(";2025-01-01;2026-01-01;9.99;Client;2025-02-01;video\n");
+        }
+        csv.append("\n");
+        csv.append("bad;Service;2025-01-01\n");
+        csv.append(";SansId;2025-01-01;2026-01-01;not-a-number;Client;2025-02-01;video\n");
+        csv.append(";SansId;2025-01-01;2026-01-01;4.5;Client;2025-02-01;video\n");
+
+        MemoryRepository repo = new MemoryRepository();
+        AbonnementImportService.Job job = service.importCsv("user@test.com", repo, stream(csv.toString()));
+
+        assertEquals(AbonnementImportService.Status.COMPLETED, job.getStatus());
+        assertEquals(13, job.getRowsRead());
+        assertEquals(11, job.getImported());
+        assertEquals(2, job.getRejected());
+        assertTrue(job.getErrors().get(0).startsWith("Erreur ligne 12 "));
+        assertEquals(11, repo.rows.size());
+        assertEquals("id-0", repo.rows.keySet().iterator().next());
+        assertTrue(repo.batches.stream().allMatch(size -> size <= 3), "Les lots ne doivent pas dépasser batchSize");
+        assertTrue(service.find("user@test.com", job.getJobId()).isPresent());
+        assertFalse(service.find("other@test.com", job.getJobId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Devrait importer un tableau JSON en remplaçant les UUID existants")
+    public void testJsonImportUpserts() {
+        MemoryRepository repo = new MemoryRepository();
+        repo.save(abonnement("a", "Ancien"));
+        String json = "[{\"id\":\"a\",\"nomService\":\"Nouveau\",\"dateDebut\":\"2025-01-01\",\"dateFin\":\"2026-01-01\","
+                + "\"prixMensuel\":5.0,\"clientName\":\"C\",\"derniereUtilisation\":\"2025-01-15\",\"categorie\":\"x\"},"
+                + "{\"nomService\":\"\",\"dateDebut\":\"2025-01-01\",\"dateFin\":\"2026-01-01\",\"clientName\":\"C\"},"
+                + "{\"nomService\":\"Autre\",\"dateDebut\":\"2025-01-01\",\"dateFin\":\"2026-01-01\",\"prixMensuel\":3.0,\"clientName\":\"C\"}]";
+
+        AbonnementImportService.Job job = service.importJson("user@test.com", repo, stream(json));
+
+        assertEquals(AbonnementImportService.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getImported());
+        assertEquals(List.of("index=1 nomService manquant"), job.getErrors());
+        assertEquals(2, repo.rows.size());
+        assertEquals("Nouveau", repo.rows.get("a").getNomService());
+    }
+
+    @Test
+    @DisplayName("Devrait échouer si le JSON n'est pas un tableau")
+    public void testJsonImportRejectsNonArray() {
+        AbonnementImportService.Job job = service.importJson("user@test.com", new MemoryRepository(), stream("{}"));
+
+        assertEquals(AbonnementImportService.Status.FAILED, job.getStatus());
+        assertEquals(0, job.getImported());
+        assertFalse(job.isPartial());
+    }
+
+    @Test
+    @DisplayName("Devrait signaler les lots déjà écrits quand l'écriture échoue en cours de flux")
+    public void testPartialImportReportsCommittedRows() {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 10; i++) {
+            csv.append("id-").append(i).append(";Service").append(i)
+               .append(";2025-01-01;2026-01-01;9.99;Client;2025-02-01;video\n");
+        }
+        MemoryRepository repo = new MemoryRepository() {
+            @Override
+            public void saveBatch(List<Abonnement> abonnements) {
+                if (!findAll().isEmpty()) {
+                    throw new IllegalStateException("disque plein");
+                }
+                super.saveBatch(abonnements);
+            }
+        };
+
+        AbonnementImportService.Job job = service.importCsv("user@test.com", repo, stream(csv.toString()));
+
+        assertEquals(AbonnementImportService.Status.FAILED, job.getStatus());
+        assertTrue(job.isPartial());
+        assertEquals("disque plein", job.getFailure());
+        assertEquals(3, job.getImported());
+        assertEquals(3, job.getLastCommittedRow());
+        assertEquals(3, repo.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Devrait exécuter un import en arrière-plan et supprimer le fichier temporaire")
+    public void testBackgroundImport(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("import.csv");
+        Files.writeString(file, HEADER + "x;S;2025-01-01;2026-01-01;1.0;C;2025-01-02;c\n");
+        MemoryRepository repo = new MemoryRepository();
+
+        AbonnementImportService.Job job = service.submit("user@test.com", repo, AbonnementImportService.Format.CSV, file);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getStatus() == AbonnementImportService.Status.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(AbonnementImportService.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getImported());
+        assertFalse(Files.exists(file));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Abonnement abonnement(String id, String nom) {
+        Abonnement a = new Abonnement(nom, java.time.LocalDate.of(2025, 1, 1), java.time.LocalDate.of(2026, 1, 1),
+                1.0, "C", java.time.LocalDate.of(2025, 1, 2), "c");
+        a.setId(id);
+        return a;
+    }
+
+    /** Repository en mémoire qui enregistre la taille de chaque lot écrit. */
+    private static class MemoryRepository implements AbonnementRepository {
+        private final Map<String, Abonnement> rows = new LinkedHashMap<>();
+        private final List<Integer> batches = new ArrayList<>();
+
+        @Override
+        public List<Abonnement> findAll() { return new ArrayList<>(rows.values()); }
+
+        @Override
+        public void saveAll(List<Abonnement> abonnements) {
+            rows.clear();
+            abonnements.forEach(this::save);
+        }
+
+        @Override
+        public void saveBatch(List<Abonnement> abonnements) {
+            batches.add(abonnements.size());
+            abonnements.forEach(this::save);
+        }
+
+        @Override
+        public Optional<Abonnement> findByUuid(String uuid) { return Optional.ofNullable(rows.get(uuid)); }
+
+        @Override
+        public void save(Abonnement abonnement) { rows.put(abonnement.getId(), abonnement); }
+
+        @Override
+        public void delete(Abonnement abonnement) { rows.remove(abonnement.getId()); }
+
+        @Override
+        public void deleteByUuid(String uuid) { rows.remove(uuid); }
+    }
+}
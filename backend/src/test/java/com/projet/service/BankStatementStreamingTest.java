@@ -0,0 +1,117 @@
+package com.projet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.DetectedSubscription;
+import com.projet.backend.domain.Transaction;
+
+@DisplayName("Import bancaire en flux (CSV/PDF)")
+public class BankStatementStreamingTest {
+
+    private final OpenBankingSubscriptionDetectionService service = new OpenBankingSubscriptionDetectionService(null, null);
+
+    @Test
+    @DisplayName("Devrait parser un CSV en flux comme le parseur texte, en-tête et BOM compris")
+    public void testStreamMatchesStringParsing() {
+        StringBuilder csv = new StringBuilder("﻿\n  Date;Libellé;Montant\n");
+        for (int i = 0; i < 24; i++) {
+            csv.append(LocalDate.of(2024, 1, 5).plusMonths(i)).append(";NETFLIX.COM;13,49\n");
+            csv.append("\n");
+            csv.append("ligne invalide\n");
+        }
+        csv.append("05/03/2025;\"SPOTIFY; AB\";10.99\n");
+
+        List<Transaction> parsed = service.parseCSV(csv.toString());
+        List<Transaction> streamed;
+        try (Stream<Transaction> transactions = service.streamTransactions(new StringReader(csv.toString()))) {
+            streamed = transactions.collect(Collectors.toList());
+        }
+
+        assertEquals(25, parsed.size());
+        assertEquals(describe(parsed), describe(streamed));
+        assertEquals("SPOTIFY; AB", streamed.get(24).getRawLabel());
+        assertEquals(13.49, streamed.get(0).getAmount(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Devrait traiter la première ligne comme une donnée en l'absence d'en-tête")
+    public void testHeaderlessCsv() {
+        String csv = "2025-01-10,Deezer Premium,11.99\n2025-02-10,Deezer Premium,11.99\n2025-03-10,Deezer Premium,11.99";
+
+        List<DetectedSubscription> detected;
+        try (Stream<Transaction> transactions = service.streamTransactions(new StringReader(csv))) {
+            detected = service.detectRecurringSubscriptions(transactions);
+        }
+
+        assertEquals(1, detected.size());
+        assertEquals("Deezer", detected.get(0).getService());
+        assertEquals(3, detected.get(0).getOccurrences());
+        assertTrue(service.parseCSV("   \n").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Devrait extraire un relevé PDF page par page, y compris une opération coupée entre deux pages")
+    public void testPdfStreamedAcrossPages() throws Exception {
+        byte[] pdf = statement(List.of(
+            List.of("05/01/2025 NETFLIX 13,49 1000,00", "05/02/2025 NETFLIX 13,49 986,51", "05/03/2025 SPOTIFY"),
+            List.of("10,99 975,52", "05/03/2025 SPOTIFY 10,99 975,52")));
+
+        List<String> lines;
+        try (Stream<String> csv = PDFToCsvConverter.streamCsvLines(new ByteArrayInputStream(pdf))) {
+            lines = csv.collect(Collectors.toList());
+        }
+
+        assertEquals("Date;Label;Amount", lines.get(0));
+        assertEquals(4, lines.size(), lines.toString());
+        assertTrue(lines.get(3).startsWith("2025-03-05;SPOTIFY;10"), lines.toString());
+        assertEquals(String.join("\n", lines) + "\n", PDFToCsvConverter.convertPdfToCsv(new ByteArrayInputStream(pdf)));
+    }
+
+    private static byte[] statement(List<List<String>> pages) throws Exception {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (List<String> pageLines : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 11);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 700);
+                    for (String line : pageLines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static List<String> describe(List<Transaction> transactions) {
+        List<String> out = new ArrayList<>();
+        for (Transaction tx : transactions) {
+            out.add(tx.getDate() + "|" + tx.getRawLabel() + "|" + tx.getAmount());
+        }
+        return out;
+    }
+}
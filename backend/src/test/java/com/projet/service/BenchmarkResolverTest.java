@@ -0,0 +1,133 @@
+package com.projet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.service.ExternalBenchmarkService.BenchmarkData;
+
+@DisplayName("BenchmarkResolver Tests")
+public class BenchmarkResolverTest {
+
+    private static final long TTL = 60_000;
+    private static final long NEGATIVE_TTL = 1_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private BenchmarkData known(String serviceName) {
+        lookups.incrementAndGet();
+        return serviceName.startsWith("Inconnu") ? null : new BenchmarkData(serviceName, 9.99, 4.99, 19.99, "EUR", "Europe");
+    }
+
+    @Test
+    @DisplayName("Devrait servir un prix en cache jusqu'à expiration")
+    public void testPositiveCache() {
+        BenchmarkResolver resolver = new BenchmarkResolver(this::known, TTL, NEGATIVE_TTL, 100, clock::get, Runnable::run);
+
+        assertEquals(9.99, resolver.resolveAsync("Deezer").join().get().averagePrice, 1e-9);
+        assertTrue(resolver.resolveAsync(" deezer ").join().isPresent());
+        assertEquals(1, lookups.get());
+
+        clock.addAndGet(TTL);
+        resolver.resolveAsync("Deezer").join();
+        assertEquals(2, lookups.get());
+        assertEquals(1L, resolver.stats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("Devrait mettre en cache les services inconnus et les erreurs, moins longtemps")
+    public void testNegativeCache() {
+        BenchmarkResolver resolver = new BenchmarkResolver(name -> {
+            if (name.equals("Panne")) {
+                lookups.incrementAndGet();
+                throw new IllegalStateException("API indisponible");
+            }
+            return known(name);
+        }, TTL, NEGATIVE_TTL, 100, clock::get, Runnable::run);
+
+        assertFalse(resolver.resolveAsync("Inconnu").join().isPresent());
+        assertFalse(resolver.resolveAsync("Panne").join().isPresent());
+        assertFalse(resolver.resolveAsync("Inconnu").join().isPresent());
+        assertFalse(resolver.resolveAsync("Panne").join().isPresent());
+        assertEquals(2, lookups.get());
+        assertEquals(2L, resolver.stats().get("negativeHits"));
+        assertEquals(1L, resolver.stats().get("failures"));
+
+        clock.addAndGet(NEGATIVE_TTL);
+        resolver.resolveAsync("Inconnu").join();
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    @DisplayName("Devrait regrouper les demandes concurrentes et borner les appels simultanés")
+    public void testCoalescingAndBoundedConcurrency() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            BenchmarkResolver resolver = new BenchmarkResolver(name -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return known(name);
+            }, TTL, NEGATIVE_TTL, 100, clock::get, pool);
+
+            List<CompletableFuture<Optional<BenchmarkData>>> futures = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                futures.add(resolver.resolveAsync("Service " + (i % 6)));
+            }
+            release.countDown();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+            assertEquals(6, lookups.get());
+            assertEquals(24L, resolver.stats().get("coalesced"));
+            assertTrue(maxRunning.get() <= 2, "Au plus 2 appels distants simultanés");
+            futures.forEach(f -> assertTrue(f.join().isPresent()));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait borner le cache et purger les réponses expirées")
+    public void testCacheIsBounded() {
+        BenchmarkResolver resolver = new BenchmarkResolver(this::known, TTL, NEGATIVE_TTL, 3, clock::get, Runnable::run);
+
+        for (int i = 0; i < 10; i++) {
+            resolver.resolveAsync("Inconnu " + i).join();
+        }
+        assertEquals(3, resolver.size());
+
+        resolver.resolveAsync("Deezer").join();
+        resolver.resolveAsync("Spotify").join();
+        clock.addAndGet(NEGATIVE_TTL);
+        resolver.resolveAsync("Netflix").join();
+        assertEquals(3, resolver.size());
+        assertTrue(resolver.resolveAsync("Deezer").join().isPresent());
+        assertEquals(13, lookups.get(), "Les réponses positives encore valides restent en cache");
+
+        clock.addAndGet(TTL);
+        resolver.resolveAsync("Inconnu X").join();
+        assertEquals(1, resolver.size(), "Les réponses expirées sont purgées");
+    }
+}
@@ -10,6 +10,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import com.projet.backend.domain.Abonnement;
 import com.projet.backend.domain.BenchmarkResult;
 
 /**
@@ -21,6 +25,7 @@ import com.projet.backend.domain.BenchmarkResult;
  * 3. Benchmark d'un service sous-taxé (UNDERPRICED)
  * 4. Gestion des erreurs et validations
  * 5. Calcul du ratio de prix
+ * 6. Benchmark d'un portefeuille complet
  */
 @DisplayName("BenchmarkService Tests")
 public class BenchmarkServiceTest {
@@ -261,4 +266,32 @@ public class BenchmarkServiceTest {
         assertTrue("OVERPRICED".equals(result.getStatus()) || Math.abs(result.getPriceDeviation()) < 30,
                   "Prix très élevé doit être géré");
     }
+
+    @Test
+    @DisplayName("Devrait benchmarker un portefeuille avec une seule recherche par service")
+    public void testBenchmarkPortfolio() {
+        // Arrange
+        int[] lookups = {0};
+        BenchmarkService service = new BenchmarkServiceImpl(name -> {
+            lookups[0]++;
+            return new ExternalBenchmarkService.BenchmarkData(name, 10.0, 5.0, 20.0, "EUR", "Europe");
+        });
+        LocalDate debut = LocalDate.of(2026, 1, 1);
+        Abonnement a = new Abonnement("Netflix", debut, debut.plusYears(1), 10.0, "Alice");
+        a.setId("a");
+        Abonnement b = new Abonnement("Netflix", debut, debut.plusYears(1), 20.0, "Bob");
+        b.setId("b");
+        Abonnement c = new Abonnement("Spotify", debut, debut.plusYears(1), 5.0, "Alice");
+        c.setId("c");
+
+        // Act
+        List<BenchmarkResult> results = service.benchmarkPortfolio(List.of(a, b, c));
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(2, lookups[0], "Une seule recherche par service distinct");
+        assertEquals("b", results.get(1).getAbonnementId());
+        assertEquals(20.0, results.get(1).getUserPrice());
+        assertEquals("Spotify", results.get(2).getServiceName());
+    }
 }
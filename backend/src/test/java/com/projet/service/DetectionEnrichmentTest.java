@@ -0,0 +1,128 @@
+package com.projet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.projet.backend.domain.DetectedSubscription;
+
+@DisplayName("Enrichissement parallèle des détections")
+public class DetectionEnrichmentTest {
+
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final AtomicInteger marketLookups = new AtomicInteger();
+    /** Bloque le service « Lent » jusqu'à libération (ou interruption). */
+    private final CountDownLatch slowService = new CountDownLatch(1);
+    private final CountDownLatch slowInterrupted = new CountDownLatch(1);
+
+    private ExchangeRateService usdRates() {
+        FxRateCache cache = new FxRateCache(base -> Map.of("EUR", 0.9, "GBP", 0.75),
+            60_000, 60_000, System::currentTimeMillis, Runnable::run);
+        return new ExchangeRateServiceImpl(cache) {
+            @Override
+            public double convertAmount(double amount, String fromCurrency, String toCurrency) {
+                conversions.incrementAndGet();
+                return super.convertAmount(amount, fromCurrency, toCurrency);
+            }
+        };
+    }
+
+    private BenchmarkService market() {
+        return new BenchmarkServiceImpl(name -> {
+            marketLookups.incrementAndGet();
+            if (name.startsWith("Lent")) {
+                try {
+                    slowService.await();
+                } catch (InterruptedException e) {
+                    slowInterrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new ExternalBenchmarkService.BenchmarkData(name, 10.0, 5.0, 20.0, "EUR", "Europe");
+        });
+    }
+
+    private static List<DetectedSubscription> detections(String... services) {
+        List<DetectedSubscription> detected = new ArrayList<>();
+        for (String service : services) {
+            detected.add(new DetectedSubscription(service, "Streaming", 10.0, "Mensuel"));
+        }
+        return detected;
+    }
+
+    @Test
+    @DisplayName("Devrait convertir par paire de devises et grouper les services identiques")
+    void shouldDeduplicateLookups() {
+        OpenBankingSubscriptionDetectionService service =
+            new OpenBankingSubscriptionDetectionService(usdRates(), market(), 5_000);
+        Map<String, Object> timings = new HashMap<>();
+
+        List<Map<String, Object>> payload = service.buildDetectionApiPayload(
+            detections("Netflix", "Spotify", "Netflix", "Deezer", "Netflix"), "usd", "GBP", timings);
+
+        assertEquals(5, payload.size());
+        assertEquals(2, conversions.get(), "Un appel par paire de devises");
+        assertEquals(9.0, payload.get(2).get("amountEUR"));
+        assertEquals(7.5, payload.get(2).get("amountTargetCurrency"));
+        assertEquals("Netflix", payload.get(4).get("service"));
+        assertEquals(10.0, payload.get(4).get("marketAveragePrice"));
+        assertEquals(3, ((Map<?, ?>) timings.get("benchmark")).get("calls"), "Une tâche par service distinct");
+        assertEquals(2, ((Map<?, ?>) timings.get("exchangeRate")).get("calls"));
+        assertTrue(timings.containsKey("totalMs"));
+    }
+
+    @Test
+    @DisplayName("Devrait dégrader seulement les détections dont le benchmark dépasse le délai")
+    void shouldDegradeSlowItems() throws InterruptedException {
+        OpenBankingSubscriptionDetectionService service =
+            new OpenBankingSubscriptionDetectionService(usdRates(), market(), 200);
+        Map<String, Object> timings = new HashMap<>();
+
+        List<Map<String, Object>> payload = service.buildDetectionApiPayload(
+            detections("Netflix", "Lent", "Spotify"), "EUR", "EUR", timings);
+
+        assertEquals("UNKNOWN", payload.get(1).get("marketStatus"));
+        assertEquals(Map.of("exchangeRateApi", false, "benchmarkApi", false), payload.get(1).get("externalApis"));
+        assertEquals(10.0, payload.get(0).get("marketAveragePrice"));
+        assertEquals(10.0, payload.get(2).get("marketAveragePrice"));
+        assertEquals(0, conversions.get(), "Aucune conversion EUR -> EUR");
+        assertEquals(1, ((Map<?, ?>) timings.get("benchmark")).get("timeouts"));
+        assertTrue(slowInterrupted.await(5, TimeUnit.SECONDS), "L'appel hors délai est interrompu");
+    }
+
+    @Test
+    @DisplayName("Ne devrait pas priver les requêtes suivantes de threads")
+    void shouldNotStarveLaterRequests() {
+        OpenBankingSubscriptionDetectionService service =
+            new OpenBankingSubscriptionDetectionService(usdRates(), market(), 200);
+        try {
+            for (int request = 0; request < 3; request++) {
+                // 10 services bloqués par requête, plus que DETECTION_ENRICH_PARALLELISM
+                String[] services = new String[10];
+                Arrays.setAll(services, i -> "Lent " + i);
+                service.buildDetectionApiPayload(detections(services), "EUR", "EUR", new HashMap<>());
+            }
+
+            Map<String, Object> timings = new HashMap<>();
+            List<Map<String, Object>> payload = service.buildDetectionApiPayload(
+                detections("Netflix", "Spotify"), "EUR", "EUR", timings);
+
+            assertEquals(10.0, payload.get(0).get("marketAveragePrice"));
+            assertEquals(10.0, payload.get(1).get("marketAveragePrice"));
+            assertEquals(0, ((Map<?, ?>) timings.get("benchmark")).get("timeouts"));
+        } finally {
+            slowService.countDown();
+        }
+    }
+}
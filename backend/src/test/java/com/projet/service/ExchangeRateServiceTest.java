@@ -1,7 +1,12 @@
 package com.projet.service;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
+import com.projet.backend.domain.Abonnement;
+import com.projet.backend.domain.PortfolioConversion;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -19,6 +24,7 @@ import org.junit.jupiter.api.Test;
  * 2. Conversion de montants simples
  * 3. Fallback en cas d'API indisponible
  * 4. Gestion des conversions entre devises identiques
+ * 5. Conversion d'un portefeuille complet avec un seul instantané de taux
  */
 @DisplayName("ExchangeRateService Tests")
 public class ExchangeRateServiceTest {
@@ -176,4 +182,36 @@ public class ExchangeRateServiceTest {
         assertEquals(result1, result2, "Conversion doit être insensible à la casse");
         assertEquals(result2, result3, "Conversion doit être insensible à la casse");
     }
+
+    @Test
+    @DisplayName("Devrait convertir un portefeuille avec un seul instantané de taux")
+    public void testConvertPortfolio() {
+        // Arrange
+        int[] fetches = {0};
+        FxRateCache cache = new FxRateCache(base -> {
+            fetches[0]++;
+            return Map.of("USD", 1.10, "GBP", 0.80);
+        }, 60_000, 60_000, System::currentTimeMillis, Runnable::run);
+        ExchangeRateService service = new ExchangeRateServiceImpl(cache);
+        LocalDate debut = LocalDate.of(2026, 1, 1);
+        Abonnement netflix = new Abonnement("Netflix", debut, debut.plusYears(1), 10.0, "Alice");
+        netflix.setCategorie("Streaming");
+        Abonnement spotify = new Abonnement("Spotify", debut, debut.plusYears(1), 20.0, "Alice");
+        spotify.setCategorie("Streaming");
+        Abonnement salle = new Abonnement("Salle", debut, debut.plusYears(1), 30.0, "Alice");
+
+        // Act
+        PortfolioConversion portfolio = service.convertPortfolio(List.of(netflix, spotify, salle), "usd, GBP,XXX");
+
+        // Assert
+        assertEquals(1, fetches[0], "Un seul chargement de taux pour tout le portefeuille");
+        assertEquals(List.of("USD", "GBP"), List.copyOf(portfolio.getExchangeRates().keySet()));
+        assertEquals(3, portfolio.getConversions().size());
+        assertEquals(22.0, portfolio.getConversions().get(1).getConvertedPrices().get("USD"), 1e-9);
+        assertEquals(60.0, portfolio.getTotals().get("EUR"), 1e-9);
+        assertEquals(66.0, portfolio.getTotals().get("USD"), 1e-9);
+        assertEquals(48.0, portfolio.getTotals().get("GBP"), 1e-9);
+        assertEquals(24.0, portfolio.getTotalsByCategory().get("Streaming").get("GBP"), 1e-9);
+        assertEquals(30.0, portfolio.getTotalsByCategory().get("Non classé").get("EUR"), 1e-9);
+    }
 }
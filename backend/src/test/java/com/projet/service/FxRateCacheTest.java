@@ -0,0 +1,154 @@
+package com.projet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("FxRateCache Tests")
+public class FxRateCacheTest {
+
+    private static final long TTL = 1_000;
+    private static final long MAX_STALE = 10_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private FxRateCache.RateFetcher eurTable() {
+        return base -> {
+            fetches.incrementAndGet();
+            if (!"EUR".equals(base)) {
+                throw new IllegalStateException("base inattendue " + base);
+            }
+            return Map.of("USD", 1.10, "GBP", 0.88, "JPY", 160.0);
+        };
+    }
+
+    @Test
+    @DisplayName("Devrait servir une table fraîche sans nouvel appel distant")
+    public void testFreshHit() {
+        FxRateCache cache = new FxRateCache(eurTable(), TTL, MAX_STALE, clock::get, Runnable::run);
+
+        assertEquals(1.10, cache.rate("eur", "usd"), 1e-12);
+        clock.addAndGet(TTL);
+        assertEquals(0.88, cache.rate("EUR", "GBP"), 1e-12);
+        assertEquals(1.0, cache.rate("EUR", "EUR"), 1e-12);
+
+        assertEquals(1, fetches.get());
+        assertEquals(1L, cache.stats().get("misses"));
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("Devrait dériver les taux croisés d'une table fraîche")
+    public void testCrossRateDerivation() {
+        FxRateCache cache = new FxRateCache(eurTable(), TTL, MAX_STALE, clock::get, Runnable::run);
+        cache.rates("EUR");
+
+        FxRateCache.RateTable usd = cache.rates("USD");
+
+        assertEquals("EUR", usd.getDerivedFrom());
+        assertEquals(0.88 / 1.10, usd.rate("GBP"), 1e-12);
+        assertEquals(1 / 1.10, usd.rate("EUR"), 1e-12);
+        assertEquals(1.0, usd.rate("USD"), 1e-12);
+        assertEquals(1, fetches.get());
+        assertEquals(1L, cache.stats().get("derived"));
+
+        // La table dérivée suit l'invalidation de sa source
+        cache.invalidate("EUR");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Devrait servir une table périmée pendant son rafraîchissement")
+    public void testStaleWhileRevalidate() {
+        FxRateCache cache = new FxRateCache(eurTable(), TTL, MAX_STALE, clock::get, Runnable::run);
+        FxRateCache.RateTable first = cache.rates("EUR");
+
+        clock.addAndGet(TTL + 1);
+        FxRateCache.RateTable stale = cache.rates("EUR");
+        assertSame(first, stale);
+        assertEquals(1L, cache.stats().get("staleHits"));
+
+        // Le rafraîchissement (exécuté ici de façon synchrone) a remplacé la table
+        FxRateCache.RateTable fresh = cache.rates("EUR");
+        assertTrue(fresh.getFetchedAt() > first.getFetchedAt());
+        assertEquals(1L, cache.stats().get("hits"));
+
+        // Trop ancienne : l'appelant attend le rechargement
+        clock.addAndGet(MAX_STALE + 1);
+        assertNotNull(cache.rates("EUR"));
+        assertEquals(2L, cache.stats().get("misses"));
+    }
+
+    @Test
+    @DisplayName("Devrait ne faire qu'un appel distant pour des appelants concurrents")
+    public void testSingleFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FxRateCache.RateFetcher slow = base -> {
+            fetches.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of("USD", 1.10);
+        };
+        ExecutorService refreshPool = Executors.newCachedThreadPool();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            FxRateCache cache = new FxRateCache(slow, TTL, MAX_STALE, clock::get, refreshPool);
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> cache.rate("EUR", "USD")));
+            }
+            while (fetches.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<Double> result : results) {
+                assertEquals(1.10, result.get(5, TimeUnit.SECONDS), 1e-12);
+            }
+            assertEquals(1, fetches.get());
+            assertEquals(1L, cache.stats().get("refreshes"));
+        } finally {
+            callers.shutdownNow();
+            refreshPool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait conserver la table en cache si le rafraîchissement échoue")
+    public void testRefreshFailureKeepsStaleTable() {
+        AtomicInteger calls = new AtomicInteger();
+        FxRateCache.RateFetcher flaky = base -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new java.io.IOException("API indisponible");
+            }
+            return Map.of("USD", 1.10);
+        };
+        FxRateCache cache = new FxRateCache(flaky, TTL, MAX_STALE, clock::get, Runnable::run);
+        cache.rates("EUR");
+
+        clock.addAndGet(TTL + 1);
+        assertEquals(1.10, cache.rate("EUR", "USD"), 1e-12);
+        assertEquals(1L, cache.stats().get("refreshFailures"));
+
+        clock.addAndGet(MAX_STALE);
+        assertNull(cache.rates("EUR"));
+        assertTrue(cache.scrape().contains("fx_rate_cache_refreshes_total{result=\"failure\"} 2"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.projet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("MerchantMatcher Tests")
+public class MerchantMatcherTest {
+
+    private static final Map<String, String> PATTERNS = Map.of(
+        "google", "Google",
+        "google one", "Google One",
+        "amazon", "Amazon Prime",
+        "prime", "Amazon Prime",
+        "apple", "Apple",
+        "app store", "Apple App Store",
+        "free", "Free Mobile",
+        "canal", "Canal+");
+
+    @Test
+    @DisplayName("Devrait retenir le plus long motif présent, quelle que soit sa position")
+    public void testLongestMatchWins() {
+        MerchantMatcher matcher = MerchantMatcher.of(PATTERNS, 16);
+
+        assertEquals("Google One", matcher.match("PRLV GOOGLE ONE 100GO"));
+        assertEquals("Google", matcher.match("CB GOOGLE *YouTube"));
+        assertEquals("Apple App Store", matcher.match("APPLE.COM/BILL APP STORE"));
+        assertEquals("Canal+", matcher.match("canal+ abonnement"));
+        assertNull(matcher.match("VIR SEPA LOYER"));
+        assertNull(matcher.match("  "));
+        assertNull(matcher.match(null));
+    }
+
+    @Test
+    @DisplayName("Devrait donner le même résultat qu'une recherche naïve motif par motif, cache compris")
+    public void testMatchesNaiveScan() {
+        MerchantMatcher matcher = MerchantMatcher.of(PATTERNS, 8);
+        List<String> words = List.of("GOOGLE", "one", "Amazon", "PRIME", "app", "store", "Apple", "free",
+            "CANAL", "é", "goo", "gle", "pri", "me", "*", " ");
+        Random random = new Random(20);
+
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder label = new StringBuilder();
+            for (int w = 0, n = 1 + random.nextInt(6); w < n; w++) {
+                label.append(words.get(random.nextInt(words.size()))).append(random.nextBoolean() ? " " : "");
+            }
+            String text = label.toString();
+            assertEquals(naive(text), matcher.match(text), text);
+            assertEquals(naive(text), matcher.match(text), text);
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait compléter les motifs et catégories depuis un fichier marchands")
+    public void testMerchantFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("marchands.csv");
+        Files.writeString(file, String.join("\n",
+            "# motif;Service;Catégorie",
+            "Qobuz;Qobuz;Musique",
+            "freenow;FreeNow",
+            "ligne invalide",
+            ""), StandardCharsets.UTF_8);
+
+        MerchantMatcher matcher = MerchantMatcher.withMerchantFile(PATTERNS, file.toString(), 16);
+
+        assertEquals("Qobuz", matcher.match("CB QOBUZ.COM"));
+        assertEquals("Musique", matcher.category("Qobuz"));
+        assertEquals("FreeNow", matcher.match("FREENOW PARIS"));
+        assertEquals("Free Mobile", matcher.match("FREE MOBILE"));
+        assertNull(matcher.category("FreeNow"));
+        assertEquals("Google", MerchantMatcher.withMerchantFile(PATTERNS, dir.resolve("absent").toString(), 0)
+            .match("google"));
+    }
+
+    /** Plus long motif contenu dans le libellé ; à longueur égale, celui qui commence le plus tôt. */
+    private static String naive(String label) {
+        String lower = label.toLowerCase(Locale.ROOT);
+        String best = null;
+        int bestLength = 0;
+        int bestEnd = Integer.MAX_VALUE;
+        for (Map.Entry<String, String> entry : new LinkedHashMap<>(PATTERNS).entrySet()) {
+            int index = lower.indexOf(entry.getKey());
+            if (index < 0) continue;
+            int length = entry.getKey().length();
+            int end = index + length;
+            if (length > bestLength || (length == bestLength && end < bestEnd)) {
+                best = entry.getValue();
+                bestLength = length;
+                bestEnd = end;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,24 @@
+#!/bin/bash
+
+# Lance les benchmarks JMH et exporte les résultats en JSON (suivi des régressions)
+# Usage: ./benchmarks/run-benchmarks.sh [regex JMH] [options JMH...]
+#   ./benchmarks/run-benchmarks.sh                      # tous les benchmarks
+#   ./benchmarks/run-benchmarks.sh CsvParser -prof gc   # un seul groupe
+
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+FILTER="${1:-.*}"
+shift || true
+
+echo "🔨 Build du backend et des benchmarks..."
+(cd "$ROOT/backend" && mvn -B -q install -Pprod)
+(cd "$ROOT/benchmarks" && mvn -B -q package)
+
+mkdir -p "$ROOT/benchmarks/results"
+OUTPUT="$ROOT/benchmarks/results/jmh-$(date +%Y%m%d-%H%M%S).json"
+
+echo "⏱️  Exécution des benchmarks ($FILTER)..."
+java -jar "$ROOT/benchmarks/target/benchmarks.jar" "$FILTER" -rf json -rff "$OUTPUT" "$@"
+
+echo "✅ Résultats : $OUTPUT"
@@ -0,0 +1,151 @@
+package com.projet.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.projet.analytics.PortfolioColumns;
+import com.projet.analytics.PortfolioRebalancer;
+import com.projet.analytics.SubscriptionAnalytics;
+import com.projet.analytics.anomaly.AnomalyDetectorImpl;
+import com.projet.analytics.anomaly.AnomalyReport;
+import com.projet.analytics.forecast.ForecastResult;
+import com.projet.analytics.forecast.ForecastServiceImpl;
+import com.projet.analytics.forecast.RenewalCalendar;
+import com.projet.backend.domain.Abonnement;
+import com.projet.backend.domain.DetectedSubscription;
+import com.projet.backend.domain.Transaction;
+import com.projet.service.OpenBankingSubscriptionDetectionService;
+
+/**
+ * Chemins chauds d'analyse dont le coût est linéaire ou quasi linéaire en la
+ * taille du portefeuille : scores par ligne (objets vs colonnes), clustering,
+ * rééquilibrage, anomalies, prévision de trésorerie (liste vs index d'échéances) et
+ * détection bancaire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class AnalyticsBenchmark {
+
+    private static final String[] LABELS = {
+        "PRLV SEPA NETFLIX.COM", "CB SPOTIFY P0123", "DISNEY PLUS", "AMAZON PRIME FR",
+        "CARTE BOULANGERIE", "CB CARREFOUR", "PRLV EDF", "ADOBE SYSTEMS", "UBER TRIP", "DEEZER"
+    };
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int rows;
+
+    private List<Abonnement> portfolio;
+    private PortfolioColumns columns;
+    private double[] frequence;
+    private double[] valeur;
+    private double[] risque;
+    private double[] coutParUsage;
+    private List<Transaction> transactions;
+    private OpenBankingSubscriptionDetectionService detectionService;
+    private AnomalyDetectorImpl anomalyDetector;
+    private ForecastServiceImpl forecastService;
+    private RenewalCalendar calendar;
+
+    @Setup
+    public void setUp() {
+        portfolio = BenchmarkData.portfolio(rows);
+        columns = PortfolioColumns.of(portfolio);
+        frequence = new double[rows];
+        valeur = new double[rows];
+        risque = new double[rows];
+        coutParUsage = new double[rows];
+        detectionService = new OpenBankingSubscriptionDetectionService();
+        anomalyDetector = new AnomalyDetectorImpl();
+        forecastService = new ForecastServiceImpl();
+        calendar = RenewalCalendar.of(portfolio);
+
+        Random random = new Random(7L + rows);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String label = LABELS[random.nextInt(LABELS.length)];
+            // Un « compte » toutes les 10 transactions pour garder des groupes de taille réaliste
+            transactions.add(new Transaction(label + " " + (i / 10), 9.99 + random.nextInt(3),
+                start.plusMonths(i % 12).plusDays(random.nextInt(3))));
+        }
+    }
+
+    /** Référence : scores calculés abonnement par abonnement. */
+    @Benchmark
+    public double scoreRows() {
+        double total = 0;
+        for (Abonnement a : portfolio) {
+            total += SubscriptionAnalytics.calculateValueScore(a)
+                + SubscriptionAnalytics.calculateChurnRisk(a)
+                + SubscriptionAnalytics.calculateCostPerUse(a);
+        }
+        return total;
+    }
+
+    /** Mêmes scores sur les colonnes, dans des tableaux préalloués. */
+    @Benchmark
+    public double[] scoreColumns() {
+        SubscriptionAnalytics.scoreColumns(columns, PortfolioColumns.today(), frequence, valeur, risque, coutParUsage);
+        return risque;
+    }
+
+    @Benchmark
+    public PortfolioColumns buildColumns() {
+        return PortfolioColumns.of(portfolio);
+    }
+
+    @Benchmark
+    public Map<String, List<Abonnement>> clusterSubscriptions() {
+        return SubscriptionAnalytics.clusterSubscriptions(portfolio);
+    }
+
+    @Benchmark
+    public PortfolioRebalancer.RebalanceResult rebalance() {
+        return PortfolioRebalancer.rebalance(portfolio, 100.0, 0.4, 0.3, 0.3);
+    }
+
+    @Benchmark
+    public PortfolioRebalancer.RebalanceResult rebalanceColumns() {
+        return PortfolioRebalancer.rebalance(columns, 100.0, 0.4, 0.3, 0.3);
+    }
+
+    @Benchmark
+    public AnomalyReport detectAnomalies() {
+        return anomalyDetector.detectAnomalies(portfolio);
+    }
+
+    @Benchmark
+    public ForecastResult projectCosts() {
+        return forecastService.projectCosts(portfolio, 60);
+    }
+
+    @Benchmark
+    public ForecastResult projectCostsFromCalendar() {
+        return forecastService.projectCosts(calendar, 60);
+    }
+
+    @Benchmark
+    public List<DetectedSubscription> detectRecurringSubscriptions() {
+        return detectionService.detectRecurringSubscriptions(transactions);
+    }
+}
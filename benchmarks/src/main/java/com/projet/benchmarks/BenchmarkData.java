@@ -0,0 +1,64 @@
+package com.projet.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.projet.backend.adapter.AbonnementCsvConverter;
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Jeux de données déterministes (graine fixe) partagés par les benchmarks.
+ */
+final class BenchmarkData {
+
+    private static final String[] SERVICES = {
+        "Netflix", "Spotify", "Disney+", "Canal+", "Deezer", "Notion", "Adobe", "Microsoft 365",
+        "Amazon Prime", "YouTube Premium", "Dropbox", "iCloud", "Salle de sport", "Le Monde", "Uber One"
+    };
+    private static final String[] CATEGORIES = {
+        "Streaming", "Musique", "Travail", "Stockage", "Sport", "Presse", "Transport"
+    };
+    private static final LocalDate ORIGIN = LocalDate.of(2024, 1, 1);
+
+    private BenchmarkData() { }
+
+    /** Portefeuille de {@code size} abonnements, toutes colonnes renseignées. */
+    static List<Abonnement> portfolio(int size) {
+        Random random = new Random(42L + size);
+        List<Abonnement> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate debut = ORIGIN.plusDays(random.nextInt(365));
+            Abonnement a = new Abonnement(
+                "id-" + i,
+                SERVICES[random.nextInt(SERVICES.length)],
+                debut,
+                debut.plusMonths(1 + random.nextInt(24)),
+                Math.round((2 + random.nextDouble() * 60) * 100) / 100.0,
+                "Client" + (i % 50),
+                debut.plusDays(random.nextInt(120)),
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                random.nextBoolean() ? List.of("perso", "famille") : List.of(),
+                random.nextInt(4) == 0 ? "Maison" : null,
+                random.nextBoolean() ? "Essentiel" : "Important",
+                random.nextInt(5) == 0 ? "Note " + i : null,
+                1 + random.nextInt(4),
+                random.nextBoolean(),
+                7,
+                random.nextInt(6) == 0 ? "Annuel" : "Mensuel");
+            out.add(a);
+        }
+        return out;
+    }
+
+    /** Lignes CSV (format complet 16 colonnes) du portefeuille. */
+    static String[] csvLines(int size) {
+        List<Abonnement> portfolio = portfolio(size);
+        String[] lines = new String[size];
+        for (int i = 0; i < size; i++) {
+            lines[i] = AbonnementCsvConverter.toCsvString(portfolio.get(i));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,75 @@
+package com.projet.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.projet.backend.adapter.AbonnementCsvConverter;
+
+/**
+ * Débit de lecture d'un fichier d'abonnements : parseur par index actuel
+ * ({@link AbonnementCsvConverter#fromCsvString}) contre l'ancien parseur à base
+ * de {@code split} ({@link LegacyCsvParser}), plus la détection de format.
+ *
+ * <p>Lancer avec {@code -prof gc} pour comparer aussi les allocations par ligne.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        lines = BenchmarkData.csvLines(rows);
+    }
+
+    @Benchmark
+    public void indexParser(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(AbonnementCsvConverter.fromCsvString(line));
+        }
+    }
+
+    @Benchmark
+    public void legacySplitParser(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(LegacyCsvParser.fromCsvString(line));
+        }
+    }
+
+    /** Ancien chargement de FileAbonnementRepository : parse puis second split pour détecter le format. */
+    @Benchmark
+    public void legacyParseAndDetect(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(LegacyCsvParser.fromCsvString(line));
+            bh.consume(line.split(";").length == 6);
+        }
+    }
+
+    @Benchmark
+    public void indexParseAndDetect(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(AbonnementCsvConverter.fromCsvString(line));
+            bh.consume(AbonnementCsvConverter.isLegacyFormat(line));
+        }
+    }
+}
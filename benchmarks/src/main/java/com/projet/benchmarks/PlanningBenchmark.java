@@ -0,0 +1,57 @@
+package com.projet.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.projet.analytics.lifecycle.LifecyclePlanResult;
+import com.projet.analytics.lifecycle.LifecyclePlanner;
+import com.projet.backend.domain.Abonnement;
+
+/**
+ * Planification du cycle de vie ({@link LifecyclePlanner#generatePlan}).
+ *
+ * <p>Tailles plafonnées à 10 000 abonnements : avec le solveur par défaut, chaque
+ * mois peut consommer tout le budget de temps du branch-and-bound. Passer
+ * {@code -p rows=100000} pour l'évaluer explicitement. Les horizons de 36 et 60 mois
+ * mesurent la planification parallèle des mois.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class PlanningBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int rows;
+
+    @Param({"12", "36", "60"})
+    private int months;
+
+    private List<Abonnement> portfolio;
+    private LifecyclePlanner planner;
+
+    @Setup
+    public void setUp() {
+        portfolio = BenchmarkData.portfolio(rows);
+        planner = new LifecyclePlanner();
+    }
+
+    @Benchmark
+    public LifecyclePlanResult generatePlan() {
+        return planner.generatePlan(portfolio, months, rows * 5.0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.projet.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.projet.backend.domain.Abonnement;
+import com.projet.repository.AbonnementRepository;
+import com.projet.repository.DatabaseAbonnementRepository;
+import com.projet.repository.FileAbonnementRepository;
+import com.projet.repository.JdbcConnectionPool;
+import com.projet.repository.JournalAbonnementRepository;
+import com.projet.repository.UserAbonnementCache;
+import com.projet.repository.UserAbonnementRepository;
+import com.projet.repository.UserDatabaseAbonnementRepository;
+
+/**
+ * Opérations courantes des implémentations de {@link AbonnementRepository}
+ * sur un portefeuille pré-rempli de {@code rows} abonnements.
+ *
+ * <p>Tous les stockages sur disque écrivent dans un répertoire temporaire créé
+ * pour l'essai et supprimé en fin de benchmark : les données de {@code data/}
+ * sous le répertoire courant ne sont jamais touchées.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class RepositoryBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"file", "user-file", "cache", "h2", "h2-user", "journal"})
+    private String backend;
+
+    private AbonnementRepository repo;
+    private Path tempDir;
+    private String userEmail;
+    private JdbcConnectionPool pool;
+    private UserAbonnementCache cache;
+    private Abonnement updated;
+    private String probeId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("repo-bench-");
+        userEmail = "bench-" + System.nanoTime() + "@bench.local";
+        repo = switch (backend) {
+            case "file" -> new FileAbonnementRepository(tempDir.resolve("abonnements.txt").toString());
+            case "user-file" -> new UserAbonnementRepository(userEmail, tempDir.resolve("users").toString());
+            case "cache" -> (cache = new UserAbonnementCache(200L, 30L, tempDir.resolve("cache").toString()))
+                .repositoryFor(userEmail);
+            case "h2" -> new DatabaseAbonnementRepository(pool = memoryPool());
+            case "h2-user" -> {
+                pool = memoryPool();
+                UserDatabaseAbonnementRepository.ensureSchema(pool);
+                yield new UserDatabaseAbonnementRepository(pool, userEmail);
+            }
+            case "journal" -> new JournalAbonnementRepository(tempDir.resolve("journal").toString());
+            default -> throw new IllegalArgumentException("Backend inconnu: " + backend);
+        };
+
+        List<Abonnement> portfolio = BenchmarkData.portfolio(rows);
+        repo.saveAll(portfolio);
+        probeId = portfolio.get(rows / 2).getId();
+        updated = portfolio.get(rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (repo instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // fin de benchmark
+            }
+        }
+        if (pool != null) {
+            pool.close();
+        }
+        if (cache != null) {
+            cache.flushAll();
+        }
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<Abonnement> findAll() {
+        return repo.findAll();
+    }
+
+    @Benchmark
+    public void forEach(Blackhole bh) {
+        repo.forEach(bh::consume);
+    }
+
+    @Benchmark
+    public Object findByUuid() {
+        return repo.findByUuid(probeId);
+    }
+
+    /** Mise à jour d'un abonnement existant (la taille du portefeuille reste constante). */
+    @Benchmark
+    public void save() {
+        updated.setPrixMensuel(updated.getPrixMensuel() + 0.01);
+        repo.save(updated);
+    }
+
+    private static JdbcConnectionPool memoryPool() {
+        return new JdbcConnectionPool("jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", null, null);
+    }
+}
@@ -15,10 +15,16 @@ import java.util.Map;
 public class DeviseService {
 
     private static final String API_URL = "https://api.frankfurter.app/latest?from=EUR";
+    // Les taux Frankfurter sont publies une fois par jour : 5 minutes de cache suffisent
+    private static final long TTL_MS = 5 * 60 * 1000;
 
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
 
+    // Table EUR -> devises et date de chargement, remplacees ensemble
+    private volatile JsonNode tauxEnCache;
+    private volatile long chargeA;
+
     public DeviseService() {
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
@@ -28,6 +34,42 @@ public class DeviseService {
     }
 
     public double getTauxDeChange(String deviseCible) throws Exception {
+        JsonNode rates = getTaux();
+
+        if (rates == null || !rates.has(deviseCible.toUpperCase())) {
+            throw new Exception("Devise non supportee: " + deviseCible
+                    + ". Utilisez un code ISO valide (USD, GBP, JPY, CHF...)");
+        }
+
+        return rates.get(deviseCible.toUpperCase()).asDouble();
+    }
+
+    private JsonNode getTaux() throws Exception {
+        JsonNode taux = tauxEnCache;
+        if (taux != null && System.currentTimeMillis() - chargeA < TTL_MS) {
+            return taux;
+        }
+        // Un seul appel distant a la fois : les autres appelants attendent son resultat
+        synchronized (this) {
+            if (tauxEnCache != null && System.currentTimeMillis() - chargeA < TTL_MS) {
+                return tauxEnCache;
+            }
+            try {
+                JsonNode charges = chargerTaux();
+                chargeA = System.currentTimeMillis();
+                tauxEnCache = charges;
+                return charges;
+            } catch (Exception e) {
+                // API indisponible : on garde les derniers taux connus s'il y en a
+                if (tauxEnCache != null) {
+                    return tauxEnCache;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private JsonNode chargerTaux() throws Exception {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(API_URL))
                 .timeout(Duration.ofSeconds(10))
@@ -44,14 +86,7 @@ public class DeviseService {
 
         // reponse: {"base":"EUR", "rates":{"USD":1.08, "GBP":0.85, ...}}
         JsonNode json = objectMapper.readTree(response.body());
-        JsonNode rates = json.get("rates");
-
-        if (rates == null || !rates.has(deviseCible.toUpperCase())) {
-            throw new Exception("Devise non supportee: " + deviseCible
-                    + ". Utilisez un code ISO valide (USD, GBP, JPY, CHF...)");
-        }
-
-        return rates.get(deviseCible.toUpperCase()).asDouble();
+        return json.get("rates");
     }
 
     public Map<String, Object> convertir(double montantEur, String deviseCible) throws Exception {